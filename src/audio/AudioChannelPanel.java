@@ -199,11 +199,16 @@ public class AudioChannelPanel extends JPanel
      */
     public class AudioMetadataProcessor implements Listener<Metadata>
     {
+        private Metadata mPreviousMetadata;
+
         @Override
         public void receive(final Metadata metadata)
         {
-            if(metadata.isUpdated() || !mConfigured)
+            //Audio packets share a metadata snapshot until the channel metadata changes
+            if(metadata != mPreviousMetadata || !mConfigured)
             {
+                mPreviousMetadata = metadata;
+
                 EventQueue.invokeLater(new Runnable()
                 {
                     @Override
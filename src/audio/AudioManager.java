@@ -22,6 +22,10 @@ import audio.AudioEvent.Type;
 import audio.output.AudioOutput;
 import audio.output.MonoAudioOutput;
 import audio.output.StereoAudioOutput;
+import metrics.Counter;
+import metrics.MetricGroup;
+import metrics.MetricRegistry;
+import metrics.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import properties.SystemProperties;
@@ -73,6 +77,11 @@ public class AudioManager implements Listener<AudioPacket>, IAudioController
     private MixerManager mMixerManager;
     private MixerChannelConfiguration mMixerChannelConfiguration;
 
+    private MetricGroup mMetricGroup = new MetricGroup(MetricGroup.TYPE_AUDIO, "Audio Playback");
+    private Counter mSamplesIn = mMetricGroup.counter("samples in");
+    private Counter mSamplesOut = mMetricGroup.counter("samples played");
+    private Timer mProcessingTime = mMetricGroup.timer("packet processing time");
+
 
     /**
      * Processes all audio produced by the decoding channels and routes audio
@@ -83,7 +92,11 @@ public class AudioManager implements Listener<AudioPacket>, IAudioController
     {
         mMixerManager = mixerManager;
 
+        mMetricGroup.queue("audio packet queue", mAudioPacketQueue);
+
         loadSettings();
+
+        MetricRegistry.getInstance().register(mMetricGroup);
     }
 
     /**
@@ -148,6 +161,8 @@ public class AudioManager implements Listener<AudioPacket>, IAudioController
 
     public void dispose()
     {
+        MetricRegistry.getInstance().unregister(mMetricGroup);
+
         if(mProcessingTask != null)
         {
             mProcessingTask.cancel(true);
@@ -173,6 +188,11 @@ public class AudioManager implements Listener<AudioPacket>, IAudioController
     @Override
     public synchronized void receive(AudioPacket packet)
     {
+        if(packet.hasAudioBuffer())
+        {
+            mSamplesIn.add(packet.getAudioBuffer().getSamples().length);
+        }
+
         mAudioPacketQueue.add(packet);
     }
 
@@ -414,6 +434,8 @@ public class AudioManager implements Listener<AudioPacket>, IAudioController
         @Override
         public void run()
         {
+            long start = System.nanoTime();
+
             try
             {
                 disconnectInactiveChannelAssignments();
@@ -434,6 +456,11 @@ public class AudioManager implements Listener<AudioPacket>, IAudioController
                             if(connection != null)
                             {
                                 connection.receive(packet);
+
+                                if(packet.hasAudioBuffer())
+                                {
+                                    mSamplesOut.add(packet.getAudioBuffer().getSamples().length);
+                                }
                             }
                         }
                     }
@@ -443,6 +470,8 @@ public class AudioManager implements Listener<AudioPacket>, IAudioController
             {
                 mLog.error("Encountered error while processing audio packets", e);
             }
+
+            mProcessingTime.add(System.nanoTime() - start);
         }
     }
 
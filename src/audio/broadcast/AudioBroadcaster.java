@@ -20,6 +20,10 @@ package audio.broadcast;
 
 import audio.convert.ISilenceGenerator;
 import channel.metadata.Metadata;
+import metrics.Counter;
+import metrics.MetricGroup;
+import metrics.MetricRegistry;
+import metrics.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import sample.Listener;
@@ -27,7 +31,6 @@ import util.ThreadPool;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.util.Queue;
 import java.util.concurrent.LinkedTransferQueue;
 import java.util.concurrent.ScheduledFuture;
@@ -57,6 +60,10 @@ public abstract class AudioBroadcaster implements Listener<AudioRecording>
     private long mMaximumRecordingAge;
     private AtomicBoolean mStreaming = new AtomicBoolean();
 
+    private MetricGroup mMetricGroup;
+    private Counter mRecordingsIn;
+    private Timer mStreamDelay;
+
     /**
      * AudioBroadcaster for streaming audio recordings to a remote streaming audio server.  Audio recordings are
      * generated by an internal StreamManager that converts an inbound stream of AudioPackets into a recording of the
@@ -84,6 +91,15 @@ public abstract class AudioBroadcaster implements Listener<AudioRecording>
         mDelay = mBroadcastConfiguration.getDelay();
         mMaximumRecordingAge = mBroadcastConfiguration.getMaximumRecordingAge();
         mSilenceGenerator = BroadcastFactory.getSilenceGenerator(broadcastConfiguration.getBroadcastFormat());
+
+        mMetricGroup = new MetricGroup(MetricGroup.TYPE_BROADCAST, broadcastConfiguration.getName());
+        mRecordingsIn = mMetricGroup.counter("recordings in");
+        mMetricGroup.counter("recordings streamed", this::getStreamedAudioCount);
+        mMetricGroup.counter("recordings aged off", this::getAgedOffAudioCount);
+        mMetricGroup.queue("recording queue", mAudioRecordingQueue);
+        mStreamDelay = mMetricGroup.timer("call start to stream delay");
+        mMetricGroup.gauge("stream lag ms", this::getStreamLag);
+        mMetricGroup.gauge("buffered audio bytes", this::getBufferedAudioBytes);
     }
 
     /**
@@ -128,6 +144,8 @@ public abstract class AudioBroadcaster implements Listener<AudioRecording>
                 mRecordingQueueProcessorFuture = ThreadPool.SCHEDULED.scheduleAtFixedRate(mRecordingQueueProcessor,
                     0, PROCESSOR_RUN_INTERVAL_MS, TimeUnit.MILLISECONDS);
             }
+
+            MetricRegistry.getInstance().register(mMetricGroup);
         }
     }
 
@@ -138,12 +156,17 @@ public abstract class AudioBroadcaster implements Listener<AudioRecording>
     {
         if(mStreaming.compareAndSet(true, false))
         {
+            MetricRegistry.getInstance().unregister(mMetricGroup);
+
             if(mRecordingQueueProcessorFuture != null)
             {
                 mRecordingQueueProcessorFuture.cancel(true);
                 mRecordingQueueProcessorFuture = null;
             }
 
+            //A processor run that is already in progress releases any recording that it loads after this release
+            mRecordingQueueProcessor.releaseRecording();
+
             disconnect();
         }
     }
@@ -190,7 +213,51 @@ public abstract class AudioBroadcaster implements Listener<AudioRecording>
     }
 
     /**
-     * Primary insert method for the stream manager to nominate completed audio recordings for broadcast.
+     * Time in milliseconds that this broadcaster is behind live audio, beyond the configured delay.  Measured from
+     * the start of the recording that is currently streaming, or the oldest queued recording, or zero when there is
+     * no audio awaiting streaming.
+     */
+    public long getStreamLag()
+    {
+        long start = mRecordingQueueProcessor.getRecordingStartTime();
+
+        if(start == 0)
+        {
+            AudioRecording oldest = mAudioRecordingQueue.peek();
+
+            if(oldest != null)
+            {
+                start = oldest.getStartTime();
+            }
+        }
+
+        if(start > 0)
+        {
+            return Math.max(0, System.currentTimeMillis() - start - mDelay);
+        }
+
+        return 0;
+    }
+
+    /**
+     * Number of encoded audio bytes awaiting streaming, from the queued recordings and the remainder of the
+     * recording that is currently streaming.
+     */
+    public long getBufferedAudioBytes()
+    {
+        long bytes = mRecordingQueueProcessor.getRemainingBytes();
+
+        for(AudioRecording recording : mAudioRecordingQueue)
+        {
+            bytes += recording.getAudioLength();
+        }
+
+        return bytes;
+    }
+
+    /**
+     * Primary insert method for the stream manager to nominate completed audio recordings for broadcast.  The
+     * recording's pending replay is removed if the recording can't be queued.
      *
      * @param recording to queue for broadcasting
      */
@@ -198,9 +265,23 @@ public abstract class AudioBroadcaster implements Listener<AudioRecording>
     {
         if(connected())
         {
+            mRecordingsIn.increment();
             mAudioRecordingQueue.offer(recording);
             broadcast(new BroadcastEvent(this, BroadcastEvent.Event.BROADCASTER_QUEUE_CHANGE));
         }
+        else
+        {
+            recording.removePendingReplay();
+        }
+    }
+
+    /**
+     * Metrics for this broadcaster: recordings queued, streamed and aged off, recording queue depth and the delay
+     * from call start until streaming begins.  Registered with the metric registry while started.
+     */
+    public MetricGroup getMetricGroup()
+    {
+        return mMetricGroup;
     }
 
     /**
@@ -317,11 +398,18 @@ public abstract class AudioBroadcaster implements Listener<AudioRecording>
     public class RecordingQueueProcessor implements Runnable
     {
         private AtomicBoolean mProcessing = new AtomicBoolean();
-        private ByteArrayInputStream mInputStream;
+        private volatile AudioRecording mCurrentRecording;
+        private volatile ByteArrayInputStream mInputStream;
         private long mFinalSilencePadding = 0;
         private int mBytesStreamedActual = 0;
         private int mBytesStreamedRequired = 0;
 
+        /**
+         * Streams the next interval of audio.  The current recording and input stream are only changed while holding
+         * this processor's lock, which is shared with releaseRecording(), and are released here if the broadcaster
+         * was stopped while this run was pending, so that stop() can't race a recording being loaded or read.  Audio
+         * is broadcast outside of the lock.
+         */
         @Override
         public void run()
         {
@@ -329,42 +417,74 @@ public abstract class AudioBroadcaster implements Listener<AudioRecording>
             {
                 try
                 {
-                    if(mInputStream == null || mInputStream.available() <= 0)
+                    long finalSilencePadding = 0;
+
+                    synchronized(this)
                     {
-                        if(mFinalSilencePadding > 0)
+                        if(!isStreaming())
                         {
-                            broadcastAudio(mSilenceGenerator.generate(mFinalSilencePadding));
-                            mFinalSilencePadding = 0;
+                            return;
                         }
 
-                        nextRecording();
+                        if(mInputStream == null || mInputStream.available() <= 0)
+                        {
+                            finalSilencePadding = mFinalSilencePadding;
+                            mFinalSilencePadding = 0;
+                        }
                     }
 
-                    if(mInputStream != null)
+                    if(finalSilencePadding > 0)
                     {
-                        //We need to stream at 13.888 fps (144 byte frame) to achieve 2000 Bps or 16 kbps
-                        mBytesStreamedRequired += 2000;  //2000 bytes per second for 16 kbps data rate
-                        int bytesToStream = mBytesStreamedRequired - mBytesStreamedActual;
-
-                        //Trim length to whole-frame intervals (144 byte frame)
-                        bytesToStream -= (bytesToStream % 144);
-
-                        int length = Math.min(bytesToStream, mInputStream.available());
+                        broadcastAudio(mSilenceGenerator.generate(finalSilencePadding));
+                    }
 
-                        byte[] audio = new byte[length];
+                    byte[] audio = null;
+                    boolean idle;
 
-                        try
+                    synchronized(this)
+                    {
+                        if(!isStreaming())
                         {
-                            mBytesStreamedActual += mInputStream.read(audio);
+                            return;
+                        }
 
-                            broadcastAudio(audio);
+                        if(mInputStream == null || mInputStream.available() <= 0)
+                        {
+                            nextRecording();
                         }
-                        catch(IOException ioe)
+
+                        idle = mInputStream == null;
+
+                        if(!idle)
                         {
-                            mLog.error("Error reading from in-memory audio recording input stream", ioe);
+                            //We need to stream at 13.888 fps (144 byte frame) to achieve 2000 Bps or 16 kbps
+                            mBytesStreamedRequired += 2000;  //2000 bytes per second for 16 kbps data rate
+                            int bytesToStream = mBytesStreamedRequired - mBytesStreamedActual;
+
+                            //Trim length to whole-frame intervals (144 byte frame)
+                            bytesToStream -= (bytesToStream % 144);
+
+                            int length = Math.min(bytesToStream, mInputStream.available());
+
+                            audio = new byte[length];
+
+                            try
+                            {
+                                mBytesStreamedActual += mInputStream.read(audio);
+                            }
+                            catch(IOException ioe)
+                            {
+                                mLog.error("Error reading from in-memory audio recording input stream", ioe);
+                                audio = null;
+                            }
                         }
                     }
-                    else
+
+                    if(audio != null)
+                    {
+                        broadcastAudio(audio);
+                    }
+                    else if(idle)
                     {
                         broadcastAudio(mSilenceGenerator.generate(PROCESSOR_RUN_INTERVAL_MS));
                     }
@@ -373,8 +493,65 @@ public abstract class AudioBroadcaster implements Listener<AudioRecording>
                 {
                     mLog.error("Error while processing audio streaming queue", e);
                 }
+                finally
+                {
+                    mProcessing.set(false);
+                }
+            }
+        }
 
-                mProcessing.set(false);
+        /**
+         * Indicates if the broadcaster is streaming.  When the broadcaster was stopped, releases the current
+         * recording, since stop() may have released it before this run loaded a new recording.
+         *
+         * Note: invoked while holding this processor's lock
+         */
+        private boolean isStreaming()
+        {
+            if(mStreaming.get())
+            {
+                return true;
+            }
+
+            releaseRecording();
+
+            return false;
+        }
+
+        /**
+         * Start time of the recording that is currently streaming, or zero
+         */
+        public long getRecordingStartTime()
+        {
+            AudioRecording recording = mCurrentRecording;
+
+            return recording != null ? recording.getStartTime() : 0;
+        }
+
+        /**
+         * Number of bytes remaining to stream from the current recording
+         */
+        public int getRemainingBytes()
+        {
+            ByteArrayInputStream inputStream = mInputStream;
+
+            return inputStream != null ? inputStream.available() : 0;
+        }
+
+        /**
+         * Removes the pending replay for the current recording once it has been streamed, so that the shared audio
+         * segment can be released.
+         */
+        public synchronized void releaseRecording()
+        {
+            AudioRecording recording = mCurrentRecording;
+
+            mCurrentRecording = null;
+            mInputStream = null;
+
+            if(recording != null)
+            {
+                recording.removePendingReplay();
             }
         }
 
@@ -396,7 +573,7 @@ public abstract class AudioBroadcaster implements Listener<AudioRecording>
                 metadataUpdateRequired = true;
             }
 
-            mInputStream = null;
+            releaseRecording();
 
             //Peek at the next recording but don't remove it from the queue yet, so we can inspect the start time for
             //age limits and/or delay elapsed
@@ -418,43 +595,50 @@ public abstract class AudioBroadcaster implements Listener<AudioRecording>
             {
                 nextRecording = mAudioRecordingQueue.remove();
 
+                mStreamDelay.add(TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis() -
+                    nextRecording.getStartTime()));
+
                 try
                 {
-                    if(Files.exists(nextRecording.getPath()))
-                    {
-                        byte[] audio = Files.readAllBytes(nextRecording.getPath());
+                    //The audio segment bytes are shared with the other broadcasters and are not copied
+                    byte[] audio = nextRecording.getAudio();
 
-                        if(audio != null && audio.length > 0)
-                        {
-                            mInputStream = new ByteArrayInputStream(audio);
-
-                            mFinalSilencePadding = PROCESSOR_RUN_INTERVAL_MS -
-                                (nextRecording.getRecordingLength() % PROCESSOR_RUN_INTERVAL_MS);
+                    if(audio != null && audio.length > 0)
+                    {
+                        mCurrentRecording = nextRecording;
+                        mInputStream = new ByteArrayInputStream(audio);
 
-                            while(mFinalSilencePadding >= PROCESSOR_RUN_INTERVAL_MS)
-                            {
-                                mFinalSilencePadding -= PROCESSOR_RUN_INTERVAL_MS;
-                            }
+                        mFinalSilencePadding = PROCESSOR_RUN_INTERVAL_MS -
+                            (nextRecording.getRecordingLength() % PROCESSOR_RUN_INTERVAL_MS);
 
-                            if(connected())
-                            {
-                                broadcastMetadata(nextRecording.getMetadata());
-                            }
+                        while(mFinalSilencePadding >= PROCESSOR_RUN_INTERVAL_MS)
+                        {
+                            mFinalSilencePadding -= PROCESSOR_RUN_INTERVAL_MS;
+                        }
 
-                            metadataUpdateRequired = false;
+                        if(connected())
+                        {
+                            broadcastMetadata(nextRecording.getMetadata());
                         }
+
+                        metadataUpdateRequired = false;
                     }
                 }
                 catch(IOException ioe)
                 {
-                    mLog.error("Stream [" + getBroadcastConfiguration().getName() + "] error reading temporary audio " +
-                        "stream recording [" + nextRecording.getPath().toString() + "] - skipping recording - ", ioe);
+                    mLog.error("Stream [" + getBroadcastConfiguration().getName() + "] error reading spilled audio " +
+                        "segment for stream recording - skipping recording - ", ioe);
 
+                    mCurrentRecording = null;
                     mInputStream = null;
                     metadataUpdateRequired = false;
                 }
 
-                nextRecording.removePendingReplay();
+                //The current recording's pending replay is removed once it has been streamed
+                if(mCurrentRecording != nextRecording)
+                {
+                    nextRecording.removePendingReplay();
+                }
 
                 broadcast(new BroadcastEvent(AudioBroadcaster.this, BroadcastEvent.Event.BROADCASTER_QUEUE_CHANGE));
             }
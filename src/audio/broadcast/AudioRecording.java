@@ -22,41 +22,51 @@ import channel.metadata.Metadata;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.nio.file.Path;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.io.IOException;
 
 public class AudioRecording implements Comparable<AudioRecording>
 {
     private final static Logger mLog = LoggerFactory.getLogger(StreamManager.class);
 
-    private Path mPath;
+    private AudioSegment mAudioSegment;
     private long mStartTime;
     private long mRecordingLength;
-    private AtomicInteger mPendingReplayCount = new AtomicInteger();
     private Metadata mMetadata;
 
     /**
-     * Audio recording that is ready to be streamed
+     * Audio recording that is ready to be streamed.  Pending replays are tracked as references to the shared audio
+     * segment, which is released from the segment store once there are no remaining pending replays.
      *
-     * @param path to the audio recording file
+     * @param audioSegment containing the encoded audio recording
      * @param metadata associated with the recording
      * @param start time of recording in milliseconds since epoch
      * @param recordingLength in milliseconds
      */
-    public AudioRecording(Path path, Metadata metadata, long start, long recordingLength)
+    public AudioRecording(AudioSegment audioSegment, Metadata metadata, long start, long recordingLength)
     {
-        mPath = path;
+        mAudioSegment = audioSegment;
         mMetadata = metadata;
         mStartTime = start;
         mRecordingLength = recordingLength;
     }
 
     /**
-     * Path to the completed audio recording
+     * Encoded audio for the recording.  The returned array is shared by all audio broadcasters and must not be
+     * modified.
+     *
+     * @throws IOException if the audio segment was spilled to disk and can't be read
+     */
+    public byte[] getAudio() throws IOException
+    {
+        return mAudioSegment.getAudio();
+    }
+
+    /**
+     * Encoded audio length in bytes
      */
-    public Path getPath()
+    public int getAudioLength()
     {
-        return mPath;
+        return mAudioSegment.getLength();
     }
 
     /**
@@ -98,23 +108,22 @@ public class AudioRecording implements Comparable<AudioRecording>
      */
     public void addPendingReplay()
     {
-        mPendingReplayCount.incrementAndGet();
+        mAudioSegment.retain();
     }
 
     /**
-     * Decrements the count of pending replays.
+     * Decrements the count of pending replays.  Once there are no pending replays, the audio segment is released.
      */
     public void removePendingReplay()
     {
-        mPendingReplayCount.decrementAndGet();
+        mAudioSegment.release();
     }
 
     /**
-     * Indicates if there are any remaining pending replays.  Once the pending replay count is less than or equal to
-     * zero, the recording can be deleted.
+     * Indicates if there are any remaining pending replays.
      */
     public boolean hasPendingReplays()
     {
-        return mPendingReplayCount.get() > 0;
+        return mAudioSegment.isRetained();
     }
 }
@@ -0,0 +1,247 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package audio.broadcast;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Reference counted segment of encoded audio that is shared by all audio broadcasters that stream the segment.  The
+ * audio bytes are held in memory unless the segment store spills the segment to disk under memory pressure.  Once
+ * the last reference is released, the segment is removed from the store and any spill file is deleted.
+ */
+public class AudioSegment
+{
+    private final static Logger mLog = LoggerFactory.getLogger(AudioSegment.class);
+
+    private AudioSegmentStore mStore;
+    private byte[] mAudio;
+    private Path mSpillPath;
+    private boolean mSpilled;
+    private boolean mSpilling;
+    private int mLength;
+    private int mReferenceCount = 1;
+
+    /**
+     * Constructs a segment with a single reference held by the creator.  Use AudioSegmentStore.add() to create
+     * segments.
+     *
+     * @param store that accounts for this segment
+     * @param audio bytes
+     * @param spillPath to use if the segment is spilled to disk
+     */
+    AudioSegment(AudioSegmentStore store, byte[] audio, Path spillPath)
+    {
+        mStore = store;
+        mAudio = audio;
+        mSpillPath = spillPath;
+        mLength = audio.length;
+    }
+
+    /**
+     * Audio segment length in bytes
+     */
+    public int getLength()
+    {
+        return mLength;
+    }
+
+    /**
+     * Audio bytes for this segment.  The returned array is shared and must not be modified.  Spilled segments are
+     * read from disk on each invocation.
+     *
+     * @throws IOException if the segment is released or the spilled segment can't be read
+     */
+    public byte[] getAudio() throws IOException
+    {
+        Path spillPath;
+
+        synchronized(mStore)
+        {
+            if(mReferenceCount <= 0)
+            {
+                throw new IOException("Audio segment has been released");
+            }
+
+            if(mAudio != null)
+            {
+                return mAudio;
+            }
+
+            spillPath = mSpillPath;
+        }
+
+        return Files.readAllBytes(spillPath);
+    }
+
+    /**
+     * Indicates if this segment has been spilled to disk
+     */
+    public boolean isSpilled()
+    {
+        synchronized(mStore)
+        {
+            return mSpilled;
+        }
+    }
+
+    /**
+     * Adds a reference to this segment
+     */
+    public void retain()
+    {
+        synchronized(mStore)
+        {
+            mReferenceCount++;
+        }
+    }
+
+    /**
+     * Releases a reference to this segment.  The segment is removed from the store once all references are released.
+     */
+    public void release()
+    {
+        boolean deleteSpillFile = false;
+
+        synchronized(mStore)
+        {
+            mReferenceCount--;
+
+            if(mReferenceCount == 0)
+            {
+                mStore.remove(this);
+                mAudio = null;
+                deleteSpillFile = mSpilled;
+            }
+        }
+
+        if(deleteSpillFile)
+        {
+            try
+            {
+                Files.deleteIfExists(mSpillPath);
+            }
+            catch(IOException ioe)
+            {
+                mLog.error("Error deleting spilled audio segment [" + mSpillPath.toString() + "]", ioe);
+            }
+        }
+    }
+
+    /**
+     * Indicates if this segment has any remaining references
+     */
+    public boolean isRetained()
+    {
+        synchronized(mStore)
+        {
+            return mReferenceCount > 0;
+        }
+    }
+
+    /**
+     * Indicates if the segment store has selected this segment for spilling and the spill file is being written.
+     *
+     * Note: caller must hold the store lock.
+     */
+    boolean isSpilling()
+    {
+        return mSpilling;
+    }
+
+    /**
+     * Marks this segment as selected for spilling.
+     *
+     * Note: invoked by the segment store while holding the store lock.
+     */
+    void setSpilling()
+    {
+        mSpilling = true;
+    }
+
+    /**
+     * Writes the audio bytes to the spill path and releases the in-memory copy.  The file is written without holding
+     * the store lock.  If the last reference is released while the file is being written, the file is deleted.
+     *
+     * Note: invoked by the segment store, without holding the store lock, after selecting this segment for spilling.
+     */
+    void spill()
+    {
+        byte[] audio;
+
+        synchronized(mStore)
+        {
+            audio = mAudio;
+        }
+
+        boolean written = false;
+
+        if(audio != null)
+        {
+            try
+            {
+                Files.write(mSpillPath, audio);
+                written = true;
+            }
+            catch(IOException ioe)
+            {
+                mLog.error("Error spilling audio segment to disk [" + mSpillPath.toString() + "]", ioe);
+            }
+        }
+
+        boolean deleteSpillFile = false;
+
+        synchronized(mStore)
+        {
+            mSpilling = false;
+
+            if(mReferenceCount > 0)
+            {
+                if(written)
+                {
+                    mAudio = null;
+                    mSpilled = true;
+                }
+
+                mStore.spillCompleted(this, written);
+            }
+            else
+            {
+                //Released while spilling - the store removed the segment from its accounting on release
+                deleteSpillFile = written;
+            }
+        }
+
+        if(deleteSpillFile)
+        {
+            try
+            {
+                Files.deleteIfExists(mSpillPath);
+            }
+            catch(IOException ioe)
+            {
+                mLog.error("Error deleting spilled audio segment [" + mSpillPath.toString() + "]", ioe);
+            }
+        }
+    }
+}
@@ -0,0 +1,200 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package audio.broadcast;
+
+import metrics.Counter;
+import metrics.MetricGroup;
+import metrics.MetricRegistry;
+
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Memory-bounded store of reference counted audio segments that are shared across all audio broadcasters.  Each
+ * completed stream recording is encoded once into a segment and every broadcaster that streams the recording holds a
+ * reference to the same segment bytes.
+ *
+ * When the in-memory segment bytes exceed the memory limit, the oldest in-memory segments are spilled to disk until
+ * the store is back within the limit.
+ */
+public class AudioSegmentStore
+{
+    private long mMemoryLimit;
+    private long mMemoryUsage;
+    private int mSegmentCount;
+    private long mSpilledBytes;
+    private long mSpillingBytes;
+    private ArrayDeque<AudioSegment> mInMemorySegments = new ArrayDeque<>();
+
+    private MetricGroup mMetricGroup = new MetricGroup(MetricGroup.TYPE_BROADCAST, "audio segment store");
+    private Counter mSegmentsAdded = mMetricGroup.counter("segments added");
+    private Counter mSegmentsSpilled = mMetricGroup.counter("segments spilled");
+
+    /**
+     * Constructs an instance
+     *
+     * @param memoryLimit in bytes for in-memory segments
+     */
+    public AudioSegmentStore(long memoryLimit)
+    {
+        mMemoryLimit = memoryLimit;
+
+        mMetricGroup.gauge("segments", this::getSegmentCount);
+        mMetricGroup.gauge("memory bytes", this::getMemoryUsage);
+        mMetricGroup.gauge("spilled bytes", this::getSpilledBytes);
+        MetricRegistry.getInstance().register(mMetricGroup);
+    }
+
+    /**
+     * Adds the audio bytes to this store as a new segment.  The returned segment holds a single reference for the
+     * caller that must be released once the caller has distributed the segment.
+     *
+     * Segments that are spilled to make room for the new segment are selected while holding the store lock and are
+     * written to disk after the lock is released, so that broadcasters reading or releasing segments don't wait on
+     * the spill file writes.
+     *
+     * @param audio bytes
+     * @param spillPath to use if the segment is spilled to disk under memory pressure
+     * @return segment
+     */
+    public AudioSegment add(byte[] audio, Path spillPath)
+    {
+        AudioSegment segment;
+        List<AudioSegment> segmentsToSpill = new ArrayList<>();
+
+        synchronized(this)
+        {
+            segment = new AudioSegment(this, audio, spillPath);
+
+            mInMemorySegments.add(segment);
+            mMemoryUsage += segment.getLength();
+            mSegmentCount++;
+            mSegmentsAdded.increment();
+
+            while(mMemoryUsage - mSpillingBytes > mMemoryLimit && mInMemorySegments.size() > 1)
+            {
+                AudioSegment oldest = mInMemorySegments.remove();
+                oldest.setSpilling();
+                mSpillingBytes += oldest.getLength();
+                segmentsToSpill.add(oldest);
+            }
+        }
+
+        for(AudioSegment segmentToSpill : segmentsToSpill)
+        {
+            segmentToSpill.spill();
+        }
+
+        return segment;
+    }
+
+    /**
+     * Updates the store accounting once the spill file write for a retained segment has finished.  A segment that
+     * could not be written is returned to the in-memory segments and is spilled again when the next segment is added.
+     *
+     * Note: invoked by the segment while holding the store lock.
+     *
+     * @param segment that was selected for spilling
+     * @param spilled true if the spill file was written
+     */
+    void spillCompleted(AudioSegment segment, boolean spilled)
+    {
+        mSpillingBytes -= segment.getLength();
+
+        if(spilled)
+        {
+            mMemoryUsage -= segment.getLength();
+            mSpilledBytes += segment.getLength();
+            mSegmentsSpilled.increment();
+        }
+        else
+        {
+            mInMemorySegments.addFirst(segment);
+        }
+    }
+
+    /**
+     * Removes the released segment from the store accounting.
+     *
+     * Note: invoked by the segment while holding the store lock.
+     */
+    void remove(AudioSegment segment)
+    {
+        mSegmentCount--;
+
+        if(segment.isSpilled())
+        {
+            mSpilledBytes -= segment.getLength();
+        }
+        else if(segment.isSpilling())
+        {
+            mMemoryUsage -= segment.getLength();
+            mSpillingBytes -= segment.getLength();
+        }
+        else
+        {
+            Iterator<AudioSegment> it = mInMemorySegments.iterator();
+
+            while(it.hasNext())
+            {
+                if(it.next() == segment)
+                {
+                    it.remove();
+                    mMemoryUsage -= segment.getLength();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Number of segments that are currently retained
+     */
+    public synchronized long getSegmentCount()
+    {
+        return mSegmentCount;
+    }
+
+    /**
+     * Total bytes of the segments currently held in memory, including segments that are being spilled to disk
+     */
+    public synchronized long getMemoryUsage()
+    {
+        return mMemoryUsage;
+    }
+
+    /**
+     * Total bytes of the segments currently spilled to disk
+     */
+    public synchronized long getSpilledBytes()
+    {
+        return mSpilledBytes;
+    }
+
+    /**
+     * Memory limit in bytes for in-memory segments
+     */
+    public long getMemoryLimit()
+    {
+        return mMemoryLimit;
+    }
+}
@@ -45,6 +45,7 @@ import org.slf4j.LoggerFactory;
 import record.AudioRecorder;
 import record.mp3.MP3Recorder;
 
+import java.io.OutputStream;
 import java.nio.file.Path;
 
 public class BroadcastFactory
@@ -196,6 +197,22 @@ public class BroadcastFactory
         }
     }
 
+    /**
+     * Creates an audio recorder for the specified broadcastAudio format that writes to the output stream.  The path
+     * identifies the recording.
+     */
+    public static AudioRecorder getAudioRecorder(Path path, BroadcastFormat broadcastFormat, OutputStream outputStream)
+    {
+        switch(broadcastFormat)
+        {
+            case MP3:
+                return new MP3Recorder(path, outputStream);
+            default:
+                mLog.debug("Unrecognized broadcastAudio format [" + broadcastFormat + "] cannot create audio recorder");
+                return null;
+        }
+    }
+
     public static ISilenceGenerator getSilenceGenerator(BroadcastFormat format)
     {
         switch(format)
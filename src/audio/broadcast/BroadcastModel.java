@@ -37,7 +37,6 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
@@ -52,6 +51,8 @@ public class BroadcastModel extends AbstractTableModel implements Listener<Audio
 
     public static final String TEMPORARY_STREAM_DIRECTORY = "streaming";
     public static final String TEMPORARY_STREAM_FILE_SUFFIX = "temporary_streaming_file_";
+    public static final String SEGMENT_STORE_MEMORY_LIMIT_PROPERTY = "broadcast.segment.store.memory.mb";
+    public static final int SEGMENT_STORE_MEMORY_LIMIT_DEFAULT = 16;
 
     private static final String UNIQUE_NAME_REGEX = "(.*)\\((\\d*)\\)";
 
@@ -66,12 +67,12 @@ public class BroadcastModel extends AbstractTableModel implements Listener<Audio
         {"Streaming", "Name", "Status", "Queued", "Streamed", "Aged Off"};
 
     private List<BroadcastConfiguration> mBroadcastConfigurations = new CopyOnWriteArrayList<>();
-    private List<AudioRecording> mRecordingQueue = new CopyOnWriteArrayList<>();
 
     private Map<String,BroadcastConfiguration> mBroadcastConfigurationMap = new HashMap<>();
     private Map<String,AudioBroadcaster> mBroadcasterMap = new HashMap<>();
     private IconManager mIconManager;
     private StreamManager mStreamManager;
+    private AudioSegmentStore mAudioSegmentStore;
     private Broadcaster<BroadcastEvent> mBroadcastEventBroadcaster = new Broadcaster<>();
 
     /**
@@ -80,14 +81,12 @@ public class BroadcastModel extends AbstractTableModel implements Listener<Audio
     public BroadcastModel(IconManager iconManager)
     {
         mIconManager = iconManager;
-        mStreamManager = new StreamManager(new CompletedRecordingListener(), BroadcastFormat.MP3,
+        mAudioSegmentStore = new AudioSegmentStore(SystemProperties.getInstance()
+            .get(SEGMENT_STORE_MEMORY_LIMIT_PROPERTY, SEGMENT_STORE_MEMORY_LIMIT_DEFAULT) * 1024l * 1024l);
+        mStreamManager = new StreamManager(new CompletedRecordingListener(), BroadcastFormat.MP3, mAudioSegmentStore,
             SystemProperties.getInstance().getApplicationFolder(TEMPORARY_STREAM_DIRECTORY));
         mStreamManager.start();
 
-        //Monitor to remove temporary recording files that have been streamed by all audio broadcasters
-        ThreadPool.SCHEDULED.scheduleAtFixedRate(new RecordingDeletionMonitor(),
-            15l, 15l, TimeUnit.SECONDS);
-
         removeOrphanedTemporaryRecordings();
     }
 
@@ -616,24 +615,13 @@ public class BroadcastModel extends AbstractTableModel implements Listener<Audio
     }
 
     /**
-     * Cleanup method to remove a temporary recording file from disk.
-     *
-     * @param recording to remove
+     * Shared store of encoded audio segments for all audio broadcasters
      */
-    private void removeRecording(AudioRecording recording)
+    public AudioSegmentStore getAudioSegmentStore()
     {
-        try
-        {
-            Files.delete(recording.getPath());
-        }
-        catch(IOException ioe)
-        {
-            mLog.error("Error deleting temporary internet recording file: " + recording.getPath().toString() + " - " +
-                ioe.getMessage());
-        }
+        return mAudioSegmentStore;
     }
 
-
     /**
      * Removes any temporary stream recordings left-over from the previous application run.
      *
@@ -695,8 +683,9 @@ public class BroadcastModel extends AbstractTableModel implements Listener<Audio
     }
 
     /**
-     * Processes completed audio recordings and distributes them to the audio broadcasters.  Adds the recording to
-     * the audio recording queue to be monitored for deletion.
+     * Processes completed audio recordings and distributes them to the audio broadcasters.  Each broadcaster holds a
+     * pending replay on the shared audio segment and the segment is released once all broadcasters have streamed or
+     * aged off the recording.
      */
     public class CompletedRecordingListener implements Listener<AudioRecording>
     {
@@ -724,49 +713,8 @@ public class BroadcastModel extends AbstractTableModel implements Listener<Audio
                 }
             }
 
-            mRecordingQueue.add(audioRecording);
-        }
-    }
-
-    /**
-     * Monitors the recording queue and removes any recordings that have no pending replays by audio broadcasters
-     */
-    public class RecordingDeletionMonitor implements Runnable
-    {
-        @Override
-        public void run()
-        {
-            try
-            {
-                List<AudioRecording> recordingsToDelete = new ArrayList<>();
-
-                Iterator<AudioRecording> it = mRecordingQueue.iterator();
-
-                AudioRecording recording;
-
-                while(it.hasNext())
-                {
-                    recording = it.next();
-
-                    if(!recording.hasPendingReplays())
-                    {
-                        recordingsToDelete.add(recording);
-                    }
-                }
-
-                if(!recordingsToDelete.isEmpty())
-                {
-                    for(AudioRecording recordingToDelete : recordingsToDelete)
-                    {
-                        mRecordingQueue.remove(recordingToDelete);
-                        removeRecording(recordingToDelete);
-                    }
-                }
-            }
-            catch(Exception e)
-            {
-                mLog.error("Error while checking audio recording queue for recordings to delete", e);
-            }
+            //Remove the stream manager's pending replay now that the recording has been distributed
+            audioRecording.removePendingReplay();
         }
     }
 }
@@ -26,6 +26,7 @@ import sample.Listener;
 import util.ThreadPool;
 import util.TimeStamp;
 
+import java.io.ByteArrayOutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
@@ -46,29 +47,36 @@ public class StreamManager implements Listener<AudioPacket>
 
     private Listener<AudioRecording> mAudioRecordingListener;
     private BroadcastFormat mBroadcastFormat;
+    private AudioSegmentStore mAudioSegmentStore;
     private Path mTempDirectory;
     private Map<Integer,AudioRecorder> mStreamRecorders = new HashMap<>();
+    private Map<AudioRecorder,ByteArrayOutputStream> mRecorderOutputStreams = new HashMap<>();
     private Runnable mRecorderMonitor;
     private ScheduledFuture<?> mRecorderMonitorFuture;
     private AtomicBoolean mRunning = new AtomicBoolean();
 
     /**
      * Stream manager processes all incoming audio packets and reassembles individual audio streams, converts audio
-     * to desired output format and persists each stream to disc.  Each recording is capped at a maximum length to
-     * ensure that recordings don't run too long before they are streamed out and to ensure that inactive recordings
-     * are closed in a timely fashion.
+     * to desired output format and encodes each stream once into an in-memory audio segment that is shared by all
+     * audio broadcasters.  Each recording is capped at a maximum length to ensure that recordings don't run too long
+     * before they are streamed out and to ensure that inactive recordings are closed in a timely fashion.
      *
-     * Completed streamable audio recordings are nominated to the output listener (for broadcast) upon completion
+     * Completed streamable audio recordings are nominated to the output listener (for broadcast) upon completion.  The
+     * listener receives the recording with a single pending replay that it must remove once it has distributed the
+     * recording.
      *
      * @param listener to receive completed audio recordings
-     * @param tempDirectory where to store temporary audio recordings
+     * @param audioSegmentStore to hold the encoded audio recordings
+     * @param tempDirectory where to spill audio segments to disk under memory pressure
      */
-    public StreamManager(Listener<AudioRecording> listener, BroadcastFormat broadcastFormat, Path tempDirectory)
+    public StreamManager(Listener<AudioRecording> listener, BroadcastFormat broadcastFormat,
+                         AudioSegmentStore audioSegmentStore, Path tempDirectory)
     {
         assert (tempDirectory != null && Files.isDirectory(tempDirectory));
 
         mAudioRecordingListener = listener;
         mBroadcastFormat = broadcastFormat;
+        mAudioSegmentStore = audioSegmentStore;
         mTempDirectory = tempDirectory;
     }
 
@@ -138,11 +146,13 @@ public class StreamManager implements Listener<AudioPacket>
                     }
                     else
                     {
+                        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
                         AudioRecorder recorder = BroadcastFactory.getAudioRecorder(getTemporaryRecordingPath(),
-                            mBroadcastFormat);
+                            mBroadcastFormat, outputStream);
                         recorder.start(ThreadPool.SCHEDULED);
                         recorder.receive(audioPacket);
                         mStreamRecorders.put(channelMetadataID, recorder);
+                        mRecorderOutputStreams.put(recorder, outputStream);
                     }
                 }
                 else if(type == AudioPacket.Type.END)
@@ -170,20 +180,29 @@ public class StreamManager implements Listener<AudioPacket>
         if(mStreamRecorders.containsKey(sourceChannelID))
         {
             AudioRecorder recorder = mStreamRecorders.remove(sourceChannelID);
+            final ByteArrayOutputStream outputStream = mRecorderOutputStreams.remove(recorder);
 
             recorder.close(new Listener<AudioRecorder>()
             {
                 @Override
                 public void receive(AudioRecorder audioRecorder)
                 {
+                    //The recorder path is only used if the segment is spilled to disk
+                    AudioSegment audioSegment = mAudioSegmentStore.add(outputStream.toByteArray(),
+                        audioRecorder.getPath());
+
                     AudioRecording audioRecording =
-                        new AudioRecording(audioRecorder.getPath(), audioRecorder.getMetadata(),
+                        new AudioRecording(audioSegment, audioRecorder.getMetadata(),
                             audioRecorder.getTimeRecordingStart(), audioRecorder.getRecordingLength());
 
                     if(mAudioRecordingListener != null)
                     {
                         mAudioRecordingListener.receive(audioRecording);
                     }
+                    else
+                    {
+                        audioRecording.removePendingReplay();
+                    }
                 }
             });
 
@@ -191,7 +210,7 @@ public class StreamManager implements Listener<AudioPacket>
     }
 
     /**
-     * Creates a temporary streaming recording file path
+     * Creates a temporary streaming recording file path, used when the recording is spilled to disk
      */
     private Path getTemporaryRecordingPath()
     {
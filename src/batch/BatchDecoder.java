@@ -0,0 +1,670 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package batch;
+
+import alias.AliasModel;
+import controller.NamingThreadFactory;
+import controller.channel.Channel;
+import controller.channel.Channel.ChannelType;
+import controller.channel.ChannelModel;
+import controller.channel.map.ChannelMapModel;
+import message.Message;
+import module.Module;
+import module.ProcessingChain;
+import module.decode.DecoderFactory;
+import module.decode.DecoderType;
+import module.decode.event.CallEvent;
+import module.log.EventLogWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import playlist.PlaylistV2;
+import sample.Listener;
+import source.wave.MappedComplexWaveSource;
+import source.wave.RealWaveSource;
+
+import javax.sound.sampled.AudioSystem;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Headless decoder for wave recordings.
+ *
+ * Each recording is decoded by its own processing chain, constructed by the DecoderFactory from the channel's decode,
+ * auxiliary decode and alias list configuration, with recordings processed in parallel by a bounded worker pool.
+ * Complex (2-channel I/Q) recordings are replayed at maximum speed through a memory mapped source and mono recordings
+ * are treated as demodulated baseband audio.  For each recording, decoded messages and call events are written to
+ * CSV files in the output directory, and a summary line with counts and the decode speed relative to real time is
+ * written to summary.csv once all recordings are processed.
+ *
+ * Usage: BatchDecoder [-playlist file] [-channel name | -decoder type [-aliases list]] [-output directory]
+ * [-threads count] recording|directory ...
+ *
+ * The playlist provides the aliases and channel maps, and the channel whose decode configuration is used.  When a
+ * decoder type is specified instead of a channel, the default configuration for that decoder is used with the
+ * optional alias list.
+ */
+public class BatchDecoder
+{
+    private final static Logger mLog = LoggerFactory.getLogger(BatchDecoder.class);
+
+    public static final String MESSAGE_HEADER = "OFFSET_MS,PROTOCOL,EVENT,STATUS,VALID,FROM,TO,MESSAGE";
+    public static final String SUMMARY_HEADER = "RECORDING,STATUS,DURATION_MS,ELAPSED_MS,REALTIME_FACTOR,MESSAGES," +
+        "VALID_MESSAGES,CALL_EVENTS";
+    private static final int REAL_BUFFER_FRAMES = 8192;
+
+    private Channel mChannel;
+    private AliasModel mAliasModel;
+    private ChannelMapModel mChannelMapModel;
+    private Path mOutputDirectory;
+    private int mThreads;
+    private EventLogWriter mEventLogWriter = new EventLogWriter();
+
+    /**
+     * Constructs an instance
+     *
+     * @param channel providing the decode, auxiliary decode and alias list configuration
+     * @param aliasModel containing the aliases
+     * @param channelMapModel containing channel maps referenced by the decode configuration
+     * @param outputDirectory for the message, call event and summary files
+     * @param threads maximum number of recordings to decode concurrently
+     */
+    public BatchDecoder(Channel channel, AliasModel aliasModel, ChannelMapModel channelMapModel,
+                        Path outputDirectory, int threads)
+    {
+        mChannel = channel;
+        mAliasModel = aliasModel;
+        mChannelMapModel = channelMapModel;
+        mOutputDirectory = outputDirectory;
+        mThreads = Math.max(threads, 1);
+    }
+
+    /**
+     * Decodes the recordings and blocks until all recordings are processed
+     *
+     * @param recordings to decode
+     * @return results in the same order as the recordings
+     */
+    public List<DecodeResult> decode(List<Path> recordings) throws IOException, InterruptedException
+    {
+        Files.createDirectories(mOutputDirectory);
+
+        //Resolve the alias list once so that the worker threads only read the alias model
+        mAliasModel.getAliasList(mChannel.getAliasListName());
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(mThreads, Math.max(recordings.size(), 1)),
+            new NamingThreadFactory("sdrtrunk batch decoder"));
+
+        List<Future<DecodeResult>> futures = new ArrayList<>();
+
+        for(Path recording : recordings)
+        {
+            futures.add(executor.submit(() -> decode(recording)));
+        }
+
+        List<DecodeResult> results = new ArrayList<>();
+
+        try
+        {
+            for(int x = 0; x < futures.size(); x++)
+            {
+                try
+                {
+                    results.add(futures.get(x).get());
+                }
+                catch(ExecutionException ee)
+                {
+                    mLog.error("Error decoding recording [" + recordings.get(x) + "]", ee.getCause());
+                    results.add(new DecodeResult(recordings.get(x), "ERROR " + ee.getCause().getMessage()));
+                }
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+            mEventLogWriter.flush();
+        }
+
+        writeSummary(results);
+
+        return results;
+    }
+
+    /**
+     * Decodes a single recording with a new processing chain
+     */
+    private DecodeResult decode(Path recording) throws Exception
+    {
+        DecodeResult result = new DecodeResult(recording, "COMPLETE");
+
+        String name = recording.getFileName().toString().replaceAll("\\.wav$", "");
+
+        EventLogWriter.LogFile messageLog = mEventLogWriter.open(mOutputDirectory, name + "_messages.csv",
+            MESSAGE_HEADER, false);
+        EventLogWriter.LogFile callEventLog = mEventLogWriter.open(mOutputDirectory, name + "_call_events.csv",
+            CallEvent.getCSVHeader(), false);
+
+        ProcessingChain processingChain = new ProcessingChain(ChannelType.STANDARD, name);
+
+        //The call event table model is not displayed
+        processingChain.removeCallEventListener(processingChain.getCallEventModel());
+
+        //Each chain gets its own channel model for traffic channel allocations
+        List<Module> modules = DecoderFactory.getModules(new ChannelModel(), mChannelMapModel, null, mAliasModel,
+            mChannel, processingChain.getChannelState().getMutableMetadata());
+        processingChain.addModules(modules);
+
+        processingChain.addCallEventListener(new Listener<CallEvent>()
+        {
+            @Override
+            public void receive(CallEvent callEvent)
+            {
+                result.mCallEventCount.incrementAndGet();
+                callEventLog.write(callEvent.toCSV());
+            }
+        });
+
+        long start = System.currentTimeMillis();
+
+        try
+        {
+            if(getChannelCount(recording) == 1)
+            {
+                decodeReal(recording, processingChain, result, messageLog);
+            }
+            else
+            {
+                decodeComplex(recording, processingChain, result, messageLog);
+            }
+        }
+        finally
+        {
+            processingChain.dispose();
+            messageLog.close();
+            callEventLog.close();
+        }
+
+        result.mElapsed = System.currentTimeMillis() - start;
+
+        mLog.info(result.toString());
+
+        return result;
+    }
+
+    /**
+     * Replays a complex recording at maximum speed.  The chain processes each buffer on the playback thread, so the
+     * source position when a message is produced identifies the buffer that produced it.  The result is marked
+     * incomplete if playback stops before the end of the recording.
+     */
+    private void decodeComplex(Path recording, ProcessingChain processingChain, DecodeResult result,
+                               EventLogWriter.LogFile messageLog) throws IOException, InterruptedException
+    {
+        MappedComplexWaveSource source = new MappedComplexWaveSource(recording.toFile(), false);
+        source.open();
+
+        result.mDuration = source.getDuration();
+
+        processingChain.addMessageListener(new MessageWriter(result, messageLog)
+        {
+            @Override
+            protected long getOffset()
+            {
+                return source.getTimePosition();
+            }
+        });
+
+        processingChain.setSource(source);
+        processingChain.start();
+
+        source.awaitCompletion();
+
+        if(source.getFramePosition() < source.getFrameCount())
+        {
+            result.mStatus = "INCOMPLETE " + source.getFramePosition() + "/" + source.getFrameCount() + " frames";
+        }
+    }
+
+    /**
+     * Reads a mono recording on the calling thread and delivers it to the chain as demodulated baseband samples.
+     * Errors reading the recording, other than reaching the end of the recording, are thrown to the caller.
+     */
+    private void decodeReal(Path recording, ProcessingChain processingChain, DecodeResult result,
+                            EventLogWriter.LogFile messageLog) throws IOException
+    {
+        RealWaveSource source = new RealWaveSource(recording.toFile());
+
+        processingChain.addMessageListener(new MessageWriter(result, messageLog)
+        {
+            @Override
+            protected long getOffset()
+            {
+                int sampleRate = source.getSampleRate();
+
+                return sampleRate > 0 ? source.getFramePosition() * 1000 / sampleRate : 0;
+            }
+        });
+
+        processingChain.setSource(source);
+
+        //Starting the chain opens the source
+        processingChain.start();
+
+        if(source.getSampleRate() == 0)
+        {
+            throw new IOException("Couldn't open recording [" + recording + "]");
+        }
+
+        try
+        {
+            while(true)
+            {
+                source.next(REAL_BUFFER_FRAMES);
+            }
+        }
+        catch(EOFException eofe)
+        {
+            //End of recording
+        }
+
+        int sampleRate = source.getSampleRate();
+        result.mDuration = sampleRate > 0 ? source.getFramePosition() * 1000 / sampleRate : 0;
+    }
+
+    /**
+     * Number of audio channels in the recording, or 2 when the recording can't be parsed by the audio system, for
+     * example wave files larger than 4 GB that are only readable by the memory mapped source.
+     */
+    private static int getChannelCount(Path recording)
+    {
+        try
+        {
+            return AudioSystem.getAudioFileFormat(recording.toFile()).getFormat().getChannels();
+        }
+        catch(Exception e)
+        {
+            return 2;
+        }
+    }
+
+    private void writeSummary(List<DecodeResult> results) throws IOException
+    {
+        List<String> lines = new ArrayList<>();
+        lines.add(SUMMARY_HEADER);
+
+        for(DecodeResult result : results)
+        {
+            lines.add(result.toCSV());
+        }
+
+        Files.write(mOutputDirectory.resolve("summary.csv"), lines, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Stops the event log writer
+     */
+    public void dispose()
+    {
+        mEventLogWriter.stop();
+    }
+
+    /**
+     * Writes decoded messages to the message log
+     */
+    private abstract static class MessageWriter implements Listener<Message>
+    {
+        private DecodeResult mResult;
+        private EventLogWriter.LogFile mLogFile;
+
+        public MessageWriter(DecodeResult result, EventLogWriter.LogFile logFile)
+        {
+            mResult = result;
+            mLogFile = logFile;
+        }
+
+        /**
+         * Offset of the current sample buffer from the start of the recording in milliseconds
+         */
+        protected abstract long getOffset();
+
+        @Override
+        public void receive(Message message)
+        {
+            mResult.mMessageCount.incrementAndGet();
+
+            if(message.isValid())
+            {
+                mResult.mValidMessageCount.incrementAndGet();
+            }
+
+            StringBuilder sb = new StringBuilder();
+            sb.append(getOffset()).append(",'");
+            sb.append(message.getProtocol()).append("','");
+            sb.append(message.getEventType()).append("','");
+            sb.append(message.getErrorStatus()).append("',");
+            sb.append(message.isValid()).append(",'");
+            sb.append(message.getFromID()).append("','");
+            sb.append(message.getToID()).append("','");
+            sb.append(message.getMessage()).append("'");
+
+            mLogFile.write(sb.toString());
+        }
+    }
+
+    /**
+     * Decode counts and timing for a recording
+     */
+    public static class DecodeResult
+    {
+        private Path mRecording;
+        private String mStatus;
+        private long mDuration;
+        private long mElapsed;
+        private AtomicLong mMessageCount = new AtomicLong();
+        private AtomicLong mValidMessageCount = new AtomicLong();
+        private AtomicLong mCallEventCount = new AtomicLong();
+
+        public DecodeResult(Path recording, String status)
+        {
+            mRecording = recording;
+            mStatus = status;
+        }
+
+        public Path getRecording()
+        {
+            return mRecording;
+        }
+
+        public String getStatus()
+        {
+            return mStatus;
+        }
+
+        /**
+         * Recording duration in milliseconds
+         */
+        public long getDuration()
+        {
+            return mDuration;
+        }
+
+        /**
+         * Decode wall clock time in milliseconds
+         */
+        public long getElapsed()
+        {
+            return mElapsed;
+        }
+
+        /**
+         * Recording duration divided by the decode time
+         */
+        public double getRealTimeFactor()
+        {
+            return mElapsed > 0 ? (double)mDuration / (double)mElapsed : 0.0;
+        }
+
+        public long getMessageCount()
+        {
+            return mMessageCount.get();
+        }
+
+        public long getValidMessageCount()
+        {
+            return mValidMessageCount.get();
+        }
+
+        public long getCallEventCount()
+        {
+            return mCallEventCount.get();
+        }
+
+        public String toCSV()
+        {
+            return "'" + mRecording + "','" + mStatus + "'," + mDuration + "," + mElapsed + "," +
+                String.format("%.1f", getRealTimeFactor()) + "," + getMessageCount() + "," +
+                getValidMessageCount() + "," + getCallEventCount();
+        }
+
+        @Override
+        public String toString()
+        {
+            return "Decoded [" + mRecording.getFileName() + "] " + mStatus + " duration:" + mDuration +
+                "ms elapsed:" + mElapsed + "ms (" + String.format("%.1f", getRealTimeFactor()) + "x real time)" +
+                " messages:" + getMessageCount() + " valid:" + getValidMessageCount() +
+                " call events:" + getCallEventCount();
+        }
+    }
+
+    /**
+     * Loads a version 2 playlist file
+     */
+    public static PlaylistV2 loadPlaylist(Path path) throws IOException
+    {
+        try(InputStream in = Files.newInputStream(path))
+        {
+            return (PlaylistV2)JAXBContext.newInstance(PlaylistV2.class).createUnmarshaller().unmarshal(in);
+        }
+        catch(JAXBException je)
+        {
+            throw new IOException("Couldn't load playlist [" + path + "]", je);
+        }
+    }
+
+    /**
+     * Adds the wave files in the path, or the path itself if it is a file
+     */
+    private static void addRecordings(Path path, List<Path> recordings) throws IOException
+    {
+        if(Files.isDirectory(path))
+        {
+            List<Path> files = new ArrayList<>();
+
+            try(DirectoryStream<Path> stream = Files.newDirectoryStream(path, "*.wav"))
+            {
+                for(Path file : stream)
+                {
+                    files.add(file);
+                }
+            }
+
+            files.sort(null);
+            recordings.addAll(files);
+        }
+        else
+        {
+            recordings.add(path);
+        }
+    }
+
+    private static void usage(String error)
+    {
+        if(error != null)
+        {
+            mLog.error(error);
+        }
+
+        System.out.println("Usage: BatchDecoder [-playlist file] [-channel name | -decoder type [-aliases list]] " +
+            "[-output directory] [-threads count] recording|directory ...");
+        System.out.println("Decoder types: " + DecoderType.getPrimaryDecoders());
+        System.exit(1);
+    }
+
+    public static void main(String[] args)
+    {
+        Path playlistPath = null;
+        String channelName = null;
+        String decoder = null;
+        String aliasListName = null;
+        Path output = Paths.get("batch_output");
+        int threads = Runtime.getRuntime().availableProcessors();
+        List<Path> recordings = new ArrayList<>();
+
+        try
+        {
+            for(int x = 0; x < args.length; x++)
+            {
+                switch(args[x])
+                {
+                    case "-playlist":
+                        playlistPath = Paths.get(args[++x]);
+                        break;
+                    case "-channel":
+                        channelName = args[++x];
+                        break;
+                    case "-decoder":
+                        decoder = args[++x];
+                        break;
+                    case "-aliases":
+                        aliasListName = args[++x];
+                        break;
+                    case "-output":
+                        output = Paths.get(args[++x]);
+                        break;
+                    case "-threads":
+                        threads = Integer.parseInt(args[++x]);
+                        break;
+                    default:
+                        addRecordings(Paths.get(args[x]), recordings);
+                }
+            }
+        }
+        catch(ArrayIndexOutOfBoundsException | NumberFormatException e)
+        {
+            usage("Invalid arguments");
+        }
+        catch(IOException ioe)
+        {
+            usage("Error listing recordings - " + ioe.getMessage());
+        }
+
+        if(recordings.isEmpty())
+        {
+            usage("No recordings specified");
+        }
+
+        AliasModel aliasModel = new AliasModel();
+        ChannelMapModel channelMapModel = new ChannelMapModel();
+        Channel channel = null;
+
+        if(playlistPath != null)
+        {
+            try
+            {
+                PlaylistV2 playlist = loadPlaylist(playlistPath);
+
+                aliasModel.addAliases(playlist.getAliases());
+                channelMapModel.addChannelMaps(playlist.getChannelMaps());
+
+                if(channelName != null)
+                {
+                    for(Channel playlistChannel : playlist.getChannels())
+                    {
+                        if(channelName.equals(playlistChannel.getName()))
+                        {
+                            channel = playlistChannel;
+                            break;
+                        }
+                    }
+
+                    if(channel == null)
+                    {
+                        usage("Channel [" + channelName + "] not found in playlist");
+                    }
+                }
+            }
+            catch(IOException ioe)
+            {
+                usage(ioe.getMessage());
+            }
+        }
+
+        if(channel == null)
+        {
+            if(decoder == null)
+            {
+                usage("Specify a playlist channel or a decoder type");
+            }
+
+            try
+            {
+                channel = new Channel("Batch", ChannelType.STANDARD);
+                channel.setDecodeConfiguration(DecoderFactory.getDecodeConfiguration(DecoderType.valueOf(decoder)));
+                channel.setAliasListName(aliasListName);
+            }
+            catch(IllegalArgumentException iae)
+            {
+                usage("Unrecognized decoder type [" + decoder + "]");
+            }
+        }
+
+        BatchDecoder batchDecoder = new BatchDecoder(channel, aliasModel, channelMapModel, output, threads);
+
+        int status = 0;
+
+        try
+        {
+            long start = System.currentTimeMillis();
+
+            List<DecodeResult> results = batchDecoder.decode(recordings);
+
+            long duration = 0;
+
+            for(DecodeResult result : results)
+            {
+                duration += result.getDuration();
+
+                if(!result.getStatus().equals("COMPLETE"))
+                {
+                    status = 2;
+                }
+            }
+
+            long elapsed = System.currentTimeMillis() - start;
+
+            mLog.info("Decoded " + results.size() + " recordings (" + (duration / 1000) + " seconds) in " +
+                elapsed + "ms - " + String.format("%.1f", elapsed > 0 ? (double)duration / elapsed : 0.0) +
+                "x real time - output: " + output.toAbsolutePath());
+        }
+        catch(IOException | InterruptedException e)
+        {
+            mLog.error("Batch decode failed", e);
+            status = 2;
+        }
+        finally
+        {
+            batchDecoder.dispose();
+        }
+
+        System.exit(status);
+    }
+}
@@ -0,0 +1,306 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package batch;
+
+import alias.AliasModel;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import controller.channel.Channel;
+import controller.channel.Channel.ChannelType;
+import controller.channel.map.ChannelMapModel;
+import module.Module;
+import module.ProcessingChain;
+import module.decode.DecoderFactory;
+import module.decode.DecoderType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sample.Listener;
+import sample.complex.ComplexBuffer;
+import sample.complex.IComplexBufferListener;
+import sample.real.IFilteredRealBufferListener;
+import sample.real.RealBuffer;
+import source.wave.MappedComplexWaveSource;
+
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Verifies that every frame of a recording is delivered to the processing chain, that the batch decoder reports
+ * the recording duration from the frames actually read and that mono recordings decode without logging errors.
+ *
+ * Usage: BatchDecoderTest [runs]
+ */
+public class BatchDecoderTest
+{
+    private static final int SAMPLE_RATE = 48000;
+    private static final int COMPLEX_FRAMES = 524288;
+    private static final int REAL_FRAMES = 100003; //Not a multiple of the buffer size
+
+    private static int mFailures = 0;
+
+    public static void main(String[] args) throws Exception
+    {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+
+        Path directory = Files.createTempDirectory("batch_decoder_test");
+        Path complex = write(directory.resolve("complex.wav"), 2, COMPLEX_FRAMES);
+        Path real = write(directory.resolve("real.wav"), 1, REAL_FRAMES);
+
+        for(int x = 0; x < runs; x++)
+        {
+            long delivered = replayComplex(complex);
+
+            check(delivered == COMPLEX_FRAMES, "complex run " + x + " delivered " + delivered + "/" +
+                COMPLEX_FRAMES + " frames");
+        }
+
+        Channel channel = new Channel("Test", ChannelType.STANDARD);
+        channel.setDecodeConfiguration(DecoderFactory.getDecodeConfiguration(DecoderType.NBFM));
+
+        Path output = directory.resolve("output");
+        BatchDecoder batchDecoder = new BatchDecoder(channel, new AliasModel(), new ChannelMapModel(), output, 2);
+
+        try
+        {
+            List<Path> recordings = new ArrayList<>();
+            recordings.add(complex);
+            recordings.add(real);
+
+            List<BatchDecoder.DecodeResult> results = batchDecoder.decode(recordings);
+
+            for(BatchDecoder.DecodeResult result : results)
+            {
+                check(result.getStatus().equals("COMPLETE"), result.getRecording().getFileName() + " status " +
+                    result.getStatus());
+            }
+
+            check(results.get(0).getDuration() == (long)COMPLEX_FRAMES * 1000 / SAMPLE_RATE,
+                "complex duration " + results.get(0).getDuration() + "ms");
+            check(results.get(1).getDuration() == (long)REAL_FRAMES * 1000 / SAMPLE_RATE,
+                "real duration " + results.get(1).getDuration() + "ms");
+
+            for(String name : new String[]{"complex_messages.csv", "complex_call_events.csv", "real_messages.csv",
+                "real_call_events.csv", "summary.csv"})
+            {
+                check(Files.exists(output.resolve(name)), "output file " + name);
+            }
+
+            //Mono recordings are decoded without logging errors
+            ErrorCounter errorCounter = new ErrorCounter();
+
+            try
+            {
+                List<BatchDecoder.DecodeResult> realResults = batchDecoder.decode(Collections.singletonList(real));
+
+                check(realResults.get(0).getStatus().equals("COMPLETE"), "real only status " +
+                    realResults.get(0).getStatus());
+            }
+            finally
+            {
+                errorCounter.dispose();
+            }
+
+            check(errorCounter.getErrorCount() == 0, "real errors logged " + errorCounter.getErrorCount());
+        }
+        finally
+        {
+            batchDecoder.dispose();
+        }
+
+        log(mFailures == 0 ? "PASSED" : "FAILED - " + mFailures + " checks failed");
+
+        System.exit(mFailures == 0 ? 0 : 1);
+    }
+
+    /**
+     * Replays the complex recording through a processing chain the same way as the batch decoder and counts the
+     * frames delivered to the chain
+     */
+    private static long replayComplex(Path recording) throws IOException, InterruptedException
+    {
+        FrameCounter counter = new FrameCounter();
+
+        ProcessingChain processingChain = new ProcessingChain(ChannelType.STANDARD, "test");
+        processingChain.addModule(counter);
+
+        MappedComplexWaveSource source = new MappedComplexWaveSource(recording.toFile(), false);
+        source.open();
+
+        processingChain.setSource(source);
+        processingChain.start();
+
+        source.awaitCompletion();
+
+        processingChain.dispose();
+
+        return counter.getFrames();
+    }
+
+    /**
+     * Writes a 16-bit PCM wave file with a ramp in each channel
+     */
+    private static Path write(Path path, int channels, int frames) throws IOException
+    {
+        byte[] data = new byte[frames * channels * 2];
+
+        for(int x = 0; x < frames * channels; x++)
+        {
+            short sample = (short)(x % 20000);
+            data[x * 2] = (byte)(sample & 0xFF);
+            data[x * 2 + 1] = (byte)(sample >> 8);
+        }
+
+        AudioFormat format = new AudioFormat(SAMPLE_RATE, 16, channels, true, false);
+
+        AudioSystem.write(new AudioInputStream(new ByteArrayInputStream(data), format, frames),
+            AudioFileFormat.Type.WAVE, path.toFile());
+
+        return path;
+    }
+
+    private static void check(boolean condition, String message)
+    {
+        if(!condition)
+        {
+            mFailures++;
+        }
+
+        log((condition ? "PASS " : "FAIL ") + message);
+    }
+
+    public static void log(String message)
+    {
+        System.out.println(message);
+    }
+
+    /**
+     * Counts the ERROR level events logged to the root logger while attached
+     */
+    public static class ErrorCounter extends AppenderBase<ILoggingEvent>
+    {
+        private AtomicLong mErrorCount = new AtomicLong();
+        private ch.qos.logback.classic.Logger mRootLogger =
+            (ch.qos.logback.classic.Logger)LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME);
+
+        public ErrorCounter()
+        {
+            setName("error counter");
+            setContext(mRootLogger.getLoggerContext());
+            start();
+            mRootLogger.addAppender(this);
+        }
+
+        public long getErrorCount()
+        {
+            return mErrorCount.get();
+        }
+
+        @Override
+        protected void append(ILoggingEvent event)
+        {
+            if(event.getLevel() == Level.ERROR)
+            {
+                mErrorCount.incrementAndGet();
+                log("ERROR logged: " + event.getFormattedMessage());
+            }
+        }
+
+        public void dispose()
+        {
+            mRootLogger.detachAppender(this);
+            stop();
+        }
+    }
+
+    /**
+     * Counts the complex and real sample frames delivered to the processing chain
+     */
+    public static class FrameCounter extends Module implements IComplexBufferListener, IFilteredRealBufferListener
+    {
+        private AtomicLong mFrames = new AtomicLong();
+
+        private Listener<ComplexBuffer> mComplexBufferListener = new Listener<ComplexBuffer>()
+        {
+            @Override
+            public void receive(ComplexBuffer buffer)
+            {
+                mFrames.addAndGet(buffer.getSamples().length / 2);
+            }
+        };
+
+        private Listener<RealBuffer> mRealBufferListener = new Listener<RealBuffer>()
+        {
+            @Override
+            public void receive(RealBuffer buffer)
+            {
+                mFrames.addAndGet(buffer.getSamples().length);
+            }
+        };
+
+        public long getFrames()
+        {
+            return mFrames.get();
+        }
+
+        @Override
+        public Listener<ComplexBuffer> getComplexBufferListener()
+        {
+            return mComplexBufferListener;
+        }
+
+        @Override
+        public Listener<RealBuffer> getFilteredRealBufferListener()
+        {
+            return mRealBufferListener;
+        }
+
+        @Override
+        public void reset()
+        {
+            mFrames.set(0);
+        }
+
+        @Override
+        public void start(ScheduledExecutorService executor)
+        {
+        }
+
+        @Override
+        public void stop()
+        {
+        }
+
+        @Override
+        public void dispose()
+        {
+        }
+    }
+}
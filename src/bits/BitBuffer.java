@@ -0,0 +1,690 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package bits;
+
+import edac.CRC;
+
+import java.util.Arrays;
+
+public class BitBuffer
+{
+    private static final int WORD_SHIFT = 6;
+    private static final int WORD_MASK = 63;
+
+    private long[] mWords;
+    private int mSize;
+    private int mPointer;
+    private CRC mCRC;
+    private int mCorrectedBitCount;
+
+    /**
+     * Fixed capacity bit buffer backed by a long array.  Bits are packed most significant bit first into each
+     * word, so that contiguous field values are extracted with at most two word reads and shifts instead of one
+     * lookup per bit.  Provides the message methods of BinaryMessage used by the message framers, error detection
+     * and correction classes and message parsers, so that those classes can use either type.
+     *
+     * Bits beyond the logical size remain readable up to the capacity, consistent with BinaryMessage.
+     *
+     * @param size in bits
+     */
+    public BitBuffer(int size)
+    {
+        this(new long[wordCount(size)], size);
+    }
+
+    /**
+     * Constructs a buffer over the words array
+     */
+    private BitBuffer(long[] words, int size)
+    {
+        mWords = words;
+        mSize = size;
+    }
+
+    private static int wordCount(int bits)
+    {
+        return (bits + WORD_MASK) >>> WORD_SHIFT;
+    }
+
+    /**
+     * Number of bits that can be stored in this buffer without reallocation
+     */
+    public int capacity()
+    {
+        return mWords.length << WORD_SHIFT;
+    }
+
+    /**
+     * Logical size of this buffer
+     */
+    public int size()
+    {
+        return mSize;
+    }
+
+    /**
+     * Sets the logical size of this buffer.  The buffer is reallocated when the size exceeds the current capacity.
+     */
+    public void setSize(int size)
+    {
+        if(size > capacity())
+        {
+            mWords = Arrays.copyOf(mWords, wordCount(size));
+        }
+
+        mSize = size;
+    }
+
+    public CRC getCRC()
+    {
+        return mCRC;
+    }
+
+    public void setCRC(CRC crc)
+    {
+        mCRC = crc;
+    }
+
+    /**
+     * Indicates the number of bit errors that were corrected in this message.
+     */
+    public int getCorrectedBitCount()
+    {
+        return mCorrectedBitCount;
+    }
+
+    /**
+     * Sets the number of bits that were corrected in this message
+     */
+    public void setCorrectedBitCount(int count)
+    {
+        mCorrectedBitCount = count;
+    }
+
+    /**
+     * Current pointer index
+     */
+    public int pointer()
+    {
+        return mPointer;
+    }
+
+    /**
+     * Sets the pointer to a specific value
+     */
+    public void setPointer(int index)
+    {
+        mPointer = index;
+    }
+
+    /**
+     * Moves the current pointer position left (negative adjustment) or right (positive adjustment)
+     */
+    public void adjustPointer(int adjustment)
+    {
+        mPointer += adjustment;
+    }
+
+    public boolean isFull()
+    {
+        return mPointer >= mSize;
+    }
+
+    /**
+     * Adds the bit at the pointer position and increments the pointer
+     *
+     * @throws BitSetFullException if the buffer is full
+     */
+    public void add(boolean value) throws BitSetFullException
+    {
+        if(mPointer >= mSize)
+        {
+            throw new BitSetFullException("bit buffer is full -- contains " + mSize + " bits");
+        }
+
+        set(mPointer++, value);
+    }
+
+    /**
+     * Adds the two bits of the dibit value (MSB first) at the pointer position and advances the pointer by two.
+     * When only one bit position remains, the most significant bit is added before the exception is thrown.
+     *
+     * @param dibit value 0 - 3
+     * @throws BitSetFullException if the buffer is full
+     */
+    public void addDibit(int dibit) throws BitSetFullException
+    {
+        if(mPointer + 2 <= mSize)
+        {
+            set(mPointer, (dibit & 2) != 0);
+            set(mPointer + 1, (dibit & 1) != 0);
+            mPointer += 2;
+        }
+        else
+        {
+            add((dibit & 2) != 0);
+            add((dibit & 1) != 0);
+        }
+    }
+
+    /**
+     * Adds dibit values to the buffer until the buffer is full or the dibits are consumed
+     *
+     * @param dibits array of dibit values 0 - 3
+     * @param offset of the first dibit in the array
+     * @param length number of dibits to add
+     * @return number of dibits added
+     */
+    public int addDibits(byte[] dibits, int offset, int length)
+    {
+        int count = Math.min(length, (mSize - mPointer) / 2);
+
+        for(int x = 0; x < count; x++)
+        {
+            int dibit = dibits[offset + x];
+            int index = mPointer + 2 * x;
+            set(index, (dibit & 2) != 0);
+            set(index + 1, (dibit & 1) != 0);
+        }
+
+        mPointer += count * 2;
+
+        return count;
+    }
+
+    public boolean get(int index)
+    {
+        return (mWords[index >>> WORD_SHIFT] & (Long.MIN_VALUE >>> (index & WORD_MASK))) != 0;
+    }
+
+    public void set(int index)
+    {
+        mWords[index >>> WORD_SHIFT] |= (Long.MIN_VALUE >>> (index & WORD_MASK));
+    }
+
+    public void set(int index, boolean value)
+    {
+        if(value)
+        {
+            set(index);
+        }
+        else
+        {
+            clear(index);
+        }
+    }
+
+    public void clear(int index)
+    {
+        mWords[index >>> WORD_SHIFT] &= ~(Long.MIN_VALUE >>> (index & WORD_MASK));
+    }
+
+    public void flip(int index)
+    {
+        mWords[index >>> WORD_SHIFT] ^= (Long.MIN_VALUE >>> (index & WORD_MASK));
+    }
+
+    /**
+     * Clears the bits from start (inclusive) to end (exclusive)
+     */
+    public void clear(int start, int end)
+    {
+        int x = start;
+
+        //Clear leading bits up to a word boundary, then whole words, then trailing bits
+        while(x < end && (x & WORD_MASK) != 0)
+        {
+            clear(x++);
+        }
+
+        while(x + 64 <= end)
+        {
+            mWords[x >>> WORD_SHIFT] = 0;
+            x += 64;
+        }
+
+        while(x < end)
+        {
+            clear(x++);
+        }
+    }
+
+    /**
+     * Clears all bits and resets the pointer to zero
+     */
+    public void clear()
+    {
+        Arrays.fill(mWords, 0);
+
+        mPointer = 0;
+        mCRC = null;
+        mCorrectedBitCount = 0;
+    }
+
+    /**
+     * Index of the first set bit at or after the from index, or -1 if there are no more set bits within capacity
+     */
+    public int nextSetBit(int fromIndex)
+    {
+        int capacity = capacity();
+
+        if(fromIndex >= capacity)
+        {
+            return -1;
+        }
+
+        int wordIndex = fromIndex >>> WORD_SHIFT;
+        long word = mWords[wordIndex] & (-1L >>> (fromIndex & WORD_MASK));
+
+        while(true)
+        {
+            if(word != 0)
+            {
+                int index = (wordIndex << WORD_SHIFT) + Long.numberOfLeadingZeros(word);
+
+                return index < capacity ? index : -1;
+            }
+
+            if(++wordIndex >= mWords.length)
+            {
+                return -1;
+            }
+
+            word = mWords[wordIndex];
+        }
+    }
+
+    /**
+     * Number of set bits within the logical size of this buffer
+     */
+    public int cardinality()
+    {
+        int count = 0;
+
+        for(int x = 0; x < mSize; x += 64)
+        {
+            int width = Math.min(64, mSize - x);
+            count += Long.bitCount(getLong(x, x + width - 1));
+        }
+
+        return count;
+    }
+
+    /**
+     * Returns the value of the bits from start (MSB) through end (LSB), inclusive.  Returns 0 when end is less than
+     * start.
+     *
+     * @param start bit index of the most significant bit
+     * @param end bit index of the least significant bit
+     * @return value, up to 64 bits
+     */
+    public long getLong(int start, int end)
+    {
+        int width = end - start + 1;
+
+        if(width <= 0)
+        {
+            return 0;
+        }
+
+        if(width > 64)
+        {
+            throw new IllegalArgumentException("Overflow - must be 64 bits or less to fit into a primitive long value");
+        }
+
+        int wordIndex = start >>> WORD_SHIFT;
+        int shift = start & WORD_MASK;
+
+        long value = mWords[wordIndex] << shift;
+
+        if(shift + width > 64)
+        {
+            value |= mWords[wordIndex + 1] >>> (64 - shift);
+        }
+
+        return value >>> (64 - width);
+    }
+
+    /**
+     * Returns the value of the bits from start (MSB) through end (LSB), inclusive.  Returns 0 when end is less than
+     * start.
+     *
+     * @param start bit index of the most significant bit
+     * @param end bit index of the least significant bit
+     * @return value, up to 32 bits
+     */
+    public int getInt(int start, int end)
+    {
+        if(end - start >= 32)
+        {
+            throw new IllegalArgumentException("Overflow - must be 32 bits or less to fit into a primitive integer value");
+        }
+
+        return (int)getLong(start, end);
+    }
+
+    /**
+     * Indicates if the bit positions are contiguous and ascending, so that the field can be extracted as a range
+     */
+    private static boolean isContiguous(int[] bits)
+    {
+        if(bits.length == 0)
+        {
+            return false;
+        }
+
+        int first = bits[0];
+
+        for(int x = 1; x < bits.length; x++)
+        {
+            if(bits[x] != first + x)
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the value represented by the bit positions, with index 0 being the MSB and index length - 1 being the
+     * LSB.  Contiguous ascending positions are extracted as a range.
+     */
+    public int getInt(int[] bits)
+    {
+        if(bits.length > 32)
+        {
+            throw new IllegalArgumentException("Overflow - must be 32 bits or less to fit into a primitive integer value");
+        }
+
+        if(isContiguous(bits))
+        {
+            return (int)getLong(bits[0], bits[bits.length - 1]);
+        }
+
+        int value = 0;
+
+        for(int index : bits)
+        {
+            value <<= 1;
+
+            if(get(index))
+            {
+                value++;
+            }
+        }
+
+        return value;
+    }
+
+    /**
+     * Returns the value represented by the bit positions, with index 0 being the MSB and index length - 1 being the
+     * LSB.  Contiguous ascending positions are extracted as a range.
+     */
+    public long getLong(int[] bits)
+    {
+        if(bits.length > 64)
+        {
+            throw new IllegalArgumentException("Overflow - must be 64 bits or less to fit into a primitive long value");
+        }
+
+        if(isContiguous(bits))
+        {
+            return getLong(bits[0], bits[bits.length - 1]);
+        }
+
+        long value = 0;
+
+        for(int index : bits)
+        {
+            value <<= 1;
+
+            if(get(index))
+            {
+                value++;
+            }
+        }
+
+        return value;
+    }
+
+    /**
+     * Formats the value of the bit positions as zero-prefixed hexadecimal
+     */
+    public String getHex(int[] bits, int digitDisplayCount)
+    {
+        if(bits.length <= 32)
+        {
+            return String.format("%0" + digitDisplayCount + "X", getInt(bits));
+        }
+        else
+        {
+            return String.format("%0" + digitDisplayCount + "X", getLong(bits));
+        }
+    }
+
+    /**
+     * Formats the value of the bits from msb through lsb (inclusive) as zero-prefixed hexadecimal
+     */
+    public String getHex(int msb, int lsb, int digitDisplayCount)
+    {
+        if(lsb - msb < 32)
+        {
+            return String.format("%0" + digitDisplayCount + "X", getInt(msb, lsb));
+        }
+        else
+        {
+            return String.format("%0" + digitDisplayCount + "X", getLong(msb, lsb));
+        }
+    }
+
+    /**
+     * Loads the value into the buffer with the MSB of the value at the offset and the LSB at offset + width - 1
+     *
+     * @param offset bit index for the MSB of the value
+     * @param width number of bits of the value to load, up to 64
+     * @param value to load
+     */
+    public void load(int offset, int width, long value)
+    {
+        if(width <= 0)
+        {
+            return;
+        }
+
+        int wordIndex = offset >>> WORD_SHIFT;
+        int shift = offset & WORD_MASK;
+
+        //Left-align the value and mask within a 64-bit field
+        long aligned = value << (64 - width);
+        long mask = -1L << (64 - width);
+
+        mWords[wordIndex] = (mWords[wordIndex] & ~(mask >>> shift)) | (aligned >>> shift);
+
+        if(shift + width > 64)
+        {
+            mWords[wordIndex + 1] = (mWords[wordIndex + 1] & ~(mask << (64 - shift))) | (aligned << (64 - shift));
+        }
+    }
+
+    /**
+     * Performs exclusive or of width bits from the value against this buffer, starting at the offset position
+     */
+    public void xor(int offset, int width, int value)
+    {
+        load(offset, width, getLong(offset, offset + width - 1) ^ (value & (-1L >>> (64 - width))));
+    }
+
+    /**
+     * Left rotates the bits between start and end indices (inclusive), number of places.
+     */
+    public void rotateLeft(int places, int startIndex, int endIndex)
+    {
+        for(int x = 0; x < places; x++)
+        {
+            rotateLeft(startIndex, endIndex);
+        }
+    }
+
+    /**
+     * Left rotates the bits between start and end (inclusive) and wraps the left-most bit around to the end.
+     */
+    public void rotateLeft(int startIndex, int endIndex)
+    {
+        boolean wrapBit = get(startIndex);
+
+        for(int x = startIndex; x < endIndex; x++)
+        {
+            set(x, get(x + 1));
+        }
+
+        set(endIndex, wrapBit);
+    }
+
+    /**
+     * Right rotates the bits between start and end indices (inclusive), number of places.
+     */
+    public void rotateRight(int places, int startIndex, int endIndex)
+    {
+        for(int x = 0; x < places; x++)
+        {
+            rotateRight(startIndex, endIndex);
+        }
+    }
+
+    /**
+     * Right rotates the bits between start and end (inclusive) and wraps the right-most bit around to the start.
+     */
+    public void rotateRight(int startIndex, int endIndex)
+    {
+        boolean wrapBit = get(endIndex);
+
+        for(int x = endIndex - 1; x >= startIndex; x--)
+        {
+            set(x + 1, get(x));
+        }
+
+        set(startIndex, wrapBit);
+    }
+
+    /**
+     * Returns a new buffer containing a copy of the bits from start (inclusive) to end (exclusive)
+     */
+    public BitBuffer getSubMessage(int start, int end)
+    {
+        BitBuffer copy = new BitBuffer(end - start);
+
+        for(int x = start; x < end; x += 64)
+        {
+            int width = Math.min(64, end - x);
+            copy.load(x - start, width, getLong(x, x + width - 1));
+        }
+
+        copy.mPointer = end - start;
+
+        return copy;
+    }
+
+    /**
+     * Returns a copy of this buffer, including all bits up to the capacity and the pointer.  The CRC and corrected
+     * bit count are not copied, consistent with BinaryMessage.
+     */
+    public BitBuffer copy()
+    {
+        BitBuffer copy = new BitBuffer(mWords.clone(), mSize);
+        copy.mPointer = mPointer;
+        return copy;
+    }
+
+    /**
+     * Returns the bits from start through end (inclusive) in reversed bit order as an array of ones and zeros
+     */
+    public int[] toReverseIntegerArray(int start, int end)
+    {
+        int[] values = new int[end - start + 1];
+
+        for(int x = nextSetBit(start); x >= start && x <= end; x = nextSetBit(x + 1))
+        {
+            values[end - x] = 1;
+        }
+
+        return values;
+    }
+
+    /**
+     * Returns the bits from start (inclusive) to end (exclusive) as a little endian byte array, where the first bit
+     * is the least significant bit of the first byte.  Trailing zero bytes are omitted.  This is the byte format
+     * produced by BitSet.toByteArray() for a range obtained from a BinaryMessage.
+     */
+    public byte[] toLittleEndianByteArray(int start, int end)
+    {
+        int last = -1;
+
+        for(int x = nextSetBit(start); x >= 0 && x < end; x = nextSetBit(x + 1))
+        {
+            last = x;
+        }
+
+        byte[] bytes = new byte[last < 0 ? 0 : ((last - start) >>> 3) + 1];
+
+        for(int x = nextSetBit(start); x >= 0 && x <= last; x = nextSetBit(x + 1))
+        {
+            int index = x - start;
+            bytes[index >>> 3] |= 1 << (index & 7);
+        }
+
+        return bytes;
+    }
+
+    /**
+     * Creates a buffer loaded from a string of zeros and ones
+     */
+    public static BitBuffer load(String message)
+    {
+        if(!message.matches("[01]*"))
+        {
+            throw new IllegalArgumentException("Message must contain only zeros and ones");
+        }
+
+        BitBuffer buffer = new BitBuffer(message.length());
+
+        for(int x = 0; x < message.length(); x++)
+        {
+            if(message.charAt(x) == '1')
+            {
+                buffer.set(x);
+            }
+        }
+
+        return buffer;
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder(mSize);
+
+        for(int x = 0; x < mSize; x++)
+        {
+            sb.append(get(x) ? '1' : '0');
+        }
+
+        return sb.toString();
+    }
+}
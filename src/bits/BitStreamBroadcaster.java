@@ -0,0 +1,68 @@
+/*******************************************************************************
+ *     SDR Trunk 
+ *     Copyright (C) 2014 Dennis Sheirer
+ * 
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ * 
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ * 
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>
+ ******************************************************************************/
+package bits;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import sample.Listener;
+
+/**
+ * Broadcasts packed bit stream words to multiple listeners.  Single (boxed)
+ * bits are also accepted and broadcast as one bit words so that a bit stream
+ * can be routed through Boolean instrumentation taps.
+ */
+public class BitStreamBroadcaster implements IBitStreamListener, Listener<Boolean>
+{
+	private List<IBitStreamListener> mListeners = new CopyOnWriteArrayList<>();
+
+	@Override
+	public void receive( long bits, int count )
+	{
+		for( IBitStreamListener listener: mListeners )
+		{
+			listener.receive( bits, count );
+		}
+	}
+	
+	@Override
+	public void receive( Boolean bit )
+	{
+		receive( bit ? 1l : 0l, 1 );
+	}
+	
+	public void addListener( IBitStreamListener listener )
+	{
+		mListeners.add( listener );
+	}
+	
+	public void removeListener( IBitStreamListener listener )
+	{
+		mListeners.remove( listener );
+	}
+	
+	public boolean hasListeners()
+	{
+		return !mListeners.isEmpty();
+	}
+	
+	public void dispose()
+	{
+		mListeners.clear();
+	}
+}
@@ -0,0 +1,28 @@
+/*******************************************************************************
+ *     SDR Trunk 
+ *     Copyright (C) 2014 Dennis Sheirer
+ * 
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ * 
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ * 
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>
+ ******************************************************************************/
+package bits;
+
+/**
+ * Listener for a stream of bits delivered as packed words.  Each call delivers
+ * the count (1 - 64) least significant bits of the bits argument, ordered from
+ * oldest (most significant of the delivered bits) to newest (bit 0).
+ */
+public interface IBitStreamListener
+{
+	public void receive( long bits, int count );
+}
@@ -33,7 +33,7 @@ import dsp.symbol.SyncDetectProvider;
  * Will extract multiple messages simultaneously, for each sync pattern that is
  * encountered within the bitset bit stream.
  */
-public class MessageFramer implements Listener<Boolean>, 
+public class MessageFramer implements Listener<Boolean>, IBitStreamListener,
 									  SyncDetectProvider
 {
 	private boolean[] mSyncPattern;
@@ -77,6 +77,43 @@ public class MessageFramer implements Listener<Boolean>,
 
     @Override
     public void receive( Boolean bit )
+    {
+    	receive( bit.booleanValue() );
+    }
+
+    /**
+     * Processes a packed word of bits.  While no messages are being assembled
+     * the word is scanned for the sync pattern without per-bit processing.
+     */
+    @Override
+    public void receive( long bits, int count )
+    {
+    	int remaining = count;
+    	
+    	while( remaining > 0 )
+    	{
+    		if( mMessageAssemblers.isEmpty() )
+    		{
+    			remaining -= mMatcher.scan( bits, remaining );
+    			
+    			if( mMatcher.matches() )
+    			{
+    				syncDetected();
+    			}
+    		}
+    		else
+    		{
+    			remaining--;
+    			
+    			receive( ( ( bits >>> remaining ) & 1l ) == 1l );
+    		}
+    	}
+    }
+    
+    /**
+     * Processes a single bit
+     */
+    public void receive( boolean bit )
     {
     	mMatcher.receive( bit );
     	
@@ -104,16 +141,24 @@ public class MessageFramer implements Listener<Boolean>,
         /* Check for sync match and add new message assembler */
     	if( mMatcher.matches() )
     	{
-            addMessageAssembler( new MessageAssembler( mMessageLength, mSyncPattern ) );
-            
-            /* Notify any sync detect listener(s) */
-            if( mSyncDetectListener != null )
-            {
-            	mSyncDetectListener.syncDetected();
-            }
+    		syncDetected();
     	}
     }
     
+    /**
+     * Adds a new message assembler for the detected sync pattern
+     */
+    private void syncDetected()
+    {
+        addMessageAssembler( new MessageAssembler( mMessageLength, mSyncPattern ) );
+        
+        /* Notify any sync detect listener(s) */
+        if( mSyncDetectListener != null )
+        {
+        	mSyncDetectListener.syncDetected();
+        }
+    }
+    
     /**
      * Causes all messages currently under assembly to be forcibly
      * sent (ie flushed) to all registered message listeners, and
@@ -170,7 +215,7 @@ public class MessageFramer implements Listener<Boolean>,
      * By design, multiple message assemblers can exist at the same time, each
      * assembling different, overlapping potential messages
      */
-    private class MessageAssembler implements Listener<Boolean>
+    private class MessageAssembler
     {
         BinaryMessage mMessage;
         boolean mComplete = false;
@@ -196,11 +241,10 @@ public class MessageFramer implements Listener<Boolean>,
         	mMessage = null;
         }
 
-        @Override
         /**
          * Receives one bit at a time, and assembles them into a message
          */
-        public void receive( Boolean bit )
+        public void receive( boolean bit )
         {
             try
             {
@@ -102,6 +102,31 @@ public class SyncPatternMatcher
 		}
 	}
 
+	/**
+	 * Scans a packed word of bits (see IBitStreamListener) for the sync 
+	 * pattern, starting with the most significant of the count bits.  Stops
+	 * after the first bit that produces a sync match.
+	 * 
+	 * @param bits containing the count least significant bits to scan
+	 * @param count of bits to scan
+	 * @return number of bits consumed, including the bit that produced a sync
+	 * match, or count if no sync match was detected
+	 */
+	public int scan( long bits, int count )
+	{
+		for( int x = count - 1; x >= 0; x-- )
+		{
+			mBits = ( ( mBits << 1 ) | ( ( bits >>> x ) & 1l ) ) & mMask;
+			
+			if( matches() )
+			{
+				return count - x;
+			}
+		}
+		
+		return count;
+	}
+
 	/**
 	 * Indicates if the most recently received bit sequence matches the 
 	 * sync pattern
@@ -100,11 +100,7 @@ public class AliasedIdentifier
         AliasedIdentifier copy = new AliasedIdentifier();
 
         copy.setAlias(mAlias);
-
-        if(mIdentifier != null)
-        {
-            copy.setIdentifier(new String(mIdentifier));
-        }
+        copy.setIdentifier(mIdentifier);
 
         return copy;
     }
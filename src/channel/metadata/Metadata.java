@@ -39,8 +39,9 @@ public class Metadata
     private static int UNIQUE_METADATA_ID_GENERATOR = 0;
 
     private int mMetadataID;
+    private long mVersion;
 
-    protected boolean mUpdated;
+    protected volatile boolean mUpdated;
     protected DecoderType mPrimaryDecoderType;
     protected boolean mSelected;
     protected State mState = State.IDLE;
@@ -64,12 +65,17 @@ public class Metadata
     protected Boolean mRecordable = false;
     protected Boolean mDoNotRecord;
     private Set<BroadcastChannel> mBroadcastChannels;
+    private String mUniqueIdentifier;
 
 
     /**
      * Channel metadata.  Contains all attributes that reflect the state and current attribute values for a channel
      * that is currently decoding.  This metadata is intended to support any decoding channel gui components to
      * graphically convey the current state of a decoding channel and to provide audio metadata
+     *
+     * Metadata instances are not changed after they are created.  Only the MutableMetadata subclass changes, and it
+     * publishes its current state as a shared metadata snapshot (see getSnapshot()) that downstream audio components
+     * can retain and inspect from any thread.
      */
     public Metadata()
     {
@@ -91,6 +97,11 @@ public class Metadata
      */
     public String getUniqueIdentifier()
     {
+        if(mUniqueIdentifier != null)
+        {
+            return mUniqueIdentifier;
+        }
+
         return "SRC:" + mMetadataID +
             " ID:" + (mPrimaryAddressTo.hasIdentifier() ? mPrimaryAddressTo.getIdentifier() : "UNKNOWN");
     }
@@ -100,13 +111,36 @@ public class Metadata
      * metadata.  This method is primarily used by downstream audio playback and audio recording to signal when changes
      * are made to the metadata that requires the downstream component to reinspect the metadata.
      *
-     * This flag is reset to false immediately after a copy is made of this metadata via the copyOf() method.
+     * This flag is reset to false immediately after a copy is made of this metadata via the copyOf() method, or when
+     * mutable metadata creates a new snapshot.  Snapshots are always flagged as updated since they are shared by
+     * many audio packets.  Use getVersion() to detect a change between snapshots.
      */
     public boolean isUpdated()
     {
         return mUpdated;
     }
 
+    /**
+     * Snapshot version.  Each snapshot published by a mutable metadata has a higher version than the previous
+     * snapshot, so components can detect metadata changes by comparing versions (or snapshot references).
+     *
+     * @return snapshot version, or 0 for mutable metadata and metadata copies
+     */
+    public long getVersion()
+    {
+        return mVersion;
+    }
+
+    /**
+     * Immutable snapshot of the current state of this metadata that can be shared by any number of audio packets.
+     * Metadata instances don't change, so this metadata is its own snapshot.  Mutable metadata overrides this method
+     * to create a new snapshot only when an attribute has changed since the previous snapshot.
+     */
+    public Metadata getSnapshot()
+    {
+        return this;
+    }
+
     /**
      * Audio Priority as the highest audio priority value from across the primary and secondary identifier aliases.
      *
@@ -614,21 +648,58 @@ public class Metadata
      * when initially requested.
      */
     public Metadata copyOf()
+    {
+        Metadata copy = copy();
+
+        copy.mUpdated = mUpdated;
+
+        //Reset the updated flag
+        mUpdated = false;
+
+        return copy;
+    }
+
+    /**
+     * Creates a snapshot copy of this metadata with the audio priority, recordable, broadcast channels and unique
+     * identifier determined up front, so that the snapshot is never modified after it is published to other threads.
+     *
+     * @param version for the snapshot
+     */
+    protected Metadata createSnapshot(long version)
+    {
+        Metadata snapshot = copy();
+
+        snapshot.mVersion = version;
+        snapshot.mUpdated = true;
+
+        snapshot.determineAudioPriority();
+        snapshot.determineRecordable();
+        snapshot.determineBroadcastChannels();
+        snapshot.mUniqueIdentifier = snapshot.getUniqueIdentifier();
+
+        return snapshot;
+    }
+
+    /**
+     * Copies the attribute values of this metadata.  Strings and aliases are immutable and are shared with the copy.
+     */
+    private Metadata copy()
     {
         Metadata copy = new Metadata(mMetadataID);
 
         copy.mDoNotRecord = mDoNotRecord;
         copy.mRecordable = mRecordable;
+        copy.mSelected = mSelected;
         copy.mState = mState;
         copy.mPrimaryDecoderType = mPrimaryDecoderType;
         copy.mChannelFrequency = mChannelFrequency;
 
-        copy.mChannelConfigurationSystem = hasChannelConfigurationSystem() ? new String(mChannelConfigurationSystem) : null;
-        copy.mChannelConfigurationSite = hasChannelConfigurationSite() ? new String(mChannelConfigurationSite) : null;
-        copy.mChannelConfigurationName = hasChannelConfigurationName() ? new String(mChannelConfigurationName) : null;
-        copy.mChannelFrequencyLabel = hasChannelFrequencyLabel() ? new String(mChannelFrequencyLabel) : null;
-        copy.mMessage = hasMessage() ? new String(mMessage) : null;
-        copy.mMessageType = hasMessageType() ? new String(mMessageType) : null;
+        copy.mChannelConfigurationSystem = mChannelConfigurationSystem;
+        copy.mChannelConfigurationSite = mChannelConfigurationSite;
+        copy.mChannelConfigurationName = mChannelConfigurationName;
+        copy.mChannelFrequencyLabel = mChannelFrequencyLabel;
+        copy.mMessage = mMessage;
+        copy.mMessageType = mMessageType;
 
         copy.mNetworkID1 = mNetworkID1.copyOf();
         copy.mNetworkID2 = mNetworkID2.copyOf();
@@ -637,11 +708,6 @@ public class Metadata
         copy.mSecondaryAddressFrom = mSecondaryAddressFrom.copyOf();
         copy.mSecondaryAddressTo = mSecondaryAddressTo.copyOf();
 
-        copy.mUpdated = mUpdated;
-
-        //Reset the updated flag
-        mUpdated = false;
-
         return copy;
     }
 }
@@ -31,6 +31,9 @@ public class MutableMetadata extends Metadata implements Listener<AttributeChang
 
     private Broadcaster<MutableMetadataChangeEvent> mMetadataChangeEventBroadcaster = new Broadcaster<>();
 
+    private Metadata mSnapshot;
+    private long mSnapshotVersion;
+
     /**
      * Mutable channel metadata.  Contains all attributes that reflect the state and current attribute values for a
      * channel that is currently decoding.  This metadata is intended to support any decoding channel gui components to
@@ -60,6 +63,27 @@ public class MutableMetadata extends Metadata implements Listener<AttributeChang
     public void setRecordable(boolean recordable)
     {
         mRecordable = recordable;
+        mUpdated = true;
+    }
+
+    /**
+     * Immutable snapshot of the current attribute values.  A new snapshot is created only when an attribute has
+     * changed since the previous snapshot, otherwise the previous snapshot is returned.  Audio modules attach the
+     * snapshot to each audio packet, so all of the packets produced between attribute changes share one snapshot
+     * and its audio priority, recordable and broadcast channel values are determined once.
+     */
+    @Override
+    public Metadata getSnapshot()
+    {
+        if(mSnapshot == null || mUpdated)
+        {
+            //Reset the flag before copying so that a change made while copying produces another snapshot
+            mUpdated = false;
+
+            mSnapshot = createSnapshot(++mSnapshotVersion);
+        }
+
+        return mSnapshot;
     }
 
     /**
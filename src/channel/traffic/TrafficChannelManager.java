@@ -34,6 +34,7 @@ import module.decode.event.ICallEventProvider;
 import module.log.config.EventLogConfiguration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import properties.SystemProperties;
 import record.config.RecordConfiguration;
 import sample.Listener;
 import source.config.SourceConfigTuner;
@@ -52,6 +53,7 @@ public class TrafficChannelManager extends Module implements ICallEventProvider,
     public static final String CHANNEL_START_REJECTED = "CHANNEL START REJECTED";
     public static final String NO_TUNER_AVAILABLE = "NO TUNER AVAILABLE";
     public static final String UNKNOWN_FREQUENCY = "UNKNOWN FREQUENCY";
+    public static final String WARM_POOL_SIZE_PROPERTY = "traffic.channel.warm.pool.size";
 
     private int mTrafficChannelPoolMaximumSize = DecodeConfiguration.TRAFFIC_CHANNEL_LIMIT_DEFAULT;
     private List<Channel> mTrafficChannelPool = new ArrayList<Channel>();
@@ -83,6 +85,10 @@ public class TrafficChannelManager extends Module implements ICallEventProvider,
      * @param aliasListName designated for the channel
      * @param trafficChannelPoolSize - maximum number of allocated traffic channels
      * in the pool
+     *
+     * The number of traffic channels, with idle processing chains, that are
+     * constructed ahead of the first channel grant is set by the
+     * traffic.channel.warm.pool.size system property.
      */
     public TrafficChannelManager(ChannelModel channelModel,
                                  DecodeConfiguration decodeConfiguration,
@@ -106,9 +112,11 @@ public class TrafficChannelManager extends Module implements ICallEventProvider,
     @Override
     public void dispose()
     {
+        //Removing the channels stops any that are processing and disposes the processing chains retained for the
+        //idle channels in the warm pool
         for(Channel trafficChannel : mTrafficChannelPool)
         {
-            mChannelModel.broadcast(new ChannelEvent(trafficChannel, Event.REQUEST_DISABLE));
+            mChannelModel.removeChannel(trafficChannel);
         }
 
         mTrafficChannelPool.clear();
@@ -147,19 +155,7 @@ public class TrafficChannelManager extends Module implements ICallEventProvider,
 
             if(channel == null && mTrafficChannelPool.size() < mTrafficChannelPoolMaximumSize)
             {
-                channel = new Channel("Traffic", ChannelType.TRAFFIC);
-
-                channel.setDecodeConfiguration(mDecodeConfiguration);
-
-                channel.setEventLogConfiguration(mEventLogConfiguration);
-
-                channel.setRecordConfiguration(mRecordConfiguration);
-
-                channel.setAliasListName(mAliasListName);
-
-                mChannelModel.addChannel(channel);
-
-                mTrafficChannelPool.add(channel);
+                channel = createChannel();
             }
 
 			/* If we have a configured channel, update metadata */
@@ -177,6 +173,30 @@ public class TrafficChannelManager extends Module implements ICallEventProvider,
         return channel;
     }
 
+    /**
+     * Constructs a new traffic channel and adds it to the channel model and to
+     * the traffic channel pool.  The channel processing manager constructs an
+     * idle processing chain for each traffic channel that is added to the model.
+     */
+    private Channel createChannel()
+    {
+        Channel channel = new Channel("Traffic", ChannelType.TRAFFIC);
+
+        channel.setDecodeConfiguration(mDecodeConfiguration);
+
+        channel.setEventLogConfiguration(mEventLogConfiguration);
+
+        channel.setRecordConfiguration(mRecordConfiguration);
+
+        channel.setAliasListName(mAliasListName);
+
+        mChannelModel.addChannel(channel);
+
+        mTrafficChannelPool.add(channel);
+
+        return channel;
+    }
+
     /**
      * Processes the event and creates a traffic channel is resources are
      * available
@@ -337,9 +357,23 @@ public class TrafficChannelManager extends Module implements ICallEventProvider,
     {
     }
 
+    /**
+     * Pre-constructs the warm pool of idle traffic channels so that channel
+     * grants don't incur the cost of processing chain construction
+     */
     @Override
     public void start(ScheduledExecutorService executor)
     {
+        int warmPoolSize = Math.min(SystemProperties.getInstance().get(WARM_POOL_SIZE_PROPERTY, 2),
+            mTrafficChannelPoolMaximumSize);
+
+        synchronized(mTrafficChannelsInUse)
+        {
+            while(mTrafficChannelPool.size() < warmPoolSize)
+            {
+                createChannel();
+            }
+        }
     }
 
     @Override
@@ -28,6 +28,10 @@ import controller.channel.ChannelEvent.Event;
 import controller.channel.map.ChannelMapModel;
 import filter.FilterSet;
 import message.Message;
+import metrics.Counter;
+import metrics.MetricGroup;
+import metrics.MetricRegistry;
+import metrics.Timer;
 import module.Module;
 import module.ProcessingChain;
 import module.decode.DecoderFactory;
@@ -55,6 +59,7 @@ public class ChannelProcessingManager implements ChannelEventListener
     private final static Logger mLog = LoggerFactory.getLogger(ChannelProcessingManager.class);
 
     private Map<Integer,ProcessingChain> mProcessingChains = new HashMap<>();
+    private Map<Integer,SetupLatencyMonitor> mSetupLatencyMonitors = new HashMap<>();
 
     private List<Listener<AudioPacket>> mAudioPacketListeners = new CopyOnWriteArrayList<>();
     private List<Listener<Message>> mMessageListeners = new CopyOnWriteArrayList<>();
@@ -67,6 +72,12 @@ public class ChannelProcessingManager implements ChannelEventListener
     private RecorderManager mRecorderManager;
     private SourceManager mSourceManager;
 
+    private MetricGroup mTrafficMetricGroup = new MetricGroup(MetricGroup.TYPE_PROCESSING_CHAIN, "traffic channels");
+    private Counter mChainsConstructed = mTrafficMetricGroup.counter("chains constructed");
+    private Counter mChainStarts = mTrafficMetricGroup.counter("chain starts");
+    private Timer mGrantToStartLatency = mTrafficMetricGroup.timer("grant to processing start");
+    private Timer mGrantToAudioLatency = mTrafficMetricGroup.timer("grant to first audio");
+
     public ChannelProcessingManager(ChannelModel channelModel,
                                     ChannelMapModel channelMapModel,
                                     AliasModel aliasModel,
@@ -80,6 +91,8 @@ public class ChannelProcessingManager implements ChannelEventListener
         mEventLogManager = eventLogManager;
         mRecorderManager = recorderManager;
         mSourceManager = sourceManager;
+
+        MetricRegistry.getInstance().register(mTrafficMetricGroup);
     }
 
     /**
@@ -153,6 +166,14 @@ public class ChannelProcessingManager implements ChannelEventListener
 
         switch(event.getEvent())
         {
+            case NOTIFICATION_ADD:
+                //Construct traffic channel processing chains ahead of the first channel grant
+                if(channel.getChannelType() == ChannelType.TRAFFIC &&
+                    !mProcessingChains.containsKey(channel.getChannelID()))
+                {
+                    mProcessingChains.put(channel.getChannelID(), createProcessingChain(channel));
+                }
+                break;
             case REQUEST_ENABLE:
                 if(!mProcessingChains.containsKey(channel.getChannelID()) ||
                     !mProcessingChains.get(channel.getChannelID()).isProcessing())
@@ -177,11 +198,17 @@ public class ChannelProcessingManager implements ChannelEventListener
                             break;
                     }
                 }
+                break;
             case NOTIFICATION_DELETE:
                 if(channel.getEnabled())
                 {
                     stopProcessing(channel, true);
                 }
+                else
+                {
+                    //Idle traffic channels retain a processing chain that is never started
+                    disposeProcessingChain(channel);
+                }
                 break;
             case NOTIFICATION_CONFIGURATION_CHANGE:
                 if(isProcessing(channel))
@@ -231,34 +258,12 @@ public class ChannelProcessingManager implements ChannelEventListener
 
         if(processingChain == null)
         {
-            processingChain = new ProcessingChain(channel.getChannelType());
-
-			/* Register global listeners */
-            for(Listener<AudioPacket> listener : mAudioPacketListeners)
-            {
-                processingChain.addAudioPacketListener(listener);
-            }
-
-            for(Listener<Message> listener : mMessageListeners)
-            {
-                processingChain.addMessageListener(listener);
-            }
-
-            //Register channel to receive frequency correction events to show in the spectral display (hack!)
-            processingChain.addFrequencyChangeListener(channel);
-
-			/* Processing Modules */
-            List<Module> modules = DecoderFactory.getModules(mChannelModel, mChannelMapModel, this,
-                mAliasModel, channel, processingChain.getChannelState().getMutableMetadata());
-            processingChain.addModules(modules);
-
-			/* Setup message activity model with filtering */
-            FilterSet<Message> messageFilter = DecoderFactory.getMessageFilters(modules);
-            MessageActivityModel messageModel = new MessageActivityModel(messageFilter);
-            processingChain.setMessageActivityModel(messageModel);
-
+            processingChain = createProcessingChain(channel);
         }
 
+        //Register channel to receive frequency correction events to show in the spectral display (hack!)
+        processingChain.addFrequencyChangeListener(channel);
+
         //Set the recordable flag to true if the user has requested recording.  The metadata class can still
         //override recordability if any of the aliased values has 'Do Not Record' alias identifier.
         boolean recordable = channel.getRecordConfiguration() != null &&
@@ -323,8 +328,21 @@ public class ChannelProcessingManager implements ChannelEventListener
                 trafficChannelEvent.getCallEvent());
         }
 
+        SetupLatencyMonitor monitor = mSetupLatencyMonitors.get(channel.getChannelID());
+
+        if(monitor != null && event instanceof TrafficChannelEvent)
+        {
+            monitor.arm(((TrafficChannelEvent) event).getGrantTime());
+        }
+
         processingChain.start();
 
+        if(event instanceof TrafficChannelEvent)
+        {
+            mChainStarts.increment();
+            mGrantToStartLatency.add(System.nanoTime() - ((TrafficChannelEvent) event).getGrantTime());
+        }
+
         getChannelMetadataModel().add(processingChain.getChannelState().getMutableMetadata(), channel);
 
         channel.setEnabled(true);
@@ -344,7 +362,22 @@ public class ChannelProcessingManager implements ChannelEventListener
 
             getChannelMetadataModel().remove(processingChain.getChannelState().getMutableMetadata());
 
-            processingChain.stop();
+            SetupLatencyMonitor monitor = mSetupLatencyMonitors.get(channel.getChannelID());
+
+            if(monitor != null)
+            {
+                monitor.disarm();
+            }
+
+            if(remove)
+            {
+                processingChain.stop();
+            }
+            else
+            {
+                //Retain the stopped source so that it can be retuned for the next channel grant
+                mSourceManager.recycle(processingChain.stop(false));
+            }
 
             processingChain.removeEventLoggingModules();
 
@@ -359,12 +392,75 @@ public class ChannelProcessingManager implements ChannelEventListener
             if(remove)
             {
                 mProcessingChains.remove(channel.getChannelID());
+                mSetupLatencyMonitors.remove(channel.getChannelID());
 
                 processingChain.dispose();
             }
         }
     }
 
+    /**
+     * Removes and disposes the processing chain and setup latency monitor retained for a channel that is not
+     * processing.
+     */
+    private void disposeProcessingChain(Channel channel)
+    {
+        ProcessingChain processingChain = mProcessingChains.remove(channel.getChannelID());
+        SetupLatencyMonitor monitor = mSetupLatencyMonitors.remove(channel.getChannelID());
+
+        if(processingChain != null)
+        {
+            if(monitor != null)
+            {
+                monitor.disarm();
+                processingChain.removeAudioPacketListener(monitor);
+            }
+
+            processingChain.dispose();
+        }
+    }
+
+    /**
+     * Constructs a processing chain with decoder modules for the channel.  The processing chain does not have a
+     * source and is not started.
+     */
+    private ProcessingChain createProcessingChain(Channel channel)
+    {
+        ProcessingChain processingChain = new ProcessingChain(channel.getChannelType(), channel.getName());
+
+        /* Register global listeners */
+        for(Listener<AudioPacket> listener : mAudioPacketListeners)
+        {
+            processingChain.addAudioPacketListener(listener);
+        }
+
+        for(Listener<Message> listener : mMessageListeners)
+        {
+            processingChain.addMessageListener(listener);
+        }
+
+        /* Processing Modules */
+        List<Module> modules = DecoderFactory.getModules(mChannelModel, mChannelMapModel, this,
+            mAliasModel, channel, processingChain.getChannelState().getMutableMetadata());
+        processingChain.addModules(modules);
+
+        /* Setup message activity model with filtering */
+        FilterSet<Message> messageFilter = DecoderFactory.getMessageFilters(modules);
+        MessageActivityModel messageModel = new MessageActivityModel(messageFilter);
+        processingChain.setMessageActivityModel(messageModel);
+
+        if(channel.getChannelType() == ChannelType.TRAFFIC)
+        {
+            mChainsConstructed.increment();
+
+            SetupLatencyMonitor monitor = new SetupLatencyMonitor();
+            processingChain.addAudioPacketListener(monitor);
+            mSetupLatencyMonitors.put(channel.getChannelID(), monitor);
+        }
+
+        return processingChain;
+    }
+
     /**
      * Adds a message listener that will be added to all channels to receive
      * any messages.
@@ -398,4 +494,48 @@ public class ChannelProcessingManager implements ChannelEventListener
     {
         mMessageListeners.remove(listener);
     }
+
+    /**
+     * Measures traffic channel setup latency from the channel grant to the first decoded audio packet produced by
+     * the traffic channel processing chain.
+     */
+    public class SetupLatencyMonitor implements Listener<AudioPacket>
+    {
+        private volatile long mGrantTime;
+
+        /**
+         * Arms this monitor to measure the latency to the next audio packet
+         * @param grantTime system nano time of the channel grant
+         */
+        public void arm(long grantTime)
+        {
+            mGrantTime = grantTime;
+        }
+
+        /**
+         * Disarms this monitor when the channel stops before producing audio
+         */
+        public void disarm()
+        {
+            mGrantTime = 0;
+        }
+
+        @Override
+        public void receive(AudioPacket audioPacket)
+        {
+            long grantTime = mGrantTime;
+
+            if(grantTime != 0 && audioPacket.getType() == AudioPacket.Type.AUDIO)
+            {
+                mGrantTime = 0;
+
+                long latency = System.nanoTime() - grantTime;
+
+                mGrantToAudioLatency.add(latency);
+
+                mLog.debug("Traffic channel setup latency grant to first audio: " +
+                    (latency / 1000000) + " ms");
+            }
+        }
+    }
 }
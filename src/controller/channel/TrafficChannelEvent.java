@@ -7,6 +7,7 @@ public class TrafficChannelEvent extends ChannelEvent
 {
 	private TrafficChannelManager mTrafficChannelManager;
 	private CallEvent mCallEvent;
+	private long mGrantTime = System.nanoTime();
 	
 	/**
 	 * Call event with traffic channel manager for call back, and original creation event.
@@ -31,4 +32,12 @@ public class TrafficChannelEvent extends ChannelEvent
 	{
 		return mCallEvent;
 	}
+	
+	/**
+	 * System nano time when the channel grant was dispatched as this event
+	 */
+	public long getGrantTime()
+	{
+		return mGrantTime;
+	}
 }
@@ -17,14 +17,16 @@
  ******************************************************************************/
 package dsp;
 
+import bits.IBitStreamListener;
 import sample.Listener;
 
-public class NRZDecoder implements Listener<Boolean>
+public class NRZDecoder implements Listener<Boolean>, IBitStreamListener
 {
 	public final static boolean MODE_NORMAL = true;
 	public final static boolean MODE_INVERTED = false;
 	
 	private Listener<Boolean> mListener;
+	private IBitStreamListener mBitStreamListener;
 	private boolean mMode = MODE_NORMAL;
 	private boolean mPrevious;
 
@@ -35,7 +37,8 @@ public class NRZDecoder implements Listener<Boolean>
 	 * with the MODE_INVERTED argument for NRZ-I output.
 	 * 
 	 * Performs XOR of incoming bit with previous output and sends the result
-	 * to the registered listener.  
+	 * to the registered listener(s).  Packed bit stream words are decoded a
+	 * word at a time.
 	 */
 	public NRZDecoder( boolean mode )
 	{
@@ -50,20 +53,57 @@ public class NRZDecoder implements Listener<Boolean>
 	public void dispose()
 	{
 		mListener = null;
+		mBitStreamListener = null;
 	}
 
 	@Override
     public void receive( Boolean bit )
     {
-		boolean result = mPrevious ^ bit;
+		receive( bit ? 1l : 0l, 1 );
+    }
+
+	/**
+	 * Decodes a packed word of bits.  Each output bit is the XOR of the 
+	 * previous output bit and the input bit, which is the running (prefix) XOR
+	 * of the input bits, calculated for all bits in the word at once.
+	 */
+	@Override
+	public void receive( long bits, int count )
+	{
+		long mask = count == 64 ? -1l : ( 1l << count ) - 1;
 		
-		if( mListener != null )
+		long result = bits & mask;
+		
+		/* Fold each bit into all less significant (newer) bit positions */
+		result ^= result >>> 1;
+		result ^= result >>> 2;
+		result ^= result >>> 4;
+		result ^= result >>> 8;
+		result ^= result >>> 16;
+		result ^= result >>> 32;
+		
+		if( mPrevious )
 		{
-			mListener.receive( mMode ? result : !result );
+			result ^= mask;
 		}
+
+		mPrevious = ( result & 1l ) == 1l;
 		
-		mPrevious = result;
-    }
+		long output = mMode ? result : ~result & mask;
+		
+		if( mBitStreamListener != null )
+		{
+			mBitStreamListener.receive( output, count );
+		}
+		
+		if( mListener != null )
+		{
+			for( int x = count - 1; x >= 0; x-- )
+			{
+				mListener.receive( ( ( output >>> x ) & 1l ) == 1l );
+			}
+		}
+	}
 
 	public void setListener( Listener<Boolean> listener )
 	{
@@ -74,4 +114,14 @@ public class NRZDecoder implements Listener<Boolean>
 	{
 		mListener = null;
 	}
+
+	public void setBitStreamListener( IBitStreamListener listener )
+	{
+		mBitStreamListener = listener;
+	}
+	
+	public void removeBitStreamListener()
+	{
+		mBitStreamListener = null;
+	}
 }
@@ -0,0 +1,508 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package dsp.filter.channelizer;
+
+import dsp.filter.FilterFactory;
+import dsp.filter.Window;
+import org.jtransforms.fft.FloatFFT_1D;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sample.Listener;
+import sample.complex.ComplexBuffer;
+import sample.complex.ComplexBufferPool;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * FFT-based polyphase filter bank channelizer that splits a wideband complex sample stream into M equally spaced
+ * channels (bins) in a single pass.  Processing cost depends only on the wideband sample rate and is independent of
+ * the number of channels being consumed.
+ *
+ * The filter bank is 2x oversampled: bin spacing is sampleRate / M and each bin is produced at 2 * sampleRate / M
+ * (96 kHz).  The prototype low-pass filter passes half of the bin spacing plus the channel pass bandwidth, so that a
+ * channel located anywhere within a bin remains unaliased and can be fine-tuned with a residual mixer at the bin
+ * rate before final decimation to the 48 kHz channel rate.
+ *
+ * Bin k (0 to M-1) output is calculated as:
+ *
+ *     y_k(n) = (-1)^(k*n) * IDFT_k( v_p ),  v_p = sum_r h[p + rM] * x[nD - p - rM]
+ *
+ * where D = M/2 is the decimation rate.  Bins 0 to M/2 - 1 cover the positive frequencies and bins M/2 to M-1 cover
+ * the negative frequencies, relative to the tuner center frequency.
+ *
+ * Each active bin accumulates its output into fixed-length pooled buffers that are dispatched to the bin listeners
+ * once full.  Listeners must release (decrement the user count) each buffer once processed.
+ */
+public class ComplexPolyphaseChannelizer implements Listener<ComplexBuffer>
+{
+    private final static Logger mLog = LoggerFactory.getLogger(ComplexPolyphaseChannelizer.class);
+
+    public static final int CHANNEL_SAMPLE_RATE = 96000;
+    private static final int CHANNEL_PASS_FREQUENCY = 12000;
+    private static final int ATTENUATION = 60;
+    private static final int MINIMUM_CHANNEL_COUNT = 4;
+
+    //Complex samples per output buffer dispatched to each channel (~21 ms)
+    private static final int OUTPUT_BUFFER_SAMPLES = 2048;
+
+    //Input sample storage before history buffer compaction
+    private static final int BUFFER_EXTENSION = 8192;
+
+    private int mSampleRate;
+    private int mChannelCount;
+    private int mDecimation;
+    private int mTapsPerBranch;
+    private int mHistoryLength;
+
+    //Prototype filter taps arranged per tap row (r) and reversed within each row to support contiguous access
+    private float[][] mFilterRows;
+
+    //Input history, de-interleaved for contiguous inner loops
+    private float[] mInphaseBuffer;
+    private float[] mQuadratureBuffer;
+    private int mBufferPointer;
+    private int mSamplesUntilOutput;
+    private boolean mOddOutput = false;
+
+    private float[] mAccumulatorInphase;
+    private float[] mAccumulatorQuadrature;
+    private float[] mTransform;
+    private FloatFFT_1D mFFT;
+
+    private ChannelOutput[] mChannelOutputs;
+    private List<ChannelOutput> mActiveOutputs = new CopyOnWriteArrayList<>();
+    private ComplexBufferPool mBufferPool = new ComplexBufferPool(256);
+
+    //Tuner timestamp of the wideband buffer being channelized, applied to each output buffer when it is started
+    private long mInputTimestamp;
+
+    /**
+     * Constructs a channelizer for the wideband sample rate.
+     *
+     * @param sampleRate of the wideband complex sample stream.  Must be supported (see isSupported()).
+     * @throws IllegalArgumentException if the sample rate is not supported
+     */
+    public ComplexPolyphaseChannelizer(int sampleRate)
+    {
+        if(!isSupported(sampleRate))
+        {
+            throw new IllegalArgumentException("Channelizer does not support sample rate [" + sampleRate + "]");
+        }
+
+        mSampleRate = sampleRate;
+        mChannelCount = sampleRate / (CHANNEL_SAMPLE_RATE / 2);
+        mDecimation = mChannelCount / 2;
+
+        float[] taps = getPrototypeFilter(sampleRate, mChannelCount);
+
+        mTapsPerBranch = taps.length / mChannelCount;
+        mHistoryLength = taps.length;
+
+        mFilterRows = new float[mTapsPerBranch][mChannelCount];
+
+        for(int r = 0; r < mTapsPerBranch; r++)
+        {
+            for(int t = 0; t < mChannelCount; t++)
+            {
+                mFilterRows[r][t] = taps[r * mChannelCount + mChannelCount - 1 - t];
+            }
+        }
+
+        mInphaseBuffer = new float[mHistoryLength + BUFFER_EXTENSION];
+        mQuadratureBuffer = new float[mHistoryLength + BUFFER_EXTENSION];
+        mBufferPointer = mHistoryLength;
+        mSamplesUntilOutput = mDecimation;
+
+        mAccumulatorInphase = new float[mChannelCount];
+        mAccumulatorQuadrature = new float[mChannelCount];
+        mTransform = new float[mChannelCount * 2];
+        mFFT = new FloatFFT_1D(mChannelCount);
+
+        mChannelOutputs = new ChannelOutput[mChannelCount];
+
+        mLog.debug("Channelizer - sample rate:" + sampleRate + " channels:" + mChannelCount +
+            " taps:" + taps.length);
+    }
+
+    /**
+     * Indicates if the sample rate is supported by the channelizer.  The sample rate must be an even multiple of
+     * 48 kHz so that the oversampled channel rate is exactly 96 kHz.
+     */
+    public static boolean isSupported(int sampleRate)
+    {
+        int halfChannelRate = CHANNEL_SAMPLE_RATE / 2;
+
+        return sampleRate > 0 &&
+            sampleRate % halfChannelRate == 0 &&
+            (sampleRate / halfChannelRate) % 2 == 0 &&
+            (sampleRate / halfChannelRate) >= MINIMUM_CHANNEL_COUNT;
+    }
+
+    /**
+     * Designs the windowed-sinc prototype low-pass filter with a length that is a multiple of the channel count
+     * and unity DC gain.
+     */
+    private static float[] getPrototypeFilter(int sampleRate, int channelCount)
+    {
+        int channelSpacing = sampleRate / channelCount;
+        int passFrequency = (channelSpacing / 2) + CHANNEL_PASS_FREQUENCY;
+        int stopFrequency = CHANNEL_SAMPLE_RATE - passFrequency;
+
+        int tapCount = FilterFactory.getTapCount(sampleRate, passFrequency, stopFrequency, ATTENUATION);
+        int tapsPerBranch = (int)Math.ceil((double)tapCount / (double)channelCount);
+        int length = tapsPerBranch * channelCount;
+
+        double cutoff = (double)(passFrequency + stopFrequency) / 2.0 / (double)sampleRate;
+        double[] window = Window.getWindow(Window.WindowType.BLACKMAN, length);
+        double middle = (length - 1) / 2.0;
+
+        float[] taps = new float[length];
+        double sum = 0.0;
+
+        for(int x = 0; x < length; x++)
+        {
+            double t = x - middle;
+            double sinc = (t == 0.0) ? 2.0 * cutoff : Math.sin(2.0 * Math.PI * cutoff * t) / (Math.PI * t);
+            double tap = sinc * window[x];
+            taps[x] = (float)tap;
+            sum += tap;
+        }
+
+        for(int x = 0; x < length; x++)
+        {
+            taps[x] = (float)(taps[x] / sum);
+        }
+
+        return taps;
+    }
+
+    public int getSampleRate()
+    {
+        return mSampleRate;
+    }
+
+    /**
+     * Number of channels (bins) produced by this channelizer
+     */
+    public int getChannelCount()
+    {
+        return mChannelCount;
+    }
+
+    /**
+     * Channel (bin) output sample rate
+     */
+    public int getChannelSampleRate()
+    {
+        return CHANNEL_SAMPLE_RATE;
+    }
+
+    /**
+     * Bin center frequency spacing
+     */
+    public int getChannelSpacing()
+    {
+        return mSampleRate / mChannelCount;
+    }
+
+    /**
+     * Index of the bin closest to the frequency offset from the tuner center frequency
+     *
+     * @param frequencyOffset in hertz relative to the tuner center frequency
+     * @return bin index
+     */
+    public int getChannelIndex(long frequencyOffset)
+    {
+        int index = (int)Math.round((double)frequencyOffset / (double)getChannelSpacing());
+
+        index %= mChannelCount;
+
+        if(index < 0)
+        {
+            index += mChannelCount;
+        }
+
+        return index;
+    }
+
+    /**
+     * Center frequency of the bin relative to the tuner center frequency
+     *
+     * @param index of the bin
+     * @return signed frequency offset in hertz
+     */
+    public long getChannelFrequency(int index)
+    {
+        int bin = (index < mChannelCount / 2) ? index : index - mChannelCount;
+
+        return (long)bin * getChannelSpacing();
+    }
+
+    /**
+     * Registers the listener to receive sample buffers from the bin
+     */
+    public synchronized void addListener(int index, Listener<ComplexBuffer> listener)
+    {
+        ChannelOutput output = mChannelOutputs[index];
+
+        if(output == null)
+        {
+            output = new ChannelOutput(index);
+            mChannelOutputs[index] = output;
+        }
+
+        output.addListener(listener);
+
+        if(!mActiveOutputs.contains(output))
+        {
+            mActiveOutputs.add(output);
+        }
+    }
+
+    /**
+     * Removes the listener from receiving sample buffers from the bin
+     */
+    public synchronized void removeListener(int index, Listener<ComplexBuffer> listener)
+    {
+        ChannelOutput output = mChannelOutputs[index];
+
+        if(output != null)
+        {
+            output.removeListener(listener);
+
+            if(!output.hasListeners())
+            {
+                mActiveOutputs.remove(output);
+            }
+        }
+    }
+
+    /**
+     * Number of bins that currently have listeners
+     */
+    public int getActiveChannelCount()
+    {
+        return mActiveOutputs.size();
+    }
+
+    /**
+     * Processes the wideband buffer and releases it.
+     */
+    @Override
+    public void receive(ComplexBuffer buffer)
+    {
+        mInputTimestamp = buffer.getTimestamp();
+
+        try
+        {
+            process(buffer.getSamples());
+        }
+        catch(Exception e)
+        {
+            mLog.error("Error while channelizing sample buffer", e);
+        }
+
+        buffer.decrementUserCount();
+    }
+
+    /**
+     * Channelizes the interleaved complex samples
+     */
+    public void process(float[] samples)
+    {
+        for(int x = 0; x < samples.length; x += 2)
+        {
+            if(mBufferPointer >= mInphaseBuffer.length)
+            {
+                compact();
+            }
+
+            mInphaseBuffer[mBufferPointer] = samples[x];
+            mQuadratureBuffer[mBufferPointer] = samples[x + 1];
+            mBufferPointer++;
+
+            if(--mSamplesUntilOutput == 0)
+            {
+                calculate();
+                mSamplesUntilOutput = mDecimation;
+            }
+        }
+    }
+
+    /**
+     * Moves the most recent history samples to the front of the input buffers
+     */
+    private void compact()
+    {
+        int start = mBufferPointer - mHistoryLength;
+
+        System.arraycopy(mInphaseBuffer, start, mInphaseBuffer, 0, mHistoryLength);
+        System.arraycopy(mQuadratureBuffer, start, mQuadratureBuffer, 0, mHistoryLength);
+
+        mBufferPointer = mHistoryLength;
+    }
+
+    /**
+     * Calculates one output sample for every bin and distributes the samples of the active bins
+     */
+    private void calculate()
+    {
+        if(mActiveOutputs.isEmpty())
+        {
+            mOddOutput = !mOddOutput;
+            return;
+        }
+
+        float[] accumulatorInphase = mAccumulatorInphase;
+        float[] accumulatorQuadrature = mAccumulatorQuadrature;
+
+        int channels = mChannelCount;
+
+        //Oldest sample used by the first tap row
+        int rowStart = mBufferPointer - channels;
+
+        float[] filter = mFilterRows[0];
+
+        for(int t = 0; t < channels; t++)
+        {
+            accumulatorInphase[t] = filter[t] * mInphaseBuffer[rowStart + t];
+            accumulatorQuadrature[t] = filter[t] * mQuadratureBuffer[rowStart + t];
+        }
+
+        for(int r = 1; r < mTapsPerBranch; r++)
+        {
+            rowStart -= channels;
+            filter = mFilterRows[r];
+
+            for(int t = 0; t < channels; t++)
+            {
+                accumulatorInphase[t] += filter[t] * mInphaseBuffer[rowStart + t];
+                accumulatorQuadrature[t] += filter[t] * mQuadratureBuffer[rowStart + t];
+            }
+        }
+
+        //Accumulators are in reversed (t) order: branch p = channels - 1 - t
+        for(int t = 0; t < channels; t++)
+        {
+            int p = channels - 1 - t;
+            mTransform[2 * p] = accumulatorInphase[t];
+            mTransform[2 * p + 1] = accumulatorQuadrature[t];
+        }
+
+        mFFT.complexInverse(mTransform, false);
+
+        for(ChannelOutput output : mActiveOutputs)
+        {
+            int index = output.getIndex();
+
+            if(mOddOutput && (index & 1) == 1)
+            {
+                output.add(-mTransform[2 * index], -mTransform[2 * index + 1]);
+            }
+            else
+            {
+                output.add(mTransform[2 * index], mTransform[2 * index + 1]);
+            }
+        }
+
+        mOddOutput = !mOddOutput;
+    }
+
+    /**
+     * Removes all listeners and clears the buffer pool
+     */
+    public synchronized void dispose()
+    {
+        mActiveOutputs.clear();
+
+        for(int x = 0; x < mChannelOutputs.length; x++)
+        {
+            mChannelOutputs[x] = null;
+        }
+
+        mBufferPool.clear();
+    }
+
+    /**
+     * Output assembler and listeners for a single bin
+     */
+    private class ChannelOutput
+    {
+        private int mIndex;
+        private List<Listener<ComplexBuffer>> mListeners = new CopyOnWriteArrayList<>();
+        private ComplexBuffer mBuffer;
+        private float[] mSamples;
+        private int mPointer;
+
+        public ChannelOutput(int index)
+        {
+            mIndex = index;
+        }
+
+        public int getIndex()
+        {
+            return mIndex;
+        }
+
+        public void addListener(Listener<ComplexBuffer> listener)
+        {
+            mListeners.add(listener);
+        }
+
+        public void removeListener(Listener<ComplexBuffer> listener)
+        {
+            mListeners.remove(listener);
+        }
+
+        public boolean hasListeners()
+        {
+            return !mListeners.isEmpty();
+        }
+
+        public void add(float inphase, float quadrature)
+        {
+            if(mBuffer == null)
+            {
+                mBuffer = mBufferPool.getBuffer(OUTPUT_BUFFER_SAMPLES * 2);
+                mBuffer.setTimestamp(mInputTimestamp);
+                mSamples = mBuffer.getSamples();
+                mPointer = 0;
+            }
+
+            mSamples[mPointer++] = inphase;
+            mSamples[mPointer++] = quadrature;
+
+            if(mPointer >= mSamples.length)
+            {
+                ComplexBuffer buffer = mBuffer;
+                mBuffer = null;
+                mSamples = null;
+
+                for(Listener<ComplexBuffer> listener : mListeners)
+                {
+                    buffer.incrementUserCount();
+                    listener.receive(buffer);
+                }
+
+                buffer.decrementUserCount();
+            }
+        }
+    }
+}
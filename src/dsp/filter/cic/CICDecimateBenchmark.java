@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package dsp.filter.cic;
+
+import dsp.filter.FilterFactory;
+import dsp.filter.Window.WindowType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sample.Listener;
+import sample.complex.ComplexBuffer;
+
+import java.util.Random;
+
+/**
+ * Measures ComplexPrimeCICDecimate throughput in complex samples per second for a single channel, decimating
+ * 2.4 MS/s and 9.6 MS/s tuner sample streams down to the 48 kHz channel rate.
+ */
+public class CICDecimateBenchmark
+{
+    private final static Logger mLog = LoggerFactory.getLogger(CICDecimateBenchmark.class);
+
+    private static final int BUFFER_LENGTH = 65536;
+    private static final int WARMUP_ITERATIONS = 2000;
+    private static final int TIMED_ITERATIONS = 5000;
+
+    public static void main(String[] args)
+    {
+        benchmark(2400000);
+        benchmark(9600000);
+    }
+
+    private static void benchmark(int sampleRate)
+    {
+        Random random = new Random(1);
+
+        float[] samples = new float[BUFFER_LENGTH];
+
+        for(int x = 0; x < samples.length; x++)
+        {
+            samples[x] = random.nextFloat() * 2.0f - 1.0f;
+        }
+
+        ComplexBuffer buffer = new ComplexBuffer(samples);
+
+        ComplexPrimeCICDecimate filter = FilterFactory.getDecimationFilter(sampleRate, 48000, 1, 12000, 60,
+            WindowType.HAMMING);
+
+        final long[] outputCount = new long[1];
+
+        filter.setListener(new Listener<ComplexBuffer>()
+        {
+            @Override
+            public void receive(ComplexBuffer complexBuffer)
+            {
+                outputCount[0] += complexBuffer.getSamples().length / 2;
+            }
+        });
+
+        for(int x = 0; x < WARMUP_ITERATIONS; x++)
+        {
+            filter.receive(buffer);
+        }
+
+        long start = System.nanoTime();
+
+        for(int x = 0; x < TIMED_ITERATIONS; x++)
+        {
+            filter.receive(buffer);
+        }
+
+        long elapsed = System.nanoTime() - start;
+
+        double samplesPerSecond = ((double)TIMED_ITERATIONS * BUFFER_LENGTH / 2.0) / (elapsed / 1E9);
+
+        mLog.info(String.format("Sample Rate %.1f MS/s - CIC decimation throughput: %.1f MS/s/channel " +
+                "(%.1f%% core/channel) output samples:%d", sampleRate / 1E6, samplesPerSecond / 1E6,
+            100.0 * sampleRate / samplesPerSecond, outputCount[0]));
+    }
+}
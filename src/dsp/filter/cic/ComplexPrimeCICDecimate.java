@@ -18,19 +18,15 @@
  ******************************************************************************/
 package dsp.filter.cic;
 
-import dsp.filter.FilterFactory;
 import dsp.filter.Filters;
 import dsp.filter.Window.WindowType;
-import dsp.filter.fir.complex.ComplexFIRFilter_CB_CB;
 import dsp.filter.halfband.complex.HalfBandFilter_CB_CB;
 import org.apache.commons.lang3.Validate;
 import sample.Listener;
 import sample.complex.ComplexBuffer;
-import sample.complex.ComplexSampleListener;
-import sample.complex.ComplexToComplexBufferAssembler;
-import sample.decimator.ComplexDecimator;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class ComplexPrimeCICDecimate implements Listener<ComplexBuffer>
@@ -43,22 +39,27 @@ public class ComplexPrimeCICDecimate implements Listener<ComplexBuffer>
         467, 479, 487, 491, 499, 503, 509, 521, 523, 541, 547, 557, 563, 569, 571, 577, 587, 593,
         599, 601, 607, 613, 617, 619, 631, 641, 643, 647, 653, 659, 661, 673, 677, 683, 691};
 
-    private ArrayList<DecimatingStage> mDecimatingStages =
-        new ArrayList<DecimatingStage>();
+    /* Decimated output buffers will contain 1024 complex samples */
+    private static final int OUTPUT_BUFFER_SIZE = 2048;
 
-    private DecimatingStage mFirstDecimatingStage;
+    private DecimatingStage[] mDecimatingStages;
 
     private Output mOutput;
 
     /**
      * Non-Recursive Prime-Factor CIC Filter with float sample array inputs and
-     * decimated, single paired i/q float sample output.
+     * decimated, complex buffer output.
      *
      * Implements the CIC filter described in Understanding Digital Signal
      * Processing, 3e, Lyons, on page 769.  This filter is comprised of multiple
      * decimating stages each with a prime factor decimation rate.  Multiple
      * stages are cascaded to achieve the overall decimation rate.
      *
+     * Each inbound buffer is processed an entire array at a time by each
+     * decimating stage in turn, using primitive state arrays, so there are no
+     * per-sample calls between stages.  The output is identical, sample for
+     * sample, to the earlier per-sample stage chain implementation.
+     *
      * This filter supports a maximum decimation rate of 700.  This filter can
      * be adapted to higher decimation rates by adding additional prime factors
      * to the PRIMES array.
@@ -71,43 +72,21 @@ public class ComplexPrimeCICDecimate implements Listener<ComplexBuffer>
     {
         Validate.isTrue(decimation <= 700);
 
-
         List<Integer> stageSizes = getPrimeFactors(decimation);
 
+        mDecimatingStages = new DecimatingStage[stageSizes.size()];
+
         for(int x = 0; x < stageSizes.size(); x++)
         {
-            DecimatingStage stage = new DecimatingStage(stageSizes.get(x), order);
-
-            mDecimatingStages.add(stage);
-
-            if(x == 0)
-            {
-                /* Reference to first stage -- will receive all samples */
-                mFirstDecimatingStage = stage;
-            }
-            else
-            {
-				/* Wire the current stage to the previous stage */
-                mDecimatingStages.get(x - 1).setListener(stage);
-            }
+            mDecimatingStages[x] = new DecimatingStage(stageSizes.get(x), order);
         }
 
-        mOutput = new Output(48000, passFrequency, attenuation, windowType);
-
-        mDecimatingStages.get(mDecimatingStages.size() - 1)
-            .setListener(mOutput);
+        mOutput = new Output();
     }
 
     public void dispose()
     {
-        for(DecimatingStage stage : mDecimatingStages)
-        {
-            stage.dispose();
-        }
-
-        mDecimatingStages.clear();
         mDecimatingStages = null;
-        mFirstDecimatingStage = null;
 
         mOutput.dispose();
         mOutput = null;
@@ -168,14 +147,20 @@ public class ComplexPrimeCICDecimate implements Listener<ComplexBuffer>
     @Override
     public void receive(ComplexBuffer buffer)
     {
-        if(mFirstDecimatingStage != null)
+        DecimatingStage[] stages = mDecimatingStages;
+
+        if(stages != null)
         {
             float[] samples = buffer.getSamples();
+            int length = samples.length;
 
-            for(int x = 0; x < samples.length; x += 2)
+            for(DecimatingStage stage : stages)
             {
-                mFirstDecimatingStage.receive(samples[x], samples[x + 1]);
+                length = stage.process(samples, length);
+                samples = stage.getOutput();
             }
+
+            mOutput.receive(samples, length);
         }
     }
 
@@ -183,214 +168,261 @@ public class ComplexPrimeCICDecimate implements Listener<ComplexBuffer>
      * Decimating stage combines multiple CIC stages with a decimator.  The
      * number of stages is indicated by the order value and the size indicates
      * the decimation rate of this stage.
+     *
+     * Each non-decimating stage is implemented as a running sum across the
+     * most recent (size - 1) samples, subtracting the oldest sample and adding
+     * the newest, so that stage size has essentially no impact on the
+     * computational requirements of the stage.  Samples are de-interleaved
+     * into per-stage work arrays that are prefixed with the (size - 1) sample
+     * history from the previous buffer, so that the oldest sample is read
+     * directly from the work array.  The final stage only calculates output
+     * values for the samples that survive decimation.
      */
-    public class DecimatingStage implements ComplexSampleListener
+    public class DecimatingStage
     {
-        private ArrayList<Stage> mStages = new ArrayList<Stage>();
-        private Stage mFirstStage;
-        private ComplexDecimator mDecimator;
+        private int mSize;
+        private int mOrder;
+        private int mHistory;
+        private float mGain;
+
+        //Per-stage input work arrays, each prefixed with the sample history
+        private float[][] mIWork;
+        private float[][] mQWork;
+        private float[] mISum;
+        private float[] mQSum;
+
+        private int mDecimationCounter;
+        private float[] mOutput = new float[0];
 
         public DecimatingStage(int size, int order)
         {
-            for(int x = 0; x < order; x++)
-            {
-                Stage stage;
+            mSize = size;
+            mOrder = order;
+            mHistory = size - 1;
+            mGain = (size == 2) ? 0.5f : 1.0f / (float)size;
+
+            mIWork = new float[order][mHistory];
+            mQWork = new float[order][mHistory];
+            mISum = new float[order];
+            mQSum = new float[order];
+        }
 
-                if(size == 2)
-                {
-                    stage = new TwoStage();
-                }
-                else
-                {
-                    stage = new Stage(size);
-                }
+        /**
+         * Decimated output samples from the most recent call to process()
+         */
+        public float[] getOutput()
+        {
+            return mOutput;
+        }
 
-                mStages.add(stage);
+        /**
+         * Filters and decimates the interleaved complex samples
+         *
+         * @param samples interleaved I/Q samples
+         * @param length number of floats in the samples array to process
+         * @return number of floats placed in the output array
+         */
+        public int process(float[] samples, int length)
+        {
+            int count = length / 2;
+            int history = mHistory;
 
-                if(x == 0)
-                {
-                    mFirstStage = stage;
-                }
-                else
+            if(mIWork[0].length < history + count)
+            {
+                for(int stage = 0; stage < mOrder; stage++)
                 {
-                    mStages.get(x - 1).setListener(stage);
+                    mIWork[stage] = Arrays.copyOf(mIWork[stage], history + count);
+                    mQWork[stage] = Arrays.copyOf(mQWork[stage], history + count);
                 }
             }
 
-            mDecimator = new ComplexDecimator(size);
-
-            mStages.get(mStages.size() - 1).setListener(mDecimator);
-        }
+            int maxOutput = (count / mSize + 1) * 2;
 
-        public void dispose()
-        {
-            for(Stage stage : mStages)
+            if(mOutput.length < maxOutput)
             {
-                stage.dispose();
+                mOutput = new float[maxOutput];
             }
 
-            mStages.clear();
-            mDecimator.dispose();
-            mDecimator = null;
-            mFirstStage = null;
-            mStages = null;
-        }
-
-        @Override
-        public void receive(float i, float q)
-        {
-            mFirstStage.receive(i, q);
-        }
-
-        public void setListener(ComplexSampleListener listener)
-        {
-            mDecimator.setListener(listener);
-        }
-    }
-
-    /**
-     * Single non-decimating CIC stage component.  Uses a circular buffer and a
-     * running average internally to implement the stage so that stage size has
-     * essentially no impact on the computational requirements of the stage
-     */
-    public class Stage implements ComplexSampleListener
-    {
-        protected ComplexSampleListener mListener;
+            /* De-interleave the samples into the first stage work arrays, after the history */
+            float[] iWork = mIWork[0];
+            float[] qWork = mQWork[0];
 
-        private float[] mISamples;
-        private float[] mQSamples;
+            for(int x = 0; x < count; x++)
+            {
+                iWork[history + x] = samples[2 * x];
+                qWork[history + x] = samples[2 * x + 1];
+            }
 
-        protected float mISum;
-        protected float mQSum;
+            /* Non-final stages produce full rate output into the next stage's work arrays */
+            for(int stage = 0; stage < mOrder - 1; stage++)
+            {
+                filter(stage, count, mIWork[stage + 1], mQWork[stage + 1], history);
+            }
 
-        private int mSamplePointer = 0;
-        private int mSize;
+            int outputLength = decimate(mOrder - 1, count);
 
-        protected float mGain;
+            /* Retain the most recent samples as history for the next buffer */
+            for(int stage = 0; stage < mOrder; stage++)
+            {
+                System.arraycopy(mIWork[stage], count, mIWork[stage], 0, history);
+                System.arraycopy(mQWork[stage], count, mQWork[stage], 0, history);
+            }
 
-        public Stage()
-        {
+            return outputLength;
         }
 
-        public Stage(int size)
+        /**
+         * Applies a non-final stage to all samples, placing the output in the destination arrays at the offset
+         */
+        private void filter(int stage, int count, float[] iDestination, float[] qDestination, int offset)
         {
-            mSize = size - 1;
+            float[] iWork = mIWork[stage];
+            float[] qWork = mQWork[stage];
+            int history = mHistory;
+            float gain = mGain;
 
-            mISamples = new float[mSize];
-            mQSamples = new float[mSize];
+            if(mSize == 2)
+            {
+                for(int x = 0; x < count; x++)
+                {
+                    iDestination[offset + x] = (iWork[x] + iWork[x + 1]) * gain;
+                    qDestination[offset + x] = (qWork[x] + qWork[x + 1]) * gain;
+                }
+            }
+            else
+            {
+                float iSum = mISum[stage];
+                float qSum = mQSum[stage];
 
-            mGain = 1.0f / (float)size;
-        }
+                for(int x = 0; x < count; x++)
+                {
+                    /* Subtract the oldest sample and add back in the newest */
+                    iSum = iSum - iWork[x] + iWork[x + history];
+                    qSum = qSum - qWork[x] + qWork[x + history];
 
-        public void dispose()
-        {
-            mListener = null;
+                    iDestination[offset + x] = iSum * gain;
+                    qDestination[offset + x] = qSum * gain;
+                }
+
+                mISum[stage] = iSum;
+                mQSum[stage] = qSum;
+            }
         }
 
-        public void receive(float i, float q)
+        /**
+         * Applies the final stage and decimator, calculating output values only for the surviving samples
+         *
+         * @return number of floats placed in the output array
+         */
+        private int decimate(int stage, int count)
         {
-			/* Subtract the oldest sample and add back in the newest */
-            mISum = mISum - mISamples[mSamplePointer] + i;
-            mQSum = mQSum - mQSamples[mSamplePointer] + q;
-
-			/* Overwrite the oldest sample with the newest */
-            mISamples[mSamplePointer] = i;
-            mQSamples[mSamplePointer] = q;
-
-            mSamplePointer++;
-
-            if(mSamplePointer >= mSize)
+            float[] iWork = mIWork[stage];
+            float[] qWork = mQWork[stage];
+            float[] output = mOutput;
+            int history = mHistory;
+            int size = mSize;
+            float gain = mGain;
+            int outputPointer = 0;
+
+            /* Index of the first sample that survives decimation */
+            int next = size - mDecimationCounter - 1;
+
+            if(size == 2)
             {
-                mSamplePointer = 0;
+                for(int x = next; x < count; x += 2)
+                {
+                    output[outputPointer++] = (iWork[x] + iWork[x + 1]) * gain;
+                    output[outputPointer++] = (qWork[x] + qWork[x + 1]) * gain;
+                }
             }
-
-            if(mListener != null)
+            else
             {
-                mListener.receive((mISum * mGain), (mQSum * mGain));
-            }
-        }
-
-        public void setListener(ComplexSampleListener listener)
-        {
-            mListener = listener;
-        }
-    }
+                float iSum = mISum[stage];
+                float qSum = mQSum[stage];
+                int x = 0;
 
-    /**
-     * Size 2 stage that removes the unnecessary circular buffer management for
-     * a two-stage.
-     */
-    public class TwoStage extends Stage
-    {
-        public TwoStage()
-        {
-            super();
+                while(next < count)
+                {
+                    for(; x <= next; x++)
+                    {
+                        /* Subtract the oldest sample and add back in the newest */
+                        iSum = iSum - iWork[x] + iWork[x + history];
+                        qSum = qSum - qWork[x] + qWork[x + history];
+                    }
 
-            mGain = 0.5f;
-        }
+                    output[outputPointer++] = iSum * gain;
+                    output[outputPointer++] = qSum * gain;
 
-        public void receive(float i, float q)
-        {
-            float iSum = mISum + i;
-            float qSum = mQSum + q;
+                    next += size;
+                }
 
-            mISum = i;
-            mQSum = q;
+                for(; x < count; x++)
+                {
+                    iSum = iSum - iWork[x] + iWork[x + history];
+                    qSum = qSum - qWork[x] + qWork[x + history];
+                }
 
-            if(mListener != null)
-            {
-                mListener.receive((iSum * mGain), (qSum * mGain));
+                mISum[stage] = iSum;
+                mQSum[stage] = qSum;
             }
+
+            /* Samples received since the last surviving sample */
+            mDecimationCounter = (mDecimationCounter + count) % size;
+
+            return outputPointer;
         }
     }
 
-
     /**
-     * Output adapter - applies gain correction and cleanup filter and broadcast
-     * to registered listener.
+     * Output adapter - assembles decimated samples into fixed size buffers,
+     * applies the cleanup filter and broadcasts to the registered listener.
+     *
+     * A new sample array is allocated for each output buffer.  The half band filter filters the buffer in place and
+     * passes it on, and channel listeners (decoders, baseband recorders) don't release the buffers they receive, so
+     * a dispatched buffer can't be reused or returned to a buffer pool.
      */
-    public class Output implements ComplexSampleListener
+    public class Output
     {
-        /* Decimated output buffers will contain 1024 samples */
-        private ComplexToComplexBufferAssembler mAssembler =
-            new ComplexToComplexBufferAssembler(2048);
+        private float[] mBuffer = new float[OUTPUT_BUFFER_SIZE];
+        private int mBufferPointer;
 
-        private ComplexFIRFilter_CB_CB mCleanupFilter;
         private HalfBandFilter_CB_CB mHalfBandFilter = new HalfBandFilter_CB_CB(
             Filters.FIR_HALF_BAND_31T_ONE_EIGHTH_FCO.getCoefficients(), 0.4f, false);
 
-        public Output(int outputSampleRate, int passFrequency, int attenuation,
-                      WindowType windowType)
-        {
-            mCleanupFilter = new ComplexFIRFilter_CB_CB(FilterFactory
-                .getCICCleanupFilter(outputSampleRate,
-                    passFrequency,
-                    attenuation,
-                    windowType), 0.4f);
-
-            //Bypassing the CIC cleanup filter for now
-            mAssembler.setListener(mHalfBandFilter);
-
-//			mAssembler.setListener( mCleanupFilter );
-//			mCleanupFilter.setListener( mHalfBandFilter );
-        }
-
         public void dispose()
         {
-            mAssembler.dispose();
-            mCleanupFilter.dispose();
             mHalfBandFilter.dispose();
+            mBuffer = null;
         }
 
         /**
-         * Receiver method for the output adapter to receive a filtered,
-         * decimated sample, apply gain correction, apply cleanup filtering
-         * and output the sample values as a complex sample.
+         * Receives decimated samples and dispatches each filled output buffer
+         *
+         * @param samples interleaved I/Q samples
+         * @param length number of floats to transfer from the samples array
          */
-        @Override
-        public void receive(float inphase, float quadrature)
+        public void receive(float[] samples, int length)
         {
-            mAssembler.receive(inphase, quadrature);
+            int offset = 0;
+
+            while(offset < length)
+            {
+                int count = Math.min(length - offset, OUTPUT_BUFFER_SIZE - mBufferPointer);
+
+                System.arraycopy(samples, offset, mBuffer, mBufferPointer, count);
+
+                mBufferPointer += count;
+                offset += count;
+
+                if(mBufferPointer >= OUTPUT_BUFFER_SIZE)
+                {
+                    /* Half band filter is applied in place against the buffer before dispatch */
+                    mHalfBandFilter.receive(new ComplexBuffer(mBuffer));
+
+                    mBuffer = new float[OUTPUT_BUFFER_SIZE];
+                    mBufferPointer = 0;
+                }
+            }
         }
 
         /**
@@ -0,0 +1,210 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package dsp.filter.fir;
+
+import dsp.filter.FilterFactory;
+import dsp.filter.Window.WindowType;
+import dsp.filter.fir.complex.ComplexFIRFilter;
+import dsp.filter.fir.real.RealFIRFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Random;
+
+/**
+ * Verifies and measures RealFIRFilter and ComplexFIRFilter throughput for 63, 127 and 255 tap filters, using both
+ * asymmetric (FilterFactory low pass) and symmetric coefficient sets.  Throughput is compared against a direct form
+ * filter that uses a circular buffer with an index lookup table.
+ */
+public class FIRFilterBenchmark
+{
+    private final static Logger mLog = LoggerFactory.getLogger(FIRFilterBenchmark.class);
+
+    private static final int BUFFER_LENGTH = 8192;
+    private static final int WARMUP_ITERATIONS = 300;
+    private static final int TIMED_ITERATIONS = 600;
+
+    public static void main(String[] args)
+    {
+        for(int taps : new int[]{63, 127, 255})
+        {
+            float[] asymmetric = FilterFactory.getLowPass(48000, 4000, taps, WindowType.HAMMING);
+            benchmark("asymmetric", asymmetric);
+            benchmark("symmetric", symmetric(asymmetric));
+        }
+    }
+
+    /**
+     * Creates a symmetric coefficient set by mirroring the first half of the coefficients
+     */
+    private static float[] symmetric(float[] coefficients)
+    {
+        float[] symmetric = coefficients.clone();
+
+        for(int x = 0; x < symmetric.length / 2; x++)
+        {
+            symmetric[symmetric.length - 1 - x] = symmetric[x];
+        }
+
+        return symmetric;
+    }
+
+    private static void benchmark(String label, float[] coefficients)
+    {
+        Random random = new Random(1);
+
+        float[] samples = new float[BUFFER_LENGTH];
+
+        for(int x = 0; x < samples.length; x++)
+        {
+            samples[x] = random.nextFloat() * 2.0f - 1.0f;
+        }
+
+        /* Verify single sample and buffer outputs against the direct form filter */
+        DirectFormFilter reference = new DirectFormFilter(coefficients);
+        RealFIRFilter single = new RealFIRFilter(coefficients, 1.0f);
+        RealFIRFilter block = new RealFIRFilter(coefficients, 1.0f);
+
+        float maxError = 0.0f;
+
+        for(int iteration = 0; iteration < 3; iteration++)
+        {
+            float[] blockSamples = samples.clone();
+
+            //Mix buffer and single sample calls to verify shared filter history
+            block.filter(blockSamples, 0, 1000);
+            for(int x = 1000; x < 1003; x++)
+            {
+                blockSamples[x] = block.filter(blockSamples[x]);
+            }
+            block.filter(blockSamples, 1003, BUFFER_LENGTH - 1003);
+
+            for(int x = 0; x < BUFFER_LENGTH; x++)
+            {
+                float expected = reference.filter(samples[x]);
+                maxError = Math.max(maxError, Math.abs(expected - single.filter(samples[x])));
+                maxError = Math.max(maxError, Math.abs(expected - blockSamples[x]));
+            }
+        }
+
+        float[] buffer = samples.clone();
+
+        DirectFormFilter direct = new DirectFormFilter(coefficients);
+
+        long directElapsed = time(() -> {
+            for(int x = 0; x < BUFFER_LENGTH; x++)
+            {
+                buffer[x] = direct.filter(buffer[x]);
+            }
+        });
+
+        RealFIRFilter singleFilter = new RealFIRFilter(coefficients, 1.0f);
+
+        long singleElapsed = time(() -> {
+            for(int x = 0; x < BUFFER_LENGTH; x++)
+            {
+                buffer[x] = singleFilter.filter(buffer[x]);
+            }
+        });
+
+        RealFIRFilter blockFilter = new RealFIRFilter(coefficients, 1.0f);
+
+        long blockElapsed = time(() -> blockFilter.filter(buffer));
+
+        ComplexFIRFilter complexFilter = new ComplexFIRFilter(coefficients, 1.0f);
+
+        long complexElapsed = time(() -> complexFilter.filter(buffer));
+
+        double samplesTimed = (double)TIMED_ITERATIONS * BUFFER_LENGTH;
+
+        mLog.info(String.format("%d taps %s (folded:%b) max error:%.2e - MS/s direct:%.1f single:%.1f buffer:%.1f " +
+                "complex buffer:%.1f (complex samples)", coefficients.length, label, blockFilter.isSymmetric(), maxError,
+            samplesTimed / directElapsed * 1E3, samplesTimed / singleElapsed * 1E3, samplesTimed / blockElapsed * 1E3,
+            samplesTimed / 2.0 / complexElapsed * 1E3));
+    }
+
+    /**
+     * Runs the warmup iterations and returns the elapsed nanoseconds for the timed iterations
+     */
+    private static long time(Runnable runnable)
+    {
+        for(int x = 0; x < WARMUP_ITERATIONS; x++)
+        {
+            runnable.run();
+        }
+
+        long start = System.nanoTime();
+
+        for(int x = 0; x < TIMED_ITERATIONS; x++)
+        {
+            runnable.run();
+        }
+
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Direct form FIR filter using a circular buffer and an index lookup table for each buffer pointer position.
+     */
+    private static class DirectFormFilter
+    {
+        private float[] mBuffer;
+        private float[] mCoefficients;
+        private int[][] mIndexMap;
+        private int mBufferPointer;
+
+        public DirectFormFilter(float[] coefficients)
+        {
+            mCoefficients = coefficients;
+            mBuffer = new float[coefficients.length];
+            mBufferPointer = coefficients.length - 1;
+            mIndexMap = new int[coefficients.length][coefficients.length];
+
+            for(int x = 0; x < coefficients.length; x++)
+            {
+                for(int y = 0; y < coefficients.length; y++)
+                {
+                    int z = x + y;
+                    mIndexMap[x][y] = z < coefficients.length ? z : z - coefficients.length;
+                }
+            }
+        }
+
+        public float filter(float sample)
+        {
+            mBuffer[mBufferPointer] = sample;
+
+            float accumulator = 0.0f;
+
+            for(int x = 0; x < mBuffer.length; x++)
+            {
+                accumulator += mCoefficients[x] * mBuffer[mIndexMap[mBufferPointer][x]];
+            }
+
+            mBufferPointer--;
+
+            if(mBufferPointer < 0)
+            {
+                mBufferPointer += mBuffer.length;
+            }
+
+            return accumulator;
+        }
+    }
+}
@@ -8,6 +8,8 @@ public class ComplexFIRFilter extends FIRFilter
 {
 	private RealFIRFilter mIFilter;
 	private RealFIRFilter mQFilter;
+	private float[] mInphase = new float[ 0 ];
+	private float[] mQuadrature = new float[ 0 ];
 	
 	/**
 	 * Complex FIR Filter for processing complex sample pairs.  Wraps two real 
@@ -37,6 +39,41 @@ public class ComplexFIRFilter extends FIRFilter
 		return mQFilter.filter( sample );
 	}
 	
+	/**
+	 * Filters a buffer of interleaved inphase and quadrature samples in place
+	 * by separating the inphase and quadrature samples and filtering each as
+	 * a block.
+	 * 
+	 * @return the filtered samples array
+	 */
+	public float[] filter( float[] samples )
+	{
+		int length = samples.length / 2;
+		
+		if( mInphase.length < length )
+		{
+			mInphase = new float[ length ];
+			mQuadrature = new float[ length ];
+		}
+		
+		for( int x = 0; x < length; x++ )
+		{
+			mInphase[ x ] = samples[ 2 * x ];
+			mQuadrature[ x ] = samples[ 2 * x + 1 ];
+		}
+		
+		mIFilter.filter( mInphase, 0, length );
+		mQFilter.filter( mQuadrature, 0, length );
+		
+		for( int x = 0; x < length; x++ )
+		{
+			samples[ 2 * x ] = mInphase[ x ];
+			samples[ 2 * x + 1 ] = mQuadrature[ x ];
+		}
+		
+		return samples;
+	}
+	
 	public Complex filter( Complex sample )
 	{
 		float i = filterInphase( sample.inphase() );
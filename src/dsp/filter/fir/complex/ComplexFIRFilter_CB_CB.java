@@ -30,13 +30,7 @@ public class ComplexFIRFilter_CB_CB extends ComplexFIRFilter
 	{
 		if( mListener != null )
 		{
-			float[] samples = buffer.getSamples();
-			
-			for( int x = 0; x < samples.length; x += 2 )
-			{
-				samples[ x ] = filterInphase( samples[ x ] );
-				samples[ x + 1 ] = filterQuadrature( samples[ x + 1 ] );
-			}
+			filter( buffer.getSamples() );
 			
 			mListener.receive( buffer );
 		}
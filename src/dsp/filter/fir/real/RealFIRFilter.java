@@ -19,14 +19,30 @@ package dsp.filter.fir.real;
 
 import dsp.filter.fir.FIRFilter;
 
+/**
+ * Float sample FIR filter.
+ * 
+ * Samples are stored in a double-length delay line where each sample is 
+ * written twice (index and index + length) so that the most recent samples 
+ * are always available as a contiguous array region, allowing each filtered 
+ * output to be calculated as a single contiguous dot product.
+ * 
+ * Buffer filtering copies the filter history and the buffer samples into a 
+ * linear work array and calculates 4 outputs per pass over the coefficients.
+ * 
+ * Symmetric (linear phase) coefficient sets are detected and the symmetric
+ * sample pairs are summed before multiplying, halving the multiplications.
+ */
 public class RealFIRFilter extends FIRFilter
 {
 	private float[] mBuffer;
     private int mBufferSize = 1;
 	private int mBufferPointer = 0;
-	private int[][] mIndexMap;
+	private float[] mWorkBuffer = new float[ 0 ];
 	
 	private float[] mCoefficients;
+	private float[] mReversedCoefficients;
+	private boolean mSymmetric;
 	private float mGain;
 	
 	/**
@@ -42,10 +58,19 @@ public class RealFIRFilter extends FIRFilter
 
 		mBufferSize = mCoefficients.length;
 
-		mBuffer = new float[ mBufferSize ];
+		mBuffer = new float[ mBufferSize * 2 ];
 		mBufferPointer = mBufferSize - 1;
 
-		generateIndexMap( mBufferSize );
+		/* Reverse the coefficients so that they align with the delay line
+		 * samples that are ordered oldest to newest */
+		mReversedCoefficients = new float[ mBufferSize ];
+		
+		for( int x = 0; x < mBufferSize; x++ )
+		{
+			mReversedCoefficients[ x ] = mCoefficients[ mBufferSize - 1 - x ];
+		}
+		
+		mSymmetric = isSymmetric( mCoefficients );
 	}
 	
 	public float[] getCoefficients()
@@ -53,53 +78,236 @@ public class RealFIRFilter extends FIRFilter
 		return mCoefficients;
 	}
 	
+	/**
+	 * Indicates if the filter coefficients are symmetric and the filter is 
+	 * using the folded (pre-add) calculation
+	 */
+	public boolean isSymmetric()
+	{
+		return mSymmetric;
+	}
+	
 	@Override
 	public void dispose()
 	{
 		mCoefficients = null;
-		mIndexMap = null;
+		mReversedCoefficients = null;
 		mBuffer = null;
+		mWorkBuffer = null;
 	}
 
 	public float filter( float sample )
 	{
-		mBuffer[ mBufferPointer ] = sample;
+		mBufferPointer++;
 		
-		float accumulator = 0.0f;
-
-		for( int x = 0; x < mBufferSize; x++ )
+		if( mBufferPointer == mBufferSize )
 		{
-			accumulator += mCoefficients[ x ] * 
-					mBuffer[ mIndexMap[ mBufferPointer][ x ] ];
+			mBufferPointer = 0;
 		}
+		
+		mBuffer[ mBufferPointer ] = sample;
+		mBuffer[ mBufferPointer + mBufferSize ] = sample;
+
+		/* Delay line samples ordered oldest to newest */
+		int start = mBufferPointer + 1;
+		
+		float accumulator0 = 0.0f;
+		float accumulator1 = 0.0f;
+		float accumulator2 = 0.0f;
+		float accumulator3 = 0.0f;
+		
+		int x = 0;
 
-		mBufferPointer--;
+		if( mSymmetric )
+		{
+			int end = start + mBufferSize - 1;
+			int half = mBufferSize / 2;
 
-		if( mBufferPointer < 0 )
+			for( ; x < half - 3; x += 4 )
+			{
+				accumulator0 += mReversedCoefficients[ x ] * 
+						( mBuffer[ start + x ] + mBuffer[ end - x ] );
+				accumulator1 += mReversedCoefficients[ x + 1 ] * 
+						( mBuffer[ start + x + 1 ] + mBuffer[ end - x - 1 ] );
+				accumulator2 += mReversedCoefficients[ x + 2 ] * 
+						( mBuffer[ start + x + 2 ] + mBuffer[ end - x - 2 ] );
+				accumulator3 += mReversedCoefficients[ x + 3 ] * 
+						( mBuffer[ start + x + 3 ] + mBuffer[ end - x - 3 ] );
+			}
+			
+			for( ; x < half; x++ )
+			{
+				accumulator0 += mReversedCoefficients[ x ] * 
+						( mBuffer[ start + x ] + mBuffer[ end - x ] );
+			}
+			
+			if( ( mBufferSize & 1 ) == 1 )
+			{
+				accumulator1 += mReversedCoefficients[ half ] * mBuffer[ start + half ];
+			}
+		}
+		else
 		{
-			mBufferPointer += mBufferSize;
+			for( ; x < mBufferSize - 3; x += 4 )
+			{
+				accumulator0 += mReversedCoefficients[ x ] * mBuffer[ start + x ];
+				accumulator1 += mReversedCoefficients[ x + 1 ] * mBuffer[ start + x + 1 ];
+				accumulator2 += mReversedCoefficients[ x + 2 ] * mBuffer[ start + x + 2 ];
+				accumulator3 += mReversedCoefficients[ x + 3 ] * mBuffer[ start + x + 3 ];
+			}
+			
+			for( ; x < mBufferSize; x++ )
+			{
+				accumulator0 += mReversedCoefficients[ x ] * mBuffer[ start + x ];
+			}
 		}
 
 		/* Apply gain and return the filtered value */
-		return accumulator * mGain;
+		return ( ( accumulator0 + accumulator1 ) + ( accumulator2 + accumulator3 ) ) * mGain;
+	}
+	
+	/**
+	 * Filters the samples in place.
+	 * 
+	 * @return the filtered samples array
+	 */
+	public float[] filter( float[] samples )
+	{
+		filter( samples, 0, samples.length );
+		
+		return samples;
 	}
 
 	/**
-	 * Generates a circular buffer index map to support lookup of the translated 
-	 * index based on the current buffer pointer and the desired sample index.
+	 * Filters length samples in place, starting at offset.  Produces the same
+	 * output as filtering each sample individually and shares the filter 
+	 * history with the single sample filter method.
 	 */
-	private void generateIndexMap( int size )
+	public void filter( float[] samples, int offset, int length )
 	{
-		mIndexMap = new int[ size ][ size ];
+		int history = mBufferSize - 1;
 		
-		for( int x = 0; x < size; x++ )
+		if( mWorkBuffer.length < history + length )
 		{
-			for( int y = 0; y < size; y++ )
+			mWorkBuffer = new float[ history + length ];
+		}
+
+		float[] work = mWorkBuffer;
+		
+		/* Filter history (oldest to newest) followed by the new samples */
+		System.arraycopy( mBuffer, mBufferPointer + 2, work, 0, history );
+		System.arraycopy( samples, offset, work, history, length );
+		
+		float[] coefficients = mReversedCoefficients;
+		int size = mBufferSize;
+		int x = 0;
+		
+		if( mSymmetric )
+		{
+			int half = size / 2;
+			boolean odd = ( size & 1 ) == 1;
+			
+			for( ; x < length - 3; x += 4 )
 			{
-				int z = x + y;
+				float accumulator0 = 0.0f;
+				float accumulator1 = 0.0f;
+				float accumulator2 = 0.0f;
+				float accumulator3 = 0.0f;
+				
+				int end = x + size - 1;
 				
-				mIndexMap[ x ][ y ] = z < size ? z : z - size;
+				for( int y = 0; y < half; y++ )
+				{
+					float coefficient = coefficients[ y ];
+					int a = x + y;
+					int b = end - y;
+					
+					accumulator0 += coefficient * ( work[ a ] + work[ b ] );
+					accumulator1 += coefficient * ( work[ a + 1 ] + work[ b + 1 ] );
+					accumulator2 += coefficient * ( work[ a + 2 ] + work[ b + 2 ] );
+					accumulator3 += coefficient * ( work[ a + 3 ] + work[ b + 3 ] );
+				}
+				
+				if( odd )
+				{
+					float coefficient = coefficients[ half ];
+					int a = x + half;
+					
+					accumulator0 += coefficient * work[ a ];
+					accumulator1 += coefficient * work[ a + 1 ];
+					accumulator2 += coefficient * work[ a + 2 ];
+					accumulator3 += coefficient * work[ a + 3 ];
+				}
+				
+				samples[ offset + x ] = accumulator0 * mGain;
+				samples[ offset + x + 1 ] = accumulator1 * mGain;
+				samples[ offset + x + 2 ] = accumulator2 * mGain;
+				samples[ offset + x + 3 ] = accumulator3 * mGain;
 			}
 		}
+		else
+		{
+			for( ; x < length - 3; x += 4 )
+			{
+				float accumulator0 = 0.0f;
+				float accumulator1 = 0.0f;
+				float accumulator2 = 0.0f;
+				float accumulator3 = 0.0f;
+				
+				for( int y = 0; y < size; y++ )
+				{
+					float coefficient = coefficients[ y ];
+					int a = x + y;
+					
+					accumulator0 += coefficient * work[ a ];
+					accumulator1 += coefficient * work[ a + 1 ];
+					accumulator2 += coefficient * work[ a + 2 ];
+					accumulator3 += coefficient * work[ a + 3 ];
+				}
+				
+				samples[ offset + x ] = accumulator0 * mGain;
+				samples[ offset + x + 1 ] = accumulator1 * mGain;
+				samples[ offset + x + 2 ] = accumulator2 * mGain;
+				samples[ offset + x + 3 ] = accumulator3 * mGain;
+			}
+		}
+
+		/* Remaining outputs */
+		for( ; x < length; x++ )
+		{
+			float accumulator = 0.0f;
+			
+			for( int y = 0; y < size; y++ )
+			{
+				accumulator += coefficients[ y ] * work[ x + y ];
+			}
+			
+			samples[ offset + x ] = accumulator * mGain;
+		}
+		
+		/* Reload the delay line with the most recent samples, newest sample 
+		 * at the end of the delay line */
+		if( length > 0 )
+		{
+			System.arraycopy( work, length - 1, mBuffer, 0, size );
+			System.arraycopy( work, length - 1, mBuffer, size, size );
+			mBufferPointer = size - 1;
+		}
+	}
+
+	/**
+	 * Indicates if the coefficients are symmetric about the center tap
+	 */
+	private static boolean isSymmetric( float[] coefficients )
+	{
+		for( int x = 0; x < coefficients.length / 2; x++ )
+		{
+			if( coefficients[ x ] != coefficients[ coefficients.length - 1 - x ] )
+			{
+				return false;
+			}
+		}
+		
+		return true;
 	}
-}
\ No newline at end of file
+}
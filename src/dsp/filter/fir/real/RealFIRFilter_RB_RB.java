@@ -45,12 +45,7 @@ public class RealFIRFilter_RB_RB extends RealFIRFilter
 	 */
 	public RealBuffer filter( RealBuffer buffer )
 	{
-		float[] samples = buffer.getSamples();
-		
-		for( int x = 0; x < samples.length; x++ )
-		{
-			samples[ x ] = filter( samples[ x ] );
-		}
+		filter( buffer.getSamples() );
 
 		return buffer;
 	}
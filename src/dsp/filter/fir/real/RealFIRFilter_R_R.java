@@ -34,16 +34,6 @@ public class RealFIRFilter_R_R extends RealFIRFilter implements RealSampleListen
 		}
 	}
 	
-	public float[] filter( float[] samples )
-	{
-		for( int x = 0; x < samples.length; x++ )
-		{
-			samples[ x ] = filter( samples[ x ] );
-		}
-		
-		return samples;
-	}
-
 	public void setListener( RealSampleListener listener )
 	{
 		mListener = listener;
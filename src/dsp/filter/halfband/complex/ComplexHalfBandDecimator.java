@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package dsp.filter.halfband.complex;
+
+import dsp.filter.Filters;
+
+/**
+ * Decimate by 2 complex half-band filter using a polyphase structure.  Even indexed input samples are filtered with
+ * the non-zero half-band coefficients, folded about the filter center, and odd indexed input samples only contribute
+ * through the center tap, so each output sample is computed once, at the output sample rate.
+ *
+ * Samples are processed from/to interleaved (inphase, quadrature) float arrays and the output array may be the same
+ * as the input array for in-place decimation.  Filter history is retained across calls.
+ */
+public class ComplexHalfBandDecimator
+{
+    private float[] mCoefficients;
+    private float mCenterCoefficient;
+    private int mHistory;
+    private int mCenterIndex;
+    private float[] mEven = new float[0];
+    private float[] mOdd = new float[0];
+
+    /**
+     * Constructs a decimator using the default 47 tap half-band filter
+     */
+    public ComplexHalfBandDecimator()
+    {
+        this(Filters.HALF_BAND_FILTER_47T.getCoefficients());
+    }
+
+    /**
+     * Constructs a decimator
+     *
+     * @param halfBandCoefficients of a half-band filter with length N where (N + 1) is a multiple of 4
+     */
+    public ComplexHalfBandDecimator(float[] halfBandCoefficients)
+    {
+        if((halfBandCoefficients.length + 1) % 4 != 0)
+        {
+            throw new IllegalArgumentException("Half-band filter length + 1 must be a multiple of 4");
+        }
+
+        int taps = (halfBandCoefficients.length + 1) / 2;
+
+        mCoefficients = new float[taps / 2];
+
+        for(int x = 0; x < mCoefficients.length; x++)
+        {
+            mCoefficients[x] = halfBandCoefficients[x * 2];
+        }
+
+        mCenterCoefficient = halfBandCoefficients[halfBandCoefficients.length / 2];
+        mHistory = taps - 1;
+        mCenterIndex = mHistory - mCoefficients.length;
+    }
+
+    /**
+     * Decimates the complex samples by 2.
+     *
+     * @param samples containing interleaved complex samples
+     * @param length number of floats (2 per complex sample) to decimate, must be a multiple of 4
+     * @param decimated array to receive (length / 2) floats.  May be the same array as samples.
+     */
+    public void decimate(float[] samples, int length, float[] decimated)
+    {
+        int count = length / 4;
+
+        if(mEven.length != 2 * (mHistory + count))
+        {
+            resize(count);
+        }
+
+        float[] even = mEven;
+        float[] odd = mOdd;
+
+        for(int x = 0, y = 2 * mHistory; x < length; x += 4, y += 2)
+        {
+            even[y] = samples[x];
+            even[y + 1] = samples[x + 1];
+            odd[y] = samples[x + 2];
+            odd[y + 1] = samples[x + 3];
+        }
+
+        float[] coefficients = mCoefficients;
+        int taps = coefficients.length;
+        int last = 2 * mHistory;
+        float inphase;
+        float quadrature;
+
+        for(int x = 0; x < count; x++)
+        {
+            int offset = 2 * x;
+
+            inphase = 0.0f;
+            quadrature = 0.0f;
+
+            for(int tap = 0; tap < taps; tap++)
+            {
+                int a = offset + 2 * tap;
+                int b = offset + last - 2 * tap;
+
+                inphase += coefficients[tap] * (even[a] + even[b]);
+                quadrature += coefficients[tap] * (even[a + 1] + even[b + 1]);
+            }
+
+            int center = offset + 2 * mCenterIndex;
+
+            decimated[offset] = inphase + mCenterCoefficient * odd[center];
+            decimated[offset + 1] = quadrature + mCenterCoefficient * odd[center + 1];
+        }
+
+        //Retain the most recent samples as filter history for the next buffer
+        System.arraycopy(even, 2 * count, even, 0, 2 * mHistory);
+        System.arraycopy(odd, 2 * count, odd, 0, 2 * mHistory);
+    }
+
+    /**
+     * Resizes the working buffers, preserving the filter history
+     */
+    private void resize(int count)
+    {
+        float[] even = new float[2 * (mHistory + count)];
+        float[] odd = new float[2 * (mHistory + count)];
+
+        if(mEven.length >= 2 * mHistory)
+        {
+            System.arraycopy(mEven, 0, even, 0, 2 * mHistory);
+            System.arraycopy(mOdd, 0, odd, 0, 2 * mHistory);
+        }
+
+        mEven = even;
+        mOdd = odd;
+    }
+
+    /**
+     * Clears the filter history
+     */
+    public void reset()
+    {
+        mEven = new float[0];
+        mOdd = new float[0];
+    }
+}
@@ -0,0 +1,179 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package dsp.filter.hilbert;
+
+import dsp.filter.Filters;
+
+/**
+ * Real to complex sample converter using an FS/4 frequency translation followed by a polyphase half-band decimating
+ * filter.  Produces N/2 complex samples from N real samples, equivalent to the HilbertTransform, with DC removal
+ * included in the same pass over the samples.
+ *
+ * Translating the real samples by FS/4 multiplies each sample by the sequence 1, j, -1, -j so that even indexed
+ * samples feed only the inphase rail and odd indexed samples feed only the quadrature rail, with alternating signs.
+ * Since every other half-band coefficient is zero, the decimated inphase output reduces to a single (delayed) center
+ * tap sample and the quadrature output only requires the non-zero coefficients, folded about the filter center.  All
+ * filtering is performed at the output sample rate.
+ *
+ * DC offset is estimated from the average of each sample block and removed from the following block, using a
+ * smoothed running average.  This adds no per-sample filter state to the conversion.
+ *
+ * Described in Understanding Digital Signal Processing, Lyons, 3e, 2011, section 13.1.2 and 13.37.
+ */
+public class PolyphaseHilbertTransform
+{
+    private static final float DEFAULT_DC_RATIO = 0.1f;
+
+    //Non-zero half-band coefficients, scaled by 2 to restore the signal level lost in real to complex translation
+    private float[] mCoefficients;
+    private int mHistory;
+    private int mCenterIndex;
+    private float[] mInphase = new float[0];
+    private float[] mQuadrature = new float[0];
+    private float mSign = 1.0f;
+    private float mDCRatio;
+    private float mDCAverage;
+
+    /**
+     * Constructs a converter using the default 47 tap half-band filter and default DC removal ratio
+     */
+    public PolyphaseHilbertTransform()
+    {
+        this(Filters.HALF_BAND_FILTER_47T.getCoefficients(), DEFAULT_DC_RATIO);
+    }
+
+    /**
+     * Constructs a converter
+     *
+     * @param halfBandCoefficients of a half-band filter with length N where (N + 1) is a multiple of 4
+     * @param dcRatio smoothing ratio (0.0 - 1.0) applied to the per-block DC estimate
+     */
+    public PolyphaseHilbertTransform(float[] halfBandCoefficients, float dcRatio)
+    {
+        if((halfBandCoefficients.length + 1) % 4 != 0)
+        {
+            throw new IllegalArgumentException("Half-band filter length + 1 must be a multiple of 4");
+        }
+
+        //Even indexed coefficients, which are symmetric about the center
+        int taps = (halfBandCoefficients.length + 1) / 2;
+
+        mCoefficients = new float[taps / 2];
+
+        for(int x = 0; x < mCoefficients.length; x++)
+        {
+            mCoefficients[x] = 2.0f * halfBandCoefficients[x * 2];
+        }
+
+        mHistory = taps - 1;
+        mCenterIndex = mHistory - mCoefficients.length + 1;
+        mDCRatio = dcRatio;
+    }
+
+    /**
+     * Converts the real samples to complex samples.  The output may be the same array as the input.
+     *
+     * @param samples containing real samples
+     * @param length number of real samples to convert, must be even
+     * @param converted array to receive (length / 2) interleaved complex samples
+     */
+    public void filter(float[] samples, int length, float[] converted)
+    {
+        int count = length / 2;
+
+        if(mInphase.length != mHistory + count)
+        {
+            resize(count);
+        }
+
+        float[] inphase = mInphase;
+        float[] quadrature = mQuadrature;
+        float dc = mDCAverage;
+        float sign = mSign;
+        float sum = 0.0f;
+
+        //FS/4 translation: 1, j, -1, -j
+        for(int x = 0, y = mHistory; x < count; x++, y++)
+        {
+            float even = samples[2 * x];
+            float odd = samples[2 * x + 1];
+            sum += even + odd;
+            inphase[y] = (even - dc) * sign;
+            quadrature[y] = (odd - dc) * sign;
+            sign = -sign;
+        }
+
+        mSign = sign;
+
+        if(count > 0)
+        {
+            mDCAverage += mDCRatio * ((sum / (2 * count)) - dc);
+        }
+
+        float[] coefficients = mCoefficients;
+        int taps = coefficients.length;
+        float accumulator;
+
+        for(int x = 0; x < count; x++)
+        {
+            accumulator = 0.0f;
+
+            for(int tap = 0; tap < taps; tap++)
+            {
+                accumulator += coefficients[tap] * (quadrature[x + tap] + quadrature[x + mHistory - tap]);
+            }
+
+            converted[2 * x] = inphase[x + mCenterIndex];
+            converted[2 * x + 1] = accumulator;
+        }
+
+        //Retain the most recent samples as filter history for the next buffer
+        System.arraycopy(inphase, count, inphase, 0, mHistory);
+        System.arraycopy(quadrature, count, quadrature, 0, mHistory);
+    }
+
+    /**
+     * Resizes the working buffers, preserving the filter history
+     */
+    private void resize(int count)
+    {
+        float[] inphase = new float[mHistory + count];
+        float[] quadrature = new float[mHistory + count];
+
+        if(mInphase.length >= mHistory)
+        {
+            System.arraycopy(mInphase, 0, inphase, 0, mHistory);
+            System.arraycopy(mQuadrature, 0, quadrature, 0, mHistory);
+        }
+
+        mInphase = inphase;
+        mQuadrature = quadrature;
+    }
+
+    /**
+     * Clears the filter history and DC estimate
+     */
+    public void reset()
+    {
+        mInphase = new float[0];
+        mQuadrature = new float[0];
+        mSign = 1.0f;
+        mDCAverage = 0.0f;
+    }
+}
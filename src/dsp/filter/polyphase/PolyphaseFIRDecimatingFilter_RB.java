@@ -21,7 +21,7 @@ import dsp.filter.design.FilterDesignException;
 import dsp.filter.fir.FIRFilter;
 import dsp.filter.fir.FIRFilterSpecification;
 import dsp.filter.fir.remez.RemezFIRFilterDesigner;
-import dsp.mixer.Oscillator;
+import dsp.mixer.BlockOscillator;
 import gui.SDRTrunk;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -191,14 +191,10 @@ public class PolyphaseFIRDecimatingFilter_RB extends FIRFilter implements Listen
                 }
             });
 
-            Oscillator oscillator = new Oscillator(3400, 48000);
+            BlockOscillator oscillator = new BlockOscillator(3400, 48000);
 
             float[] samples = new float[500];
-            for(int x = 0; x < 500; x++)
-            {
-                samples[x] = oscillator.getFloat();
-                oscillator.rotate();
-            }
+            oscillator.generateReal(samples);
 
             RealBuffer buffer = new RealBuffer(samples);
             filter.receive(buffer);
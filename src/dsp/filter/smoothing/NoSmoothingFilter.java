@@ -13,6 +13,13 @@ public class NoSmoothingFilter extends SmoothingFilter
 		return data;
 	}
 
+	public float[] filter( float[] data, float[] filtered )
+	{
+		System.arraycopy( data, 0, filtered, 0, data.length );
+
+		return filtered;
+	}
+
 	public static float[] getCoefficients( int points )
 	{
 		return null;
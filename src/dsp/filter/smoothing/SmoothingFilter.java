@@ -62,6 +62,17 @@ public abstract class SmoothingFilter
 	}
 	
 	public float[] filter( float[] data )
+	{
+		return filter( data, new float[ data.length ] );
+	}
+
+	/**
+	 * Smooths the data into the filtered array, which must be the same length
+	 * as the data array and must not be the data array.
+	 * 
+	 * @return filtered array
+	 */
+	public float[] filter( float[] data, float[] filtered )
 	{
 		if( mNewCoefficientsAvailable )
 		{
@@ -71,8 +82,6 @@ public abstract class SmoothingFilter
 
 		int middle = mCoefficients.length / 2;
 		
-		float[] filtered = new float[ data.length ];
-
 		int toCopy = middle;
 		
 		System.arraycopy( data, 0, filtered, 0, toCopy );
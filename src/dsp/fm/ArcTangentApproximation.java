@@ -0,0 +1,186 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package dsp.fm;
+
+/**
+ * Four quadrant arc-tangent implementations for FM demodulation, ordered from most to least expensive.
+ *
+ * The POLYNOMIAL and TABLE approximations reduce the (y,x) argument to the first octant so that the approximated
+ * arc-tangent argument is always in the range 0 <= z <= 1 and then restore the octant and quadrant with sign and
+ * complement operations.  The maximum absolute error reported by each entry is in radians and applies across the full
+ * -PI to PI output range.  Inputs of (0,0) produce an angle of 0.
+ */
+public enum ArcTangentApproximation
+{
+    /**
+     * Math.atan2() evaluated in double precision and rounded to float
+     */
+    EXACT("Exact", 2.0e-7f)
+    {
+        @Override
+        public float atan2(float y, float x)
+        {
+            return (float)Math.atan2(y, x);
+        }
+    },
+
+    /**
+     * Ninth order odd minimax polynomial (Abramowitz & Stegun 4.4.49)
+     */
+    POLYNOMIAL("Polynomial", 1.2e-5f)
+    {
+        @Override
+        public float atan2(float y, float x)
+        {
+            return polynomial(y, x);
+        }
+    },
+
+    /**
+     * Linear interpolation of a 1025 entry arc-tangent table spanning 0 <= z <= 1
+     */
+    TABLE("Table", 5.0e-7f)
+    {
+        @Override
+        public float atan2(float y, float x)
+        {
+            return table(y, x);
+        }
+    };
+
+    private static final float PI = (float)Math.PI;
+    private static final float HALF_PI = (float)(Math.PI / 2.0);
+
+    private static final float A1 = 0.9998660f;
+    private static final float A3 = -0.3302995f;
+    private static final float A5 = 0.1801410f;
+    private static final float A7 = -0.0851330f;
+    private static final float A9 = 0.0208351f;
+
+    private static final int TABLE_INTERVALS = 1024;
+    private static final float[] TABLE_VALUES = new float[TABLE_INTERVALS + 2];
+
+    static
+    {
+        for(int x = 0; x <= TABLE_INTERVALS; x++)
+        {
+            TABLE_VALUES[x] = (float)Math.atan((double)x / (double)TABLE_INTERVALS);
+        }
+
+        //Guard entry so that z == 1.0 can interpolate without a bounds check
+        TABLE_VALUES[TABLE_INTERVALS + 1] = TABLE_VALUES[TABLE_INTERVALS];
+    }
+
+    private String mLabel;
+    private float mMaximumError;
+
+    ArcTangentApproximation(String label, float maximumError)
+    {
+        mLabel = label;
+        mMaximumError = maximumError;
+    }
+
+    /**
+     * Four quadrant arc-tangent of y / x
+     *
+     * @param y coordinate
+     * @param x coordinate
+     * @return angle in radians in the range -PI to PI
+     */
+    public abstract float atan2(float y, float x);
+
+    /**
+     * Maximum absolute error of this approximation in radians
+     */
+    public float getMaximumError()
+    {
+        return mMaximumError;
+    }
+
+    @Override
+    public String toString()
+    {
+        return mLabel;
+    }
+
+    /**
+     * Polynomial approximation of the four quadrant arc-tangent of y / x
+     */
+    public static float polynomial(float y, float x)
+    {
+        float absoluteX = Math.abs(x);
+        float absoluteY = Math.abs(y);
+
+        if(absoluteX == 0.0f && absoluteY == 0.0f)
+        {
+            return 0.0f;
+        }
+
+        boolean swap = absoluteY > absoluteX;
+        float z = swap ? absoluteX / absoluteY : absoluteY / absoluteX;
+        float z2 = z * z;
+
+        float angle = z * (A1 + z2 * (A3 + z2 * (A5 + z2 * (A7 + z2 * A9))));
+
+        return restore(angle, swap, x, y);
+    }
+
+    /**
+     * Table lookup approximation of the four quadrant arc-tangent of y / x
+     */
+    public static float table(float y, float x)
+    {
+        float absoluteX = Math.abs(x);
+        float absoluteY = Math.abs(y);
+
+        if(absoluteX == 0.0f && absoluteY == 0.0f)
+        {
+            return 0.0f;
+        }
+
+        boolean swap = absoluteY > absoluteX;
+        float z = swap ? absoluteX / absoluteY : absoluteY / absoluteX;
+
+        float position = z * TABLE_INTERVALS;
+        int index = (int)position;
+        float fraction = position - index;
+
+        float angle = TABLE_VALUES[index] + fraction * (TABLE_VALUES[index + 1] - TABLE_VALUES[index]);
+
+        return restore(angle, swap, x, y);
+    }
+
+    /**
+     * Restores a first octant angle to the octant and quadrant of the original (y,x) argument
+     */
+    private static float restore(float angle, boolean swap, float x, float y)
+    {
+        if(swap)
+        {
+            angle = HALF_PI - angle;
+        }
+
+        if(x < 0.0f)
+        {
+            angle = PI - angle;
+        }
+
+        return y < 0.0f ? -angle : angle;
+    }
+}
@@ -17,15 +17,35 @@
  ******************************************************************************/
 package dsp.fm;
 
+/**
+ * Polar discriminator base class.  Each complex sample is multiplied against the
+ * complex conjugate of the previous sample and the four quadrant arc-tangent of
+ * the product yields the phase delta between the two samples, which serves as the
+ * instantaneous amplitude of the demodulated signal.
+ * 
+ * The arc-tangent is evaluated with a selectable ArcTangentApproximation.  The
+ * block demodulate() method writes into a caller supplied output array so that
+ * callers that own their output buffers can reuse them across calls.
+ */
 public abstract class FMDemodulator
 {
+	public static final ArcTangentApproximation DEFAULT_APPROXIMATION = 
+			ArcTangentApproximation.POLYNOMIAL;
+	
 	private float mPreviousI = 0.0f;
 	private float mPreviousQ = 0.0f;
 	protected float mGain;
+	private ArcTangentApproximation mApproximation;
 
-	public FMDemodulator( float gain )
+	public FMDemodulator( float gain, ArcTangentApproximation approximation )
 	{
 		mGain = gain;
+		mApproximation = approximation;
+	}
+
+	public FMDemodulator( float gain )
+	{
+		this( gain, DEFAULT_APPROXIMATION );
 	}
 
 	public float demodulate( float currentI, float currentQ )
@@ -36,23 +56,8 @@ public abstract class FMDemodulator
 		 * 
 		 * Negating the previous sample quadrature produces the conjugate
 		 */
-		double inphase = ( currentI * mPreviousI ) - ( currentQ * -mPreviousQ );
-		double quadrature = ( currentQ * mPreviousI ) + ( currentI * -mPreviousQ );
-	
-		double angle = 0.0f;
-	
-		//Check for divide by zero
-		if( inphase != 0 )
-		{
-			/**
-			 * Use the arc-tangent of quadrature divided by inphase to
-			 * get the phase angle (+/-) which was directly manipulated by the
-			 * original message waveform during the modulation.  This value now
-			 * serves as the instantaneous amplitude of the demodulated signal
-			 */
-			double denominator = 1.0d / inphase;
-			angle = Math.atan( (double)quadrature * denominator );
-		}
+		float inphase = ( currentI * mPreviousI ) + ( currentQ * mPreviousQ );
+		float quadrature = ( currentQ * mPreviousI ) - ( currentI * mPreviousQ );
 	
 		/**
 		 * Store the current sample to use during the next iteration
@@ -60,7 +65,77 @@ public abstract class FMDemodulator
 		mPreviousI = currentI;
 		mPreviousQ = currentQ;
 	
-		return (float)( angle * mGain );
+		return mApproximation.atan2( quadrature, inphase ) * mGain;
+	}
+
+	/**
+	 * Demodulates a block of interleaved complex samples.
+	 * 
+	 * @param samples - interleaved inphase and quadrature samples
+	 * @param offset - index of the inphase value of the first complex sample
+	 * @param length - number of complex samples to demodulate
+	 * @param demodulated - output array to receive length demodulated samples
+	 * @param demodulatedOffset - index of the first output sample
+	 */
+	public void demodulate( float[] samples, int offset, int length, 
+			float[] demodulated, int demodulatedOffset )
+	{
+		float previousI = mPreviousI;
+		float previousQ = mPreviousQ;
+		float gain = mGain;
+
+		int end = offset + ( length * 2 );
+		int outputIndex = demodulatedOffset;
+
+		/* Select the arc-tangent once per block so each loop inlines it */
+		switch( mApproximation )
+		{
+			case POLYNOMIAL:
+				for( int x = offset; x < end; x += 2 )
+				{
+					float i = samples[ x ];
+					float q = samples[ x + 1 ];
+
+					demodulated[ outputIndex++ ] = gain * ArcTangentApproximation
+						.polynomial( ( q * previousI ) - ( i * previousQ ), 
+									 ( i * previousI ) + ( q * previousQ ) );
+
+					previousI = i;
+					previousQ = q;
+				}
+				break;
+			case TABLE:
+				for( int x = offset; x < end; x += 2 )
+				{
+					float i = samples[ x ];
+					float q = samples[ x + 1 ];
+
+					demodulated[ outputIndex++ ] = gain * ArcTangentApproximation
+						.table( ( q * previousI ) - ( i * previousQ ), 
+								( i * previousI ) + ( q * previousQ ) );
+
+					previousI = i;
+					previousQ = q;
+				}
+				break;
+			default:
+				for( int x = offset; x < end; x += 2 )
+				{
+					float i = samples[ x ];
+					float q = samples[ x + 1 ];
+
+					demodulated[ outputIndex++ ] = gain * mApproximation
+						.atan2( ( q * previousI ) - ( i * previousQ ), 
+								( i * previousI ) + ( q * previousQ ) );
+
+					previousI = i;
+					previousQ = q;
+				}
+				break;
+		}
+
+		mPreviousI = previousI;
+		mPreviousQ = previousQ;
 	}
 
 	public abstract void dispose();
@@ -75,4 +150,14 @@ public abstract class FMDemodulator
 	{
 		mGain = gain;
 	}
-}
\ No newline at end of file
+
+	public ArcTangentApproximation getArcTangentApproximation()
+	{
+		return mApproximation;
+	}
+
+	public void setArcTangentApproximation( ArcTangentApproximation approximation )
+	{
+		mApproximation = approximation;
+	}
+}
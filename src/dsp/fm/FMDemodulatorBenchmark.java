@@ -0,0 +1,460 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package dsp.fm;
+
+import bits.BitBuffer;
+import dsp.filter.FilterFactory;
+import dsp.filter.Window.WindowType;
+import dsp.filter.fir.complex.ComplexFIRFilter;
+import dsp.filter.fir.real.RealFIRFilter;
+import dsp.symbol.FrameSync;
+import edac.BCH_63_16_11;
+import module.decode.p25.C4FMSlicer;
+import module.decode.p25.C4FMSymbolFilter;
+import module.decode.p25.P25MessageFramer;
+import module.decode.p25.message.P25Message;
+import module.decode.p25.reference.DataUnitID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sample.real.RealBuffer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures the accuracy and throughput of each ArcTangentApproximation used by the FM demodulator and verifies that
+ * P25 C4FM decoding is unchanged when the legacy Math.atan() discriminator is replaced by the block demodulator.
+ *
+ * The decode equivalence check uses synthesized C4FM baseband: randomly spaced P25 frames with valid sync and NID
+ * fields are raised cosine shaped, FM modulated at 48 kHz with +/-1800 Hz outer deviation, corrupted with white
+ * noise and channel filtered before demodulation with each discriminator.  Demodulated samples are low pass filtered
+ * and decoded with the C4FM symbol filter, slicer and framer, mirroring the P25 C4FM decoder module chain.
+ */
+public class FMDemodulatorBenchmark
+{
+    private final static Logger mLog = LoggerFactory.getLogger(FMDemodulatorBenchmark.class);
+
+    private static final int SAMPLE_RATE = 48000;
+    private static final int SAMPLES_PER_SYMBOL = 10;
+    private static final int BUFFER_LENGTH = 8192;
+    private static final int WARMUP_ITERATIONS = 2000;
+    private static final int TIMED_ITERATIONS = 4000;
+    private static final int ACCURACY_POINTS = 4000000;
+    private static final int DIBIT_COUNT = 300000;
+    private static final int PREAMBLE_DIBITS = 2400;
+    private static final float[] SYMBOL_LEVELS = {1.0f, 3.0f, -1.0f, -3.0f};
+    private static final float DEVIATION_PER_LEVEL = 600.0f;
+    private static final float NOISE_AMPLITUDE = 0.1f;
+
+    public static void main(String[] args)
+    {
+        accuracy();
+        throughput();
+        decodeEquivalence();
+    }
+
+    /**
+     * Measures maximum absolute error against Math.atan2() for random arguments spanning six decades of magnitude
+     * and for the axis and octant boundary arguments.
+     */
+    private static void accuracy()
+    {
+        Random random = new Random(1);
+
+        float[] y = new float[ACCURACY_POINTS];
+        float[] x = new float[ACCURACY_POINTS];
+
+        int boundaries = 0;
+
+        for(float a : new float[]{-1.0f, 0.0f, 1.0f})
+        {
+            for(float b : new float[]{-1.0f, 0.0f, 1.0f})
+            {
+                y[boundaries] = a;
+                x[boundaries++] = b;
+            }
+        }
+
+        for(int index = boundaries; index < ACCURACY_POINTS; index++)
+        {
+            double magnitude = Math.pow(10.0, random.nextDouble() * 6.0 - 3.0);
+            double angle = (random.nextDouble() * 2.0 - 1.0) * Math.PI;
+
+            y[index] = (float)(magnitude * Math.sin(angle));
+            x[index] = (float)(magnitude * Math.cos(angle));
+        }
+
+        for(ArcTangentApproximation approximation : ArcTangentApproximation.values())
+        {
+            double maximumError = 0.0;
+            double totalError = 0.0;
+
+            for(int index = 0; index < ACCURACY_POINTS; index++)
+            {
+                double expected = Math.atan2(y[index], x[index]);
+
+                //Angles of +/- PI are equivalent
+                if(expected == -Math.PI)
+                {
+                    expected = Math.PI;
+                }
+
+                double actual = approximation.atan2(y[index], x[index]);
+
+                double error = Math.abs(expected - actual);
+
+                if(error > Math.PI)
+                {
+                    error = Math.abs(error - 2.0 * Math.PI);
+                }
+
+                maximumError = Math.max(maximumError, error);
+                totalError += error;
+            }
+
+            mLog.info(String.format("%-10s max error %.3e rad (bound %.1e) mean error %.3e rad - %s", approximation,
+                maximumError, approximation.getMaximumError(), totalError / ACCURACY_POINTS,
+                maximumError <= approximation.getMaximumError() ? "PASS" : "FAIL"));
+        }
+    }
+
+    /**
+     * Measures demodulated samples per second for the legacy per-sample discriminator and for the block demodulator
+     * with each approximation, writing into a reused output array.
+     */
+    private static void throughput()
+    {
+        float[] samples = modulate(frequencies(new Random(2), BUFFER_LENGTH / SAMPLES_PER_SYMBOL + 1), new Random(3));
+        float[] demodulated = new float[BUFFER_LENGTH];
+
+        LegacyDemodulator legacy = new LegacyDemodulator();
+
+        for(int x = 0; x < WARMUP_ITERATIONS; x++)
+        {
+            legacy.demodulate(samples, demodulated);
+        }
+
+        long start = System.nanoTime();
+
+        for(int x = 0; x < TIMED_ITERATIONS; x++)
+        {
+            legacy.demodulate(samples, demodulated);
+        }
+
+        report("Legacy", System.nanoTime() - start);
+
+        for(ArcTangentApproximation approximation : ArcTangentApproximation.values())
+        {
+            FMDemodulator_CB demodulator = new FMDemodulator_CB(1.0f, approximation);
+
+            for(int x = 0; x < WARMUP_ITERATIONS; x++)
+            {
+                demodulator.demodulate(samples, 0, BUFFER_LENGTH, demodulated, 0);
+            }
+
+            start = System.nanoTime();
+
+            for(int x = 0; x < TIMED_ITERATIONS; x++)
+            {
+                demodulator.demodulate(samples, 0, BUFFER_LENGTH, demodulated, 0);
+            }
+
+            report(approximation.toString(), System.nanoTime() - start);
+        }
+    }
+
+    private static void report(String label, long elapsed)
+    {
+        double samplesPerSecond = (double)BUFFER_LENGTH * TIMED_ITERATIONS / (elapsed / 1E9d);
+
+        mLog.info(String.format("%-10s %6.1f M samples/sec", label, samplesPerSecond / 1E6d));
+    }
+
+    /**
+     * Decodes synthesized P25 C4FM baseband with the legacy discriminator and with each approximation and compares
+     * the decoded message sequences.
+     */
+    private static void decodeEquivalence()
+    {
+        Random random = new Random(4);
+
+        float[] samples = modulate(frequencies(random, p25Dibits(random)), random);
+
+        ComplexFIRFilter channelFilter = new ComplexFIRFilter(FilterFactory.getLowPass(SAMPLE_RATE, 6500, 7500, 60,
+            WindowType.HAMMING, true), 1.0f);
+        channelFilter.filter(samples);
+
+        LegacyDemodulator legacy = new LegacyDemodulator();
+        float[] reference = new float[samples.length / 2];
+        legacy.demodulate(samples, reference);
+
+        List<String> expected = decode(reference);
+
+        mLog.info(String.format("%-10s decoded %d messages", "Legacy", expected.size()));
+
+        for(ArcTangentApproximation approximation : ArcTangentApproximation.values())
+        {
+            FMDemodulator_CB demodulator = new FMDemodulator_CB(1.0f, approximation);
+            float[] demodulated = new float[samples.length / 2];
+
+            //Demodulate in buffer sized blocks to exercise the state carried between blocks
+            for(int offset = 0; offset < demodulated.length; offset += BUFFER_LENGTH)
+            {
+                int length = Math.min(BUFFER_LENGTH, demodulated.length - offset);
+                demodulator.demodulate(samples, offset * 2, length, demodulated, offset);
+            }
+
+            List<String> actual = decode(demodulated);
+
+            mLog.info(String.format("%-10s decoded %d messages - %s", approximation, actual.size(),
+                actual.equals(expected) ? "EQUIVALENT" : "DIFFERENT"));
+        }
+    }
+
+    /**
+     * Decodes demodulated samples with the P25 C4FM symbol filter, slicer and message framer
+     */
+    private static List<String> decode(float[] demodulated)
+    {
+        List<String> messages = new ArrayList<>();
+
+        RealFIRFilter demodulatedFilter = new RealFIRFilter(FilterFactory.getLowPass(SAMPLE_RATE, 2500, 4000, 60,
+            WindowType.HAMMING, true), 1.0f);
+
+        C4FMSymbolFilter symbolFilter = new C4FMSymbolFilter(0);
+        C4FMSlicer slicer = new C4FMSlicer();
+        symbolFilter.setListener(slicer);
+        P25MessageFramer framer = new P25MessageFramer(null);
+        slicer.setDibitBufferListener(framer);
+        framer.setListener(message -> messages.add(message.toString()));
+
+        for(int offset = 0; offset < demodulated.length; offset += BUFFER_LENGTH / 4)
+        {
+            int length = Math.min(BUFFER_LENGTH / 4, demodulated.length - offset);
+            float[] buffer = new float[length];
+            System.arraycopy(demodulated, offset, buffer, 0, length);
+            demodulatedFilter.filter(buffer);
+            symbolFilter.receive(new RealBuffer(buffer));
+        }
+
+        slicer.flush();
+
+        return messages;
+    }
+
+    /**
+     * Creates a dibit stream with a random preamble followed by randomly spaced P25 HDU, TDU, LDU1, LDU2 and TDULC
+     * frames with valid sync and BCH encoded NID fields, each followed by a random payload of the data unit's length
+     * with status symbols inserted after every 35 dibits.
+     */
+    private static byte[] p25Dibits(Random random)
+    {
+        DataUnitID[] dataUnits = {DataUnitID.HDU, DataUnitID.TDU, DataUnitID.LDU1, DataUnitID.LDU2, DataUnitID.TDULC};
+        long[] nids = new long[dataUnits.length];
+        int found = 0;
+
+        BCH_63_16_11 bch = new BCH_63_16_11();
+        int[] codeword = new int[63];
+
+        //Correct random values to the nearest BCH codeword to create a valid NID for each data unit type
+        while(found < dataUnits.length)
+        {
+            BitBuffer candidate = new BitBuffer(64);
+            candidate.load(0, 64, random.nextLong());
+
+            if(!bch.decode(candidate.toReverseIntegerArray(0, 62), codeword))
+            {
+                BitBuffer nid = new BitBuffer(64);
+
+                for(int x = 0; x < 63; x++)
+                {
+                    if(codeword[62 - x] == 1)
+                    {
+                        nid.set(x);
+                    }
+                }
+
+                int duid = nid.getInt(P25Message.DUID);
+
+                for(int x = 0; x < dataUnits.length; x++)
+                {
+                    if(dataUnits[x].getValue() == duid && nids[x] == 0)
+                    {
+                        nids[x] = nid.getLong(0, 63);
+                        found++;
+                    }
+                }
+            }
+        }
+
+        long sync = FrameSync.P25_PHASE1_NORMAL.getSync();
+
+        byte[] dibits = new byte[DIBIT_COUNT];
+        int pointer = 0;
+
+        //Random preamble allows the symbol filter gain and timing loops to settle before the first frame
+        while(pointer < PREAMBLE_DIBITS)
+        {
+            dibits[pointer++] = (byte)random.nextInt(4);
+        }
+
+        while(pointer < DIBIT_COUNT - 2000)
+        {
+            int gap = 10 + random.nextInt(200);
+
+            for(int x = 0; x < gap; x++)
+            {
+                dibits[pointer++] = (byte)random.nextInt(4);
+            }
+
+            for(int x = 23; x >= 0; x--)
+            {
+                dibits[pointer++] = (byte)((sync >> (2 * x)) & 3);
+            }
+
+            int dataUnit = random.nextInt(dataUnits.length);
+            long nid = nids[dataUnit];
+            int bits = dataUnits[dataUnit].getMessageLength();
+            int statusCounter = 24;
+            int bit = 0;
+
+            while(bit < bits)
+            {
+                if(statusCounter == 35)
+                {
+                    statusCounter = 0;
+                    dibits[pointer++] = (byte)random.nextInt(4);
+                }
+                else
+                {
+                    statusCounter++;
+                    dibits[pointer++] = (byte)(bit < 64 ? (nid >> (62 - bit)) & 3 : random.nextInt(4));
+                    bit += 2;
+                }
+            }
+        }
+
+        byte[] trimmed = new byte[pointer];
+        System.arraycopy(dibits, 0, trimmed, 0, pointer);
+        return trimmed;
+    }
+
+    private static float[] frequencies(Random random, int symbols)
+    {
+        byte[] dibits = new byte[symbols];
+
+        for(int x = 0; x < symbols; x++)
+        {
+            dibits[x] = (byte)random.nextInt(4);
+        }
+
+        return frequencies(random, dibits);
+    }
+
+    /**
+     * Converts dibits to instantaneous frequency samples using a 0.2 roll-off raised cosine pulse
+     */
+    private static float[] frequencies(Random random, byte[] dibits)
+    {
+        int span = 8 * SAMPLES_PER_SYMBOL;
+        float[] pulse = new float[2 * span + 1];
+
+        for(int x = -span; x <= span; x++)
+        {
+            double t = (double)x / SAMPLES_PER_SYMBOL;
+            double sinc = x == 0 ? 1.0 : Math.sin(Math.PI * t) / (Math.PI * t);
+            double denominator = 1.0 - (0.4 * t) * (0.4 * t);
+            double window = Math.abs(denominator) < 1E-9 ? Math.PI / 4.0 : Math.cos(0.2 * Math.PI * t) / denominator;
+            pulse[x + span] = (float)(sinc * window);
+        }
+
+        float[] frequencies = new float[dibits.length * SAMPLES_PER_SYMBOL];
+
+        for(int symbol = 0; symbol < dibits.length; symbol++)
+        {
+            float level = SYMBOL_LEVELS[dibits[symbol]] * DEVIATION_PER_LEVEL;
+            int center = symbol * SAMPLES_PER_SYMBOL;
+
+            for(int x = -span; x <= span; x++)
+            {
+                int index = center + x;
+
+                if(index >= 0 && index < frequencies.length)
+                {
+                    frequencies[index] += level * pulse[x + span];
+                }
+            }
+        }
+
+        return frequencies;
+    }
+
+    /**
+     * Frequency modulates the instantaneous frequency samples into interleaved complex samples with white noise
+     */
+    private static float[] modulate(float[] frequencies, Random random)
+    {
+        float[] samples = new float[frequencies.length * 2];
+        double phase = 0.0;
+
+        for(int x = 0; x < frequencies.length; x++)
+        {
+            phase += 2.0 * Math.PI * frequencies[x] / SAMPLE_RATE;
+            samples[2 * x] = (float)Math.cos(phase) + (float)random.nextGaussian() * NOISE_AMPLITUDE;
+            samples[2 * x + 1] = (float)Math.sin(phase) + (float)random.nextGaussian() * NOISE_AMPLITUDE;
+        }
+
+        return samples;
+    }
+
+    /**
+     * Discriminator as implemented prior to the block demodulator: double precision Math.atan() of quadrature divided
+     * by inphase, limited to +/- PI/2
+     */
+    public static class LegacyDemodulator
+    {
+        private float mPreviousI = 0.0f;
+        private float mPreviousQ = 0.0f;
+
+        public void demodulate(float[] samples, float[] demodulated)
+        {
+            for(int x = 0; x < demodulated.length; x++)
+            {
+                float currentI = samples[2 * x];
+                float currentQ = samples[2 * x + 1];
+
+                double inphase = (currentI * mPreviousI) - (currentQ * -mPreviousQ);
+                double quadrature = (currentQ * mPreviousI) + (currentI * -mPreviousQ);
+
+                double angle = 0.0;
+
+                if(inphase != 0)
+                {
+                    angle = Math.atan(quadrature * (1.0d / inphase));
+                }
+
+                mPreviousI = currentI;
+                mPreviousQ = currentQ;
+
+                demodulated[x] = (float)angle;
+            }
+        }
+    }
+}
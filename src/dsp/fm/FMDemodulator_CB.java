@@ -39,6 +39,16 @@ public class FMDemodulator_CB extends FMDemodulator implements Listener<ComplexB
 		super( gain );
 	}
 	
+	public FMDemodulator_CB( float gain, ArcTangentApproximation approximation )
+	{
+		super( gain, approximation );
+	}
+	
+	/**
+	 * Demodulates the complex buffer into a new real buffer.  Output buffers are
+	 * not recycled because downstream audio filters, audio packets and recorders
+	 * hold references to the demodulated buffer after it is dispatched.
+	 */
 	@Override
 	public void receive( ComplexBuffer buffer )
 	{
@@ -50,13 +60,7 @@ public class FMDemodulator_CB extends FMDemodulator implements Listener<ComplexB
 			
 			float[] demodulated = new float[ half ];
 
-			for( int x = 0; x < half; x++ )
-			{
-				int index = x * 2;
-				
-				demodulated[ x ] = demodulate( samples[ index ], 
-											   samples[ index + 1 ] );
-			}
+			demodulate( samples, 0, half, demodulated, 0 );
 
 			mListener.receive( new RealBuffer( demodulated ) );
 		}
@@ -17,13 +17,14 @@
  ******************************************************************************/
 package dsp.fsk;
 
-import buffer.BooleanAveragingBuffer;
+import bits.IBitStreamListener;
 import dsp.symbol.SymbolEvent;
 import dsp.symbol.SymbolEvent.Shift;
 import instrument.Instrumentable;
 import instrument.tap.Tap;
 import instrument.tap.TapGroup;
 import instrument.tap.stream.SymbolEventTap;
+import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import sample.Listener;
@@ -52,6 +53,11 @@ import java.util.List;
  *
  * Implements instrumentable interface, so that slice events can be received
  * externally to analyze decoder performance.
+ *
+ * The one-baud delay line, the low pass filter and the symbol slicer are each
+ * implemented as a bit-packed shift register, limiting the samples per symbol
+ * to 63.  Decoded bits are delivered to the bit stream listener as packed
+ * words, once per sample buffer, and optionally to a (boxed) Boolean listener.
  */
 public class FSK2Decoder implements Instrumentable, Listener<RealBuffer>
 {
@@ -69,8 +75,13 @@ public class FSK2Decoder implements Instrumentable, Listener<RealBuffer>
     private ArrayList<SymbolEventTap> mTaps = new ArrayList<SymbolEventTap>();
 
     private Listener<Boolean> mListener;
-    private BooleanAveragingBuffer mDelayBuffer;
-    private BooleanAveragingBuffer mLowPassFilter;
+    private IBitStreamListener mBitStreamListener;
+    private long mSampleMask;
+    private long mDelayRegister;
+    private long mLowPassRegister;
+    private int mLowPassThreshold;
+    private long mOutputBits;
+    private int mOutputBitCount;
     private Slicer mSlicer;
     private boolean mNormalOutput;
     private int mSamplesPerSymbol;
@@ -85,8 +96,10 @@ public class FSK2Decoder implements Instrumentable, Listener<RealBuffer>
         mNormalOutput = (output == Output.NORMAL);
         mSymbolRate = symbolRate;
 
-        mDelayBuffer = new BooleanAveragingBuffer(mSamplesPerSymbol);
-        mLowPassFilter = new BooleanAveragingBuffer(mSamplesPerSymbol);
+        Validate.isTrue(mSamplesPerSymbol < 64, "Samples per symbol must be less than 64");
+
+        mSampleMask = (1l << mSamplesPerSymbol) - 1;
+        mLowPassThreshold = mSamplesPerSymbol / 2;
         mSlicer = new Slicer(mSamplesPerSymbol);
     }
 
@@ -96,6 +109,7 @@ public class FSK2Decoder implements Instrumentable, Listener<RealBuffer>
     public void dispose()
     {
         mListener = null;
+        mBitStreamListener = null;
     }
 
     /**
@@ -106,22 +120,41 @@ public class FSK2Decoder implements Instrumentable, Listener<RealBuffer>
     {
         for(float sample : buffer.getSamples())
         {
-			/* Square the sample.  Greater than zero is a 1 (true) and less than 
-			 * zero is a 0 (false) */
-            boolean bitSample = (sample >= 0.0f);
+			/* Square the sample.  Greater than zero is a 1 and less than 
+			 * zero is a 0 */
+            long bitSample = (sample >= 0.0f) ? 1l : 0l;
 
-			/* Feed the delay buffer and fetch the one-baud delayed sample */
-            boolean delayedBitSample = mDelayBuffer.get(bitSample);
+			/* Fetch the one-baud delayed sample and feed the delay register */
+            long delayedBitSample = (mDelayRegister >>> (mSamplesPerSymbol - 1)) & 1l;
+            mDelayRegister = ((mDelayRegister << 1) | bitSample) & mSampleMask;
 
 			/* Correlation: xor current bit with delayed bit */
-            boolean softBit = bitSample ^ delayedBitSample;
+            long softBit = bitSample ^ delayedBitSample;
 
-			/* Low pass filter to smooth the correlated values */
-            boolean filteredSoftBit = mLowPassFilter.getAverage(softBit);
+			/* Low pass filter (majority vote over one baud) to smooth the 
+			 * correlated values */
+            mLowPassRegister = ((mLowPassRegister << 1) | softBit) & mSampleMask;
+            boolean filteredSoftBit = Long.bitCount(mLowPassRegister) > mLowPassThreshold;
 
 			/* Send the filtered correlated bit to the slicer */
             mSlicer.receive(filteredSoftBit);
         }
+
+        flushBitStream();
+    }
+
+    /**
+     * Delivers any accumulated decoded bits to the bit stream listener
+     */
+    private void flushBitStream()
+    {
+        if(mOutputBitCount > 0 && mBitStreamListener != null)
+        {
+            mBitStreamListener.receive(mOutputBits, mOutputBitCount);
+        }
+
+        mOutputBits = 0;
+        mOutputBitCount = 0;
     }
 
     /**
@@ -140,12 +173,29 @@ public class FSK2Decoder implements Instrumentable, Listener<RealBuffer>
         mListener = null;
     }
 
+    /**
+     * Registers a listener to receive the decoded FSK bits as packed words
+     */
+    public void setBitStreamListener(IBitStreamListener listener)
+    {
+        mBitStreamListener = listener;
+    }
+
+    /**
+     * Removes the bit stream listener
+     */
+    public void removeBitStreamListener()
+    {
+        mBitStreamListener = null;
+    }
+
     /**
      * Symbol slicer with auto-aligning baud timing
      */
     public class Slicer
     {
-        private BitSet mBitSet = new BitSet();
+        private long mSymbolBits;
+        private long mLastSampleMask;
         private int mSymbolLength;
         private int mDecisionThreshold;
         private int mSampleCounter;
@@ -153,6 +203,7 @@ public class FSK2Decoder implements Instrumentable, Listener<RealBuffer>
         public Slicer(int samplesPerSymbol)
         {
             mSymbolLength = samplesPerSymbol;
+            mLastSampleMask = 1l << (mSymbolLength - 1);
 
             mDecisionThreshold = (int) (mSymbolLength / 2);
 
@@ -165,32 +216,27 @@ public class FSK2Decoder implements Instrumentable, Listener<RealBuffer>
 
         public void receive(boolean softBit)
         {
-            if(mSampleCounter >= 0)
+            if(mSampleCounter >= 0 && softBit)
             {
-                if(softBit)
-                {
-                    mBitSet.set(mSampleCounter);
-                }
-                else
-                {
-                    mBitSet.clear(mSampleCounter);
-                }
+                mSymbolBits |= 1l << mSampleCounter;
             }
 
             mSampleCounter++;
 
             if(mSampleCounter >= mSymbolLength)
             {
-                boolean decision = mBitSet.cardinality() >= mDecisionThreshold;
+                boolean decision = Long.bitCount(mSymbolBits) >= mDecisionThreshold;
 
                 send(decision);
 
+                boolean first = (mSymbolBits & 1l) != 0;
+                boolean last = (mSymbolBits & mLastSampleMask) != 0;
+
 				/* Shift timing left if the left bit in the bitset is opposite 
 				 * the decision and the right bit is the same */
-                if((mBitSet.get(0) ^ decision) &&
-                    (!(mBitSet.get(mSymbolLength - 1) ^ decision)))
+                if((first ^ decision) && (!(last ^ decision)))
                 {
-                    sendTapEvent(mBitSet, Shift.LEFT, decision);
+                    sendTapEvent(Shift.LEFT, decision);
 
                     reset();
 
@@ -198,19 +244,16 @@ public class FSK2Decoder implements Instrumentable, Listener<RealBuffer>
                 }
 				/* Shift timing right if the left bit is the same as the 
 				 * decision and the right bit is opposite */
-                else if((!(mBitSet.get(0) ^ decision)) &&
-                    (mBitSet.get(mSymbolLength - 1) ^ decision))
+                else if((!(first ^ decision)) && (last ^ decision))
                 {
-                    sendTapEvent(mBitSet, Shift.RIGHT, decision);
+                    sendTapEvent(Shift.RIGHT, decision);
 					
-					/* Last bit from previous symbol to pre-fill next symbol */
-                    boolean previousSoftBit = mBitSet.get(mSymbolLength - 1);
-
                     reset();
 
-                    if(previousSoftBit)
+					/* Last bit from previous symbol to pre-fill next symbol */
+                    if(last)
                     {
-                        mBitSet.set(0);
+                        mSymbolBits = 1l;
                     }
 
                     mSampleCounter++;
@@ -218,7 +261,7 @@ public class FSK2Decoder implements Instrumentable, Listener<RealBuffer>
 				/* No shift */
                 else
                 {
-                    sendTapEvent(mBitSet, Shift.NONE, decision);
+                    sendTapEvent(Shift.NONE, decision);
 
                     reset();
                 }
@@ -226,31 +269,41 @@ public class FSK2Decoder implements Instrumentable, Listener<RealBuffer>
         }
 
         /**
-         * Sends the bit decision to the listener
+         * Sends the bit decision to the listeners
          */
         private void send(boolean decision)
         {
+            boolean bit = mNormalOutput ? decision : !decision;
+
+            mOutputBits = (mOutputBits << 1) | (bit ? 1l : 0l);
+            mOutputBitCount++;
+
+            if(mOutputBitCount == 64)
+            {
+                flushBitStream();
+            }
+
             if(mListener != null)
             {
-                mListener.receive(mNormalOutput ? decision : !decision);
+                mListener.receive(bit);
             }
         }
 
         private void reset()
         {
-            mBitSet.clear();
+            mSymbolBits = 0;
             mSampleCounter = 0;
         }
 
         /**
          * Sends instrumentation tap event to all registered listeners
          */
-        private void sendTapEvent(BitSet bitset, Shift shift, boolean decision)
+        private void sendTapEvent(Shift shift, boolean decision)
         {
             for(SymbolEventTap tap : mTaps)
             {
                 SymbolEvent event =
-                    new SymbolEvent(bitset.get(0, mSymbolLength),
+                    new SymbolEvent(BitSet.valueOf(new long[]{mSymbolBits}),
                         mSymbolLength,
                         decision,
                         shift);
@@ -0,0 +1,166 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package dsp.fsk;
+
+import bits.MessageFramer;
+import bits.SyncPattern;
+import module.decode.mpt1327.MPT1327Decoder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sample.Listener;
+import sample.real.RealBuffer;
+
+import java.util.Random;
+
+/**
+ * Measures 1200 baud FSK2 decoding throughput in decoded bits per second per core.  A 48 kHz baseband 1200/1800 Hz
+ * FFSK signal containing MPT-1327 control channel sync patterns is synthesized, since no baseband recordings are
+ * distributed with the source.  Measures the FSK2 decoder and message framer at the 24 kHz decoder sample rate, and
+ * the complete MPT-1327 decoder (decimation, high pass filter, FSK2 decoder and framers) at 48 kHz for a signal and
+ * for a noise-only (idle) channel.
+ */
+public class FSK2DecoderBenchmark
+{
+    private final static Logger mLog = LoggerFactory.getLogger(FSK2DecoderBenchmark.class);
+
+    private static final int SYMBOL_RATE = 1200;
+    private static final int BUFFER_LENGTH = 2048;
+    private static final int SIGNAL_SECONDS = 60;
+    private static final int ITERATIONS = 5;
+
+    public static void main(String[] args)
+    {
+        float[] baseband48 = synthesize(48000, true);
+        float[] baseband24 = synthesize(24000, true);
+        float[] noise48 = synthesize(48000, false);
+
+        for(int iteration = 0; iteration < ITERATIONS; iteration++)
+        {
+            boolean log = (iteration == ITERATIONS - 1);
+
+            benchmarkFSK2Decoder(baseband24, log);
+            benchmarkDecoder("signal", baseband48, log);
+            benchmarkDecoder("idle", noise48, log);
+        }
+    }
+
+    /**
+     * Synthesizes FFSK baseband samples with additive noise
+     *
+     * @param sampleRate of the generated samples
+     * @param signal true to generate an FFSK signal or false for noise only
+     */
+    private static float[] synthesize(int sampleRate, boolean signal)
+    {
+        Random random = new Random(1);
+
+        boolean[] sync = SyncPattern.MPT1327_CONTROL.getPattern();
+        int samplesPerSymbol = sampleRate / SYMBOL_RATE;
+        float[] samples = new float[SIGNAL_SECONDS * sampleRate];
+
+        double phase = 0.0;
+        int syncPointer = sync.length;
+        int pointer = 0;
+
+        while(pointer < samples.length)
+        {
+            boolean bit;
+
+            if(syncPointer < sync.length)
+            {
+                bit = sync[syncPointer++];
+            }
+            else
+            {
+                bit = random.nextBoolean();
+
+                if(random.nextInt(128) == 0)
+                {
+                    syncPointer = 0;
+                }
+            }
+
+            double frequency = bit ? 1200.0 : 1800.0;
+
+            for(int x = 0; x < samplesPerSymbol && pointer < samples.length; x++)
+            {
+                phase += 2.0 * Math.PI * frequency / sampleRate;
+                samples[pointer++] = (float)((signal ? Math.sin(phase) : 0.0) + random.nextGaussian() * 0.3);
+            }
+        }
+
+        return samples;
+    }
+
+    private static void benchmarkFSK2Decoder(float[] samples, boolean log)
+    {
+        FSK2Decoder decoder = new FSK2Decoder(24000, SYMBOL_RATE, FSK2Decoder.Output.INVERTED);
+        MessageFramer framer = new MessageFramer(SyncPattern.MPT1327_CONTROL.getPattern(), 64);
+
+        final long[] counts = new long[2];
+
+        decoder.setBitStreamListener((bits, count) -> {
+            counts[0] += count;
+            framer.receive(bits, count);
+        });
+
+        framer.addMessageListener(message -> counts[1]++);
+
+        long elapsed = run(samples, decoder);
+
+        if(log)
+        {
+            mLog.info(String.format("FSK2 decoder + framer @ 24 kHz: %.0f bits/sec/core (%.0fx real time) bits:%d " +
+                "messages:%d", counts[0] / (elapsed / 1E9), SIGNAL_SECONDS / (elapsed / 1E9), counts[0], counts[1]));
+        }
+    }
+
+    private static void benchmarkDecoder(String label, float[] samples, boolean log)
+    {
+        MPT1327Decoder decoder = new MPT1327Decoder(null, MPT1327Decoder.Sync.NORMAL);
+
+        long elapsed = run(samples, decoder.getFilteredRealBufferListener());
+
+        if(log)
+        {
+            mLog.info(String.format("MPT-1327 decoder @ 48 kHz (%s): %.0f bits/sec/core (%.0fx real time, %.3f%% " +
+                    "core/channel)", label, SYMBOL_RATE * SIGNAL_SECONDS / (elapsed / 1E9),
+                SIGNAL_SECONDS / (elapsed / 1E9), 100.0 * (elapsed / 1E9) / SIGNAL_SECONDS));
+        }
+
+        decoder.dispose();
+    }
+
+    /**
+     * Sends the samples to the listener in buffers and returns the elapsed nanoseconds
+     */
+    private static long run(float[] samples, Listener<RealBuffer> listener)
+    {
+        long start = System.nanoTime();
+
+        for(int x = 0; x + BUFFER_LENGTH <= samples.length; x += BUFFER_LENGTH)
+        {
+            float[] buffer = new float[BUFFER_LENGTH];
+            System.arraycopy(samples, x, buffer, 0, BUFFER_LENGTH);
+            listener.receive(new RealBuffer(buffer));
+        }
+
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,222 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package dsp.mixer;
+
+/**
+ * Block oscillator and mixer that generates or applies a complex phasor across an entire sample array.
+ *
+ * The phasor is produced in chunks of CHUNK_SIZE samples.  Each sample in a chunk is the product of the chunk's
+ * base phasor and a precomputed step^n table entry, so the samples within a chunk are independent of each other and
+ * the inner loops are simple array loops that the JIT can unroll and vectorize.  The base phasor is advanced once per
+ * chunk and renormalized at that time, instead of normalizing every sample.
+ *
+ * Sample sequence matches the per-sample Oscillator: each output sample uses the phasor after it has been rotated.
+ */
+public class BlockOscillator
+{
+    private static final int CHUNK_SIZE = 16;
+
+    private double mFrequency;
+    private double mSampleRate;
+
+    //Precomputed phasor rotations: step^1 through step^CHUNK_SIZE
+    private float[] mRotationInphase = new float[CHUNK_SIZE];
+    private float[] mRotationQuadrature = new float[CHUNK_SIZE];
+
+    //Current (base) phasor
+    private float mInphase = 0.0f;
+    private float mQuadrature = -1.0f;
+
+    /**
+     * Block oscillator producing complex or real samples corresponding to a sine wave oscillating at the specified
+     * frequency and sample rate.
+     *
+     * @param frequency - positive or negative frequency in hertz
+     * @param sampleRate - in hertz
+     */
+    public BlockOscillator(long frequency, int sampleRate)
+    {
+        mFrequency = (double)frequency;
+        mSampleRate = (double)sampleRate;
+
+        update();
+    }
+
+    /**
+     * Updates the rotation tables after a frequency or sample rate change
+     */
+    private void update()
+    {
+        double anglePerSample = 2.0d * Math.PI * mFrequency / mSampleRate;
+
+        for(int x = 0; x < CHUNK_SIZE; x++)
+        {
+            mRotationInphase[x] = (float)Math.cos(anglePerSample * (x + 1));
+            mRotationQuadrature[x] = (float)Math.sin(anglePerSample * (x + 1));
+        }
+    }
+
+    /**
+     * Sets or changes the frequency of this oscillator
+     */
+    public void setFrequency(long frequency)
+    {
+        mFrequency = (double)frequency;
+        update();
+    }
+
+    /**
+     * Sets or changes the sample rate of this oscillator
+     */
+    public void setSampleRate(int sampleRate)
+    {
+        mSampleRate = (double)sampleRate;
+        update();
+    }
+
+    public double getFrequency()
+    {
+        return mFrequency;
+    }
+
+    /**
+     * Fills the array with interleaved complex (I/Q) oscillator samples.
+     *
+     * @param samples array of even length to receive interleaved I/Q samples
+     */
+    public void generateComplex(float[] samples)
+    {
+        int sampleCount = samples.length / 2;
+        int offset = 0;
+
+        while(offset < sampleCount)
+        {
+            int chunk = Math.min(CHUNK_SIZE, sampleCount - offset);
+            int index = offset * 2;
+
+            for(int x = 0; x < chunk; x++)
+            {
+                samples[index + 2 * x] = mInphase * mRotationInphase[x] - mQuadrature * mRotationQuadrature[x];
+                samples[index + 2 * x + 1] = mQuadrature * mRotationInphase[x] + mInphase * mRotationQuadrature[x];
+            }
+
+            advance(chunk);
+            offset += chunk;
+        }
+    }
+
+    /**
+     * Fills the array with real (inphase) oscillator samples.
+     *
+     * @param samples array to receive real samples
+     */
+    public void generateReal(float[] samples)
+    {
+        int offset = 0;
+
+        while(offset < samples.length)
+        {
+            int chunk = Math.min(CHUNK_SIZE, samples.length - offset);
+
+            for(int x = 0; x < chunk; x++)
+            {
+                samples[offset + x] = mInphase * mRotationInphase[x] - mQuadrature * mRotationQuadrature[x];
+            }
+
+            advance(chunk);
+            offset += chunk;
+        }
+    }
+
+    /**
+     * Mixes (complex multiplies) the interleaved I/Q input samples with this oscillator and places the results in
+     * the output array.  Input and output may be the same array for in-place mixing.
+     *
+     * @param input interleaved I/Q samples
+     * @param output array, at least as long as the input, to receive the mixed samples
+     */
+    public void mixComplex(float[] input, float[] output)
+    {
+        int sampleCount = input.length / 2;
+        int offset = 0;
+
+        while(offset < sampleCount)
+        {
+            int chunk = Math.min(CHUNK_SIZE, sampleCount - offset);
+            int index = offset * 2;
+
+            for(int x = 0; x < chunk; x++)
+            {
+                float oscillatorInphase = mInphase * mRotationInphase[x] - mQuadrature * mRotationQuadrature[x];
+                float oscillatorQuadrature = mQuadrature * mRotationInphase[x] + mInphase * mRotationQuadrature[x];
+
+                float inphase = input[index + 2 * x];
+                float quadrature = input[index + 2 * x + 1];
+
+                output[index + 2 * x] = inphase * oscillatorInphase - quadrature * oscillatorQuadrature;
+                output[index + 2 * x + 1] = quadrature * oscillatorInphase + inphase * oscillatorQuadrature;
+            }
+
+            advance(chunk);
+            offset += chunk;
+        }
+    }
+
+    /**
+     * Mixes (multiplies) the real input samples with the real (inphase) component of this oscillator and places the
+     * results in the output array.  Input and output may be the same array for in-place mixing.
+     *
+     * @param input real samples
+     * @param output array, at least as long as the input, to receive the mixed samples
+     */
+    public void mixReal(float[] input, float[] output)
+    {
+        int offset = 0;
+
+        while(offset < input.length)
+        {
+            int chunk = Math.min(CHUNK_SIZE, input.length - offset);
+
+            for(int x = 0; x < chunk; x++)
+            {
+                output[offset + x] = input[offset + x] *
+                    (mInphase * mRotationInphase[x] - mQuadrature * mRotationQuadrature[x]);
+            }
+
+            advance(chunk);
+            offset += chunk;
+        }
+    }
+
+    /**
+     * Advances the base phasor by the number of samples processed in the chunk and renormalizes the phasor to unit
+     * magnitude to prevent accumulated rounding errors from changing the oscillator amplitude.
+     */
+    private void advance(int samples)
+    {
+        float inphase = mInphase * mRotationInphase[samples - 1] - mQuadrature * mRotationQuadrature[samples - 1];
+        float quadrature = mQuadrature * mRotationInphase[samples - 1] + mInphase * mRotationQuadrature[samples - 1];
+
+        //First order approximation of 1/sqrt(magnitude) -- the magnitude is always very close to 1.0
+        float gain = (3.0f - ((inphase * inphase) + (quadrature * quadrature))) * 0.5f;
+
+        mInphase = inphase * gain;
+        mQuadrature = quadrature * gain;
+    }
+}
@@ -26,15 +26,25 @@ public class Oscillator
 {
 	private final static Logger mLog = LoggerFactory.getLogger( Oscillator.class );
 
+	/* Number of rotations between phasor magnitude renormalizations */
+	private static final int RENORMALIZATION_INTERVAL = 64;
+
 	private double mFrequency;
 	private double mSampleRate;
 
-	private Complex mAnglePerSample;
-	private Complex mCurrentAngle = new Complex( 0.0f, -1.0f );
+	private float mAnglePerSampleInphase;
+	private float mAnglePerSampleQuadrature;
+
+	private float mInphase = 0.0f;
+	private float mQuadrature = -1.0f;
+	private int mRotationCount = 0;
 
 	/**
 	 * Oscillator produces complex or float samples corresponding to a sine wave 
-	 * oscillating at the specified frequency and sample rate
+	 * oscillating at the specified frequency and sample rate.
+	 * 
+	 * Use the BlockOscillator for processing sample arrays.  This class is
+	 * intended for consumers that process one sample at a time.
 	 * 
 	 * @param frequency - positive or negative frequency in hertz
 	 * @param sampleRate - in hertz
@@ -52,10 +62,10 @@ public class Oscillator
 	 */
 	private void update()
 	{
-		float anglePerSample = 
-				(float)( 2.0d * Math.PI * mFrequency / mSampleRate );
+		double anglePerSample = 2.0d * Math.PI * mFrequency / mSampleRate;
 
-		mAnglePerSample = Complex.fromAngle( anglePerSample );
+		mAnglePerSampleInphase = (float)Math.cos( anglePerSample );
+		mAnglePerSampleQuadrature = (float)Math.sin( anglePerSample );
 	}
 
 	/**
@@ -77,22 +87,39 @@ public class Oscillator
 	}
 
 	/**
-	 * Steps the current angle by the angle per sample amount
+	 * Steps the current angle by the angle per sample amount.  The phasor
+	 * magnitude is periodically renormalized rather than on every rotation.
 	 */
 	public void rotate()
 	{
-		mCurrentAngle.multiply( mAnglePerSample );
-		mCurrentAngle.fastNormalize();
+		float inphase = Complex.multiplyInphase( mInphase, mQuadrature, 
+				mAnglePerSampleInphase, mAnglePerSampleQuadrature );
+		float quadrature = Complex.multiplyQuadrature( mInphase, mQuadrature, 
+				mAnglePerSampleInphase, mAnglePerSampleQuadrature );
+
+		mInphase = inphase;
+		mQuadrature = quadrature;
+
+		if( ++mRotationCount >= RENORMALIZATION_INTERVAL )
+		{
+			float gain = ( 3.0f - ( ( mInphase * mInphase ) + 
+					( mQuadrature * mQuadrature ) ) ) * 0.5f;
+
+			mInphase *= gain;
+			mQuadrature *= gain;
+
+			mRotationCount = 0;
+		}
 	}
 
 	public float inphase()
 	{
-		return mCurrentAngle.inphase();
+		return mInphase;
 	}
 	
 	public float quadrature()
 	{
-		return mCurrentAngle.quadrature();
+		return mQuadrature;
 	}
 	
 	/**
@@ -100,7 +127,7 @@ public class Oscillator
 	 */
 	public Complex getComplex()
 	{
-		return mCurrentAngle.copy();
+		return new Complex( mInphase, mQuadrature );
 	}
 
 	/**
@@ -108,6 +135,6 @@ public class Oscillator
 	 */
 	public float getFloat()
 	{
-		return mCurrentAngle.real();
+		return mInphase;
 	}
 }
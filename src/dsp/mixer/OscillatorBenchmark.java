@@ -0,0 +1,177 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package dsp.mixer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sample.complex.Complex;
+
+import java.util.Random;
+
+/**
+ * Compares per-channel mixing throughput of the previous Complex based Oscillator (copied below as
+ * PreviousOscillator), the current per-sample Oscillator and the BlockOscillator for the tuner sample rates of 2.4
+ * and 10 MS/s, using 65536 byte (RTL-SDR) and 131072 float buffers.  Reports the fraction of one core needed to mix a
+ * single channel in real time and the speedup over the previous oscillator.
+ */
+public class OscillatorBenchmark
+{
+    private final static Logger mLog = LoggerFactory.getLogger(OscillatorBenchmark.class);
+
+    private static final int WARMUP_ITERATIONS = 2000;
+    private static final int TIMED_ITERATIONS = 5000;
+
+    public static void main(String[] args)
+    {
+        benchmark(2400000, 65536);
+        benchmark(10000000, 131072);
+    }
+
+    private static void benchmark(int sampleRate, int bufferLength)
+    {
+        Random random = new Random(1);
+        float[] samples = new float[bufferLength];
+
+        for(int x = 0; x < samples.length; x++)
+        {
+            samples[x] = random.nextFloat() * 2.0f - 1.0f;
+        }
+
+        float[] translated = new float[bufferLength];
+
+        PreviousOscillator previousOscillator = new PreviousOscillator(12500, sampleRate);
+        Oscillator oscillator = new Oscillator(12500, sampleRate);
+        BlockOscillator blockOscillator = new BlockOscillator(12500, sampleRate);
+
+        for(int x = 0; x < WARMUP_ITERATIONS; x++)
+        {
+            mixPrevious(previousOscillator, samples, translated);
+            mixPerSample(oscillator, samples, translated);
+            blockOscillator.mixComplex(samples, translated);
+        }
+
+        long start = System.nanoTime();
+
+        for(int x = 0; x < TIMED_ITERATIONS; x++)
+        {
+            mixPrevious(previousOscillator, samples, translated);
+        }
+
+        long previousElapsed = System.nanoTime() - start;
+
+        start = System.nanoTime();
+
+        for(int x = 0; x < TIMED_ITERATIONS; x++)
+        {
+            mixPerSample(oscillator, samples, translated);
+        }
+
+        long perSampleElapsed = System.nanoTime() - start;
+
+        start = System.nanoTime();
+
+        for(int x = 0; x < TIMED_ITERATIONS; x++)
+        {
+            blockOscillator.mixComplex(samples, translated);
+        }
+
+        long blockElapsed = System.nanoTime() - start;
+
+        double complexSamples = (double)TIMED_ITERATIONS * bufferLength / 2.0;
+
+        double previousRate = complexSamples / (previousElapsed / 1E9);
+        double perSampleRate = complexSamples / (perSampleElapsed / 1E9);
+        double blockRate = complexSamples / (blockElapsed / 1E9);
+
+        mLog.info(String.format("Sample Rate %.1f MS/s - Previous Oscillator: %.1f MS/s (%.1f%% core/channel)  " +
+                "Oscillator: %.1f MS/s (%.1f%% core/channel) Speedup: %.2fx  " +
+                "BlockOscillator: %.1f MS/s (%.1f%% core/channel) Speedup: %.2fx",
+            sampleRate / 1E6, previousRate / 1E6, 100.0 * sampleRate / previousRate,
+            perSampleRate / 1E6, 100.0 * sampleRate / perSampleRate, perSampleRate / previousRate,
+            blockRate / 1E6, 100.0 * sampleRate / blockRate, blockRate / previousRate));
+    }
+
+    /**
+     * Mixing loop as previously implemented by the tuner channel source decimation processor, using the previous
+     * oscillator implementation
+     */
+    private static void mixPrevious(PreviousOscillator oscillator, float[] samples, float[] translated)
+    {
+        for(int x = 0; x < samples.length; x += 2)
+        {
+            oscillator.rotate();
+
+            translated[x] = Complex.multiplyInphase(
+                samples[x], samples[x + 1], oscillator.inphase(), oscillator.quadrature());
+
+            translated[x + 1] = Complex.multiplyQuadrature(
+                samples[x], samples[x + 1], oscillator.inphase(), oscillator.quadrature());
+        }
+    }
+
+    /**
+     * Same mixing loop using the current per-sample oscillator
+     */
+    private static void mixPerSample(Oscillator oscillator, float[] samples, float[] translated)
+    {
+        for(int x = 0; x < samples.length; x += 2)
+        {
+            oscillator.rotate();
+
+            translated[x] = Complex.multiplyInphase(
+                samples[x], samples[x + 1], oscillator.inphase(), oscillator.quadrature());
+
+            translated[x + 1] = Complex.multiplyQuadrature(
+                samples[x], samples[x + 1], oscillator.inphase(), oscillator.quadrature());
+        }
+    }
+
+    /**
+     * Copy of the Oscillator implementation that preceded the primitive state and periodic renormalization changes,
+     * retained as the benchmark baseline.  Rotates a Complex phasor and normalizes it on every sample.
+     */
+    private static class PreviousOscillator
+    {
+        private Complex mAnglePerSample;
+        private Complex mCurrentAngle = new Complex(0.0f, -1.0f);
+
+        public PreviousOscillator(long frequency, int sampleRate)
+        {
+            float anglePerSample = (float)(2.0d * Math.PI * (double)frequency / (double)sampleRate);
+
+            mAnglePerSample = Complex.fromAngle(anglePerSample);
+        }
+
+        public void rotate()
+        {
+            mCurrentAngle.multiply(mAnglePerSample);
+            mCurrentAngle.fastNormalize();
+        }
+
+        public float inphase()
+        {
+            return mCurrentAngle.inphase();
+        }
+
+        public float quadrature()
+        {
+            return mCurrentAngle.quadrature();
+        }
+    }
+}
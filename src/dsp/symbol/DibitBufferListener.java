@@ -0,0 +1,28 @@
+/*******************************************************************************
+ *     SDR Trunk 
+ *     Copyright (C) 2014 Dennis Sheirer
+ * 
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ * 
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ * 
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>
+ ******************************************************************************/
+package dsp.symbol;
+
+/**
+ * Listener for blocks of dibit symbol decisions.  Each array element contains a
+ * single dibit low value (0 - 3, see Dibit.getLowValue()) so that consumers can
+ * process a run of symbols without per-symbol enum dispatch.
+ */
+public interface DibitBufferListener
+{
+	public void receive( byte[] dibits, int offset, int length );
+}
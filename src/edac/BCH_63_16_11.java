@@ -3,7 +3,7 @@ package edac;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import bits.BinaryMessage;
+import bits.BitBuffer;
 
 /*******************************************************************************
  *     SDR Trunk 
@@ -43,7 +43,7 @@ public class BCH_63_16_11 extends BerlekempMassey_63
 	 * 
 	 * @return - true = success, false = failure
 	 */
-	public BinaryMessage correctNID( BinaryMessage message )
+	public BitBuffer correctNID( BitBuffer message )
 	{
 		CRC status = CRC.PASSED;
 		
@@ -90,7 +90,7 @@ public class BCH_63_16_11 extends BerlekempMassey_63
 		String orig  = "0010011000000011010010100000000110000111110011101010001010110000";
 		String error = "0001010100000011010010100000000110000111100011001010001010110000";
 
-		BinaryMessage errorMessage = BinaryMessage.load( error );
+		BitBuffer errorMessage = BitBuffer.load( error );
 
 		BCH_63_16_11 bch = new BCH_63_16_11();
 
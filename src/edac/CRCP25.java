@@ -20,7 +20,7 @@ package edac;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import bits.BinaryMessage;
+import bits.BitBuffer;
 
 /**
  * P25 CRC check/correction methods
@@ -222,7 +222,7 @@ public class CRCP25
 	 * Performs error detection and single-bit error correction against the
 	 * data blocks of a PDU1 message.
 	 */
-	public static BinaryMessage correctPDU1( BinaryMessage message )
+	public static BitBuffer correctPDU1( BitBuffer message )
 	{
 		return correctPDU( message, PDU1_CHECKSUMS, 224 );
 	}
@@ -231,7 +231,7 @@ public class CRCP25
 	 * Performs error detection and single-bit error correction against the
 	 * data blocks of a PDU2 message.
 	 */
-	public static BinaryMessage correctPDU2( BinaryMessage message )
+	public static BitBuffer correctPDU2( BitBuffer message )
 	{
 		return correctPDU( message, PDU2_CHECKSUMS, 320 );
 	}
@@ -240,12 +240,12 @@ public class CRCP25
 	 * Performs error detection and single-bit error correction against the
 	 * data blocks of a PDU3 message.
 	 */
-	public static BinaryMessage correctPDU3( BinaryMessage message )
+	public static BitBuffer correctPDU3( BitBuffer message )
 	{
 		return correctPDU( message, PDU3_CHECKSUMS, 416 );
 	}
 
-	public static BinaryMessage correctPDU( BinaryMessage message, long[] checksums, int crcStart )
+	public static BitBuffer correctPDU( BitBuffer message, long[] checksums, int crcStart )
 	{
 		long calculated = 0; //Starting value
 		
@@ -292,7 +292,7 @@ public class CRCP25
 	 * Error detection and correction of single-bit errors for CCITT 16-bit
 	 * CRC protected 80-bit messages.
 	 */
-	public static BinaryMessage correctCCITT80( BinaryMessage message, 
+	public static BitBuffer correctCCITT80( BitBuffer message, 
 												int messageStart,
 												int crcStart )
 	{
@@ -342,7 +342,7 @@ public class CRCP25
 	 * were generated assuming that the message is contiguous from 0 - 134 bits.
 	 * No data correction is performed.
 	 */
-	public static CRC checkCRC9( BinaryMessage message, int messageStart )
+	public static CRC checkCRC9( BitBuffer message, int messageStart )
 	{
 		int calculated = 0x0; //Initial fill of all ones
 
@@ -384,7 +384,7 @@ public class CRCP25
 	 * 
 	 * @return - true if all 12 segments of the message can be checked/corrected
 	 */
-	public static boolean correctGalois24( BinaryMessage tdulc )
+	public static boolean correctGalois24( BitBuffer tdulc )
 	{
 		boolean passes = true;
 		
@@ -407,7 +407,7 @@ public class CRCP25
 	/**
 	 * Calculates the value of the message checksum as a long
 	 */
-    public static long getLongChecksum( BinaryMessage message, 
+    public static long getLongChecksum( BitBuffer message, 
     				int crcStart, int crcLength )
     {
     	return message.getLong( crcStart, crcStart + crcLength - 1 );
@@ -416,7 +416,7 @@ public class CRCP25
 	/**
 	 * Calculates the value of the message checksum as an integer
 	 */
-    public static int getIntChecksum( BinaryMessage message, 
+    public static int getIntChecksum( BitBuffer message, 
     				int crcStart, int crcLength )
     {
     	return message.getInt( crcStart, crcStart + crcLength - 1 );
@@ -458,7 +458,7 @@ public class CRCP25
     {
     	String raw = "000000001000001100000001010001111011000100001010010001111100000000000101000000000000000001000000000000110000000000000001101010101010101010101010";
     	
-    	BinaryMessage message = BinaryMessage.load( raw );
+    	BitBuffer message = BitBuffer.load( raw );
     	
     	mLog.debug( "MSG:" + message.toString() );
 
@@ -3,7 +3,7 @@ package edac;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import bits.BinaryMessage;
+import bits.BitBuffer;
 
 /*******************************************************************************
  *     SDR Trunk 
@@ -38,14 +38,14 @@ public class Golay18
 	/**
 	 * Performs error detection and correction.
 	 */
-	public static void checkAndCorrect( BinaryMessage message, int startIndex )
+	public static void checkAndCorrect( BitBuffer message, int startIndex )
 	{
 		int value = message.getInt( startIndex, startIndex + 17 );
 
-		BinaryMessage temp = new BinaryMessage( 24 );
+		BitBuffer temp = new BitBuffer( 24 );
 		temp.load( 6, 18, value );
 
-		BinaryMessage corrected = Golay24.checkAndCorrect( temp, 0 );
+		BitBuffer corrected = Golay24.checkAndCorrect( temp, 0 );
 
 		int correctedValue = corrected.getInt( 6, 23 );
 		
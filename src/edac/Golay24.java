@@ -3,7 +3,7 @@ package edac;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import bits.BinaryMessage;
+import bits.BitBuffer;
 
 /*******************************************************************************
  *     SDR Trunk 
@@ -45,7 +45,7 @@ public class Golay24
 	    0x040, 0x020, 0x010, 0x008, 0x004, 0x002, 0x001 
 	};
 
-	private static int calculateChecksum( BinaryMessage message, int startIndex )
+	private static int calculateChecksum( BitBuffer message, int startIndex )
 	{
 		int calculated = 0; //Starting value
 
@@ -67,7 +67,7 @@ public class Golay24
 	 * @param startIndex - start of the 24-bit galois 24 protected bit set
 	 * @return - corrected 24-bit galois value
 	 */
-	public static BinaryMessage checkAndCorrect( BinaryMessage message, int startIndex )
+	public static BitBuffer checkAndCorrect( BitBuffer message, int startIndex )
 	{
 		boolean parityError = message.cardinality() % 2 != 0;
 		
@@ -157,7 +157,7 @@ public class Golay24
 		return message;
 	}
 
-	private static int getSyndrome( BinaryMessage message, int startIndex )
+	private static int getSyndrome( BitBuffer message, int startIndex )
 	{
 		int calculated = calculateChecksum( message, startIndex );
 		
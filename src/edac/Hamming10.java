@@ -3,7 +3,7 @@ package edac;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import bits.BinaryMessage;
+import bits.BitBuffer;
 
 public class Hamming10
 {
@@ -22,7 +22,7 @@ public class Hamming10
 	 * @return - 0 = no errors 
 	 * 			 1 = a single-bit error was corrected
 	 */
-	public static int checkAndCorrect( BinaryMessage frame, int startIndex )
+	public static int checkAndCorrect( BitBuffer frame, int startIndex )
 	{
 		int syndrome = getSyndrome( frame, startIndex );
 
@@ -82,7 +82,7 @@ public class Hamming10
 	 * @param startIndex - start bit index of the hamming protected word
 	 * @return parity value, 0 - 15
 	 */
-	private static int calculateChecksum( BinaryMessage frame, int startIndex )
+	private static int calculateChecksum( BitBuffer frame, int startIndex )
 	{
 		int calculated = 0; //Starting value
 
@@ -105,7 +105,7 @@ public class Hamming10
 	 * @param startIndex - of bit 0 of the hamming protected word
 	 * @return - 0 (no errors) or 1 (single bit error corrected)
 	 */
-	private static int getSyndrome( BinaryMessage frame, int startIndex )
+	private static int getSyndrome( BitBuffer frame, int startIndex )
 	{
 		int calculated = calculateChecksum( frame, startIndex );
 		
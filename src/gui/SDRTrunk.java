@@ -31,6 +31,9 @@ import controller.channel.ChannelSelectionManager;
 import controller.channel.map.ChannelMapModel;
 import icon.IconManager;
 import map.MapService;
+import metrics.MetricRegistry;
+import metrics.MetricsHttpServer;
+import metrics.MetricsPanel;
 import module.log.EventLogManager;
 import net.miginfocom.swing.MigLayout;
 import org.apache.commons.io.FileUtils;
@@ -76,6 +79,7 @@ public class SDRTrunk implements Listener<TunerEvent>
     private SpectralDisplayPanel mSpectralPanel;
     private JFrame mMainGui = new JFrame();
     private JideSplitPane mSplitPane;
+    private JFrame mMetricsFrame;
 
     private String mTitle;
 
@@ -168,6 +172,9 @@ public class SDRTrunk implements Listener<TunerEvent>
 
         playlistManager.init();
 
+        //Local HTTP/JSON endpoint for the processing metrics - disabled by default
+        MetricsHttpServer.startIfEnabled();
+
         mLog.info("starting main application gui");
 
         //Initialize the GUI
@@ -297,6 +304,18 @@ public class SDRTrunk implements Listener<TunerEvent>
 
         viewMenu.add(new BroadcastStatusVisibleMenuItem(mControllerPanel));
 
+        JMenuItem metricsItem = new JMenuItem("Processing Metrics");
+        metricsItem.addActionListener(new ActionListener()
+        {
+            @Override
+            public void actionPerformed(ActionEvent e)
+            {
+                showMetricsFrame();
+            }
+        });
+
+        viewMenu.add(metricsItem);
+
         menuBar.add(viewMenu);
 
         JMenuItem screenCaptureItem = new JMenuItem("Screen Capture");
@@ -368,6 +387,24 @@ public class SDRTrunk implements Listener<TunerEvent>
         menuBar.add(screenCaptureItem);
     }
 
+    /**
+     * Shows the processing metrics window, creating it on first use
+     */
+    private void showMetricsFrame()
+    {
+        if(mMetricsFrame == null)
+        {
+            mMetricsFrame = new JFrame(mTitle + " - Processing Metrics");
+            mMetricsFrame.setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
+            mMetricsFrame.setContentPane(new MetricsPanel(MetricRegistry.getInstance()));
+            mMetricsFrame.setSize(1000, 500);
+            mMetricsFrame.setLocationRelativeTo(mMainGui);
+        }
+
+        mMetricsFrame.setVisible(true);
+        mMetricsFrame.toFront();
+    }
+
     /**
      * Lazy constructor for broadcast status panel
      */
@@ -43,7 +43,7 @@ import org.slf4j.LoggerFactory;
 
 import properties.SystemProperties;
 import source.IControllableFileSource;
-import source.wave.ComplexWaveSource;
+import source.wave.MappedComplexWaveSource;
 import source.wave.RealWaveSource;
 import util.TimeStamp;
 
@@ -130,7 +130,7 @@ public class Viewer
         	/* Attempt to open file as a 2-channel complex source */
         	try
         	{
-        		ComplexWaveSource complex = new ComplexWaveSource( file );
+        		MappedComplexWaveSource complex = new MappedComplexWaveSource( file );
         		complex.open();
         		
         		source = complex;
@@ -19,6 +19,8 @@
 package map;
 
 import icon.IconManager;
+import metrics.MetricGroup;
+import metrics.MetricRegistry;
 import net.miginfocom.swing.MigLayout;
 import org.jdesktop.swingx.JXMapViewer;
 import org.jdesktop.swingx.OSMTileFactoryInfo;
@@ -26,16 +28,30 @@ import org.jdesktop.swingx.input.PanKeyListener;
 import org.jdesktop.swingx.input.ZoomMouseWheelListenerCursor;
 import org.jdesktop.swingx.mapviewer.DefaultTileFactory;
 import org.jdesktop.swingx.mapviewer.GeoPosition;
+import org.jdesktop.swingx.mapviewer.TileCache;
+import org.jdesktop.swingx.mapviewer.TileDiskCache;
 import org.jdesktop.swingx.mapviewer.TileFactoryInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import properties.SystemProperties;
 import settings.MapViewSetting;
 import settings.SettingsManager;
 
 import javax.swing.*;
 import java.awt.*;
+import java.io.IOException;
 
 public class MapPanel extends JPanel implements PlottableUpdateListener
 {
     private static final long serialVersionUID = 1L;
+    private final static Logger mLog = LoggerFactory.getLogger(MapPanel.class);
+
+    private static final String TILE_CACHE_IMAGE_MB = "map.tile.cache.image.mb";
+    private static final String TILE_CACHE_COMPRESSED_MB = "map.tile.cache.compressed.mb";
+    private static final String TILE_CACHE_DISK_ENABLED = "map.tile.cache.disk.enabled";
+    private static final String TILE_CACHE_DISK_MB = "map.tile.cache.disk.mb";
+    private static final String TILE_CACHE_FOLDER = "map_tiles";
+    private static final long MEGABYTE = 1000 * 1000;
 
     private SettingsManager mSettingsManager;
     private MapService mMapService;
@@ -67,6 +83,18 @@ public class MapPanel extends JPanel implements PlottableUpdateListener
          */
         TileFactoryInfo info = new OSMTileFactoryInfo();
         DefaultTileFactory tileFactory = new DefaultTileFactory(info);
+        TileCache tileCache = createTileCache();
+        tileFactory.setTileCache(tileCache);
+
+        //Compact and close the disk tier index journal when the application exits
+        Runtime.getRuntime().addShutdownHook(new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                tileCache.dispose();
+            }
+        }, "sdrtrunk map tile cache shutdown"));
         mMapViewer.setTileFactory(tileFactory);
 
         /**
@@ -112,6 +140,50 @@ public class MapPanel extends JPanel implements PlottableUpdateListener
         add(mMapViewer, "span");
     }
 
+    /**
+     * Creates the map tile cache with memory budgets and an optional disk tier configured from the system properties
+     * and registers the cache hit rate and tier sizes with the metric registry
+     */
+    private static TileCache createTileCache()
+    {
+        SystemProperties properties = SystemProperties.getInstance();
+
+        TileCache cache = new TileCache(properties.get(TILE_CACHE_IMAGE_MB, 50) * MEGABYTE,
+            properties.get(TILE_CACHE_COMPRESSED_MB, 50) * MEGABYTE);
+
+        if(properties.get(TILE_CACHE_DISK_ENABLED, true))
+        {
+            try
+            {
+                cache.setDiskCache(new TileDiskCache(properties.getApplicationFolder(TILE_CACHE_FOLDER),
+                    properties.get(TILE_CACHE_DISK_MB, 500) * MEGABYTE));
+            }
+            catch(IOException ioe)
+            {
+                mLog.error("Couldn't open the map tile disk cache - map tiles will only be cached in memory", ioe);
+            }
+        }
+
+        MetricGroup metricGroup = new MetricGroup(MetricGroup.TYPE_MAP, "tile cache");
+        metricGroup.gauge("hit rate %", () -> Math.round(cache.getHitRate() * 100.0));
+        metricGroup.counter("image hits", cache::getImageHits);
+        metricGroup.counter("compressed hits", cache::getCompressedHits);
+        metricGroup.counter("disk hits", cache::getDiskHits);
+        metricGroup.counter("misses", cache::getMisses);
+        metricGroup.gauge("image bytes", cache::getImageSize);
+        metricGroup.gauge("compressed bytes", cache::getCompressedSize);
+
+        if(cache.getDiskCache() != null)
+        {
+            metricGroup.gauge("disk bytes", cache.getDiskCache()::getSize);
+            metricGroup.gauge("disk tiles", cache.getDiskCache()::getTileCount);
+        }
+
+        MetricRegistry.getInstance().register(metricGroup);
+
+        return cache;
+    }
+
     @Override
     public void entitiesUpdated()
     {
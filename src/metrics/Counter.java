@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Monotonically increasing count, such as samples processed or buffers dropped, with the rate per second over the
+ * most recent sampling interval.
+ */
+public class Counter extends Metric
+{
+    private LongAdder mCount;
+    private LongSupplier mSupplier;
+    private long mLastCount;
+    private volatile double mRate;
+
+    /**
+     * Constructs a counter that is incremented by producers.  Safe for concurrent increments from multiple threads.
+     */
+    public Counter(String name)
+    {
+        super(name);
+        mCount = new LongAdder();
+    }
+
+    /**
+     * Constructs a counter that reads an existing count, such as a queue drop count, at each sampling interval
+     */
+    public Counter(String name, LongSupplier supplier)
+    {
+        super(name);
+        mSupplier = supplier;
+    }
+
+    /**
+     * Increments the count by one
+     */
+    public void increment()
+    {
+        mCount.increment();
+    }
+
+    /**
+     * Increments the count by the value
+     */
+    public void add(long value)
+    {
+        mCount.add(value);
+    }
+
+    public long getCount()
+    {
+        return mSupplier != null ? mSupplier.getAsLong() : mCount.sum();
+    }
+
+    @Override
+    public MetricType getType()
+    {
+        return MetricType.COUNTER;
+    }
+
+    @Override
+    void update(long elapsedNanos)
+    {
+        long count = getCount();
+
+        //Supplied counts can be reset by their owner - treat a decrease as a restart from zero
+        long delta = count >= mLastCount ? count - mLastCount : count;
+
+        mRate = rate(delta, elapsedNanos);
+        mLastCount = count;
+    }
+
+    @Override
+    public long getValue()
+    {
+        return getCount();
+    }
+
+    @Override
+    public double getRate()
+    {
+        return mRate;
+    }
+
+    @Override
+    public Map<String,Number> getValues()
+    {
+        Map<String,Number> values = new LinkedHashMap<>();
+        values.put("count", getCount());
+        values.put("rate", mRate);
+        return values;
+    }
+}
@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Instantaneous value, such as active connections or recorders, that is read at each sampling interval.  The peak is
+ * the largest sampled value since the gauge was created.
+ */
+public class Gauge extends Metric
+{
+    private LongSupplier mSupplier;
+    private volatile long mValue;
+    private volatile long mPeak;
+
+    /**
+     * Constructs an instance
+     *
+     * @param name of the gauge
+     * @param supplier of the current value
+     */
+    public Gauge(String name, LongSupplier supplier)
+    {
+        super(name);
+        mSupplier = supplier;
+    }
+
+    @Override
+    public MetricType getType()
+    {
+        return MetricType.GAUGE;
+    }
+
+    @Override
+    void update(long elapsedNanos)
+    {
+        long value = mSupplier.getAsLong();
+
+        mValue = value;
+
+        if(value > mPeak)
+        {
+            mPeak = value;
+        }
+    }
+
+    @Override
+    public long getValue()
+    {
+        return mValue;
+    }
+
+    @Override
+    public long getPeak()
+    {
+        return mPeak;
+    }
+
+    @Override
+    public Map<String,Number> getValues()
+    {
+        Map<String,Number> values = new LinkedHashMap<>();
+        values.put("value", mValue);
+        values.put("peak", mPeak);
+        return values;
+    }
+}
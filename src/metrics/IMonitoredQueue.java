@@ -0,0 +1,45 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package metrics;
+
+/**
+ * Queue that tracks its own depth, high watermark and drop count so that they can be monitored by a queue metric.
+ */
+public interface IMonitoredQueue
+{
+    /**
+     * Current number of elements in the queue
+     */
+    int size();
+
+    /**
+     * Number of elements that the queue can hold before new elements are dropped
+     */
+    int getMaximumSize();
+
+    /**
+     * Largest queue size observed since construction or the last metrics reset
+     */
+    int getHighWatermark();
+
+    /**
+     * Number of elements dropped since construction or the last metrics reset
+     */
+    long getDropCount();
+}
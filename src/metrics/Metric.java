@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package metrics;
+
+import java.util.Map;
+
+/**
+ * Named measurement within a metric group.  Producers update a metric from their own threads without locking, while
+ * the metric registry invokes update() once per sampling interval from a single thread to compute rates and peaks.
+ * All getters may be invoked from any thread and reflect the most recent sampling interval.
+ */
+public abstract class Metric
+{
+    private String mName;
+
+    /**
+     * Constructs an instance
+     *
+     * @param name of the metric, unique within its group
+     */
+    public Metric(String name)
+    {
+        mName = name;
+    }
+
+    public String getName()
+    {
+        return mName;
+    }
+
+    public abstract MetricType getType();
+
+    /**
+     * Samples the metric at the end of a sampling interval.  Invoked by the metric registry sampling thread only.
+     *
+     * @param elapsedNanos since the previous update
+     */
+    abstract void update(long elapsedNanos);
+
+    /**
+     * Primary value for display: count, current value, queue depth or mean time in microseconds
+     */
+    public abstract long getValue();
+
+    /**
+     * Events per second over the most recent sampling interval, or 0 when the metric has no rate
+     */
+    public double getRate()
+    {
+        return 0.0;
+    }
+
+    /**
+     * Peak value for display: high watermark or maximum time in microseconds, or 0 when the metric has no peak
+     */
+    public long getPeak()
+    {
+        return 0;
+    }
+
+    /**
+     * Additional details for display, or an empty string
+     */
+    public String getDetail()
+    {
+        return "";
+    }
+
+    /**
+     * Named values that describe the current state of this metric, in display order, for export
+     */
+    public abstract Map<String,Number> getValues();
+
+    @Override
+    public String toString()
+    {
+        return mName + " " + getValues();
+    }
+
+    /**
+     * Rate per second for a count delta over an elapsed interval
+     */
+    static double rate(long delta, long elapsedNanos)
+    {
+        return elapsedNanos > 0 ? delta * 1E9 / elapsedNanos : 0.0;
+    }
+}
@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package metrics;
+
+import util.TimingHistogram;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.LongSupplier;
+
+/**
+ * Set of metrics that belong to one component instance, such as a tuner, a channel or the audio manager.  Components
+ * create their group and metrics up front and register the group with the metric registry while they are running.
+ */
+public class MetricGroup
+{
+    public static final String TYPE_TUNER = "tuner";
+    public static final String TYPE_CHANNEL_SOURCE = "channel source";
+    public static final String TYPE_PROCESSING_CHAIN = "processing chain";
+    public static final String TYPE_AUDIO = "audio";
+    public static final String TYPE_RECORDING = "recording";
+    public static final String TYPE_BROADCAST = "broadcast";
+    public static final String TYPE_MAP = "map";
+
+    private String mType;
+    private String mName;
+    private List<Metric> mMetrics = new CopyOnWriteArrayList<>();
+
+    /**
+     * Constructs an instance
+     *
+     * @param type of component, for grouping related components
+     * @param name of the component instance
+     */
+    public MetricGroup(String type, String name)
+    {
+        mType = type;
+        mName = name;
+    }
+
+    public String getType()
+    {
+        return mType;
+    }
+
+    public String getName()
+    {
+        return mName;
+    }
+
+    /**
+     * Metrics in the order that they were added
+     */
+    public List<Metric> getMetrics()
+    {
+        return mMetrics;
+    }
+
+    /**
+     * Adds the metric to this group
+     *
+     * @return the metric
+     */
+    public <M extends Metric> M add(M metric)
+    {
+        mMetrics.add(metric);
+        return metric;
+    }
+
+    /**
+     * Removes the metric from this group
+     */
+    public void remove(Metric metric)
+    {
+        mMetrics.remove(metric);
+    }
+
+    public Counter counter(String name)
+    {
+        return add(new Counter(name));
+    }
+
+    public Counter counter(String name, LongSupplier supplier)
+    {
+        return add(new Counter(name, supplier));
+    }
+
+    public Gauge gauge(String name, LongSupplier supplier)
+    {
+        return add(new Gauge(name, supplier));
+    }
+
+    public QueueMetric queue(String name, IMonitoredQueue queue)
+    {
+        return add(new QueueMetric(name, queue));
+    }
+
+    public QueueMetric queue(String name, Collection<?> collection)
+    {
+        return add(new QueueMetric(name, collection));
+    }
+
+    public Timer timer(String name)
+    {
+        return add(new Timer(name));
+    }
+
+    public Timer timer(String name, TimingHistogram histogram)
+    {
+        return add(new Timer(name, histogram));
+    }
+
+    /**
+     * Samples each metric.  Metric registry sampling thread only.
+     */
+    void update(long elapsedNanos)
+    {
+        for(Metric metric : mMetrics)
+        {
+            metric.update(elapsedNanos);
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return mType + " [" + mName + "]";
+    }
+}
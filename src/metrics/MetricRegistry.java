@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import util.ThreadPool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Application-wide registry of metric groups for the sample processing pipeline: tuner USB transfer processing,
+ * tuner channel sources, processing chain modules, audio playback, audio recording and audio streaming.
+ *
+ * Registered groups are sampled once per sampling interval on the shared scheduled executor, which computes counter
+ * rates and queue and gauge peaks.  Producers only update their own counters, timers and queues and never wait on
+ * the registry.  Registered groups are exported by the metrics HTTP server and displayed in the metrics panel.
+ */
+public class MetricRegistry
+{
+    private final static Logger mLog = LoggerFactory.getLogger(MetricRegistry.class);
+
+    public static final long SAMPLE_INTERVAL_MS = 1000;
+
+    private static MetricRegistry sInstance;
+
+    private List<MetricGroup> mGroups = new CopyOnWriteArrayList<>();
+    private ScheduledFuture<?> mSamplerFuture;
+    private long mLastUpdate = System.nanoTime();
+    private volatile long mLastUpdateTimestamp = System.currentTimeMillis();
+
+    private MetricRegistry()
+    {
+    }
+
+    public static synchronized MetricRegistry getInstance()
+    {
+        if(sInstance == null)
+        {
+            sInstance = new MetricRegistry();
+        }
+
+        return sInstance;
+    }
+
+    /**
+     * Registers the group so that its metrics are sampled and exported.  The group is sampled immediately so that
+     * counts accumulated before registration are not reported as a rate.  Registering a group that is already
+     * registered has no effect.
+     */
+    public synchronized void register(MetricGroup group)
+    {
+        if(!mGroups.contains(group))
+        {
+            group.update(0);
+            mGroups.add(group);
+        }
+
+        if(mSamplerFuture == null)
+        {
+            mSamplerFuture = ThreadPool.SCHEDULED.scheduleAtFixedRate(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    update();
+                }
+            }, SAMPLE_INTERVAL_MS, SAMPLE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Removes the group from the registry
+     */
+    public void unregister(MetricGroup group)
+    {
+        mGroups.remove(group);
+    }
+
+    /**
+     * Registered groups, in registration order
+     */
+    public List<MetricGroup> getGroups()
+    {
+        return new ArrayList<>(mGroups);
+    }
+
+    /**
+     * System time in milliseconds of the most recent sampling interval
+     */
+    public long getLastUpdateTimestamp()
+    {
+        return mLastUpdateTimestamp;
+    }
+
+    /**
+     * Samples all registered groups
+     */
+    private synchronized void update()
+    {
+        long now = System.nanoTime();
+        long elapsed = now - mLastUpdate;
+        mLastUpdate = now;
+
+        for(MetricGroup group : mGroups)
+        {
+            try
+            {
+                group.update(elapsed);
+            }
+            catch(Exception e)
+            {
+                mLog.error("Error sampling metrics for " + group, e);
+            }
+        }
+
+        mLastUpdateTimestamp = System.currentTimeMillis();
+    }
+
+    /**
+     * Registered groups and the current values of their metrics as a JSON document
+     */
+    public String toJson()
+    {
+        return MetricsJsonWriter.write(getGroups(), mLastUpdateTimestamp);
+    }
+}
@@ -0,0 +1,216 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package metrics;
+
+import org.apache.mina.core.buffer.IoBuffer;
+import org.apache.mina.core.service.IoHandlerAdapter;
+import org.apache.mina.core.session.IoSession;
+import org.apache.mina.http.HttpServerCodec;
+import org.apache.mina.http.api.DefaultHttpResponse;
+import org.apache.mina.http.api.HttpEndOfContent;
+import org.apache.mina.http.api.HttpMethod;
+import org.apache.mina.http.api.HttpRequest;
+import org.apache.mina.http.api.HttpStatus;
+import org.apache.mina.http.api.HttpVersion;
+import org.apache.mina.transport.socket.nio.NioSocketAcceptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import properties.SystemProperties;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Serves the metric registry as a JSON document over HTTP on the loopback interface, for monitoring tools running
+ * on the same computer:
+ *
+ * GET http://localhost:8090/metrics
+ *
+ * The server is disabled by default and is enabled with the metrics.http.enabled system property.  The port is set
+ * with the metrics.http.port system property.
+ */
+public class MetricsHttpServer
+{
+    private final static Logger mLog = LoggerFactory.getLogger(MetricsHttpServer.class);
+
+    public static final String ENABLED_PROPERTY = "metrics.http.enabled";
+    public static final String PORT_PROPERTY = "metrics.http.port";
+    public static final int DEFAULT_PORT = 8090;
+    public static final String METRICS_PATH = "/metrics";
+
+    private MetricRegistry mRegistry;
+    private int mPort;
+    private NioSocketAcceptor mAcceptor;
+
+    /**
+     * Constructs an instance
+     *
+     * @param registry to serve
+     * @param port to listen on, or 0 for any available port
+     */
+    public MetricsHttpServer(MetricRegistry registry, int port)
+    {
+        mRegistry = registry;
+        mPort = port;
+    }
+
+    /**
+     * Creates and starts the server when it is enabled in the system properties
+     *
+     * @return the started server, or null if the server is disabled or could not be started
+     */
+    public static MetricsHttpServer startIfEnabled()
+    {
+        SystemProperties properties = SystemProperties.getInstance();
+
+        if(properties.get(ENABLED_PROPERTY, false))
+        {
+            MetricsHttpServer server = new MetricsHttpServer(MetricRegistry.getInstance(),
+                properties.get(PORT_PROPERTY, DEFAULT_PORT));
+
+            try
+            {
+                server.start();
+                return server;
+            }
+            catch(IOException ioe)
+            {
+                mLog.error("Couldn't start metrics HTTP server on port [" + server.mPort + "]", ioe);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Starts listening for requests on the loopback interface
+     *
+     * @throws IOException if the port cannot be bound
+     */
+    public synchronized void start() throws IOException
+    {
+        if(mAcceptor == null)
+        {
+            NioSocketAcceptor acceptor = new NioSocketAcceptor();
+            acceptor.setReuseAddress(true);
+            acceptor.getFilterChain().addLast("codec", new HttpServerCodec());
+            acceptor.setHandler(new MetricsHandler());
+
+            try
+            {
+                acceptor.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), mPort));
+            }
+            catch(IOException ioe)
+            {
+                acceptor.dispose();
+                throw ioe;
+            }
+
+            mAcceptor = acceptor;
+
+            mLog.info("Metrics HTTP server listening at http://localhost:" + getPort() + METRICS_PATH);
+        }
+    }
+
+    /**
+     * Stops listening and closes any open connections
+     */
+    public synchronized void stop()
+    {
+        if(mAcceptor != null)
+        {
+            mAcceptor.unbind();
+            mAcceptor.dispose();
+            mAcceptor = null;
+        }
+    }
+
+    /**
+     * Port that the server is listening on
+     */
+    public synchronized int getPort()
+    {
+        if(mAcceptor != null && mAcceptor.getLocalAddress() != null)
+        {
+            return mAcceptor.getLocalAddress().getPort();
+        }
+
+        return mPort;
+    }
+
+    /**
+     * Responds to each request with the registry metrics and closes the connection
+     */
+    public class MetricsHandler extends IoHandlerAdapter
+    {
+        @Override
+        public void messageReceived(IoSession session, Object message) throws Exception
+        {
+            if(message instanceof HttpRequest)
+            {
+                HttpRequest request = (HttpRequest)message;
+
+                String path = request.getRequestPath();
+
+                if(request.getMethod() != HttpMethod.GET)
+                {
+                    respond(session, HttpStatus.CLIENT_ERROR_METHOD_NOT_ALLOWED, "text/plain", "GET only");
+                }
+                else if(path.equals(METRICS_PATH) || path.equals("/"))
+                {
+                    respond(session, HttpStatus.SUCCESS_OK, "application/json", mRegistry.toJson());
+                }
+                else
+                {
+                    respond(session, HttpStatus.CLIENT_ERROR_NOT_FOUND, "text/plain", "Not found");
+                }
+            }
+        }
+
+        @Override
+        public void exceptionCaught(IoSession session, Throwable cause) throws Exception
+        {
+            mLog.debug("Metrics HTTP server connection error", cause);
+            session.closeNow();
+        }
+
+        private void respond(IoSession session, HttpStatus status, String contentType, String content)
+        {
+            byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+
+            Map<String,String> headers = new HashMap<>();
+            headers.put("Content-Type", contentType + "; charset=utf-8");
+            headers.put("Content-Length", String.valueOf(bytes.length));
+            headers.put("Cache-Control", "no-cache");
+            headers.put("Connection", "close");
+
+            session.write(new DefaultHttpResponse(HttpVersion.HTTP_1_1, status, headers));
+
+            //The codec filter passes io buffers straight through to the transport.  The http encoder doesn't convert
+            //nio byte buffer content, which the transport can't write.
+            session.write(IoBuffer.wrap(bytes));
+            session.write(new HttpEndOfContent());
+            session.closeOnFlush();
+        }
+    }
+}
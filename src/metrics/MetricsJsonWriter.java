@@ -0,0 +1,164 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package metrics;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Formats metric groups as a JSON document:
+ *
+ * {"timestamp":1500000000000,"groups":[{"type":"channel source","name":"...","metrics":[
+ *     {"name":"samples in","type":"counter","count":2400000,"rate":48000.0}, ...]}, ...]}
+ *
+ * Times are in microseconds and rates are per second over the most recent sampling interval.
+ */
+public class MetricsJsonWriter
+{
+    private MetricsJsonWriter()
+    {
+    }
+
+    /**
+     * Formats the groups as a JSON document
+     *
+     * @param groups to format
+     * @param timestamp of the most recent sampling interval in milliseconds
+     */
+    public static String write(List<MetricGroup> groups, long timestamp)
+    {
+        StringBuilder sb = new StringBuilder();
+
+        sb.append("{\"timestamp\":").append(timestamp).append(",\"groups\":[");
+
+        for(int x = 0; x < groups.size(); x++)
+        {
+            MetricGroup group = groups.get(x);
+
+            if(x > 0)
+            {
+                sb.append(",");
+            }
+
+            sb.append("{\"type\":");
+            appendString(sb, group.getType());
+            sb.append(",\"name\":");
+            appendString(sb, group.getName());
+            sb.append(",\"metrics\":[");
+
+            boolean first = true;
+
+            for(Metric metric : group.getMetrics())
+            {
+                if(!first)
+                {
+                    sb.append(",");
+                }
+
+                first = false;
+
+                sb.append("{\"name\":");
+                appendString(sb, metric.getName());
+                sb.append(",\"type\":");
+                appendString(sb, metric.getType().getLabel());
+
+                for(Map.Entry<String,Number> entry : metric.getValues().entrySet())
+                {
+                    sb.append(",");
+                    appendString(sb, entry.getKey());
+                    sb.append(":");
+                    appendNumber(sb, entry.getValue());
+                }
+
+                sb.append("}");
+            }
+
+            sb.append("]}");
+        }
+
+        sb.append("]}");
+
+        return sb.toString();
+    }
+
+    private static void appendNumber(StringBuilder sb, Number number)
+    {
+        if(number instanceof Double || number instanceof Float)
+        {
+            double value = number.doubleValue();
+
+            if(Double.isNaN(value) || Double.isInfinite(value))
+            {
+                sb.append("null");
+            }
+            else
+            {
+                //Two decimal places are sufficient for rates and mean times
+                sb.append(Math.round(value * 100.0) / 100.0);
+            }
+        }
+        else
+        {
+            sb.append(number.longValue());
+        }
+    }
+
+    private static void appendString(StringBuilder sb, String value)
+    {
+        sb.append('"');
+
+        if(value != null)
+        {
+            for(int x = 0; x < value.length(); x++)
+            {
+                char c = value.charAt(x);
+
+                switch(c)
+                {
+                    case '"':
+                        sb.append("\\\"");
+                        break;
+                    case '\\':
+                        sb.append("\\\\");
+                        break;
+                    case '\n':
+                        sb.append("\\n");
+                        break;
+                    case '\r':
+                        sb.append("\\r");
+                        break;
+                    case '\t':
+                        sb.append("\\t");
+                        break;
+                    default:
+                        if(c < 0x20)
+                        {
+                            sb.append(String.format("\\u%04x", (int)c));
+                        }
+                        else
+                        {
+                            sb.append(c);
+                        }
+                }
+            }
+        }
+
+        sb.append('"');
+    }
+}
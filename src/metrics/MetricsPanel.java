@@ -0,0 +1,214 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package metrics;
+
+import net.miginfocom.swing.MigLayout;
+
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.TableRowSorter;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Displays the metrics of all registered metric groups in a sortable table that is refreshed once per metric
+ * registry sampling interval while the panel is displayed.  Sort by peak or rate to find the channel or stage that
+ * is falling behind.
+ */
+public class MetricsPanel extends JPanel
+{
+    private static final long serialVersionUID = 1L;
+
+    private MetricRegistry mRegistry;
+    private MetricsTableModel mTableModel = new MetricsTableModel();
+    private JLabel mStatusLabel = new JLabel(" ");
+    private javax.swing.Timer mRefreshTimer;
+
+    public MetricsPanel(MetricRegistry registry)
+    {
+        mRegistry = registry;
+
+        setLayout(new MigLayout("insets 0 0 0 0", "[grow,fill]", "[grow,fill][]"));
+
+        JTable table = new JTable(mTableModel);
+        table.setRowSorter(new TableRowSorter<>(mTableModel));
+        table.getColumnModel().getColumn(MetricsTableModel.DETAIL).setPreferredWidth(250);
+
+        add(new JScrollPane(table), "wrap");
+        add(mStatusLabel);
+
+        mRefreshTimer = new javax.swing.Timer((int)MetricRegistry.SAMPLE_INTERVAL_MS, new ActionListener()
+        {
+            @Override
+            public void actionPerformed(ActionEvent e)
+            {
+                refresh();
+            }
+        });
+    }
+
+    @Override
+    public void addNotify()
+    {
+        super.addNotify();
+        refresh();
+        mRefreshTimer.start();
+    }
+
+    @Override
+    public void removeNotify()
+    {
+        mRefreshTimer.stop();
+        super.removeNotify();
+    }
+
+    /**
+     * Reloads the table from the registered metric groups
+     */
+    private void refresh()
+    {
+        List<MetricGroup> groups = mRegistry.getGroups();
+
+        mTableModel.update(groups);
+
+        mStatusLabel.setText("Groups: " + groups.size() + " Metrics: " + mTableModel.getRowCount() +
+            "  Rates are per second.  Times are in microseconds.");
+    }
+
+    /**
+     * One row per metric
+     */
+    public class MetricsTableModel extends AbstractTableModel
+    {
+        private static final long serialVersionUID = 1L;
+
+        public static final int TYPE = 0;
+        public static final int GROUP = 1;
+        public static final int METRIC = 2;
+        public static final int KIND = 3;
+        public static final int VALUE = 4;
+        public static final int RATE = 5;
+        public static final int PEAK = 6;
+        public static final int DETAIL = 7;
+
+        private final String[] COLUMNS = {"Type", "Name", "Metric", "Kind", "Value", "Rate", "Peak", "Detail"};
+
+        private List<MetricGroup> mGroups = new ArrayList<>();
+        private List<Metric> mMetrics = new ArrayList<>();
+
+        /**
+         * Replaces the rows with the metrics of the groups.  Swing event thread only.
+         */
+        public void update(List<MetricGroup> groups)
+        {
+            List<MetricGroup> rowGroups = new ArrayList<>();
+            List<Metric> rowMetrics = new ArrayList<>();
+
+            for(MetricGroup group : groups)
+            {
+                for(Metric metric : group.getMetrics())
+                {
+                    rowGroups.add(group);
+                    rowMetrics.add(metric);
+                }
+            }
+
+            if(rowMetrics.equals(mMetrics))
+            {
+                //Same rows - only the values changed, so preserve the current selection
+                if(!mMetrics.isEmpty())
+                {
+                    fireTableRowsUpdated(0, mMetrics.size() - 1);
+                }
+            }
+            else
+            {
+                mGroups = rowGroups;
+                mMetrics = rowMetrics;
+                fireTableDataChanged();
+            }
+        }
+
+        @Override
+        public int getRowCount()
+        {
+            return mMetrics.size();
+        }
+
+        @Override
+        public int getColumnCount()
+        {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column)
+        {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Class<?> getColumnClass(int column)
+        {
+            switch(column)
+            {
+                case VALUE:
+                case PEAK:
+                    return Long.class;
+                case RATE:
+                    return Double.class;
+                default:
+                    return String.class;
+            }
+        }
+
+        @Override
+        public Object getValueAt(int row, int column)
+        {
+            Metric metric = mMetrics.get(row);
+
+            switch(column)
+            {
+                case TYPE:
+                    return mGroups.get(row).getType();
+                case GROUP:
+                    return mGroups.get(row).getName();
+                case METRIC:
+                    return metric.getName();
+                case KIND:
+                    return metric.getType().getLabel();
+                case VALUE:
+                    return metric.getValue();
+                case RATE:
+                    return Math.round(metric.getRate() * 10.0) / 10.0;
+                case PEAK:
+                    return metric.getPeak();
+                case DETAIL:
+                    return metric.getDetail();
+                default:
+                    return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package metrics;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Depth, high watermark and drop count of a queue between two processing stages.  A queue whose high watermark
+ * approaches its capacity, or whose drop count is increasing, identifies a consumer that is falling behind.
+ *
+ * Monitored queues report their own high watermark and drop count.  For plain (unbounded) collections, the high
+ * watermark is the largest depth observed at the sampling intervals and the drop count is always zero.
+ */
+public class QueueMetric extends Metric
+{
+    private IMonitoredQueue mQueue;
+    private Collection<?> mCollection;
+    private volatile long mDepth;
+    private volatile long mHighWatermark;
+    private volatile long mDropCount;
+    private long mLastDropCount;
+    private volatile double mDropRate;
+
+    /**
+     * Constructs a metric for a monitored queue
+     */
+    public QueueMetric(String name, IMonitoredQueue queue)
+    {
+        super(name);
+        mQueue = queue;
+    }
+
+    /**
+     * Constructs a metric for a concurrent collection that is used as an unbounded queue
+     */
+    public QueueMetric(String name, Collection<?> collection)
+    {
+        super(name);
+        mCollection = collection;
+    }
+
+    @Override
+    public MetricType getType()
+    {
+        return MetricType.QUEUE;
+    }
+
+    @Override
+    void update(long elapsedNanos)
+    {
+        if(mQueue != null)
+        {
+            mDepth = mQueue.size();
+            mHighWatermark = mQueue.getHighWatermark();
+
+            long dropCount = mQueue.getDropCount();
+            long delta = dropCount >= mLastDropCount ? dropCount - mLastDropCount : dropCount;
+            mDropRate = rate(delta, elapsedNanos);
+            mDropCount = dropCount;
+            mLastDropCount = dropCount;
+        }
+        else
+        {
+            long depth = mCollection.size();
+
+            mDepth = depth;
+
+            if(depth > mHighWatermark)
+            {
+                mHighWatermark = depth;
+            }
+        }
+    }
+
+    /**
+     * Queue capacity or 0 for an unbounded queue
+     */
+    public int getCapacity()
+    {
+        return mQueue != null ? mQueue.getMaximumSize() : 0;
+    }
+
+    public long getDropCount()
+    {
+        return mDropCount;
+    }
+
+    @Override
+    public long getValue()
+    {
+        return mDepth;
+    }
+
+    /**
+     * Drops per second over the most recent sampling interval
+     */
+    @Override
+    public double getRate()
+    {
+        return mDropRate;
+    }
+
+    @Override
+    public long getPeak()
+    {
+        return mHighWatermark;
+    }
+
+    @Override
+    public String getDetail()
+    {
+        return "capacity " + (getCapacity() > 0 ? getCapacity() : "unbounded") + " dropped " + mDropCount;
+    }
+
+    @Override
+    public Map<String,Number> getValues()
+    {
+        Map<String,Number> values = new LinkedHashMap<>();
+        values.put("depth", mDepth);
+        values.put("capacity", getCapacity());
+        values.put("high_watermark", mHighWatermark);
+        values.put("dropped", mDropCount);
+        values.put("drop_rate", mDropRate);
+        return values;
+    }
+}
@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package metrics;
+
+import sample.Buffer;
+import sample.Listener;
+import sample.complex.ComplexBuffer;
+
+/**
+ * Listener wrapper that measures the samples received and the processing time of one processing stage (module).
+ *
+ * Stages deliver their output synchronously to downstream stages, so the time spent inside a stage's receive method
+ * includes the time spent by every stage downstream of it.  Stage meters that share a stage clock subtract the time
+ * measured by nested stage meters, so that each stage timer records only the time spent in that stage.  A stage
+ * clock must only be shared by stages that are invoked from one thread at a time, which is the case for the stages
+ * of a processing chain.
+ */
+public class StageMeter<T extends Buffer> implements Listener<T>
+{
+    private Listener<T> mListener;
+    private StageClock mClock;
+    private Counter mSamples;
+    private Timer mTimer;
+
+    /**
+     * Constructs an instance
+     *
+     * @param listener of the stage to measure
+     * @param clock shared by the stages that are invoked on the same thread
+     * @param samples counter for samples received by the stage
+     * @param timer for the time spent in the stage, excluding nested stages
+     */
+    public StageMeter(Listener<T> listener, StageClock clock, Counter samples, Timer timer)
+    {
+        mListener = listener;
+        mClock = clock;
+        mSamples = samples;
+        mTimer = timer;
+    }
+
+    /**
+     * Listener of the measured stage
+     */
+    public Listener<T> getListener()
+    {
+        return mListener;
+    }
+
+    public Counter getSamples()
+    {
+        return mSamples;
+    }
+
+    public Timer getTimer()
+    {
+        return mTimer;
+    }
+
+    @Override
+    public void receive(T buffer)
+    {
+        float[] samples = buffer.getSamples();
+
+        if(samples != null)
+        {
+            //Complex buffers hold interleaved inphase and quadrature values
+            mSamples.add(buffer instanceof ComplexBuffer ? samples.length / 2 : samples.length);
+        }
+
+        long nested = mClock.mNestedNanos;
+        mClock.mNestedNanos = 0;
+
+        long start = System.nanoTime();
+
+        try
+        {
+            mListener.receive(buffer);
+        }
+        finally
+        {
+            long elapsed = System.nanoTime() - start;
+
+            mTimer.add(elapsed - mClock.mNestedNanos);
+
+            //Report this stage's total time to the enclosing stage, if any
+            mClock.mNestedNanos = nested + elapsed;
+        }
+    }
+
+    /**
+     * Accumulates the time measured by nested stage meters while an enclosing stage is running
+     */
+    public static class StageClock
+    {
+        private long mNestedNanos;
+    }
+}
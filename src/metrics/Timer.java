@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package metrics;
+
+import util.TimingHistogram;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Distribution of elapsed times, such as stage processing time or buffer latency, backed by a timing histogram with
+ * power of two microsecond buckets.  Like the histogram, a timer supports a single updating thread.
+ */
+public class Timer extends Metric
+{
+    private TimingHistogram mHistogram;
+    private long mLastCount;
+    private volatile double mRate;
+
+    /**
+     * Constructs a timer with its own histogram
+     */
+    public Timer(String name)
+    {
+        this(name, new TimingHistogram());
+    }
+
+    /**
+     * Constructs a timer that reports an existing histogram, such as a processing task run time histogram
+     */
+    public Timer(String name, TimingHistogram histogram)
+    {
+        super(name);
+        mHistogram = histogram;
+    }
+
+    /**
+     * Adds an elapsed time measurement
+     */
+    public void add(long nanoseconds)
+    {
+        mHistogram.add(nanoseconds);
+    }
+
+    public TimingHistogram getHistogram()
+    {
+        return mHistogram;
+    }
+
+    @Override
+    public MetricType getType()
+    {
+        return MetricType.TIMER;
+    }
+
+    @Override
+    void update(long elapsedNanos)
+    {
+        long count = mHistogram.getCount();
+        long delta = count >= mLastCount ? count - mLastCount : count;
+
+        mRate = rate(delta, elapsedNanos);
+        mLastCount = count;
+    }
+
+    /**
+     * Mean time in microseconds
+     */
+    @Override
+    public long getValue()
+    {
+        return Math.round(mHistogram.getMeanMicroseconds());
+    }
+
+    /**
+     * Measurements per second over the most recent sampling interval
+     */
+    @Override
+    public double getRate()
+    {
+        return mRate;
+    }
+
+    /**
+     * Maximum time in microseconds
+     */
+    @Override
+    public long getPeak()
+    {
+        return mHistogram.getMaxMicroseconds();
+    }
+
+    @Override
+    public String getDetail()
+    {
+        return "p50 " + mHistogram.getPercentileMicroseconds(0.5) + "us p99 " +
+            mHistogram.getPercentileMicroseconds(0.99) + "us count " + mHistogram.getCount();
+    }
+
+    @Override
+    public Map<String,Number> getValues()
+    {
+        Map<String,Number> values = new LinkedHashMap<>();
+        values.put("count", mHistogram.getCount());
+        values.put("rate", mRate);
+        values.put("mean_us", mHistogram.getMeanMicroseconds());
+        values.put("p50_us", mHistogram.getPercentileMicroseconds(0.5));
+        values.put("p99_us", mHistogram.getPercentileMicroseconds(0.99));
+        values.put("max_us", mHistogram.getMaxMicroseconds());
+        return values;
+    }
+}
@@ -42,6 +42,11 @@ import controller.channel.IChannelEventProvider;
 import message.IMessageListener;
 import message.IMessageProvider;
 import message.Message;
+import metrics.Metric;
+import metrics.MetricGroup;
+import metrics.MetricRegistry;
+import metrics.StageMeter;
+import metrics.StageMeter.StageClock;
 import module.decode.event.CallEvent;
 import module.decode.event.CallEventModel;
 import module.decode.event.ICallEventListener;
@@ -53,6 +58,7 @@ import org.slf4j.LoggerFactory;
 import record.wave.ComplexBufferWaveRecorder;
 import record.wave.RealBufferWaveRecorder;
 import sample.Broadcaster;
+import sample.Buffer;
 import sample.Listener;
 import sample.complex.ComplexBuffer;
 import sample.complex.IComplexBufferListener;
@@ -70,7 +76,9 @@ import source.tuner.frequency.IFrequencyChangeProvider;
 import util.ThreadPool;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -116,6 +124,10 @@ public class ProcessingChain implements IChannelEventListener
     private ChannelState mChannelState;
     private MessageActivityModel mMessageActivityModel;
 
+    private MetricGroup mMetricGroup;
+    private StageClock mStageClock = new StageClock();
+    private Map<Listener<?>,StageMeter<?>> mStageMeters = new HashMap<>();
+
     /**
      * Creates a processing chain for managing a set of modules
      *
@@ -123,6 +135,19 @@ public class ProcessingChain implements IChannelEventListener
      */
     public ProcessingChain(ChannelType channelType)
     {
+        this(channelType, "Processing Chain");
+    }
+
+    /**
+     * Creates a processing chain for managing a set of modules
+     *
+     * @param channelType
+     * @param name of the chain, used to identify the chain's sample processing metrics
+     */
+    public ProcessingChain(ChannelType channelType, String name)
+    {
+        mMetricGroup = new MetricGroup(MetricGroup.TYPE_PROCESSING_CHAIN, name);
+
         mChannelState = new ChannelState(channelType);
         addModule(mChannelState);
 
@@ -140,6 +165,16 @@ public class ProcessingChain implements IChannelEventListener
         return mChannelState;
     }
 
+    /**
+     * Sample processing metrics for each module that consumes complex or real sample buffers: samples received and
+     * the time spent in the module, excluding the time spent by downstream modules.  Registered with the metric
+     * registry while the chain is processing.
+     */
+    public MetricGroup getMetricGroup()
+    {
+        return mMetricGroup;
+    }
+
     public MessageActivityModel getMessageActivityModel()
     {
         return mMessageActivityModel;
@@ -156,6 +191,8 @@ public class ProcessingChain implements IChannelEventListener
     {
         stop();
 
+        MetricRegistry.getInstance().unregister(mMetricGroup);
+
         for(Module module : mModules)
         {
             module.dispose();
@@ -282,6 +319,71 @@ public class ProcessingChain implements IChannelEventListener
         mModules.remove(module);
     }
 
+    /**
+     * Wraps the module's sample buffer listener with a stage meter that measures the samples received and the time
+     * spent in the module.  Stage meters share this chain's stage clock, since sample buffers are delivered to all
+     * modules synchronously on the source's thread.
+     *
+     * @param module that owns the listener
+     * @param input label for the type of sample buffers, to distinguish modules that receive several types
+     * @param listener to wrap
+     */
+    private <T extends Buffer> Listener<T> getStageMeter(Module module, String input, Listener<T> listener)
+    {
+        if(listener == null)
+        {
+            return null;
+        }
+
+        String stage = module.getClass().getSimpleName() + " [" + input + "]";
+        String name = stage;
+
+        for(int x = 2; hasMetric(name + " samples"); x++)
+        {
+            name = stage + " #" + x;
+        }
+
+        StageMeter<T> meter = new StageMeter<>(listener, mStageClock, mMetricGroup.counter(name + " samples"),
+            mMetricGroup.timer(name + " processing time"));
+
+        mStageMeters.put(listener, meter);
+
+        return meter;
+    }
+
+    /**
+     * Removes the stage meter and its metrics for the module's sample buffer listener
+     *
+     * @return the stage meter that was registered in place of the listener, or the listener when it is not metered
+     */
+    @SuppressWarnings("unchecked")
+    private <T extends Buffer> Listener<T> removeStageMeter(Listener<T> listener)
+    {
+        StageMeter<T> meter = (StageMeter<T>)mStageMeters.remove(listener);
+
+        if(meter != null)
+        {
+            mMetricGroup.remove(meter.getSamples());
+            mMetricGroup.remove(meter.getTimer());
+            return meter;
+        }
+
+        return listener;
+    }
+
+    private boolean hasMetric(String name)
+    {
+        for(Metric metric : mMetricGroup.getMetrics())
+        {
+            if(metric.getName().equals(name))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
     /**
      * Registers the module as a listener to each of the broadcasters that
      * provide the data interface(s) supported by the module.
@@ -310,7 +412,8 @@ public class ProcessingChain implements IChannelEventListener
 
         if(module instanceof IComplexBufferListener)
         {
-            mComplexBufferBroadcaster.addListener(((IComplexBufferListener) module).getComplexBufferListener());
+            mComplexBufferBroadcaster.addListener(
+                getStageMeter(module, "complex", ((IComplexBufferListener) module).getComplexBufferListener()));
         }
 
         if(module instanceof IDecoderStateEventListener)
@@ -341,7 +444,8 @@ public class ProcessingChain implements IChannelEventListener
 
         if(module instanceof IFilteredRealBufferListener)
         {
-            mFilteredRealBufferBroadcaster.addListener(((IFilteredRealBufferListener) module).getFilteredRealBufferListener());
+            mFilteredRealBufferBroadcaster.addListener(getStageMeter(module, "filtered",
+                ((IFilteredRealBufferListener) module).getFilteredRealBufferListener()));
         }
 
         if(module instanceof ISquelchStateListener)
@@ -351,7 +455,8 @@ public class ProcessingChain implements IChannelEventListener
 
         if(module instanceof IUnFilteredRealBufferListener)
         {
-            mUnFilteredRealBufferBroadcaster.addListener(((IUnFilteredRealBufferListener) module).getUnFilteredRealBufferListener());
+            mUnFilteredRealBufferBroadcaster.addListener(getStageMeter(module, "unfiltered",
+                ((IUnFilteredRealBufferListener) module).getUnFilteredRealBufferListener()));
         }
     }
 
@@ -383,7 +488,8 @@ public class ProcessingChain implements IChannelEventListener
 
         if(module instanceof IComplexBufferListener)
         {
-            mComplexBufferBroadcaster.removeListener(((IComplexBufferListener) module).getComplexBufferListener());
+            mComplexBufferBroadcaster.removeListener(
+                removeStageMeter(((IComplexBufferListener) module).getComplexBufferListener()));
         }
 
         if(module instanceof IDecoderStateEventListener)
@@ -408,7 +514,8 @@ public class ProcessingChain implements IChannelEventListener
 
         if(module instanceof IFilteredRealBufferListener)
         {
-            mFilteredRealBufferBroadcaster.removeListener(((IFilteredRealBufferListener) module).getFilteredRealBufferListener());
+            mFilteredRealBufferBroadcaster.removeListener(
+                removeStageMeter(((IFilteredRealBufferListener) module).getFilteredRealBufferListener()));
         }
 
         if(module instanceof ISquelchStateListener)
@@ -418,7 +525,8 @@ public class ProcessingChain implements IChannelEventListener
 
         if(module instanceof IUnFilteredRealBufferListener)
         {
-            mUnFilteredRealBufferBroadcaster.removeListener(((IUnFilteredRealBufferListener) module).getUnFilteredRealBufferListener());
+            mUnFilteredRealBufferBroadcaster.removeListener(
+                removeStageMeter(((IUnFilteredRealBufferListener) module).getUnFilteredRealBufferListener()));
         }
     }
 
@@ -593,6 +701,8 @@ public class ProcessingChain implements IChannelEventListener
                         mLog.error("Error starting module", e);
                     }
                 }
+
+                MetricRegistry.getInstance().register(mMetricGroup);
             }
             else
             {
@@ -607,8 +717,26 @@ public class ProcessingChain implements IChannelEventListener
      */
     public void stop()
     {
+        stop(true);
+    }
+
+    /**
+     * Stops processing if the chain is currently processing and removes the
+     * source from this chain.  Invocations on an already stopped chain have
+     * no effect.
+     *
+     * @param disposeSource true to dispose the source, or false to return the
+     * stopped source to the caller for reuse
+     * @return the stopped source when it is not disposed, otherwise null
+     */
+    public Source stop(boolean disposeSource)
+    {
+        Source stoppedSource = null;
+
         if(mRunning.compareAndSet(true, false))
         {
+            MetricRegistry.getInstance().unregister(mMetricGroup);
+
 			/* Stop each of the modules */
             for(Module module : mModules)
             {
@@ -635,11 +763,21 @@ public class ProcessingChain implements IChannelEventListener
                 }
 
 				/* Release the source */
-                mSource.dispose();
+                if(disposeSource)
+                {
+                    mSource.dispose();
+                }
+                else
+                {
+                    stoppedSource = mSource;
+                }
+
                 mSource = null;
             }
 			
         }
+
+        return stoppedSource;
     }
 
     /**
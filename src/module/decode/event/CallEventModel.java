@@ -21,13 +21,22 @@ import alias.Alias;
 import module.decode.event.CallEvent.CallEventType;
 import sample.Listener;
 
-import javax.swing.table.AbstractTableModel;
+import java.awt.EventQueue;
 import java.text.DecimalFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-
-public class CallEventModel extends AbstractTableModel implements Listener<CallEvent>
+import java.util.Set;
+
+/**
+ * Call event history table model.  Call events are queued without blocking the producer and are applied to the
+ * table in batches, at most once per flush interval.  Repeated updates of the same event within a flush interval
+ * are coalesced into a single row update.
+ */
+public class CallEventModel extends RingBufferTableModel<CallEvent> implements Listener<CallEvent>
 {
     private static final long serialVersionUID = 1L;
 
@@ -43,9 +52,9 @@ public class CallEventModel extends AbstractTableModel implements Listener<CallE
     public static final int FREQUENCY = 7;
     public static final int DETAILS = 8;
 
-    protected int mMaxMessages = 500;
+    public static final int DEFAULT_MAX_MESSAGES = 500;
 
-    protected List<CallEvent> mEvents = new ArrayList<CallEvent>();
+    private Set<CallEvent> mDisplayedEvents = Collections.newSetFromMap(new IdentityHashMap<CallEvent,Boolean>());
 
     protected String[] mHeaders = new String[]{"Time",
         "Event",
@@ -61,28 +70,27 @@ public class CallEventModel extends AbstractTableModel implements Listener<CallE
 
     public CallEventModel()
     {
+        super(DEFAULT_MAX_MESSAGES, DEFAULT_PENDING_CAPACITY);
     }
 
+    @Override
     public void dispose()
     {
-        mEvents.clear();
-    }
-
-    public void reset()
-    {
-        mEvents.clear();
+        super.dispose();
 
-        fireTableDataChanged();
+        mDisplayedEvents.clear();
     }
 
-    public int getMaxMessageCount()
-    {
-        return mMaxMessages;
-    }
-
-    public void setMaxMessageCount(int count)
+    public void reset()
     {
-        mMaxMessages = count;
+        EventQueue.invokeLater(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                clearRows();
+            }
+        });
     }
 
     /**
@@ -93,51 +101,70 @@ public class CallEventModel extends AbstractTableModel implements Listener<CallE
      */
     public void receive(final CallEvent event)
     {
-        if(event.isValid())
-        {
-            if(!mEvents.contains(event))
-            {
-                mEvents.add(0, event);
+        enqueue(event);
+    }
 
-                fireTableRowsInserted(0, 0);
+    /**
+     * Applies a batch of received events using the current state of each event.  New events are inserted in one
+     * block, events marked invalid are removed and updated events are reported as a single updated row range.
+     */
+    @Override
+    protected void process(List<CallEvent> batch)
+    {
+        Set<CallEvent> inserts = new LinkedHashSet<>();
+        Set<CallEvent> updates = Collections.newSetFromMap(new IdentityHashMap<CallEvent,Boolean>());
 
-                prune();
+        for(CallEvent event: batch)
+        {
+            if(event.isValid())
+            {
+                if(mDisplayedEvents.contains(event))
+                {
+                    updates.add(event);
+                }
+                else
+                {
+                    inserts.add(event);
+                }
             }
-            else
+            else if(!inserts.remove(event) && mDisplayedEvents.remove(event))
             {
-                int row = mEvents.indexOf(event);
-
-                fireTableRowsUpdated(row, row);
+                updates.remove(event);
+                removeRow(indexOf(event));
             }
         }
-        else
-        {
-            if(mEvents.contains(event))
-            {
-                int row = mEvents.indexOf(event);
-
-                mEvents.remove(event);
 
-                fireTableRowsDeleted(row, row);
-            }
+        if(!inserts.isEmpty())
+        {
+            mDisplayedEvents.addAll(inserts);
+            insert(new ArrayList<>(inserts));
         }
-    }
 
-    private void prune()
-    {
-        while(mEvents.size() > mMaxMessages)
+        if(!updates.isEmpty())
         {
-            int index = mEvents.size() - 1;
-            mEvents.remove(index);
+            int first = Integer.MAX_VALUE;
+            int last = -1;
 
-            fireTableRowsDeleted(index, index);
+            for(int row = 0; row < getRowCount(); row++)
+            {
+                if(updates.contains(getRow(row)))
+                {
+                    first = Math.min(first, row);
+                    last = row;
+                }
+            }
+
+            if(last >= 0)
+            {
+                fireTableRowsUpdated(first, last);
+            }
         }
     }
 
     @Override
-    public int getRowCount()
+    protected void evicted(CallEvent event)
     {
-        return mEvents.size();
+        mDisplayedEvents.remove(event);
     }
 
     @Override
@@ -154,55 +181,58 @@ public class CallEventModel extends AbstractTableModel implements Listener<CallE
     @Override
     public Object getValueAt(int rowIndex, int columnIndex)
     {
-        synchronized(mEvents)
+        if(rowIndex < 0 || rowIndex >= getRowCount())
         {
-            switch(columnIndex)
-            {
-                case TIME:
-                    StringBuilder sb = new StringBuilder();
+            return null;
+        }
 
+        CallEvent event = getRow(rowIndex);
+
+        switch(columnIndex)
+        {
+            case TIME:
+                StringBuilder sb = new StringBuilder();
+
+                sb.append(mSDFTime.format(
+                    event.getEventStartTime()));
+
+                if(event.getEventEndTime() != 0)
+                {
+                    sb.append(" - ");
                     sb.append(mSDFTime.format(
-                        mEvents.get(rowIndex).getEventStartTime()));
-
-                    if(mEvents.get(rowIndex).getEventEndTime() != 0)
-                    {
-                        sb.append(" - ");
-                        sb.append(mSDFTime.format(
-                            mEvents.get(rowIndex).getEventEndTime()));
-                    }
-                    else if(mEvents.get(rowIndex)
-                        .getCallEventType() == CallEventType.CALL)
-                    {
-                        sb.append(" - In Progress");
-                    }
-
-                    return sb.toString();
-                case EVENT:
-                    return mEvents.get(rowIndex).getCallEventType();
-                case FROM_ID:
-                    return mEvents.get(rowIndex).getFromID();
-                case FROM_ALIAS:
-                    return mEvents.get(rowIndex).getFromIDAlias();
-                case TO_ID:
-                    return mEvents.get(rowIndex).getToID();
-                case TO_ALIAS:
-                    return mEvents.get(rowIndex).getToIDAlias();
-                case CHANNEL:
-                    return mEvents.get(rowIndex).getChannel();
-                case FREQUENCY:
-                    long frequency = mEvents.get(rowIndex).getFrequency();
-
-                    if(frequency != 0)
-                    {
-                        return mFrequencyFormatter.format((double) frequency / 1E6d);
-                    }
-                    else
-                    {
-                        return null;
-                    }
-                case DETAILS:
-                    return mEvents.get(rowIndex).getDetails();
-            }
+                        event.getEventEndTime()));
+                }
+                else if(event.getCallEventType() == CallEventType.CALL)
+                {
+                    sb.append(" - In Progress");
+                }
+
+                return sb.toString();
+            case EVENT:
+                return event.getCallEventType();
+            case FROM_ID:
+                return event.getFromID();
+            case FROM_ALIAS:
+                return event.getFromIDAlias();
+            case TO_ID:
+                return event.getToID();
+            case TO_ALIAS:
+                return event.getToIDAlias();
+            case CHANNEL:
+                return event.getChannel();
+            case FREQUENCY:
+                long frequency = event.getFrequency();
+
+                if(frequency != 0)
+                {
+                    return mFrequencyFormatter.format((double) frequency / 1E6d);
+                }
+                else
+                {
+                    return null;
+                }
+            case DETAILS:
+                return event.getDetails();
         }
 
         return null;
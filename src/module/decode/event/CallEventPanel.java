@@ -24,6 +24,8 @@ import net.miginfocom.swing.MigLayout;
 import sample.Listener;
 
 import javax.swing.*;
+import javax.swing.event.TableModelEvent;
+import javax.swing.event.TableModelListener;
 import java.awt.*;
 
 public class CallEventPanel extends JPanel implements Listener<ProcessingChain>
@@ -33,6 +35,15 @@ public class CallEventPanel extends JPanel implements Listener<ProcessingChain>
     private CallEventModel mEmptyCallEventModel = new CallEventModel();
     private JScrollPane mEmptyScroller;
     private CallEventAliasCellRenderer mRenderer;
+    private JLabel mStatisticsLabel;
+    private TableModelListener mStatisticsUpdater = new TableModelListener()
+    {
+        @Override
+        public void tableChanged(TableModelEvent e)
+        {
+            updateStatistics();
+        }
+    };
 
     /**
      * View for call event table
@@ -40,7 +51,7 @@ public class CallEventPanel extends JPanel implements Listener<ProcessingChain>
      */
     public CallEventPanel(IconManager iconManager)
     {
-        setLayout(new MigLayout("insets 0 0 0 0", "[grow,fill]", "[grow,fill]"));
+        setLayout(new MigLayout("insets 0 0 0 0", "[grow,fill]", "[grow,fill]0[]"));
 
         mTable = new JTable(mEmptyCallEventModel);
         mTable.setAutoCreateRowSorter(true);
@@ -51,7 +62,18 @@ public class CallEventPanel extends JPanel implements Listener<ProcessingChain>
 
         mEmptyScroller = new JScrollPane(mTable);
 
-        add(mEmptyScroller);
+        add(mEmptyScroller, "wrap");
+
+        mStatisticsLabel = new JLabel(mEmptyCallEventModel.getUpdateStatistics());
+        add(mStatisticsLabel, "gapleft 5");
+    }
+
+    /**
+     * Updates the coalesced and dropped call event counts for the displayed model
+     */
+    private void updateStatistics()
+    {
+        mStatisticsLabel.setText(((CallEventModel)mTable.getModel()).getUpdateStatistics());
     }
 
     @Override
@@ -62,7 +84,10 @@ public class CallEventPanel extends JPanel implements Listener<ProcessingChain>
             @Override
             public void run()
             {
+                mTable.getModel().removeTableModelListener(mStatisticsUpdater);
                 mTable.setModel(processingChain != null ? processingChain.getCallEventModel() : mEmptyCallEventModel);
+                mTable.getModel().addTableModelListener(mStatisticsUpdater);
+                updateStatistics();
 
                 if(processingChain != null)
                 {
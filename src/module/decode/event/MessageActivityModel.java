@@ -20,15 +20,17 @@ package module.decode.event;
 import java.awt.EventQueue;
 import java.text.SimpleDateFormat;
 import java.util.Date;
-import java.util.LinkedList;
-
-import javax.swing.table.AbstractTableModel;
+import java.util.List;
 
 import message.Message;
 import sample.Listener;
 import filter.FilterSet;
 
-public class MessageActivityModel extends AbstractTableModel
+/**
+ * Message history table model.  Decoded messages are queued without blocking the decoder thread and are added to
+ * the table in batches, at most once per flush interval.
+ */
+public class MessageActivityModel extends RingBufferTableModel<Message>
 								  implements Listener<Message>
 {
     private static final long serialVersionUID = 1L;
@@ -38,8 +40,7 @@ public class MessageActivityModel extends AbstractTableModel
     private static final int MESSAGE = 3;
     private static final int MESSAGE_BITS = 4;
 
-	protected int mMaxMessages = 500;
-	protected LinkedList<Message> mMessages = new LinkedList<Message>();
+	public static final int DEFAULT_MAX_MESSAGES = 500;
 
 	protected int[] mColumnWidths = { 110, 110, 110, -1, -1 };
 
@@ -51,17 +52,18 @@ public class MessageActivityModel extends AbstractTableModel
 
 	private SimpleDateFormat mSDFTime = new SimpleDateFormat( "HH:mm:ss" );
 	
-	private boolean mNewMessagesFirst = true;
-	
 	private FilterSet<Message> mMessageFilter;
 	
 	public MessageActivityModel( FilterSet<Message> messageFilter )
 	{
+		super( DEFAULT_MAX_MESSAGES, DEFAULT_PENDING_CAPACITY );
+
 		mMessageFilter = messageFilter;
 	}
 	
 	public MessageActivityModel()
 	{
+		this( null );
 	}
 	
 	/**
@@ -74,11 +76,7 @@ public class MessageActivityModel extends AbstractTableModel
 			@Override
             public void run()
             {
-				int messageCount = mMessages.size();
-				
-				mMessages.clear();
-
-				fireTableRowsDeleted( 0, messageCount - 1 );
+				clearRows();
             }
 		});
 	}
@@ -88,11 +86,6 @@ public class MessageActivityModel extends AbstractTableModel
 		return mMessageFilter;
 	}
 	
-	public void dispose()
-	{
-		mMessages.clear();
-	}
-	
 	public int[] getColumnWidths()
 	{
 		return mColumnWidths;
@@ -111,51 +104,20 @@ public class MessageActivityModel extends AbstractTableModel
 		}
 	}
 	
-	public int getMaxMessageCount()
-	{
-		return mMaxMessages;
-	}
-
-	public void setMaxMessageCount( int count )
-	{
-		mMaxMessages = count;
-	}
-	
 	public void receive( final Message message )
 	{
 		if( message.isValid() && mMessageFilter.passes( message ) )
 		{
-			EventQueue.invokeLater( new Runnable() 
-			{
-				@Override
-	            public void run()
-	            {
-					mMessages.addFirst( message );
-
-					MessageActivityModel.this.fireTableRowsInserted( 0, 0 );
-
-					prune();
-	            }
-			} );
+			enqueue( message );
 		}
 	}
 	
-	private void prune()
+	@Override
+	protected void process( List<Message> batch )
 	{
-		while( mMessages.size() > mMaxMessages )
-		{
-			mMessages.removeLast();
-			
-			super.fireTableRowsDeleted( mMessages.size() - 1, mMessages.size() - 1 );
-		}
+		insert( batch );
 	}
 
-	@Override
-    public int getRowCount()
-    {
-		return mMessages.size();
-    }
-
 	@Override
     public int getColumnCount()
     {
@@ -170,9 +132,9 @@ public class MessageActivityModel extends AbstractTableModel
 	@Override
     public Object getValueAt( int rowIndex, int columnIndex )
     {
-		if( 0 <= rowIndex && rowIndex < mMessages.size() )
+		if( 0 <= rowIndex && rowIndex < getRowCount() )
 		{
-			Message message = mMessages.get( rowIndex );
+			Message message = getRow( rowIndex );
 			
 			switch( columnIndex )
 			{
@@ -37,6 +37,8 @@ import sample.Listener;
 import javax.swing.*;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
+import javax.swing.event.TableModelEvent;
+import javax.swing.event.TableModelListener;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
@@ -53,8 +55,19 @@ public class MessageActivityPanel extends JPanel implements Listener<ProcessingC
 
     private JTable mTable = new JTable(EMPTY_MODEL);
 
+    private JLabel mStatisticsLabel = new JLabel(EMPTY_MODEL.getUpdateStatistics());
+
     private MessageManagementPanel mManagementPanel = new MessageManagementPanel();
 
+    private TableModelListener mStatisticsUpdater = new TableModelListener()
+    {
+        @Override
+        public void tableChanged(TableModelEvent e)
+        {
+            updateStatistics();
+        }
+    };
+
     private ChannelProcessingManager mChannelProcessingManager;
 
     public MessageActivityPanel(ChannelProcessingManager channelProcessingManager)
@@ -76,7 +89,10 @@ public class MessageActivityPanel extends JPanel implements Listener<ProcessingC
             @Override
             public void run()
             {
+                mTable.getModel().removeTableModelListener(mStatisticsUpdater);
                 mTable.setModel(processingChain != null ? processingChain.getMessageActivityModel() : EMPTY_MODEL);
+                mTable.getModel().addTableModelListener(mStatisticsUpdater);
+                updateStatistics();
 
                 if(processingChain != null)
                 {
@@ -90,6 +106,14 @@ public class MessageActivityPanel extends JPanel implements Listener<ProcessingC
         });
     }
 
+    /**
+     * Updates the coalesced and dropped message counts for the displayed model
+     */
+    private void updateStatistics()
+    {
+        mStatisticsLabel.setText(((MessageActivityModel)mTable.getModel()).getUpdateStatistics());
+    }
+
     //    @Override
 //    public void channelChanged(ChannelEvent event)
 //    {
@@ -157,12 +181,13 @@ public class MessageActivityPanel extends JPanel implements Listener<ProcessingC
 
         public MessageManagementPanel()
         {
-            setLayout(new MigLayout("insets 2 2 5 5", "[]5[left,grow]", ""));
+            setLayout(new MigLayout("insets 2 2 5 5", "[]5[left,grow][right]", ""));
 
             disableButtons();
 
             add(mFilterButton);
             add(mHistoryButton);
+            add(mStatisticsLabel);
         }
 
         public void enableButtons()
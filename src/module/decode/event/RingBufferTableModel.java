@@ -0,0 +1,368 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package module.decode.event;
+
+import util.ThreadPool;
+
+import javax.swing.table.AbstractTableModel;
+import java.awt.EventQueue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Table model backed by a fixed capacity ring buffer with newest-first row ordering and rate limited updates.
+ *
+ * Producer threads hand items to enqueue(), which never waits: items are offered to a bounded pending queue and are
+ * counted as dropped when the queue is full.  The first item after a flush schedules a single flush task that runs on
+ * the Swing event thread no sooner than the flush interval after the previous flush, so the event thread receives at
+ * most one task per model per interval regardless of the message rate.  The flush drains all pending items and hands
+ * them to process() as one batch, where subclasses apply them with insert(), which fires one rows inserted and at most
+ * one rows deleted event per batch.
+ *
+ * Inserting into the ring and discarding the oldest rows are constant time operations.  The ring, row count and all
+ * table model events are only accessed on the Swing event thread.
+ */
+public abstract class RingBufferTableModel<T> extends AbstractTableModel
+{
+    private static final long serialVersionUID = 1L;
+
+    public static final long FLUSH_INTERVAL_MS = 100;
+    public static final int DEFAULT_PENDING_CAPACITY = 4096;
+
+    private Object[] mRing;
+    private int mHead;
+    private int mSize;
+    private int mMaxCount;
+
+    private ArrayBlockingQueue<T> mPending;
+    private AtomicBoolean mFlushScheduled = new AtomicBoolean();
+    private volatile long mLastFlush;
+    private AtomicLong mDroppedCount = new AtomicLong();
+    private AtomicLong mCoalescedCount = new AtomicLong();
+    private Runnable mFlushTask = new Runnable()
+    {
+        @Override
+        public void run()
+        {
+            flush();
+        }
+    };
+    private Runnable mScheduledFlushTask = new Runnable()
+    {
+        @Override
+        public void run()
+        {
+            EventQueue.invokeLater(mFlushTask);
+        }
+    };
+
+    /**
+     * Constructs an instance
+     *
+     * @param maxCount maximum number of rows to retain
+     * @param pendingCapacity maximum number of items waiting for the next flush before new items are dropped
+     */
+    public RingBufferTableModel(int maxCount, int pendingCapacity)
+    {
+        mMaxCount = Math.max(maxCount, 0);
+        mRing = new Object[Math.max(mMaxCount, 1)];
+        mPending = new ArrayBlockingQueue<>(pendingCapacity);
+    }
+
+    /**
+     * Processes a batch of items drained from the pending queue, in the order they were enqueued.  Invoked on the
+     * Swing event thread.
+     */
+    protected abstract void process(List<T> batch);
+
+    /**
+     * Invoked on the Swing event thread for each item that is discarded from the oldest end of the ring or that does
+     * not fit in the ring when inserted.
+     */
+    protected void evicted(T item)
+    {
+    }
+
+    /**
+     * Adds the item to the pending queue and schedules a flush if one is not already scheduled.  Does not block and
+     * may be invoked from any thread.
+     *
+     * @return true if the item was queued or false if it was dropped because the pending queue is full
+     */
+    protected boolean enqueue(T item)
+    {
+        boolean queued = mPending.offer(item);
+
+        if(!queued)
+        {
+            mDroppedCount.incrementAndGet();
+        }
+
+        scheduleFlush();
+
+        return queued;
+    }
+
+    private void scheduleFlush()
+    {
+        if(mFlushScheduled.compareAndSet(false, true))
+        {
+            long delay = mLastFlush + FLUSH_INTERVAL_MS - System.currentTimeMillis();
+
+            if(delay <= 0)
+            {
+                EventQueue.invokeLater(mFlushTask);
+            }
+            else
+            {
+                ThreadPool.SCHEDULED.schedule(mScheduledFlushTask, delay, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Drains the pending queue and processes the items as a single batch.  The scheduled flag is cleared before
+     * draining so that an item enqueued after the drain always schedules another flush.
+     */
+    private void flush()
+    {
+        mLastFlush = System.currentTimeMillis();
+        mFlushScheduled.set(false);
+
+        List<T> batch = new ArrayList<>(mPending.size());
+        mPending.drainTo(batch);
+
+        if(!batch.isEmpty())
+        {
+            mCoalescedCount.addAndGet(batch.size() - 1);
+            process(batch);
+        }
+    }
+
+    /**
+     * Inserts the items at the top of the table, with the last item in the list as row 0.  Fires one rows deleted
+     * event for any rows discarded from the bottom of the table followed by one rows inserted event.  When the list
+     * contains more items than the maximum row count, only the newest items are retained and evicted() is invoked for
+     * the others.  Must be invoked on the Swing event thread.
+     */
+    protected void insert(List<T> items)
+    {
+        int count = Math.min(items.size(), mMaxCount);
+
+        for(int x = 0; x < items.size() - count; x++)
+        {
+            evicted(items.get(x));
+        }
+
+        if(count == 0)
+        {
+            return;
+        }
+
+        int discard = mSize + count - mMaxCount;
+
+        if(discard > 0)
+        {
+            int lastRow = mSize - 1;
+            removeOldest(discard);
+            fireTableRowsDeleted(mSize, lastRow);
+        }
+
+        for(int x = items.size() - count; x < items.size(); x++)
+        {
+            mHead = (mHead == 0 ? mRing.length : mHead) - 1;
+            mRing[mHead] = items.get(x);
+        }
+
+        mSize += count;
+
+        fireTableRowsInserted(0, count - 1);
+    }
+
+    /**
+     * Removes the row and fires a rows deleted event.  Rows below the removed row are shifted up, so the cost is
+     * proportional to the number of rows below the removed row.  Must be invoked on the Swing event thread.
+     */
+    protected void removeRow(int row)
+    {
+        if(row < 0 || row >= mSize)
+        {
+            return;
+        }
+
+        for(int x = row; x < mSize - 1; x++)
+        {
+            mRing[index(x)] = mRing[index(x + 1)];
+        }
+
+        mRing[index(mSize - 1)] = null;
+        mSize--;
+
+        fireTableRowsDeleted(row, row);
+    }
+
+    /**
+     * Item at the row, where row 0 is the newest item.  Must be invoked on the Swing event thread.
+     */
+    @SuppressWarnings("unchecked")
+    protected T getRow(int row)
+    {
+        return (T)mRing[index(row)];
+    }
+
+    /**
+     * Row of the item or -1 if the item is not in the table.  Must be invoked on the Swing event thread.
+     */
+    protected int indexOf(T item)
+    {
+        for(int x = 0; x < mSize; x++)
+        {
+            if(mRing[index(x)] == item)
+            {
+                return x;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Removes all rows and pending items.  Must be invoked on the Swing event thread.
+     */
+    protected void clearRows()
+    {
+        mPending.clear();
+
+        int lastRow = mSize - 1;
+
+        removeOldest(mSize);
+        mHead = 0;
+
+        if(lastRow >= 0)
+        {
+            fireTableRowsDeleted(0, lastRow);
+        }
+    }
+
+    /**
+     * Discards all rows and pending items without firing table model events
+     */
+    public void dispose()
+    {
+        mPending.clear();
+        Arrays.fill(mRing, null);
+        mHead = 0;
+        mSize = 0;
+    }
+
+    private void removeOldest(int count)
+    {
+        for(int x = 0; x < count; x++)
+        {
+            int index = index(mSize - 1);
+
+            @SuppressWarnings("unchecked")
+            T item = (T)mRing[index];
+
+            mRing[index] = null;
+            mSize--;
+
+            evicted(item);
+        }
+    }
+
+    private int index(int row)
+    {
+        int index = mHead + row;
+
+        return index >= mRing.length ? index - mRing.length : index;
+    }
+
+    @Override
+    public int getRowCount()
+    {
+        return mSize;
+    }
+
+    public int getMaxMessageCount()
+    {
+        return mMaxCount;
+    }
+
+    /**
+     * Sets the maximum number of rows to retain, reallocating the ring and discarding the oldest rows as needed.
+     * Must be invoked on the Swing event thread.
+     */
+    public void setMaxMessageCount(int count)
+    {
+        count = Math.max(count, 0);
+
+        if(count == mMaxCount)
+        {
+            return;
+        }
+
+        if(mSize > count)
+        {
+            int lastRow = mSize - 1;
+            removeOldest(mSize - count);
+            fireTableRowsDeleted(mSize, lastRow);
+        }
+
+        Object[] ring = new Object[Math.max(count, 1)];
+
+        for(int x = 0; x < mSize; x++)
+        {
+            ring[x] = mRing[index(x)];
+        }
+
+        mRing = ring;
+        mHead = 0;
+        mMaxCount = count;
+    }
+
+    /**
+     * Number of items dropped because the pending queue was full when they arrived
+     */
+    public long getDroppedCount()
+    {
+        return mDroppedCount.get();
+    }
+
+    /**
+     * Number of items that were delivered to the Swing event thread as part of a batch instead of individually
+     */
+    public long getCoalescedCount()
+    {
+        return mCoalescedCount.get();
+    }
+
+    /**
+     * Summary of the coalesced and dropped item counts for display
+     */
+    public String getUpdateStatistics()
+    {
+        return "Coalesced: " + getCoalescedCount() + " Dropped: " + getDroppedCount();
+    }
+}
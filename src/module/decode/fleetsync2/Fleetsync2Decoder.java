@@ -86,7 +86,7 @@ public class Fleetsync2Decoder extends Decoder implements IFilteredRealBufferLis
 
         mMessageFramer = new MessageFramer( 
         		SyncPattern.FLEETSYNC2.getPattern(), sMESSAGE_LENGTH );
-        mFSKDecoder.setListener( mMessageFramer );
+        mFSKDecoder.setBitStreamListener( mMessageFramer );
         
         mMessageProcessor = new Fleetsync2MessageProcessor( aliasList );
         mMessageFramer.addMessageListener( mMessageProcessor );
@@ -147,6 +147,7 @@ public class Fleetsync2Decoder extends Decoder implements IFilteredRealBufferLis
 				break;
 			case INSTRUMENT_FSK2_DECODER_TO_MESSAGE_FRAMER:
 				BinaryTap decoderTap = (BinaryTap)tap;
+				mFSKDecoder.removeBitStreamListener();
 				mFSKDecoder.setListener( decoderTap );
 				decoderTap.setListener( mMessageFramer );
 		        break;
@@ -164,7 +165,8 @@ public class Fleetsync2Decoder extends Decoder implements IFilteredRealBufferLis
 				mBandPassFilter.setListener( mFSKDecoder );
 				break;
 			case INSTRUMENT_FSK2_DECODER_TO_MESSAGE_FRAMER:
-				mFSKDecoder.setListener( mMessageFramer );
+				mFSKDecoder.removeListener( (BinaryTap)tap );
+				mFSKDecoder.setBitStreamListener( mMessageFramer );
 		        break;
 		}
     }
@@ -30,12 +30,12 @@ import java.util.concurrent.ScheduledExecutorService;
 
 import module.decode.Decoder;
 import module.decode.DecoderType;
-import sample.Broadcaster;
 import sample.Listener;
 import sample.real.IFilteredRealBufferListener;
 import sample.real.RealBuffer;
 import sample.real.RealSampleListener;
 import alias.AliasList;
+import bits.BitStreamBroadcaster;
 import bits.MessageFramer;
 import bits.SyncPattern;
 import dsp.filter.Filters;
@@ -67,8 +67,8 @@ public class LJ1200Decoder extends Decoder implements IFilteredRealBufferListene
 			"Tap Point: FSK2 Decoder > < Message Framer";
 	
     private FSK2Decoder mFSKDecoder;
-    private Broadcaster<Boolean> mFSKDecoderBroadcaster = 
-    					new Broadcaster<Boolean>();
+    private BitStreamBroadcaster mFSKDecoderBroadcaster = 
+    					new BitStreamBroadcaster();
     
     private HalfBandFilter_RB_RB mDecimationFilter;
     private RealFIRFilter_RB_RB mBandPassFilter;
@@ -89,7 +89,7 @@ public class LJ1200Decoder extends Decoder implements IFilteredRealBufferListene
         					SYMBOL_RATE, Output.INVERTED );
         mBandPassFilter.setListener( mFSKDecoder );
 
-        mFSKDecoder.setListener( mFSKDecoderBroadcaster );
+        mFSKDecoder.setBitStreamListener( mFSKDecoderBroadcaster );
 
         mTowerMessageFramer = new MessageFramer( 
         		SyncPattern.LJ1200.getPattern(), MESSAGE_LENGTH );
@@ -165,8 +165,9 @@ public class LJ1200Decoder extends Decoder implements IFilteredRealBufferListene
 				break;
 			case INSTRUMENT_FSK2_DECODER_TO_MESSAGE_FRAMER:
 				BinaryTap decoderTap = (BinaryTap)tap;
+				mFSKDecoder.removeBitStreamListener();
 				mFSKDecoder.setListener( decoderTap );
-				decoderTap.setListener( mTowerMessageFramer );
+				decoderTap.setListener( mFSKDecoderBroadcaster );
 		        break;
 		}
     }
@@ -182,7 +183,8 @@ public class LJ1200Decoder extends Decoder implements IFilteredRealBufferListene
 				mBandPassFilter.setListener( mFSKDecoder );
 				break;
 			case INSTRUMENT_FSK2_DECODER_TO_MESSAGE_FRAMER:
-				mFSKDecoder.setListener( mTowerMessageFramer );
+				mFSKDecoder.removeListener( (BinaryTap)tap );
+				mFSKDecoder.setBitStreamListener( mFSKDecoderBroadcaster );
 		        break;
 		}
     }
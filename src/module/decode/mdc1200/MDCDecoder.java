@@ -93,12 +93,12 @@ public class MDCDecoder extends Decoder implements IFilteredRealBufferListener,
 
         /* NRZ Decoder */
         mNRZDecoder = new NRZDecoder( NRZDecoder.MODE_INVERTED );
-        mFSKDecoder.setListener( mNRZDecoder );
+        mFSKDecoder.setBitStreamListener( mNRZDecoder );
 
         /* Message Framer */
         mMessageFramer = new MessageFramer( SyncPattern.MDC1200.getPattern(), 
 				sMESSAGE_LENGTH );
-        mNRZDecoder.setListener( mMessageFramer );
+        mNRZDecoder.setBitStreamListener( mMessageFramer );
 
         /* Message Processor */
         mMessageProcessor = new MDCMessageProcessor( aliasList );
@@ -158,12 +158,14 @@ public class MDCDecoder extends Decoder implements IFilteredRealBufferListener,
 			case INSTRUMENT_FSK2_DECODER_TO_NRZ_DECODER:
 				/* wire between FSK2 decoder and NRZ decoder */
 				BinaryTap binTap = (BinaryTap)tap;
+				mFSKDecoder.removeBitStreamListener();
 				mFSKDecoder.setListener( binTap );
 				binTap.setListener( mNRZDecoder );
 				break;
 			case INSTRUMENT_NRZI_DECODER_TO_MESSAGE_FRAMER:
 				/* wire between demod and framer */
 				BinaryTap binInvTap = (BinaryTap)tap;
+				mNRZDecoder.removeBitStreamListener();
 				mNRZDecoder.setListener( binInvTap );
 				binInvTap.setListener( mMessageFramer );
 				break;
@@ -182,10 +184,12 @@ public class MDCDecoder extends Decoder implements IFilteredRealBufferListener,
 		        mBandPassFilter.setListener( mFSKDecoder );
 				break;
 			case INSTRUMENT_FSK2_DECODER_TO_NRZ_DECODER:
-				mFSKDecoder.setListener( mNRZDecoder );
+				mFSKDecoder.removeListener( (BinaryTap)tap );
+				mFSKDecoder.setBitStreamListener( mNRZDecoder );
 				break;
 			case INSTRUMENT_NRZI_DECODER_TO_MESSAGE_FRAMER:
-				mNRZDecoder.setListener( mMessageFramer );
+				mNRZDecoder.removeListener( (BinaryTap)tap );
+				mNRZDecoder.setBitStreamListener( mMessageFramer );
 		        break;
 			default:
 		}
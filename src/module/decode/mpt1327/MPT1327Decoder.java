@@ -19,6 +19,7 @@
 package module.decode.mpt1327;
 
 import alias.AliasList;
+import bits.BitStreamBroadcaster;
 import bits.MessageFramer;
 import bits.SyncPattern;
 import dsp.filter.FilterFactory;
@@ -38,7 +39,6 @@ import module.decode.Decoder;
 import module.decode.DecoderType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import sample.Broadcaster;
 import sample.Listener;
 import sample.real.IFilteredRealBufferListener;
 import sample.real.RealBuffer;
@@ -102,7 +102,7 @@ public class MPT1327Decoder extends Decoder implements IFilteredRealBufferListen
     private HalfBandFilter_RB_RB mDecimationFilter;
     private RealFIRFilter_RB_RB mHighPassFilter;
     private FSK2Decoder mFSKDecoder;
-    private Broadcaster<Boolean> mSymbolBroadcaster;
+    private BitStreamBroadcaster mSymbolBroadcaster;
     private MessageFramer mControlMessageFramer;
     private MessageFramer mTrafficMessageFramer;
     private MPT1327MessageProcessor mMessageProcessor;
@@ -136,8 +136,8 @@ public class MPT1327Decoder extends Decoder implements IFilteredRealBufferListen
 
         mHighPassFilter.setListener(mFSKDecoder);
 
-        mSymbolBroadcaster = new Broadcaster<Boolean>();
-        mFSKDecoder.setListener(mSymbolBroadcaster);
+        mSymbolBroadcaster = new BitStreamBroadcaster();
+        mFSKDecoder.setBitStreamListener(mSymbolBroadcaster);
 
         /* Message framer for control channel messages */
         mControlMessageFramer = new MessageFramer(sync.getControlSyncPattern().getPattern(), sMESSAGE_LENGTH);
@@ -229,6 +229,7 @@ public class MPT1327Decoder extends Decoder implements IFilteredRealBufferListen
                 break;
             case INSTRUMENT_DECODER_TO_FRAMER:
                 BinaryTap decoderTap = (BinaryTap) tap;
+                mFSKDecoder.removeBitStreamListener();
                 mFSKDecoder.setListener(decoderTap);
                 decoderTap.setListener(mSymbolBroadcaster);
                 break;
@@ -249,7 +250,8 @@ public class MPT1327Decoder extends Decoder implements IFilteredRealBufferListen
                 mHighPassFilter.setListener(mFSKDecoder);
                 break;
             case INSTRUMENT_DECODER_TO_FRAMER:
-                mFSKDecoder.setListener(mSymbolBroadcaster);
+                mFSKDecoder.removeListener((BinaryTap) tap);
+                mFSKDecoder.setBitStreamListener(mSymbolBroadcaster);
                 break;
         }
     }
@@ -1,6 +1,6 @@
 package module.decode.p25;
 
-import bits.BinaryMessage;
+import bits.BitBuffer;
 
 public interface C4FMFrameListener
 {
@@ -10,6 +10,6 @@ public interface C4FMFrameListener
 	 * @param buffer - framed message without the sync pattern
 	 * @param inverted - flag indicating if the message was received inverted
 	 */
-	public void receive( BinaryMessage buffer, boolean inverted );
+	public void receive( BitBuffer buffer, boolean inverted );
 
 }
@@ -1,6 +1,7 @@
 package module.decode.p25;
 
 import dsp.symbol.Dibit;
+import dsp.symbol.DibitBufferListener;
 import sample.Broadcaster;
 import sample.Listener;
 import sample.real.RealSampleListener;
@@ -11,17 +12,28 @@ import sample.real.RealSampleListener;
  * 
  * Supports registering listener(s) to receive normal and/or inverted symbol
  * output streams.
+ * 
+ * Symbol decisions are also collected into blocks of dibit low values and 
+ * delivered to an optional dibit buffer listener, which avoids per-symbol 
+ * dispatch overhead for the message framer.  A block is delivered each time
+ * DIBIT_BUFFER_LENGTH symbols (10 ms at 4800 baud) have been sliced.
  */
 public class C4FMSlicer implements RealSampleListener
 {
 	private static final float THRESHOLD = 2.0f;
+	
+	public static final int DIBIT_BUFFER_LENGTH = 48;
 
 	private Broadcaster<Dibit> mBroadcaster = new Broadcaster<Dibit>();
+	private DibitBufferListener mDibitBufferListener;
+	private byte[] mDibits = new byte[ DIBIT_BUFFER_LENGTH ];
+	private int mDibitPointer = 0;
 	
 	public void dispose()
 	{
 		mBroadcaster.dispose();
 		mBroadcaster = null;
+		mDibitBufferListener = null;
 	}
 	
 	/**
@@ -57,11 +69,35 @@ public class C4FMSlicer implements RealSampleListener
     }
 
 	/**
-	 * Dispatches the symbol decision to any registered listeners
+	 * Dispatches the symbol decision to any registered listeners and adds it
+	 * to the dibit buffer, delivering the buffer when it is full.
 	 */
 	private void dispatch( Dibit symbol )
 	{
-		mBroadcaster.receive( symbol );
+		if( mBroadcaster.hasListeners() )
+		{
+			mBroadcaster.receive( symbol );
+		}
+		
+		mDibits[ mDibitPointer++ ] = (byte)symbol.getLowValue();
+		
+		if( mDibitPointer == DIBIT_BUFFER_LENGTH )
+		{
+			flush();
+		}
+	}
+	
+	/**
+	 * Delivers any buffered dibits to the dibit buffer listener
+	 */
+	public void flush()
+	{
+		if( mDibitPointer > 0 && mDibitBufferListener != null )
+		{
+			mDibitBufferListener.receive( mDibits, 0, mDibitPointer );
+		}
+		
+		mDibitPointer = 0;
 	}
 
 	/**
@@ -80,4 +116,20 @@ public class C4FMSlicer implements RealSampleListener
     {
     	mBroadcaster.removeListener( listener );
     }
+
+    /**
+     * Registers the listener to receive blocks of dibit symbol decisions
+     */
+    public void setDibitBufferListener( DibitBufferListener listener )
+    {
+    	mDibitBufferListener = listener;
+    }
+    
+    /**
+     * Removes the dibit buffer listener
+     */
+    public void removeDibitBufferListener()
+    {
+    	mDibitBufferListener = null;
+    }
 }
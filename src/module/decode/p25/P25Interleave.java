@@ -1,11 +1,10 @@
 package module.decode.p25;
 
-import java.util.BitSet;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import bits.BinaryMessage;
+import bits.BitBuffer;
 
 /**
  * Utility class to process interleave of P25 Voice and Data messages.
@@ -65,22 +64,22 @@ public class P25Interleave
 	 * @param start - starting bit index for the block
 	 * @param end - ending bit index for the block, plus 1
 	 */
-	public static BinaryMessage deinterleaveData( BinaryMessage message, 
+	public static BitBuffer deinterleaveData( BitBuffer message, 
 			int start, int end )
 	{
 		return deinterleave( DATA_DEINTERLEAVE, message, start, end );
 	}
 	
-	public static BinaryMessage deinterleaveVoice( BinaryMessage message, 
+	public static BitBuffer deinterleaveVoice( BitBuffer message, 
 			int start, int end )
 	{
 		return deinterleave( VOICE_DEINTERLEAVE, message, start, end );
 	}
 	
-	public static BinaryMessage deinterleave( int[] pattern, BinaryMessage message, 
+	public static BitBuffer deinterleave( int[] pattern, BitBuffer message, 
 			int start, int end )
 	{
-		BitSet original = message.get( start, end );
+		BitBuffer original = message.getSubMessage( start, end );
 
 		/* Clear block bits in source message */
 		message.clear( start, end );
@@ -106,22 +105,22 @@ public class P25Interleave
      * @param start - starting bit index for the block
      * @param end - ending bit index for the block, plus 1
      */
-    public static BinaryMessage interleaveData( BinaryMessage message, 
+    public static BitBuffer interleaveData( BitBuffer message, 
     		int start, int end )
     {
     	return interleave( DATA_INTERLEAVE, message, start, end );
     }
     
-    public static BinaryMessage interleaveVoice( BinaryMessage message, 
+    public static BitBuffer interleaveVoice( BitBuffer message, 
     		int start, int end )
     {
     	return interleave( VOICE_INTERLEAVE, message, start, end );
     }
     
-    public static BinaryMessage interleave( int[] pattern, BinaryMessage message, 
+    public static BitBuffer interleave( int[] pattern, BitBuffer message, 
     		int start, int end )
     {
-        BitSet original = message.get( start, end );
+        BitBuffer original = message.getSubMessage( start, end );
         
        /* Clear block bits in source message */
         message.clear( start, end );
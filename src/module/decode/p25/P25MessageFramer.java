@@ -26,20 +26,17 @@ import org.slf4j.LoggerFactory;
 
 import sample.Listener;
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 import bits.BitSetFullException;
-import bits.ISyncDetectListener;
-import bits.MultiSyncPatternMatcher;
-import bits.SoftSyncDetector;
-import bits.SyncDetector;
 import dsp.psk.LSMDemodulator;
 import dsp.symbol.Dibit;
+import dsp.symbol.DibitBufferListener;
 import dsp.symbol.FrameSync;
 import edac.BCH_63_16_11;
 import edac.CRC;
 import edac.CRCP25;
 
-public class P25MessageFramer implements Listener<Dibit>
+public class P25MessageFramer implements Listener<Dibit>, DibitBufferListener
 {
 	private final static Logger mLog = 
 			LoggerFactory.getLogger( P25MessageFramer.class );
@@ -59,6 +56,9 @@ public class P25MessageFramer implements Listener<Dibit>
 	public static final int TSBK_END = 260;
 	public static final int TSBK_DECODED_END = 160;
 
+	/* Initial message buffer capacity - largest fixed length data unit */
+	public static final int MESSAGE_BUFFER_CAPACITY = 1680;
+
 	public static final int PDU0_BEGIN = 64;
 	public static final int PDU0_CRC_BEGIN = 144;
 	public static final int PDU0_END = 260;
@@ -70,10 +70,25 @@ public class P25MessageFramer implements Listener<Dibit>
 	public static final int PDU3_END = 548;
 	public static final int PDU3_DECODED_END = 448;
 	
-	private SoftSyncDetector mPrimarySyncDetector = new SoftSyncDetector( 
-			FrameSync.P25_PHASE1_NORMAL.getSync(), SYNC_MATCH_THRESHOLD );
+	/* 48-bit sync pattern mask and shift register */
+	private static final long SYNC_MASK = 0xFFFFFFFFFFFFl;
+	private static final long PRIMARY_SYNC = FrameSync.P25_PHASE1_NORMAL.getSync();
+
+	/* Costas loop phase lock error sync patterns and correction values */
+	private static final long[] PHASE_ERROR_SYNCS = { 
+		FrameSync.P25_PHASE1_ERROR_90_CCW.getSync(),
+		FrameSync.P25_PHASE1_ERROR_90_CW.getSync(),
+		FrameSync.P25_PHASE1_ERROR_180.getSync() };
+	private static final double[] PHASE_ERROR_CORRECTIONS = {
+		PHASE_CORRECTION_90_DEGREES,
+		-PHASE_CORRECTION_90_DEGREES,
+		PHASE_CORRECTION_180_DEGREES };
+
+	private long mSyncBits = 0;
+	private int mSyncThreshold = SYNC_MATCH_THRESHOLD;
+	private LSMDemodulator mDemodulator;
+	private byte[] mSingleDibit = new byte[ 1 ];
 
-	private MultiSyncPatternMatcher mMatcher = new MultiSyncPatternMatcher( 48 ); 
 	private ArrayList<P25MessageAssembler> mAssemblers =
 						new ArrayList<P25MessageAssembler>();
 
@@ -93,24 +108,6 @@ public class P25MessageFramer implements Listener<Dibit>
 	public P25MessageFramer( AliasList aliasList )
 	{
 		mAliasList = aliasList;
-		
-		mPrimarySyncDetector.setListener( new ISyncDetectListener()
-		{
-			@Override
-			public void syncDetected()
-			{
-	        	for( P25MessageAssembler assembler: mAssemblers )
-	        	{
-	        		if( !assembler.isActive() )
-	        		{
-	        			assembler.setActive( true );
-	        			break;
-	        		}
-	        	}
-			}
-		} );
-		
-		mMatcher.add( mPrimarySyncDetector );
 
 		/**
 		 * We use two message assemblers to catch any sync detections, so that
@@ -128,19 +125,9 @@ public class P25MessageFramer implements Listener<Dibit>
 	{
 		this( aliasList );
 
-		if( demodulator != null )
-		{
-			/* For CQPSK, we include 3 additional sync detectors to watch for and
-			 * correct +/-90 and 180 degree costas loop phase lock errors */
-			mMatcher.add( new CostasPhaseErrorDetector( FrameSync.P25_PHASE1_ERROR_90_CCW, 
-					demodulator, PHASE_CORRECTION_90_DEGREES  ) );
-
-			mMatcher.add( new CostasPhaseErrorDetector( FrameSync.P25_PHASE1_ERROR_90_CW, 
-					demodulator, -PHASE_CORRECTION_90_DEGREES  ) );
-
-			mMatcher.add( new CostasPhaseErrorDetector( FrameSync.P25_PHASE1_ERROR_180, 
-					demodulator, PHASE_CORRECTION_180_DEGREES  ) );
-		}
+		/* For CQPSK, we also check the 3 sync patterns that indicate +/-90 and 
+		 * 180 degree costas loop phase lock errors and apply a correction */
+		mDemodulator = demodulator;
 	}
 	
 	public void dispose()
@@ -154,13 +141,7 @@ public class P25MessageFramer implements Listener<Dibit>
 
 		mListener = null;
 		mAliasList = null;
-		
-		mMatcher.dispose();
-		mMatcher = null;
-		
-		mPrimarySyncDetector.dispose();
-		mPrimarySyncDetector = null;
-		
+		mDemodulator = null;
 	}
 	
 	private void dispatch( Message message )
@@ -174,21 +155,128 @@ public class P25MessageFramer implements Listener<Dibit>
 	@Override
     public void receive( Dibit symbol )
     {
+		mSingleDibit[ 0 ] = (byte)symbol.getLowValue();
+		
+		receive( mSingleDibit, 0, 1 );
+    }
+
+	/**
+	 * Processes a block of dibit low values.  The block is split into runs that
+	 * end at the next sync detection or the next point where an active message
+	 * assembler fills its message buffer.  Within each run, the sync pattern 
+	 * search only updates the shift register and each active assembler copies 
+	 * the run into its message buffer in bulk.  Ordering is the same as 
+	 * processing one symbol at a time: assemblers receive each symbol before
+	 * the sync search checks it.
+	 */
+	@Override
+	public void receive( byte[] dibits, int offset, int length )
+	{
+		int pointer = offset;
+		int end = offset + length;
+		
+		while( pointer < end )
+		{
+			int limit = end;
+			
+			for( P25MessageAssembler assembler: mAssemblers )
+			{
+				if( assembler.isActive() )
+				{
+					limit = Math.min( limit, pointer + assembler.getSymbolsUntilFull() );
+				}
+			}
+			
+			/* Check for sync up to but not including the run's final symbol, 
+			 * since that symbol can complete a message and change the sync 
+			 * threshold */
+			int run = limit;
+			boolean sync = false;
+
+			for( int x = pointer; x < limit - 1; x++ )
+			{
+				mSyncBits = ( ( mSyncBits << 2 ) | dibits[ x ] ) & SYNC_MASK;
+				
+				if( checkSync() )
+				{
+					run = x + 1;
+					sync = true;
+					break;
+				}
+			}
+			
+			for( P25MessageAssembler assembler: mAssemblers )
+			{
+				if( assembler.isActive() )
+				{
+					assembler.receive( dibits, pointer, run - pointer );
+					
+					if( assembler.complete() )
+					{
+						assembler.reset();
+					}
+				}
+			}
+			
+			if( !sync )
+			{
+				mSyncBits = ( ( mSyncBits << 2 ) | dibits[ run - 1 ] ) & SYNC_MASK;
+				
+				sync = checkSync();
+			}
+			
+			if( sync )
+			{
+				activateAssembler();
+			}
+			
+			pointer = run;
+		}
+	}
+	
+	/**
+	 * Checks the sync shift register against the primary sync pattern using
+	 * the current soft match threshold and against the costas loop phase lock
+	 * error patterns when a demodulator is available for correction.
+	 * 
+	 * @return true if a sync pattern was detected
+	 */
+	private boolean checkSync()
+	{
+		if( Long.bitCount( mSyncBits ^ PRIMARY_SYNC ) <= mSyncThreshold )
+		{
+			return true;
+		}
+		
+		if( mDemodulator != null )
+		{
+			for( int x = 0; x < PHASE_ERROR_SYNCS.length; x++ )
+			{
+				if( mSyncBits == PHASE_ERROR_SYNCS[ x ] )
+				{
+					mDemodulator.correctPhaseError( PHASE_ERROR_CORRECTIONS[ x ] );
+					return true;
+				}
+			}
+		}
+		
+		return false;
+	}
+
+	/**
+	 * Starts the first inactive message assembler following a sync detection
+	 */
+	private void activateAssembler()
+	{
     	for( P25MessageAssembler assembler: mAssemblers )
     	{
-    		if( assembler.isActive() )
+    		if( !assembler.isActive() )
     		{
-        		assembler.receive( symbol );
-        		
-        		if( assembler.complete() )
-        		{
-        			assembler.reset();
-        		}
+    			assembler.setActive( true );
+    			break;
     		}
     	}
-    	
-		mMatcher.receive( symbol.getBit1(), symbol.getBit2() );
-    }
+	}
 
     public void setListener( Listener<Message> listener )
     {
@@ -205,7 +293,7 @@ public class P25MessageFramer implements Listener<Dibit>
     	/* Starting position of the status symbol counter is 24 symbols to 
     	 * account for the 48-bit sync pattern which is not included in message */
     	private int mStatusSymbolPointer = 24;
-    	private BinaryMessage mMessage;
+    	private BitBuffer mMessage;
         private int mMessageLength;
         private boolean mComplete = false;
         private boolean mActive = false;
@@ -214,32 +302,51 @@ public class P25MessageFramer implements Listener<Dibit>
         public P25MessageAssembler()
         {
         	mMessageLength = mDUID.getMessageLength();
-            mMessage = new BinaryMessage( mMessageLength );
+            mMessage = new BitBuffer( MESSAGE_BUFFER_CAPACITY );
         	reset();
         }
         
-        public void receive( Dibit dibit )
+        /**
+         * Adds the dibits to the message, skipping the status symbol that 
+         * follows every 35 message symbols, and checks the message for 
+         * complete each time the message buffer fills.
+         */
+        public void receive( byte[] dibits, int offset, int length )
         {
-        	if( mActive )
+        	int pointer = offset;
+        	int end = offset + length;
+        	
+        	while( mActive && !mComplete && pointer < end )
         	{
         		if( mStatusSymbolPointer == 35 )
         		{
         			mStatusSymbolPointer = 0;
+        			pointer++;
         		}
         		else
         		{
-        			mStatusSymbolPointer++;
-
-                    try
-                    {
-                        mMessage.add( dibit.getBit1() );
-                        mMessage.add( dibit.getBit2() );
-                    }
-                    catch( BitSetFullException e )
-                    {
-                         mComplete = true;
-                    }
-         
+        			int count = mMessage.addDibits( dibits, pointer, 
+        					Math.min( end - pointer, 35 - mStatusSymbolPointer ) );
+        			
+        			if( count == 0 )
+        			{
+        				/* No room for a full dibit - add the partial dibit and
+        				 * flag complete, as with single symbol processing */
+                        try
+                        {
+                            mMessage.addDibit( dibits[ pointer ] );
+                        }
+                        catch( BitSetFullException e )
+                        {
+                             mComplete = true;
+                        }
+                        
+                        count = 1;
+        			}
+        			
+        			mStatusSymbolPointer += count;
+        			pointer += count;
+        			
                     /* Check the message for complete */
                     if( mMessage.isFull() )
                     {
@@ -248,6 +355,35 @@ public class P25MessageFramer implements Listener<Dibit>
         		}
         	}
         }
+        
+        /**
+         * Number of symbols, including status symbols, that can be received 
+         * before the message buffer is full
+         */
+        public int getSymbolsUntilFull()
+        {
+        	int remaining = ( mMessage.size() - mMessage.pointer() + 1 ) / 2;
+        	int statusPointer = mStatusSymbolPointer;
+        	int symbols = 0;
+        	
+        	while( remaining > 0 )
+        	{
+        		if( statusPointer == 35 )
+        		{
+        			statusPointer = 0;
+        			symbols++;
+        		}
+        		else
+        		{
+        			int count = Math.min( remaining, 35 - statusPointer );
+        			statusPointer += count;
+        			remaining -= count;
+        			symbols += count;
+        		}
+        	}
+        	
+        	return Math.max( symbols, 1 );
+        }
 
         public void reset()
         {
@@ -304,7 +440,7 @@ public class P25MessageFramer implements Listener<Dibit>
                     dispatch( new HDUMessage( mMessage.copy(), mDUID, mAliasList ) );
                     
                     /* We're in a call now, lower the sync match threshold */
-                    mPrimarySyncDetector.setThreshold( SYNC_IN_CALL_THRESHOLD );
+                    mSyncThreshold = SYNC_IN_CALL_THRESHOLD;
 					break;
 				case LDU1:
 					mComplete = true;
@@ -316,14 +452,14 @@ public class P25MessageFramer implements Listener<Dibit>
                     dispatch( LDULCMessageFactory.getMessage( ldu1 ) );
 
                     /* We're in a call now, lower the sync match threshold */
-                    mPrimarySyncDetector.setThreshold( SYNC_IN_CALL_THRESHOLD );
+                    mSyncThreshold = SYNC_IN_CALL_THRESHOLD;
 					break;
 				case LDU2:
 					mComplete = true;
                     dispatch( new LDU2Message( mMessage.copy(), mDUID, mAliasList ) );
 
                     /* We're in a call now, lower the sync match threshold */
-                    mPrimarySyncDetector.setThreshold( SYNC_IN_CALL_THRESHOLD );
+                    mSyncThreshold = SYNC_IN_CALL_THRESHOLD;
 					break;
 				case PDU0:
 
@@ -365,7 +501,7 @@ public class P25MessageFramer implements Listener<Dibit>
 					}
 					
                     /* Set sync match threshold to normal */
-                    mPrimarySyncDetector.setThreshold( SYNC_MATCH_THRESHOLD );
+                    mSyncThreshold = SYNC_MATCH_THRESHOLD;
                     
 					break;
 				case PDU1:
@@ -431,7 +567,7 @@ public class P25MessageFramer implements Listener<Dibit>
 					}
 
 					/* Set sync match threshold to normal */
-                    mPrimarySyncDetector.setThreshold( SYNC_MATCH_THRESHOLD );
+                    mSyncThreshold = SYNC_MATCH_THRESHOLD;
 					break;
 				case PDU3:
 					/* Remove interleaving */
@@ -500,14 +636,14 @@ public class P25MessageFramer implements Listener<Dibit>
 					}
 					
                     /* Set sync match threshold to normal */
-                    mPrimarySyncDetector.setThreshold( SYNC_MATCH_THRESHOLD );
+                    mSyncThreshold = SYNC_MATCH_THRESHOLD;
 					break;
 				case TDU:
                     dispatch( new TDUMessage( mMessage.copy(), mDUID, mAliasList ) );
 					mComplete = true;
 
 					/* Set sync match threshold to normal */
-                    mPrimarySyncDetector.setThreshold( SYNC_MATCH_THRESHOLD );
+                    mSyncThreshold = SYNC_MATCH_THRESHOLD;
 					break;
 				case TDULC:
 					TDULinkControlMessage tdulc =  new TDULinkControlMessage( 
@@ -520,7 +656,7 @@ public class P25MessageFramer implements Listener<Dibit>
 					mComplete = true;
 
 					/* Set sync match threshold to normal */
-                    mPrimarySyncDetector.setThreshold( SYNC_MATCH_THRESHOLD );
+                    mSyncThreshold = SYNC_MATCH_THRESHOLD;
 					break;
 				case TSBK1:
 					/* Remove interleaving */
@@ -536,7 +672,7 @@ public class P25MessageFramer implements Listener<Dibit>
 
 						if( mMessage.getCRC() != CRC.FAILED_CRC )
 						{
-							BinaryMessage tsbkBuffer1 = mMessage.copy();
+							BitBuffer tsbkBuffer1 = mMessage.copy();
 							tsbkBuffer1.setSize( TSBK_DECODED_END );
 							
 		                    TSBKMessage tsbkMessage1 = TSBKMessageFactory.getMessage( 
@@ -565,7 +701,7 @@ public class P25MessageFramer implements Listener<Dibit>
 					}
 
 					/* Set sync match threshold to normal */
-                    mPrimarySyncDetector.setThreshold( SYNC_MATCH_THRESHOLD );
+                    mSyncThreshold = SYNC_MATCH_THRESHOLD;
 					break;
 				case TSBK2:
 					/* Remove interleaving */
@@ -580,7 +716,7 @@ public class P25MessageFramer implements Listener<Dibit>
 						
 						if( mMessage.getCRC() != CRC.FAILED_CRC )
 						{
-							BinaryMessage tsbkBuffer2 = mMessage.copy();
+							BitBuffer tsbkBuffer2 = mMessage.copy();
 							tsbkBuffer2.setSize( TSBK_DECODED_END );
 							
 		                    TSBKMessage tsbkMessage2 = TSBKMessageFactory.getMessage( 
@@ -621,7 +757,7 @@ public class P25MessageFramer implements Listener<Dibit>
 						
 						if( mMessage.getCRC() != CRC.FAILED_CRC )
 						{
-		                    BinaryMessage tsbkBuffer3 = mMessage.copy();
+		                    BitBuffer tsbkBuffer3 = mMessage.copy();
 							tsbkBuffer3.setSize( TSBK_DECODED_END );
 		                    
 		                    TSBKMessage tsbkMessage3 = TSBKMessageFactory.getMessage( 
@@ -672,49 +808,4 @@ public class P25MessageFramer implements Listener<Dibit>
         	return mActive;
         }
     }
-    
-    /**
-     * Sync pattern detector to listen for costas loop phase lock errors and 
-     * apply a phase correction to the costas loop so that we don't miss any 
-     * messages.
-     * 
-     * When the costas loop locks with a +/- 90 degree or 180 degree phase 
-     * error, the slicer will incorrectly apply the symbol pattern rotated left
-     * or right by the phase error.  However, we can detect these rotated sync
-     * patterns and apply immediate phase correction so that message processing
-     * can continue. 
-     */
-    public class CostasPhaseErrorDetector extends SyncDetector
-    {
-    	private LSMDemodulator mDemodulator;
-    	private double mCorrection;
-    	
-    	public CostasPhaseErrorDetector( FrameSync frameSync, LSMDemodulator demodulator, double correction )
-    	{
-    		super( frameSync.getSync() );
-
-    		mDemodulator = demodulator;
-    		
-    		mCorrection = correction;
-
-    		setListener( new ISyncDetectListener()
-			{
-				@Override
-				public void syncDetected()
-				{
-					mDemodulator.correctPhaseError( mCorrection );
-
-					/* Since we detected a sync pattern, start a message assembler */
-		        	for( P25MessageAssembler assembler: mAssemblers )
-		        	{
-		        		if( !assembler.isActive() )
-		        		{
-		        			assembler.setActive( true );
-		        			break;
-		        		}
-		        	}
-				}
-			} );
-    	}
-    }
 }
@@ -81,7 +81,7 @@ public class P25_C4FMDecoder extends P25Decoder implements IFilteredRealBufferLi
 
 		/* Sync pattern detection and message construction */
 		mMessageFramer = new P25MessageFramer( aliasList );
-        mC4FMSlicer.addListener( mMessageFramer );
+        mC4FMSlicer.setDibitBufferListener( mMessageFramer );
         
         /* Process and broadcast messages */
         mMessageFramer.setListener( getMessageProcessor() );
@@ -0,0 +1,797 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package module.decode.p25;
+
+import bits.BitBuffer;
+import dsp.symbol.Dibit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Verifies and measures the P25 1/2 and 3/4 rate trellis decoders.  Random data blocks are trellis encoded, bit
+ * errors are injected and the decoded output is compared to the original data.  Throughput is reported in decoded
+ * 196-bit blocks per second.
+ *
+ * The node and path object graph decoders that preceded the table-driven Viterbi decoders are copied below as
+ * PreviousTrellis_1_2_Rate and PreviousTrellis_3_4_Rate, so that both error correction and throughput are reported
+ * against the previous implementation.
+ */
+public class TrellisBenchmark
+{
+    private final static Logger mLog = LoggerFactory.getLogger(TrellisBenchmark.class);
+
+    private static final int BLOCK_LENGTH = 196;
+    private static final int VERIFY_BLOCKS = 2000;
+    private static final int BENCHMARK_BLOCKS = 20000;
+    private static final int BENCHMARK_ITERATIONS = 10;
+
+    private static final Dibit[] DIBITS = new Dibit[4];
+    private static final int[][] ENCODER_3_4 = new int[8][8];
+
+    static
+    {
+        for(Dibit dibit : Dibit.values())
+        {
+            DIBITS[dibit.getLowValue()] = dibit;
+        }
+
+        for(Trellis_3_4_Rate.Con con : Trellis_3_4_Rate.Con.values())
+        {
+            Trellis_3_4_Rate.Tribit[] inputs = Trellis_3_4_Rate.INPUT_FROM_CONSTELLATION_MAP.get(con);
+
+            for(int state = 0; state < 8; state++)
+            {
+                if(inputs[state] != null)
+                {
+                    ENCODER_3_4[state][inputs[state].getValue()] = con.getTransmittedValue();
+                }
+            }
+        }
+    }
+
+    public static void main(String[] args)
+    {
+        for(int errors = 0; errors <= 6; errors++)
+        {
+            verify(errors);
+        }
+
+        benchmark();
+    }
+
+    /**
+     * Trellis encodes 48 data symbols plus a flushing 0 symbol into a 196-bit block
+     *
+     * @param data symbols (dibits for 1/2 rate or tribits for 3/4 rate)
+     * @param halfRate true for 1/2 rate or false for 3/4 rate
+     */
+    private static BitBuffer encode(int[] data, boolean halfRate)
+    {
+        BitBuffer encoded = new BitBuffer(BLOCK_LENGTH);
+
+        int state = 0;
+
+        for(int x = 0; x < data.length; x++)
+        {
+            int constellation = halfRate ?
+                Trellis_1_2_Rate.Constellation.fromStateAndInputDibits(DIBITS[state], DIBITS[data[x]])
+                    .getTransmittedValue() : ENCODER_3_4[state][data[x]];
+
+            encoded.load(x * 4, 4, constellation);
+
+            state = data[x];
+        }
+
+        return encoded;
+    }
+
+    private static int[] randomData(Random random, int symbolMax)
+    {
+        int[] data = new int[Trellis_1_2_Rate.CONSTELLATION_COUNT];
+
+        //Final symbol is left as 0 to flush the encoder
+        for(int x = 0; x < data.length - 1; x++)
+        {
+            data[x] = random.nextInt(symbolMax);
+        }
+
+        return data;
+    }
+
+    private static boolean matches(BitBuffer decoded, int[] data, int bitsPerSymbol)
+    {
+        for(int x = 0; x < data.length; x++)
+        {
+            if(decoded.getInt(x * bitsPerSymbol, (x + 1) * bitsPerSymbol - 1) != data[x])
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static void injectErrors(BitBuffer buffer, Random random, int errors)
+    {
+        for(int x = 0; x < errors; x++)
+        {
+            buffer.flip(random.nextInt(BLOCK_LENGTH));
+        }
+    }
+
+    /**
+     * Decodes random blocks with the specified number of bit errors and logs the decoded and corrected counts
+     */
+    private static void verify(int errors)
+    {
+        Random random = new Random(errors);
+        Trellis_1_2_Rate halfRate = new Trellis_1_2_Rate();
+        Trellis_3_4_Rate threeQuarterRate = new Trellis_3_4_Rate();
+        PreviousTrellis_1_2_Rate previousHalfRate = new PreviousTrellis_1_2_Rate();
+        PreviousTrellis_3_4_Rate previousThreeQuarterRate = new PreviousTrellis_3_4_Rate();
+
+        int halfDecoded = 0;
+        int halfCorrect = 0;
+        int previousHalfDecoded = 0;
+        int previousHalfCorrect = 0;
+        int threeQuarterDecoded = 0;
+        int threeQuarterCorrect = 0;
+        int previousThreeQuarterDecoded = 0;
+        int previousThreeQuarterCorrect = 0;
+
+        for(int x = 0; x < VERIFY_BLOCKS; x++)
+        {
+            int[] dibits = randomData(random, 4);
+            BitBuffer half = encode(dibits, true);
+            injectErrors(half, random, errors);
+            BitBuffer previousHalf = half.copy();
+
+            if(halfRate.decode(half, 0, BLOCK_LENGTH))
+            {
+                halfDecoded++;
+
+                if(matches(half, dibits, 2))
+                {
+                    halfCorrect++;
+                }
+            }
+
+            if(previousHalfRate.decode(previousHalf, 0, BLOCK_LENGTH))
+            {
+                previousHalfDecoded++;
+
+                if(matches(previousHalf, dibits, 2))
+                {
+                    previousHalfCorrect++;
+                }
+            }
+
+            int[] tribits = randomData(random, 8);
+            BitBuffer threeQuarter = encode(tribits, false);
+            injectErrors(threeQuarter, random, errors);
+            BitBuffer previousThreeQuarter = threeQuarter.copy();
+
+            if(threeQuarterRate.decode(threeQuarter, 0, BLOCK_LENGTH))
+            {
+                threeQuarterDecoded++;
+
+                if(matches(threeQuarter, tribits, 3))
+                {
+                    threeQuarterCorrect++;
+                }
+            }
+
+            if(previousThreeQuarterRate.decode(previousThreeQuarter, 0, BLOCK_LENGTH))
+            {
+                previousThreeQuarterDecoded++;
+
+                if(matches(previousThreeQuarter, tribits, 3))
+                {
+                    previousThreeQuarterCorrect++;
+                }
+            }
+        }
+
+        mLog.info(String.format("Bit errors:%d blocks:%d - 1/2 rate decoded:%d correct:%d (previous %d/%d) - " +
+            "3/4 rate decoded:%d correct:%d (previous %d/%d)", errors, VERIFY_BLOCKS, halfDecoded, halfCorrect,
+            previousHalfDecoded, previousHalfCorrect, threeQuarterDecoded, threeQuarterCorrect,
+            previousThreeQuarterDecoded, previousThreeQuarterCorrect));
+
+        if(errors == 0 && (halfCorrect != VERIFY_BLOCKS || threeQuarterCorrect != VERIFY_BLOCKS))
+        {
+            mLog.error("Error-free blocks were not decoded correctly");
+        }
+    }
+
+    /**
+     * Measures decoded blocks per second of the current and previous decoders for blocks containing two bit errors,
+     * so that the full decoder runs
+     */
+    private static void benchmark()
+    {
+        Random random = new Random(1);
+
+        BitBuffer[] halfBlocks = new BitBuffer[BENCHMARK_BLOCKS];
+        BitBuffer[] threeQuarterBlocks = new BitBuffer[BENCHMARK_BLOCKS];
+
+        for(int x = 0; x < BENCHMARK_BLOCKS; x++)
+        {
+            halfBlocks[x] = encode(randomData(random, 4), true);
+            injectErrors(halfBlocks[x], random, 2);
+            threeQuarterBlocks[x] = encode(randomData(random, 8), false);
+            injectErrors(threeQuarterBlocks[x], random, 2);
+        }
+
+        Trellis_1_2_Rate halfRate = new Trellis_1_2_Rate();
+        Trellis_3_4_Rate threeQuarterRate = new Trellis_3_4_Rate();
+        PreviousTrellis_1_2_Rate previousHalfRate = new PreviousTrellis_1_2_Rate();
+        PreviousTrellis_3_4_Rate previousThreeQuarterRate = new PreviousTrellis_3_4_Rate();
+
+        for(int iteration = 0; iteration < BENCHMARK_ITERATIONS; iteration++)
+        {
+            long start = System.nanoTime();
+
+            for(BitBuffer block : halfBlocks)
+            {
+                halfRate.decode(block.copy(), 0, BLOCK_LENGTH);
+            }
+
+            long halfElapsed = System.nanoTime() - start;
+
+            start = System.nanoTime();
+
+            for(BitBuffer block : halfBlocks)
+            {
+                previousHalfRate.decode(block.copy(), 0, BLOCK_LENGTH);
+            }
+
+            long previousHalfElapsed = System.nanoTime() - start;
+
+            start = System.nanoTime();
+
+            for(BitBuffer block : threeQuarterBlocks)
+            {
+                threeQuarterRate.decode(block.copy(), 0, BLOCK_LENGTH);
+            }
+
+            long threeQuarterElapsed = System.nanoTime() - start;
+
+            start = System.nanoTime();
+
+            for(BitBuffer block : threeQuarterBlocks)
+            {
+                previousThreeQuarterRate.decode(block.copy(), 0, BLOCK_LENGTH);
+            }
+
+            long previousThreeQuarterElapsed = System.nanoTime() - start;
+
+            if(iteration == BENCHMARK_ITERATIONS - 1)
+            {
+                mLog.info(String.format("1/2 rate: %.0f blocks/sec (previous %.0f blocks/sec) Speedup: %.2fx",
+                    BENCHMARK_BLOCKS / (halfElapsed / 1E9), BENCHMARK_BLOCKS / (previousHalfElapsed / 1E9),
+                    (double)previousHalfElapsed / halfElapsed));
+                mLog.info(String.format("3/4 rate: %.0f blocks/sec (previous %.0f blocks/sec) Speedup: %.2fx",
+                    BENCHMARK_BLOCKS / (threeQuarterElapsed / 1E9),
+                    BENCHMARK_BLOCKS / (previousThreeQuarterElapsed / 1E9),
+                    (double)previousThreeQuarterElapsed / threeQuarterElapsed));
+            }
+        }
+    }
+
+    /**
+     * Copy of the 1/2 rate decoder that preceded the table-driven Viterbi decoder, retained as the benchmark
+     * baseline.  Each block is loaded into a chain of 49 constellation nodes and broken connections are repaired by
+     * a recursive cheapest cost search.
+     */
+    private static class PreviousTrellis_1_2_Rate
+    {
+        private static final int MAX_ERROR_THRESHOLD = 7;
+
+        private List<ConstellationNode> mConstellationNodes = new ArrayList<>();
+
+        public PreviousTrellis_1_2_Rate()
+        {
+            ConstellationNode previous = null;
+
+            for(int x = 0; x < 49; x++)
+            {
+                ConstellationNode node = new ConstellationNode();
+
+                if(previous != null)
+                {
+                    previous.connect(node);
+                }
+
+                previous = node;
+
+                mConstellationNodes.add(node);
+            }
+        }
+
+        public boolean decode(BitBuffer message, int start, int end)
+        {
+            for(int index = 0; index < 49; index++)
+            {
+                mConstellationNodes.get(index).setConstellation(getConstellation(message, start + index * 4));
+            }
+
+            ConstellationNode firstNode = mConstellationNodes.get(0);
+
+            int errorCount = firstNode.getErrorCount();
+
+            if(errorCount > 0)
+            {
+                if(errorCount < MAX_ERROR_THRESHOLD)
+                {
+                    firstNode.correctTo(Dibit.D00_PLUS_1);
+                }
+                else
+                {
+                    return false;
+                }
+            }
+
+            message.clear(start, end);
+
+            for(int index = 0; index < 49; index++)
+            {
+                Dibit input = mConstellationNodes.get(index).getInputDibit();
+
+                if(input.getBit1())
+                {
+                    message.set(start + (index * 2));
+                }
+                if(input.getBit2())
+                {
+                    message.set(start + (index * 2) + 1);
+                }
+            }
+
+            return true;
+        }
+
+        private Trellis_1_2_Rate.Constellation getConstellation(BitBuffer message, int index)
+        {
+            int transmittedValue = 0;
+
+            for(int x = 0; x < 4; x++)
+            {
+                if(message.get(index + x))
+                {
+                    transmittedValue += (1 << (3 - x));
+                }
+            }
+
+            return Trellis_1_2_Rate.Constellation.fromTransmittedValue(transmittedValue);
+        }
+
+        private class ConstellationNode
+        {
+            private ConstellationNode mConnectedNode;
+            private Trellis_1_2_Rate.Constellation mConstellation;
+            private boolean mCorrect;
+
+            public Dibit getInputDibit()
+            {
+                return mConstellation.getInput();
+            }
+
+            public void correctTo(Dibit stateDibit)
+            {
+                if(mCorrect && mConstellation.getState() == stateDibit)
+                {
+                    return;
+                }
+
+                if(isCurrentConnectionCorrect())
+                {
+                    mConstellation = Trellis_1_2_Rate.Constellation.fromStateAndInputDibits(stateDibit,
+                        mConstellation.getInput());
+
+                    mCorrect = true;
+
+                    if(mConnectedNode != null)
+                    {
+                        mConnectedNode.correctTo(mConstellation.getInput());
+                    }
+                }
+                else
+                {
+                    Trellis_1_2_Rate.Constellation cheapestConstellation = mConstellation;
+
+                    int cheapestCost = 100;
+
+                    for(Dibit testInput : Dibit.values())
+                    {
+                        Trellis_1_2_Rate.Constellation testConstellation =
+                            Trellis_1_2_Rate.Constellation.fromStateAndInputDibits(stateDibit, testInput);
+
+                        int testCost = mConstellation.costTo(testConstellation) + mConnectedNode.costTo(testInput);
+
+                        if(testCost < cheapestCost)
+                        {
+                            cheapestCost = testCost;
+                            cheapestConstellation = testConstellation;
+                        }
+                    }
+
+                    mConstellation = cheapestConstellation;
+
+                    mConnectedNode.correctTo(mConstellation.getInput());
+
+                    mCorrect = true;
+                }
+            }
+
+            public int costTo(Dibit stateTest)
+            {
+                if(isCurrentConnectionCorrect())
+                {
+                    Trellis_1_2_Rate.Constellation c = Trellis_1_2_Rate.Constellation.fromStateAndInputDibits(
+                        stateTest, mConstellation.getInput());
+
+                    return mConstellation.costTo(c);
+                }
+                else
+                {
+                    int cheapestCost = 100;
+
+                    for(Dibit inputTest : Dibit.values())
+                    {
+                        Trellis_1_2_Rate.Constellation constellationTest =
+                            Trellis_1_2_Rate.Constellation.fromStateAndInputDibits(stateTest, inputTest);
+
+                        int cost = mConnectedNode.costTo(inputTest) + mConstellation.costTo(constellationTest);
+
+                        if(cost < cheapestCost)
+                        {
+                            cheapestCost = cost;
+                        }
+                    }
+
+                    return cheapestCost;
+                }
+            }
+
+            public boolean isCurrentConnectionCorrect()
+            {
+                return (mConnectedNode == null || mConstellation.getInput() == mConnectedNode.getStateDibit());
+            }
+
+            public int getErrorCount()
+            {
+                if(mConnectedNode == null)
+                {
+                    mCorrect = true;
+
+                    return 0;
+                }
+
+                mCorrect = mConstellation.getInput() == mConnectedNode.getStateDibit();
+
+                return mConnectedNode.getErrorCount() + (mCorrect ? 0 : 1);
+            }
+
+            public Dibit getStateDibit()
+            {
+                return mConstellation.getState();
+            }
+
+            public void setConstellation(Trellis_1_2_Rate.Constellation constellation)
+            {
+                mConstellation = constellation;
+                mCorrect = false;
+            }
+
+            public void connect(ConstellationNode node)
+            {
+                mConnectedNode = node;
+            }
+        }
+    }
+
+    /**
+     * Copy of the 3/4 rate decoder that preceded the table-driven Viterbi decoder, retained as the benchmark
+     * baseline.  Survivor paths are lists of node objects that are copied whenever a received constellation is
+     * invalid for the path state.
+     */
+    private static class PreviousTrellis_3_4_Rate
+    {
+        private static final Trellis_3_4_Rate.Con[] EVEN_CONSTELLATIONS = new Trellis_3_4_Rate.Con[]{
+            Trellis_3_4_Rate.Con.C0, Trellis_3_4_Rate.Con.C2, Trellis_3_4_Rate.Con.C4, Trellis_3_4_Rate.Con.C6,
+            Trellis_3_4_Rate.Con.C8, Trellis_3_4_Rate.Con.CA, Trellis_3_4_Rate.Con.CC, Trellis_3_4_Rate.Con.CE};
+        private static final Trellis_3_4_Rate.Con[] ODD_CONSTELLATIONS = new Trellis_3_4_Rate.Con[]{
+            Trellis_3_4_Rate.Con.C1, Trellis_3_4_Rate.Con.C3, Trellis_3_4_Rate.Con.C5, Trellis_3_4_Rate.Con.C7,
+            Trellis_3_4_Rate.Con.C9, Trellis_3_4_Rate.Con.CB, Trellis_3_4_Rate.Con.CD, Trellis_3_4_Rate.Con.CF};
+
+        private List<Trellis_3_4_Rate.Con> mTransmittedConstellations = new ArrayList<>();
+        private List<Path> mSurvivorPaths = new ArrayList<>();
+        private List<Path> mNewPaths = new ArrayList<>();
+        private PathMetrics mPathMetrics = new PathMetrics();
+
+        public boolean decode(BitBuffer message, int start, int end)
+        {
+            reset();
+
+            for(int index = 0; index < 49; index++)
+            {
+                int value = message.getInt(start + index * 4, start + index * 4 + 3);
+
+                add(Trellis_3_4_Rate.Con.fromTransmittedValue(value));
+            }
+
+            Path path = mPathMetrics.getPath(Trellis_3_4_Rate.Tribit.T0);
+
+            if(path != null && path.getNodes().size() == 50)
+            {
+                message.clear(start, end);
+
+                List<Node> nodes = path.getNodes();
+
+                for(int x = 1; x < 50; x++)
+                {
+                    message.load(start + ((x - 1) * 3), 3, nodes.get(x).getState().getValue());
+                }
+
+                return true;
+            }
+
+            return false;
+        }
+
+        private void reset()
+        {
+            mTransmittedConstellations.clear();
+            mNewPaths.clear();
+
+            mPathMetrics.reset();
+
+            mSurvivorPaths.clear();
+
+            mSurvivorPaths.add(new Path(new Node(0, Trellis_3_4_Rate.Tribit.T0, Trellis_3_4_Rate.Con.C0)));
+        }
+
+        private void add(Trellis_3_4_Rate.Con con)
+        {
+            mTransmittedConstellations.add(con);
+
+            mSurvivorPaths.addAll(mNewPaths);
+            mNewPaths.clear();
+
+            int survivorThreshold = mPathMetrics.getSurvivorThreshold();
+
+            mPathMetrics.reset();
+
+            Iterator<Path> it = mSurvivorPaths.iterator();
+
+            while(it.hasNext())
+            {
+                Path path = it.next();
+
+                if(path.isDead() || path.getPathMetric() < survivorThreshold)
+                {
+                    it.remove();
+                }
+                else
+                {
+                    path.add(con);
+                }
+            }
+        }
+
+        private class PathMetrics
+        {
+            private Map<Trellis_3_4_Rate.Tribit,Path> mMetrics = new HashMap<>();
+            private int mBestMetric = 0;
+
+            public int getSurvivorThreshold()
+            {
+                return mBestMetric - 3;
+            }
+
+            public void reset()
+            {
+                mMetrics.clear();
+                mBestMetric = 0;
+            }
+
+            public int getMetric(Trellis_3_4_Rate.Tribit tribit)
+            {
+                if(mMetrics.containsKey(tribit))
+                {
+                    return mMetrics.get(tribit).getPathMetric();
+                }
+
+                return 0;
+            }
+
+            public Path getPath(Trellis_3_4_Rate.Tribit tribit)
+            {
+                return mMetrics.get(tribit);
+            }
+
+            public void evaluate(Path path)
+            {
+                Node lastNode = path.getLastNode();
+
+                Path bestPath = mMetrics.get(lastNode.getState());
+
+                if(bestPath == null)
+                {
+                    mMetrics.put(lastNode.getState(), path);
+                }
+                else
+                {
+                    if(path.getPathMetric() < bestPath.getPathMetric())
+                    {
+                        path.setSurvivor(false);
+                    }
+                    else if(path.getPathMetric() > bestPath.getPathMetric())
+                    {
+                        mMetrics.put(lastNode.getState(), path);
+
+                        bestPath.setSurvivor(false);
+                    }
+                }
+
+                if(path.getPathMetric() > mBestMetric)
+                {
+                    mBestMetric = path.getPathMetric();
+                }
+            }
+        }
+
+        private class Path
+        {
+            private boolean mSurvivor = true;
+            private int mPathMetric = 0;
+            private ArrayList<Node> mNodes = new ArrayList<>();
+
+            public Path(Node first)
+            {
+                mNodes.add(first);
+
+                mPathMetric = first.getBranchMetric();
+
+                mPathMetrics.evaluate(this);
+            }
+
+            public Path(ArrayList<Node> nodes, int metric)
+            {
+                mNodes = nodes;
+                mPathMetric = metric;
+            }
+
+            public List<Node> getNodes()
+            {
+                return mNodes;
+            }
+
+            public void setSurvivor(boolean survivor)
+            {
+                mSurvivor = survivor;
+            }
+
+            public boolean isDead()
+            {
+                return !mSurvivor;
+            }
+
+            @SuppressWarnings("unchecked")
+            public Path copyOf()
+            {
+                return new Path((ArrayList<Node>)mNodes.clone(), mPathMetric);
+            }
+
+            public void add(Trellis_3_4_Rate.Con con)
+            {
+                Node current = getLastNode();
+
+                Trellis_3_4_Rate.Tribit input =
+                    Trellis_3_4_Rate.INPUT_FROM_CONSTELLATION_MAP.get(con)[current.getState().getValue()];
+
+                if(input != null)
+                {
+                    add(new Node(mNodes.size(), input, con));
+                }
+                else
+                {
+                    Trellis_3_4_Rate.Con[] constellations = current.getState().getType() ==
+                        Trellis_3_4_Rate.Type.EVEN ? EVEN_CONSTELLATIONS : ODD_CONSTELLATIONS;
+
+                    for(int x = 0; x < 8; x++)
+                    {
+                        Trellis_3_4_Rate.Tribit tribit = Trellis_3_4_Rate.INPUT_FROM_CONSTELLATION_MAP
+                            .get(constellations[x])[current.getState().getValue()];
+
+                        Node candidate = new Node(mNodes.size(), tribit, constellations[x]);
+
+                        if(getPathMetric() + candidate.getBranchMetric() >= mPathMetrics.getMetric(tribit))
+                        {
+                            if(x == 7)
+                            {
+                                add(candidate);
+                            }
+                            else
+                            {
+                                Path path = copyOf();
+
+                                path.add(candidate);
+
+                                mNewPaths.add(path);
+                            }
+                        }
+                    }
+                }
+            }
+
+            public void add(Node node)
+            {
+                mNodes.add(node);
+
+                mPathMetric += node.getBranchMetric();
+
+                mPathMetrics.evaluate(this);
+            }
+
+            public int getPathMetric()
+            {
+                return mPathMetric;
+            }
+
+            public Node getLastNode()
+            {
+                return mNodes.get(mNodes.size() - 1);
+            }
+        }
+
+        private class Node
+        {
+            private int mBranchMetric;
+            private Trellis_3_4_Rate.Tribit mTribit;
+
+            public Node(int index, Trellis_3_4_Rate.Tribit tribit, Trellis_3_4_Rate.Con constellation)
+            {
+                mTribit = tribit;
+
+                if(index > 0)
+                {
+                    mBranchMetric = mTransmittedConstellations.get(index - 1).getMetricTo(constellation);
+                }
+            }
+
+            public Trellis_3_4_Rate.Tribit getState()
+            {
+                return mTribit;
+            }
+
+            public int getBranchMetric()
+            {
+                return mBranchMetric;
+            }
+        }
+    }
+}
@@ -1,24 +1,23 @@
 package module.decode.p25;
 
-import java.util.ArrayList;
 import java.util.Random;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import bits.BinaryMessage;
+import bits.BitBuffer;
 import dsp.symbol.Dibit;
 
 public class Trellis_1_2_Rate
 {
 	public final static int MAX_ERROR_THRESHOLD = 7;
 	
+	/* Number of 4-bit constellations in a 196-bit block */
+	public final static int CONSTELLATION_COUNT = 49;
+	
 	private final static Logger mLog = 
 			LoggerFactory.getLogger( Trellis_1_2_Rate.class );
 
-	private ArrayList<ConstellationNode> mConstellationNodes = 
-				new ArrayList<ConstellationNode>();
-
 	private static final int[][] CONSTELLATION_COSTS = 
 		{ { 0,1,1,2,1,2,2,3,1,2,2,3,2,3,3,4 },
 		  { 1,0,2,1,2,1,3,2,2,1,3,2,3,2,4,3 },
@@ -36,308 +35,174 @@ public class Trellis_1_2_Rate
 		  { 3,2,4,3,2,1,3,2,2,1,3,2,1,0,2,1 },
 		  { 3,4,2,3,2,3,1,2,2,3,1,2,1,2,0,1 },
 		  { 4,3,3,2,3,2,2,1,3,2,2,1,2,1,1,0 } };
-		
-	public Trellis_1_2_Rate()
+	
+	/* State (previous input) and input dibit values for each transmitted 
+	 * constellation value */
+	private static final int[] CONSTELLATION_STATE = new int[ 16 ];
+	private static final int[] CONSTELLATION_INPUT = new int[ 16 ];
+
+	/* Branch cost for each received constellation value, indexed by 
+	 * ( state * 4 ) + input */
+	private static final int[][] BRANCH_COSTS = new int[ 16 ][ 16 ];
+	
+	static
 	{
-		/* Create 49 x 4-bit constellation nodes to handle 196-bit blocks */
-		ConstellationNode previous = null;
+		for( Constellation c: Constellation.values() )
+		{
+			CONSTELLATION_STATE[ c.getTransmittedValue() ] = c.getState().getLowValue();
+			CONSTELLATION_INPUT[ c.getTransmittedValue() ] = c.getInput().getLowValue();
+		}
 		
-		for( int x = 0; x < 49; x++ )
+		for( int received = 0; received < 16; received++ )
 		{
-			ConstellationNode node = new ConstellationNode();
-
-			if( previous != null )
+			for( Constellation c: Constellation.values() )
 			{
-				previous.connect( node );
+				int branch = ( c.getState().getLowValue() * 4 ) + c.getInput().getLowValue();
+				
+				BRANCH_COSTS[ received ][ branch ] = 
+						CONSTELLATION_COSTS[ received ][ c.getTransmittedValue() ];
 			}
-			
-			previous = node;
-			
-			mConstellationNodes.add( node );
 		}
 	}
+
+	/* Preallocated decoder state.  The trellis state is the previous input 
+	 * dibit, so the traceback for each step records the surviving previous 
+	 * state for each of the 4 current states */
+	private int[] mReceived = new int[ CONSTELLATION_COUNT ];
+	private int[] mPathMetrics = new int[ 4 ];
+	private int[] mNextPathMetrics = new int[ 4 ];
+	private int[] mTraceback = new int[ CONSTELLATION_COUNT * 4 ];
+
+	/**
+	 * Table-driven Viterbi decoder for P25 1/2 rate trellis encoded 196-bit 
+	 * data blocks.
+	 */
+	public Trellis_1_2_Rate()
+	{
+	}
 	
 	public void dispose()
 	{
-		for( ConstellationNode node: mConstellationNodes )
-		{
-			node.dispose();
-		}
-		
-		mConstellationNodes.clear();
 	}
-	
-//	private String constellationsToString( String label )
-//	{
-//		StringBuilder sb = new StringBuilder();
-//		
-//		sb.append( label );
-//
-//		for( ConstellationNode node: mConstellationNodes )
-//		{
-//			sb.append( "  " + node.getConstellation().name() );
-//		}
-//		
-//		return sb.toString();
-//	}
-//
-//	private String inputsToString()
-//	{
-//		StringBuilder sb = new StringBuilder();
-//		
-//		sb.append( "  INPUTS: " );
-//
-//		for( ConstellationNode node: mConstellationNodes )
-//		{
-//			sb.append( "  " );
-//			sb.append( ( node.getConstellation().getInput().getBit1() ? "1" : "0" ) );
-//			sb.append( ( node.getConstellation().getInput().getBit2() ? "1" : "0" ) );
-//		}
-//		
-//		return sb.toString();
-//	}
 
-	public boolean decode( BinaryMessage message, int start, int end )
+	/**
+	 * Decodes the 196-bit 1/2 rate trellis encoded block located between start
+	 * and end indexes and overlays the 98 decoded bits upon the original 
+	 * message, with the remaining bits cleared to zero.
+	 * 
+	 * @return true if the block was decoded, or false if the block contains 
+	 * too many errors to decode
+	 */
+	public boolean decode( BitBuffer message, int start, int end )
 	{
-		/* load each of the nodes with de-interleaved constellations */
-		for( int index = 0; index < 49; index++ )
+		/* load the de-interleaved constellations */
+		for( int index = 0; index < CONSTELLATION_COUNT; index++ )
 		{
-			Constellation c = getConstellation( message, start + index * 4 );
-
-			mConstellationNodes.get( index ).setConstellation( c );
+			mReceived[ index ] = message.getInt( start + index * 4, 
+					start + index * 4 + 3 );
 		}
 
-		/* test to see if constellations are correct - otherwise correct them */
-		ConstellationNode firstNode = mConstellationNodes.get( 0 );
-
-		int errorCount = firstNode.getErrorCount();
-
-		if( errorCount > 0 )
-		{
-			if( errorCount < MAX_ERROR_THRESHOLD )
-			{
-				/* repair the errors */
-				firstNode.correctTo( Dibit.D00_PLUS_1 );
-			}
-			else
-			{
-				return false;
-			}
-		}
+		/* count the broken connections between received constellations, where
+		 * the input of a constellation doesn't match the state of the next */
+		int errorCount = 0;
 		
-		/* clear constellations from original message */
-		message.clear( start, end );
-
-		/* replace with decoded values from the constellation nodes */
-		for( int index = 0; index < 49; index++ )
+		for( int index = 0; index < CONSTELLATION_COUNT - 1; index++ )
 		{
-			ConstellationNode node = mConstellationNodes.get( index );
-			
-			Dibit input = node.getInputDibit();
-			
-			if( input.getBit1() )
-			{
-				message.set( start + ( index * 2 ) );
-			}
-			if( input.getBit2() )
+			if( CONSTELLATION_INPUT[ mReceived[ index ] ] != 
+				CONSTELLATION_STATE[ mReceived[ index + 1 ] ] )
 			{
-				message.set( start + ( index * 2 ) + 1 );
+				errorCount++;
 			}
 		}
 		
-		return true;
-	}
-	
-	private Constellation getConstellation( BinaryMessage message, int index )
-	{
-		int transmittedValue = 0;
-		
-		for( int x = 0; x < 4; x++ )
+		if( errorCount >= MAX_ERROR_THRESHOLD )
 		{
-			if( message.get( index + x ) )
-			{
-				transmittedValue += ( 1 << ( 3 - x ) );
-			}
+			return false;
 		}
 		
-		return Constellation.fromTransmittedValue( transmittedValue );
-	}
-	
-	public class ConstellationNode
-	{
-		private ConstellationNode mConnectedNode;
-		private Constellation mConstellation;
-		private boolean mCorrect;
-		
-		public ConstellationNode()
+		if( errorCount > 0 )
 		{
+			viterbi();
 		}
-		
-		public void dispose()
+		else
 		{
-			mConnectedNode = null;
+			/* error free - the inputs are the received constellation inputs */
+			for( int index = 0; index < CONSTELLATION_COUNT; index++ )
+			{
+				mReceived[ index ] = CONSTELLATION_INPUT[ mReceived[ index ] ];
+			}
 		}
 		
-		public Constellation getConstellation()
+		/* clear constellations from original message */
+		message.clear( start, end );
+
+		/* replace with decoded input dibits */
+		for( int index = 0; index < CONSTELLATION_COUNT; index++ )
 		{
-			return mConstellation;
+			message.load( start + ( index * 2 ), 2, mReceived[ index ] );
 		}
 		
-		public Dibit getInputDibit()
-		{
-			return mConstellation.getInput();
-		}
+		return true;
+	}
+
+	/**
+	 * Add-compare-select across the received constellations starting from 
+	 * state 0, followed by a traceback from the lowest cost final state.  
+	 * Replaces the received constellation values with the decoded input dibits.
+	 */
+	private void viterbi()
+	{
+		int[] metrics = mPathMetrics;
+		int[] next = mNextPathMetrics;
 		
-		public boolean hasStateDibit( Dibit dibit )
-		{
-			return mConstellation.getState() == dibit;
-		}
+		metrics[ 0 ] = 0;
+		metrics[ 1 ] = metrics[ 2 ] = metrics[ 3 ] = Integer.MAX_VALUE / 2;
 		
-		/**
-		 * Executes a correction down the line of connected nodes.  Only nodes
-		 * with the mCorrect flag set to false will be corrected.
-		 * 
-		 * Note: Assumes that the starting node's value is 0.  Initiate the 
-		 * corrective sequence by invoking this method with Dibit.D0 on the
-		 * first node.
-		 * 
-		 * @param stateDibit to use for the left side.
-		 */
-		public void correctTo( Dibit stateDibit )
+		for( int index = 0; index < CONSTELLATION_COUNT; index++ )
 		{
-			if( mCorrect && mConstellation.getState() == stateDibit )
-			{
-				return;
-			}
+			int[] costs = BRANCH_COSTS[ mReceived[ index ] ];
+			int traceback = index * 4;
 			
-			if( isCurrentConnectionCorrect() )
-			{
-				mConstellation = Constellation.fromStateAndInputDibits( stateDibit, 
-						mConstellation.getInput() );
-
-				mCorrect = true;
-				
-				if( mConnectedNode != null )
-				{
-					/* the next node's state was this node's input */
-					mConnectedNode.correctTo( mConstellation.getInput() );
-				}
-			}
-			else
-			{
-				Constellation cheapestConstellation = mConstellation;
-				
-				int cheapestCost = 100; //arbitrary
-				
-				for( Dibit testInput: Dibit.values() )
-				{
-					Constellation testConstellation = Constellation
-							.fromStateAndInputDibits( stateDibit, testInput );
-					
-					int testCost = mConstellation.costTo( testConstellation ) + 
-								   mConnectedNode.costTo( testInput );
-
-					if( testCost < cheapestCost )
-					{
-						cheapestCost = testCost;
-						cheapestConstellation = testConstellation;
-					}
-				}
-
-				mConstellation = cheapestConstellation;
-				
-				mConnectedNode.correctTo( mConstellation.getInput() );
-				
-				mCorrect = true;
-			}
-		}
-
-		/**
-		 * Calculates the cost (hamming distance) of using the argument as the
-		 * state dibit for the current node, and recursively finding the
-		 * cheapest corresponding input dibit.
-		 * 
-		 * @param stateTest
-		 * @return
-		 */
-		public int costTo( Dibit stateTest )
-		{
-			if( isCurrentConnectionCorrect() )
+			for( int input = 0; input < 4; input++ )
 			{
-				Constellation c = Constellation.fromStateAndInputDibits( 
-						stateTest, mConstellation.getInput() );
+				int best = metrics[ 0 ] + costs[ input ];
+				int survivor = 0;
 				
-				return mConstellation.costTo( c );
-			}
-			else
-			{
-				int cheapestCost = 100; //arbitrary
-				
-				for( Dibit inputTest: Dibit.values() )
+				for( int state = 1; state < 4; state++ )
 				{
-					Constellation constellationTest = 
-						Constellation.fromStateAndInputDibits( stateTest, inputTest );
-					
-					int cost = mConnectedNode.costTo( inputTest ) + 
-							   mConstellation.costTo( constellationTest );
+					int metric = metrics[ state ] + costs[ ( state * 4 ) + input ];
 					
-					if( cost < cheapestCost )
+					if( metric < best )
 					{
-						cheapestCost = cost;
+						best = metric;
+						survivor = state;
 					}
 				}
 				
-				return cheapestCost;
-			}
-		}
-
-		/**
-		 * Indicates if the immediate connection to the right is correct
-		 */
-		public boolean isCurrentConnectionCorrect()
-		{
-			return ( mConnectedNode == null || 
-					 mConstellation.getInput() == mConnectedNode.getStateDibit() );
-		}
-		
-		/**
-		 * Executes a recursive call to all nodes to the right, setting the 
-		 * mCorrect flag on all nodes to true, if the node's connection to the
-		 * right node is correct and all nodes to the right are correct.  Or,
-		 * false if this node's connection, or any node's connection to the
-		 * right is incorrect.
-		 * 
-		 * @return - true - all node connections to the right are correct
-		 * 			 false - one or more nodes to the right are incorrect
-		 */
-		public int getErrorCount()
-		{
-			if( mConnectedNode == null )
-			{
-				mCorrect = true;
-				
-				return 0;
+				next[ input ] = best;
+				mTraceback[ traceback + input ] = survivor;
 			}
 			
-			mCorrect = mConstellation.getInput() == mConnectedNode.getStateDibit();
-
-			return mConnectedNode.getErrorCount() + ( mCorrect ? 0 : 1 );
+			int[] temp = metrics;
+			metrics = next;
+			next = temp;
 		}
 		
-		public Dibit getStateDibit()
-		{
-			return mConstellation.getState();
-		}
+		int state = 0;
 		
-		public void setConstellation( Constellation constellation )
+		for( int x = 1; x < 4; x++ )
 		{
-			mConstellation = constellation;
-			mCorrect = false;
+			if( metrics[ x ] < metrics[ state ] )
+			{
+				state = x;
+			}
 		}
 		
-		public void connect( ConstellationNode node )
+		/* The state after each constellation is that constellation's input */
+		for( int index = CONSTELLATION_COUNT - 1; index >= 0; index-- )
 		{
-			mConnectedNode = node;
+			mReceived[ index ] = state;
+			state = mTraceback[ ( index * 4 ) + state ];
 		}
 	}
 	
@@ -500,7 +365,7 @@ public class Trellis_1_2_Rate
 	{
 		Random random = new Random();
 		
-		BinaryMessage buffer = new BinaryMessage( 196 );
+		BitBuffer buffer = new BitBuffer( 196 );
 		
 		try
 		{
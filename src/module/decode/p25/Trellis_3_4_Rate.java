@@ -1,14 +1,11 @@
 package module.decode.p25;
 
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Iterator;
-import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import bits.BinaryMessage;
+import bits.BitBuffer;
 import dsp.symbol.Dibit;
 
 public class Trellis_3_4_Rate
@@ -16,6 +13,12 @@ public class Trellis_3_4_Rate
 	private final static Logger mLog = 
 			LoggerFactory.getLogger( Trellis_3_4_Rate.class );
 
+	/* Number of 4-bit constellations in a 196-bit block */
+	public final static int CONSTELLATION_COUNT = 49;
+
+	/* Maximum number of bit errors (of 196) along the decoded path */
+	public final static int MAX_BIT_ERRORS = 12;
+	
 	/* Hamming distance (bit match count) between constellation pairs */
 	private static final int[][] CONSTELLATION_METRICS = 
 		{ { 4,3,3,2,3,2,2,1,3,2,2,1,2,1,1,0 },
@@ -35,28 +38,51 @@ public class Trellis_3_4_Rate
 		  { 1,0,2,1,2,1,3,2,2,1,3,2,3,2,4,3 },
 		  { 0,1,1,2,1,2,2,3,1,2,2,3,2,3,3,4 } };
 	
-	/* Even valued state tribits can only produce even valued constellations
-	 * and odd valued state tribits can only produce odd constellations. */
-	public static Con[] EVEN_CONSTELLATIONS = new Con[] { Con.C0,Con.C2,Con.C4,
-		Con.C6,Con.C8,Con.CA,Con.CC,Con.CE };
-	public static Con[] ODD_CONSTELLATIONS = new Con[] { Con.C1,Con.C3,Con.C5,
-		Con.C7,Con.C9,Con.CB,Con.CD,Con.CF };
-
 	/* Constellation and state tribit lookup map to find the input tribit */
 	public static HashMap<Con,Tribit[]> INPUT_FROM_CONSTELLATION_MAP;
 	
-	private ArrayList<Con> mTransmittedConstellations = new ArrayList<Con>();
-	private ArrayList<Path> mSurvivorPaths = new ArrayList<Path>();
-	private ArrayList<Path> mNewPaths = new ArrayList<Path>();
-	private PathMetrics mPathMetrics = new PathMetrics();
+	/* Branch metric for each received constellation value, indexed by 
+	 * ( state * 8 ) + input */
+	private static final int[][] BRANCH_METRICS = new int[ 16 ][ 64 ];
+	
+	static
+	{
+		createConstellationToTribitMap();
+
+		for( Con con: Con.values() )
+		{
+			Tribit[] inputs = INPUT_FROM_CONSTELLATION_MAP.get( con );
+			
+			for( int state = 0; state < 8; state++ )
+			{
+				if( inputs[ state ] != null )
+				{
+					int branch = ( state * 8 ) + inputs[ state ].getValue();
+					
+					for( int received = 0; received < 16; received++ )
+					{
+						BRANCH_METRICS[ received ][ branch ] = 
+							CONSTELLATION_METRICS[ received ][ con.getTransmittedValue() ];
+					}
+				}
+			}
+		}
+	}
+
+	/* Preallocated decoder state.  The trellis state is the previous input 
+	 * tribit, so the traceback for each step records the surviving previous 
+	 * state for each of the 8 current states */
+	private int[] mReceived = new int[ CONSTELLATION_COUNT ];
+	private int[] mPathMetrics = new int[ 8 ];
+	private int[] mNextPathMetrics = new int[ 8 ];
+	private int[] mTraceback = new int[ CONSTELLATION_COUNT * 8 ];
 
 	/**
-	 * Implements the Viterbi algorithm to decode 3/4 rate trellis encoded 196-bit
-	 * packet data messages.
+	 * Implements a table-driven Viterbi algorithm to decode 3/4 rate trellis 
+	 * encoded 196-bit packet data messages.
 	 */
 	public Trellis_3_4_Rate()
 	{
-		createConstellationToTribitMap();
 	}
 
 	/**
@@ -65,7 +91,7 @@ public class Trellis_3_4_Rate
 	 * tribit's value as the lookup index.  Null values indicate illegal state
 	 * and input combinations for the specified constellation.
 	 */
-	private void createConstellationToTribitMap()
+	private static void createConstellationToTribitMap()
 	{
 		INPUT_FROM_CONSTELLATION_MAP = new HashMap<Con,Tribit[]>();
 		
@@ -92,7 +118,6 @@ public class Trellis_3_4_Rate
 	 */
 	public void dispose()
 	{
-		reset();
 	}
 	
 	/**
@@ -100,429 +125,86 @@ public class Trellis_3_4_Rate
 	 * start and end indexes and returns the decoded 144-bit message overlayed 
 	 * upon the original message with the remaining 52 bits cleared to zero.
 	 * 
-	 * @return - original message with decoded message bits..
+	 * The encoder starts in tribit 000 and is flushed with tribit 000, so the
+	 * decoded path must start and end in state 0.
+	 * 
+	 * @return true if the block was decoded, or false if the decoded path 
+	 * contains too many bit errors.
 	 */
-	public boolean decode( BinaryMessage message, int start, int end )
+	public boolean decode( BitBuffer message, int start, int end )
 	{
-		reset();
-		
-		/* Load and decode each of the transmitted constellations */
-		for( int index = 0; index < 49; index++ )
+		for( int index = 0; index < CONSTELLATION_COUNT; index++ )
 		{
-			Con c = getConstellation( message, start + index * 4 );
-			
-			add( c );
+			mReceived[ index ] = message.getInt( start + index * 4, 
+					start + index * 4 + 3 );
 		}
 
-		/* The final decoded survivor path should be at path metrics tribit 0 */
-		Path path = mPathMetrics.getPath( Tribit.T0 );
-
-		/* We should have a path with 50 nodes, counting the starting 000 node
-		 * and the flushing 000 node, otherwise there was an error */
-		if( path != null && path.getNodes().size() == 50 )
-		{
-			/* Clear the original message bits */
-			message.clear( start, end );
+		int[] metrics = mPathMetrics;
+		int[] next = mNextPathMetrics;
 
-			List<Node> nodes = path.getNodes();
-			
-			/* Load each of the nodes' state tribit values into the original message */
-			for( int x = 1; x < 50; x++ )
-			{
-				message.load( start + ( ( x - 1 ) * 3 ), 3, 
-						nodes.get( x ).getState().getValue() );
-			}
-			
-			return true;
-		}
-
-		return false;
-	}
-	
-	/**
-	 * Resets the decoder before decoding a new data packet.
-	 */
-	private void reset()
-	{
-		mTransmittedConstellations.clear();
-		mNewPaths.clear();
-		
-		mPathMetrics.reset();
-		
-		mSurvivorPaths.clear();
-		
 		/* Tribit 000 is the only legal start point */
-		mSurvivorPaths.add( new Path( new Node( 0, Tribit.T0, Con.C0 ) ) );
-	}
-
-	private void add( Con con )
-	{
-		mTransmittedConstellations.add( con );
-
-		/* Add in any newly created survivor paths */
-		mSurvivorPaths.addAll( mNewPaths );
-		mNewPaths.clear();
-
-		/* Set a culling threshold for any path metrics 3 below the best path */
-		int survivorThreshold = mPathMetrics.getSurvivorThreshold();
-		
-		/* Reset path metrics */
-		mPathMetrics.reset();
-		
-		/* Add constellation to each survivor path.  If a survivor path metric
-		 * falls below the culling threshold, remove it */
-		Iterator<Path> it = mSurvivorPaths.iterator();
-
-		Path path;
-		
-		while( it.hasNext() )
-		{
-			path = it.next();
-
-			if( path.isDead() || path.getPathMetric() < survivorThreshold )
-			{
-				it.remove();
-			}
-			else
-			{
-				path.add( con );
-			}
-		}
-	}
-	
-	private Con getConstellation( BinaryMessage message, int index )
-	{
-		int value = message.getInt( index, index + 3 );
-		return Con.fromTransmittedValue( value );
-	}
-
-	/**
-	 * Path metrics maintains a map of the current best path metrics that end 
-	 * at each of the 8 valid tribit values.  Each new path is evaluated against 
-	 * the current best path for retention (survivor) or disposal (dead).  A 
-	 * best metric is maintained to evaluate the Walking Dead for disposal.  
-	 * Walking dead is a path lagging the best path metric by more than 3.
-	 */
-	public class PathMetrics
-	{
-		private HashMap<Tribit,Path> mMetrics = new HashMap<Tribit,Path>();
-		
-		private int mBestMetric = 0;
-		
-		public PathMetrics()
-		{
-		}
-		
-		public int getSurvivorThreshold()
-		{
-			return mBestMetric - 3;
-		}
+		metrics[ 0 ] = 0;
 		
-		/**
-		 * Removes all path metrics
-		 */
-		public void reset()
+		for( int state = 1; state < 8; state++ )
 		{
-			mMetrics.clear();
-			mBestMetric = 0;
+			metrics[ state ] = Integer.MIN_VALUE / 2;
 		}
 		
-		public int getMetric( Tribit tribit )
+		/* Add-compare-select - metrics are bit match counts, higher is better */
+		for( int index = 0; index < CONSTELLATION_COUNT; index++ )
 		{
-			if( mMetrics.containsKey( tribit ) )
-			{
-				return mMetrics.get( tribit ).getPathMetric();
-			}
-			
-			return 0;
-		}
-		
-		public Path getPath( Tribit tribit )
-		{
-			return mMetrics.get( tribit );
-		}
-		
-		/**
-		 * Evaluates the path's metric against the current best path metric for
-		 * the final state tribit of the path.  If the path's metric is higher
-		 * than the current best path metric, the current path is marked for
-		 * termination and the new path is promoted to best path.  If the new
-		 * path's metric is less than the best path metric, then the new path 
-		 * metric is marked for termination.  If the metrics are equal, the new
-		 * path is allowed to survive.
-		 * 
-		 * @param path/metric to evaluate
-		 */
-		public void evalute( Path path )
-		{
-			Node lastNode = path.getLastNode();
-
-			Path bestPath = mMetrics.get( lastNode.getState() );
+			int[] branchMetrics = BRANCH_METRICS[ mReceived[ index ] ];
+			int traceback = index * 8;
 			
-			if( bestPath == null )
+			for( int input = 0; input < 8; input++ )
 			{
-				mMetrics.put( lastNode.getState(), path );
-			}
-			else
-			{
-				if( path.getPathMetric() < bestPath.getPathMetric() )
-				{
-					path.setSurvivor( false );
-				}
-				else if( path.getPathMetric() > bestPath.getPathMetric() )
+				int best = metrics[ 0 ] + branchMetrics[ input ];
+				int survivor = 0;
+				
+				for( int state = 1; state < 8; state++ )
 				{
-					mMetrics.put( lastNode.getState(), path );
-
-					bestPath.setSurvivor( false );
+					int metric = metrics[ state ] + branchMetrics[ ( state * 8 ) + input ];
+					
+					if( metric > best )
+					{
+						best = metric;
+						survivor = state;
+					}
 				}
 				
-				/* Equal metric paths are allowed to survive */
+				next[ input ] = best;
+				mTraceback[ traceback + input ] = survivor;
 			}
 			
-			/* Capture the best path metric */
-			if( path.getPathMetric() > mBestMetric )
-			{
-				mBestMetric = path.getPathMetric();
-			}
-		}
-	}
-	
-	/**
-	 * Path is a sequence of nodes where the starting node always contains 
-	 * tribit 0 and constellation 0.  Path maintains a running path metric 
-	 * derived from the sum of each of the node's branch metrics.
-	 */
-	public class Path
-	{
-		private boolean mSurvivor = true;
-		private int mPathMetric = 0;
-		private ArrayList<Node> mNodes = new ArrayList<Node>();
-		
-		public Path( Node first )
-		{
-			mNodes.add( first );
-			
-			mPathMetric = first.getBranchMetric();
-			
-			mPathMetrics.evalute( this );
-		}
-		
-		public Path( ArrayList<Node> nodes, int metric )
-		{
-			mNodes = nodes;
-			mPathMetric = metric;
-		}
-		
-		public List<Node> getNodes()
-		{
-			return mNodes;
-		}
-		
-		public int getBitErrorCount()
-		{
-			return ( getLastNode().getIndex() * 4 ) - mPathMetric;
-		}
-		
-		public void setSurvivor( boolean survivor )
-		{
-			mSurvivor = survivor;
-		}
-		
-		public boolean isSurvivor()
-		{
-			return mSurvivor;
+			int[] temp = metrics;
+			metrics = next;
+			next = temp;
 		}
 
-		public boolean isDead()
-		{
-			return !mSurvivor;
-		}
+		/* The final decoded survivor path must end at tribit 0 (flushed) */
+		int bitErrors = ( CONSTELLATION_COUNT * 4 ) - metrics[ 0 ];
 		
-		@SuppressWarnings( "unchecked" )
-		public Path copyOf()
+		if( bitErrors > MAX_BIT_ERRORS )
 		{
-			return new Path( (ArrayList<Node>)mNodes.clone(), mPathMetric );
+			return false;
 		}
 
-		/**
-		 * Adds the constellation and returns any new paths created as a result
-		 * of the constellation being detected as an errant constellation.
-		 */
-		public void add( Con con )
-		{
-			Node current = getLastNode();
-			
-			Tribit input = INPUT_FROM_CONSTELLATION_MAP
-					.get( con )[ current.getState().getValue() ];
-
-			/* A non-null input tribit from the lookup table is valid, otherwise
-			 * create 8 alternate branches from the original path to explore 
-			 * where the error occurred. */
-			if( input != null )
-			{
-				add( new Node( mNodes.size(), input, con ) );
-			}
-			else
-			{
-				/* Create new paths for each of the valid constellations that
-				 * correspond to the parity of the current state tribit */
-				Con[] constellations = current.getState().getType() == 
-						Type.EVEN ? EVEN_CONSTELLATIONS : ODD_CONSTELLATIONS;
-				
-				for( int x = 0; x < 8; x++ )
-				{
-					/* Get the input tribit corresponding to the state tribit
-					 * and constellation combination */
-					Tribit tribit = INPUT_FROM_CONSTELLATION_MAP
-						.get( constellations[ x ] )[ current.getState().getValue() ];
+		/* Clear the original message bits */
+		message.clear( start, end );
 
-					Node candidate = new Node( mNodes.size(), tribit, constellations[ x ] );
-
-					/* If the current path metric plus the candidate node's 
-					 * branch metric is equal or better than the current best 
-					 * metric for the given tribit, add it as a potential path, 
-					 * otherwise discard it */
-					if( this.getPathMetric() + candidate.getBranchMetric() >= 
-								mPathMetrics.getMetric( tribit ) )
-					{
-						/* If this is the final constellation of the set, simply 
-						 * add it to the existing path ... */
-						if( x == 7 )
-						{
-							add( candidate );
-						}
-						/* ... otherwise create a copy of the current path */
-						else
-						{
-							Path path = this.copyOf();
-							
-							path.add( candidate );
-							
-							mNewPaths.add( path );
-						}
-					}
-				}
-			}
-		}
+		/* Trace back from state 0, loading each input tribit into the message */
+		int state = 0;
 		
-		public void add( Node node )
+		for( int index = CONSTELLATION_COUNT - 1; index >= 0; index-- )
 		{
-			mNodes.add( node );
+			message.load( start + ( index * 3 ), 3, state );
 			
-			mPathMetric += node.getBranchMetric();
-			
-			mPathMetrics.evalute( this );
+			state = mTraceback[ ( index * 8 ) + state ];
 		}
 		
-		public int getPathMetric()
-		{
-			return mPathMetric;
-		}
-		
-		public Node getLastNode()
-		{
-			return mNodes.get( mNodes.size() - 1 );
-		}
-		
-		public String toString()
-		{
-			StringBuilder sb = new StringBuilder();
-
-			sb.append( "PATH [" );
-			sb.append( mNodes.size() );
-			sb.append( "-" );
-			sb.append( mPathMetric );
-			sb.append( "] " );
-			
-			for( Node node: mNodes )
-			{
-				sb.append( node.getState().name() );
-				sb.append( "/" );
-				sb.append( node.getConstellation().name() );
-				sb.append( " " );
-			}
-			
-			sb.append( mSurvivor ? "SURVIVOR" : "DEAD" );
-			
-			return sb.toString();
-		}
+		return true;
 	}
 
-	/**
-	 * Trellis node containing the constellation used to produce the node and
-	 * the input tribit for the constellation.
-	 */
-	public class Node
-	{
-		private int mIndex;
-		private int mBranchMetric;
-		private Tribit mTribit;
-		private Con mConstellation;
-		
-		public Node( int index, Tribit tribit, Con constellation )
-		{
-			mIndex = index;
-			mTribit = tribit;
-			mConstellation = constellation;
-
-			if( mIndex > 0 )
-			{
-				Con transmitted = mTransmittedConstellations.get( index - 1 );
-				
-				if( transmitted == null )
-				{
-					throw new IllegalArgumentException( "Cannot calculate "
-						+ "metric - transmitted constellation symbol is null" );
-				}
-				
-				mBranchMetric = transmitted.getMetricTo( constellation );
-			}
-		}
-		
-		public int getIndex()
-		{
-			return mIndex;
-		}
-		
-		public Tribit getState()
-		{
-			return mTribit;
-		}
-		
-		public Con getConstellation()
-		{
-			return mConstellation;
-		}
-		
-		public int getBranchMetric()
-		{
-			return mBranchMetric;
-		}
-		
-		public String toString()
-		{
-			StringBuilder sb = new StringBuilder();
-			
-			sb.append( "Node " );
-			sb.append( mIndex );
-			sb.append( " Metric:"  );
-			sb.append( mBranchMetric );
-			sb.append( " Con:" );
-			sb.append( mConstellation.name() );
-			sb.append( " State:" );
-			if( mTribit == null )
-			{
-				sb.append( "null" );
-			}
-			else
-			{
-				sb.append( mTribit.name() );
-			}
-			
-			return sb.toString();
-		}
-	}
-	
 	/**
 	 * Constellation Type.  Constellations are classified as even or add based
 	 * on the the composition/comparison of the transmitted (representative) 
@@ -642,7 +324,7 @@ public class Trellis_3_4_Rate
 	{
 		String raw = "12:58:51.635 DEBUG dsp.fsk.P25MessageFramer - AFTER  DEINTERLEAVE: 00100110000011001010010101111101000101010110100111111100101011000111011011000110000000000000000000000111111101011000001000001111000110000000000010101011110110010000000001011011000000010100011110110001000010100100011111000000000100000000000000000000010000000000001100000000000000011010101010101010101010100010001010000110010111111101101000001010000010100000101000001010000010100000101000001010000010100000101000001010000010100000101000001010000010100000010111001001000011100101011010101010101001010011";
 		
-		BinaryMessage message = BinaryMessage.load( raw );
+		BitBuffer message = BitBuffer.load( raw );
 		
 		mLog.debug( "MSG: " + message.toString() );
 		
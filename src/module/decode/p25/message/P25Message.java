@@ -20,7 +20,7 @@ package module.decode.p25.message;
 
 import alias.Alias;
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 import edac.CRC;
 import map.Plottable;
 import message.Message;
@@ -40,13 +40,13 @@ public class P25Message extends Message
 
     protected SimpleDateFormat mTimeDurationFormat = new SimpleDateFormat("HH:mm:ss.SSS");
 
-    protected BinaryMessage mMessage;
+    protected BitBuffer mMessage;
     protected DataUnitID mDUID;
     protected AliasList mAliasList;
 
     protected CRC[] mCRC;
 
-    public P25Message(BinaryMessage message, DataUnitID duid, AliasList aliasList)
+    public P25Message(BitBuffer message, DataUnitID duid, AliasList aliasList)
     {
         super();
 
@@ -60,7 +60,7 @@ public class P25Message extends Message
         return mCRC;
     }
 
-    public BinaryMessage getSourceMessage()
+    public BitBuffer getSourceMessage()
     {
         return mMessage;
     }
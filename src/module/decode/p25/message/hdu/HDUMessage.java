@@ -8,7 +8,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 import edac.CRC;
 import edac.Golay18;
 import edac.ReedSolomon_63_47_17;
@@ -76,7 +76,7 @@ public class HDUMessage extends P25Message
 	public static final ReedSolomon_63_47_17 mReedSolomonDecoder = 
 			new ReedSolomon_63_47_17( 8 );
 	
-	public HDUMessage( BinaryMessage message, DataUnitID duid,
+	public HDUMessage( BitBuffer message, DataUnitID duid,
             AliasList aliasList )
     {
 	    super( message, duid, aliasList );
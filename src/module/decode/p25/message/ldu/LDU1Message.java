@@ -1,7 +1,7 @@
 package module.decode.p25.message.ldu;
 
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 import edac.CRC;
 import edac.Hamming10;
 import edac.ReedSolomon_63_47_17;
@@ -55,7 +55,7 @@ public class LDU1Message extends LDUMessage
     public static final ReedSolomon_63_47_17 mReedSolomonDecoder =
         new ReedSolomon_63_47_17(6);
 
-    public LDU1Message(BinaryMessage message, DataUnitID duid,
+    public LDU1Message(BitBuffer message, DataUnitID duid,
                        AliasList aliasList)
     {
         super(message, duid, aliasList);
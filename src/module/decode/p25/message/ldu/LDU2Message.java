@@ -7,7 +7,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 import edac.CRC;
 import edac.Hamming10;
 import edac.ReedSolomon_63_47_17;
@@ -60,7 +60,7 @@ public class LDU2Message extends LDUMessage
 	public static final ReedSolomon_63_47_17 mReedSolomonDecoder = 
 			new ReedSolomon_63_47_17( 4 );
 
-	public LDU2Message( BinaryMessage message, DataUnitID duid,
+	public LDU2Message( BitBuffer message, DataUnitID duid,
             AliasList aliasList )
     {
 	    super( message, duid, aliasList );
@@ -10,7 +10,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 
 public abstract class LDUMessage extends P25Message
 {
@@ -29,7 +29,7 @@ public abstract class LDUMessage extends P25Message
 	public static final int[] LOW_SPEED_DATA = { 1456,1457,1458,1459,1460,1461,
 		1462,1463,1472,1473,1474,1475,1476,1477,1478,1479 };
 
-	public LDUMessage( BinaryMessage message, DataUnitID duid,
+	public LDUMessage( BitBuffer message, DataUnitID duid,
             AliasList aliasList )
     {
 	    super( message, duid, aliasList );
@@ -76,15 +76,15 @@ public abstract class LDUMessage extends P25Message
 	{
 		List<byte[]> frames = new ArrayList<byte[]>();
 		
-		frames.add( mMessage.get( IMBE_FRAME_1, IMBE_FRAME_1 + 144 ).toByteArray() );
-		frames.add( mMessage.get( IMBE_FRAME_2, IMBE_FRAME_2 + 144 ).toByteArray() );
-		frames.add( mMessage.get( IMBE_FRAME_3, IMBE_FRAME_3 + 144 ).toByteArray() );
-		frames.add( mMessage.get( IMBE_FRAME_4, IMBE_FRAME_4 + 144 ).toByteArray() );
-		frames.add( mMessage.get( IMBE_FRAME_5, IMBE_FRAME_5 + 144 ).toByteArray() );
-		frames.add( mMessage.get( IMBE_FRAME_6, IMBE_FRAME_6 + 144 ).toByteArray() );
-		frames.add( mMessage.get( IMBE_FRAME_7, IMBE_FRAME_7 + 144 ).toByteArray() );
-		frames.add( mMessage.get( IMBE_FRAME_8, IMBE_FRAME_8 + 144 ).toByteArray() );
-		frames.add( mMessage.get( IMBE_FRAME_9, IMBE_FRAME_9 + 144 ).toByteArray() );
+		frames.add( mMessage.toLittleEndianByteArray( IMBE_FRAME_1, IMBE_FRAME_1 + 144 ) );
+		frames.add( mMessage.toLittleEndianByteArray( IMBE_FRAME_2, IMBE_FRAME_2 + 144 ) );
+		frames.add( mMessage.toLittleEndianByteArray( IMBE_FRAME_3, IMBE_FRAME_3 + 144 ) );
+		frames.add( mMessage.toLittleEndianByteArray( IMBE_FRAME_4, IMBE_FRAME_4 + 144 ) );
+		frames.add( mMessage.toLittleEndianByteArray( IMBE_FRAME_5, IMBE_FRAME_5 + 144 ) );
+		frames.add( mMessage.toLittleEndianByteArray( IMBE_FRAME_6, IMBE_FRAME_6 + 144 ) );
+		frames.add( mMessage.toLittleEndianByteArray( IMBE_FRAME_7, IMBE_FRAME_7 + 144 ) );
+		frames.add( mMessage.toLittleEndianByteArray( IMBE_FRAME_8, IMBE_FRAME_8 + 144 ) );
+		frames.add( mMessage.toLittleEndianByteArray( IMBE_FRAME_9, IMBE_FRAME_9 + 144 ) );
 
 		return frames;
 	}
@@ -8,7 +8,7 @@ import module.decode.p25.reference.PDUFormat;
 import module.decode.p25.reference.ServiceAccessPoint;
 import module.decode.p25.reference.Vendor;
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 import edac.CRC;
 
 public class PDUMessage extends P25Message
@@ -27,7 +27,7 @@ public class PDUMessage extends P25Message
 	public static final int[] PDU_CRC = { 144,145,146,147,148,149,150,151,152,
 		153,154,155,156,157,158,159 };
 
-	public PDUMessage( BinaryMessage message, DataUnitID duid, AliasList aliasList )
+	public PDUMessage( BitBuffer message, DataUnitID duid, AliasList aliasList )
     {
         super( message, duid, aliasList );
 
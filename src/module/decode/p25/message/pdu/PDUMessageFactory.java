@@ -25,11 +25,11 @@ import module.decode.p25.reference.Opcode;
 import module.decode.p25.reference.PDUFormat;
 import module.decode.p25.reference.Vendor;
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 
 public class PDUMessageFactory
 {
-	public static PDUMessage getMessage( BinaryMessage message, 
+	public static PDUMessage getMessage( BitBuffer message, 
 										 DataUnitID duid,
 										 AliasList aliasList )
 	{
@@ -19,7 +19,7 @@
 package module.decode.p25.message.pdu;
 
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 import edac.CRCP25;
 import module.decode.p25.message.IBandIdentifier;
 import module.decode.p25.message.IdentifierReceiver;
@@ -53,7 +53,7 @@ public abstract class UnitToUnitChannelGrantExtended extends PDUMessage implemen
     private IBandIdentifier mTransmitIdentifierUpdate;
     private IBandIdentifier mReceiveIdentifierUpdate;
 
-    public UnitToUnitChannelGrantExtended(BinaryMessage message, DataUnitID duid, AliasList aliasList)
+    public UnitToUnitChannelGrantExtended(BitBuffer message, DataUnitID duid, AliasList aliasList)
     {
         super(message, duid, aliasList);
 
@@ -9,7 +9,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 import edac.CRC;
 import edac.CRCP25;
 
@@ -24,7 +24,7 @@ public class PDUConfirmedMessage extends PDUMessage
 	public static final int[] FRAGMENT_SEQUENCE_NUMBER = { 133,134,135 };
 	public static final int[] PDU_TYPE = { 176,177,178,179 };
 	
-	public PDUConfirmedMessage( BinaryMessage message, AliasList aliasList )
+	public PDUConfirmedMessage( BitBuffer message, AliasList aliasList )
     {
 	    super( message, DataUnitID.PDUC, aliasList );
 
@@ -4,7 +4,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 
 public class PacketData extends PDUConfirmedMessage
 {
@@ -13,7 +13,7 @@ public class PacketData extends PDUConfirmedMessage
 
 	public static final int DATA_BLOCK_START = 176;
 	
-	public PacketData( BinaryMessage message, AliasList aliasList )
+	public PacketData( BitBuffer message, AliasList aliasList )
     {
 	    super( message, aliasList );
     }
@@ -19,7 +19,7 @@
 package module.decode.p25.message.pdu.osp.control;
 
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 import edac.CRCP25;
 import module.decode.p25.message.IAdjacentSite;
 import module.decode.p25.message.IBandIdentifier;
@@ -46,7 +46,7 @@ public class AdjacentStatusBroadcastExtended extends PDUMessage implements Ident
     private IBandIdentifier mTransmitIdentifierProvider;
     private IBandIdentifier mReceiveIdentifierProvider;
 
-    public AdjacentStatusBroadcastExtended(BinaryMessage message, DataUnitID duid, AliasList aliasList)
+    public AdjacentStatusBroadcastExtended(BitBuffer message, DataUnitID duid, AliasList aliasList)
     {
         super(message, duid, aliasList);
 
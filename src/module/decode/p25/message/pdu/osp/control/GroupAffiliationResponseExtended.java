@@ -5,7 +5,7 @@ import module.decode.p25.reference.DataUnitID;
 import module.decode.p25.reference.Opcode;
 import module.decode.p25.reference.Response;
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 import edac.CRCP25;
 
 public class GroupAffiliationResponseExtended extends PDUMessage 
@@ -31,7 +31,7 @@ public class GroupAffiliationResponseExtended extends PDUMessage
 		326,327,328,329,330,331,332,333,334,335,336,337,338,339,340,341,342,
 		343,344,345,346,347,348,349,350,351 };
 	
-	public GroupAffiliationResponseExtended( BinaryMessage message,
+	public GroupAffiliationResponseExtended( BitBuffer message,
             DataUnitID duid, AliasList aliasList )
     {
 	    super( message, duid, aliasList );
@@ -4,7 +4,7 @@ import module.decode.p25.message.pdu.PDUMessage;
 import module.decode.p25.reference.DataUnitID;
 import module.decode.p25.reference.Opcode;
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 import edac.CRCP25;
 
 public class MessageUpdateExtended extends PDUMessage 
@@ -23,7 +23,7 @@ public class MessageUpdateExtended extends PDUMessage
 		230,231,232,233,234,235,236,237,238,239,240,241,242,243,244,245,246,247,
 		248,249,250,251,252,253,254,255 };
 	
-	public MessageUpdateExtended( BinaryMessage message,
+	public MessageUpdateExtended( BitBuffer message,
             DataUnitID duid, AliasList aliasList )
     {
 	    super( message, duid, aliasList );
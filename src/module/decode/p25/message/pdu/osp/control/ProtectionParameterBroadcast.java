@@ -5,7 +5,7 @@ import module.decode.p25.reference.DataUnitID;
 import module.decode.p25.reference.Encryption;
 import module.decode.p25.reference.Opcode;
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 import edac.CRCP25;
 
 public class ProtectionParameterBroadcast extends PDUMessage 
@@ -35,7 +35,7 @@ public class ProtectionParameterBroadcast extends PDUMessage
 		326,327,328,329,330,331,332,333,334,335,336,337,338,339,340,341,342,
 		343,344,345,346,347,348,349,350,351 };
 	
-	public ProtectionParameterBroadcast( BinaryMessage message,
+	public ProtectionParameterBroadcast( BitBuffer message,
             DataUnitID duid, AliasList aliasList )
     {
 	    super( message, duid, aliasList );
@@ -19,7 +19,7 @@
 package module.decode.p25.message.pdu.osp.control;
 
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 import edac.CRCP25;
 import module.decode.p25.message.IBandIdentifier;
 import module.decode.p25.message.IdentifierReceiver;
@@ -46,7 +46,7 @@ public class RFSSStatusBroadcastExtended extends PDUMessage implements Identifie
     private IBandIdentifier mTransmitIdentifierUpdate;
     private IBandIdentifier mReceiveIdentifierUpdate;
 
-    public RFSSStatusBroadcastExtended(BinaryMessage message, DataUnitID duid, AliasList aliasList)
+    public RFSSStatusBroadcastExtended(BitBuffer message, DataUnitID duid, AliasList aliasList)
     {
         super(message, duid, aliasList);
 
@@ -5,7 +5,7 @@ import module.decode.p25.message.pdu.PDUMessage;
 import module.decode.p25.reference.DataUnitID;
 import module.decode.p25.reference.Opcode;
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 import edac.CRCP25;
 
 public class RoamingAddressUpdateExtended extends PDUMessage 
@@ -62,7 +62,7 @@ public class RoamingAddressUpdateExtended extends PDUMessage
 	
 	private Format mFormat;
 	
-	public RoamingAddressUpdateExtended( BinaryMessage message,
+	public RoamingAddressUpdateExtended( BitBuffer message,
             DataUnitID duid, AliasList aliasList )
     {
 	    super( message, duid, aliasList );
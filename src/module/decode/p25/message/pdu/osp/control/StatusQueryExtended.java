@@ -4,7 +4,7 @@ import module.decode.p25.message.pdu.PDUMessage;
 import module.decode.p25.reference.DataUnitID;
 import module.decode.p25.reference.Opcode;
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 import edac.CRCP25;
 
 public class StatusQueryExtended extends PDUMessage 
@@ -21,7 +21,7 @@ public class StatusQueryExtended extends PDUMessage
 		230,231,232,233,234,235,236,237,238,239,240,241,242,243,244,245,246,247,
 		248,249,250,251,252,253,254,255 };
 	
-	public StatusQueryExtended( BinaryMessage message,
+	public StatusQueryExtended( BitBuffer message,
             DataUnitID duid, AliasList aliasList )
     {
 	    super( message, duid, aliasList );
@@ -19,7 +19,7 @@
 package module.decode.p25.message.pdu.osp.data;
 
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 import edac.CRCP25;
 import module.decode.p25.message.IBandIdentifier;
 import module.decode.p25.message.IdentifierReceiver;
@@ -50,7 +50,7 @@ public class GroupDataChannelGrantExtended extends PDUMessage implements Identif
     private IBandIdentifier mTransmitIdentifierUpdate;
     private IBandIdentifier mReceiveIdentifierUpdate;
 
-    public GroupDataChannelGrantExtended(BinaryMessage message, DataUnitID duid, AliasList aliasList)
+    public GroupDataChannelGrantExtended(BitBuffer message, DataUnitID duid, AliasList aliasList)
     {
         super(message, duid, aliasList);
 
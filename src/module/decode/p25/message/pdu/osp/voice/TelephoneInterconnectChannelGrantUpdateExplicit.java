@@ -3,12 +3,12 @@ package module.decode.p25.message.pdu.osp.voice;
 import module.decode.p25.reference.DataUnitID;
 import module.decode.p25.reference.Opcode;
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 
 public class TelephoneInterconnectChannelGrantUpdateExplicit 
 					extends TelephoneInterconnectChannelGrantExplicit
 {	
-	public TelephoneInterconnectChannelGrantUpdateExplicit( BinaryMessage message,
+	public TelephoneInterconnectChannelGrantUpdateExplicit( BitBuffer message,
             DataUnitID duid, AliasList aliasList )
     {
 	    super( message, duid, aliasList );
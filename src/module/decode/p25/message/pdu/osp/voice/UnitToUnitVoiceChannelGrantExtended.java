@@ -5,13 +5,13 @@ import module.decode.p25.message.pdu.UnitToUnitChannelGrantExtended;
 import module.decode.p25.reference.DataUnitID;
 import module.decode.p25.reference.Opcode;
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 
 public class UnitToUnitVoiceChannelGrantExtended 
 				extends UnitToUnitChannelGrantExtended 
 				implements IdentifierReceiver
 {
-	public UnitToUnitVoiceChannelGrantExtended( BinaryMessage message,
+	public UnitToUnitVoiceChannelGrantExtended( BitBuffer message,
             DataUnitID duid, AliasList aliasList )
     {
 	    super( message, duid, aliasList );
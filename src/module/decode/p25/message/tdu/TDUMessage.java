@@ -21,12 +21,12 @@ package module.decode.p25.message.tdu;
 import module.decode.p25.message.P25Message;
 import module.decode.p25.reference.DataUnitID;
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 import edac.CRC;
 
 public class TDUMessage extends P25Message
 {
-	public TDUMessage( BinaryMessage message, DataUnitID duid,
+	public TDUMessage( BitBuffer message, DataUnitID duid,
             AliasList aliasList )
     {
 	    super( message, duid, aliasList );
@@ -11,7 +11,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 import edac.CRC;
 import edac.Golay24;
 import edac.ReedSolomon_63_47_17;
@@ -55,7 +55,7 @@ public class TDULinkControlMessage extends P25Message
 	public static final ReedSolomon_63_47_17 mReedSolomonDecoder = 
 						new ReedSolomon_63_47_17( 6 );
 	
-	public TDULinkControlMessage( BinaryMessage message, DataUnitID duid,
+	public TDULinkControlMessage( BitBuffer message, DataUnitID duid,
             AliasList aliasList )
     {
 	    super( message, duid, aliasList );
@@ -19,7 +19,7 @@
 package module.decode.p25.message.tsbk;
 
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 import module.decode.p25.message.IBandIdentifier;
 import module.decode.p25.message.IdentifierReceiver;
 import module.decode.p25.reference.DataUnitID;
@@ -32,7 +32,7 @@ public abstract class ChannelGrant extends ServiceMessage implements IdentifierR
 
     private IBandIdentifier mIdentifierUpdate;
 
-    public ChannelGrant(BinaryMessage message, DataUnitID duid, AliasList aliasList)
+    public ChannelGrant(BitBuffer message, DataUnitID duid, AliasList aliasList)
     {
         super(message, duid, aliasList);
     }
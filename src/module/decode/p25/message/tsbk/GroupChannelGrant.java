@@ -3,7 +3,7 @@ package module.decode.p25.message.tsbk;
 import module.decode.p25.reference.DataUnitID;
 import alias.Alias;
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 
 public abstract class GroupChannelGrant extends ChannelGrant
 {
@@ -13,7 +13,7 @@ public abstract class GroupChannelGrant extends ChannelGrant
     public static final int[] SOURCE_ADDRESS = { 120,121,122,123,124,125,126,
         127,128,129,130,131,132,133,134,135,136,137,138,139,140,141,142,143 };
 
-    public GroupChannelGrant( BinaryMessage message, 
+    public GroupChannelGrant( BitBuffer message, 
                               DataUnitID duid,
                               AliasList aliasList ) 
     {
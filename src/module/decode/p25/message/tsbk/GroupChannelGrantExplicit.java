@@ -19,7 +19,7 @@
 package module.decode.p25.message.tsbk;
 
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 import module.decode.p25.message.IBandIdentifier;
 import module.decode.p25.reference.DataUnitID;
 
@@ -35,7 +35,7 @@ public abstract class GroupChannelGrantExplicit extends ChannelGrant
     private IBandIdentifier mTransmitIdentifierUpdate;
     private IBandIdentifier mReceiveIdentifierUpdate;
 
-    public GroupChannelGrantExplicit(BinaryMessage message, DataUnitID duid, AliasList aliasList)
+    public GroupChannelGrantExplicit(BitBuffer message, DataUnitID duid, AliasList aliasList)
     {
         super(message, duid, aliasList);
     }
@@ -19,7 +19,7 @@
 package module.decode.p25.message.tsbk;
 
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 import module.decode.p25.message.IBandIdentifier;
 import module.decode.p25.message.IdentifierReceiver;
 import module.decode.p25.reference.DataUnitID;
@@ -36,7 +36,7 @@ public abstract class GroupMultiChannelGrant extends ChannelGrant implements Ide
     private IBandIdentifier mIdentifierUpdate1;
     private IBandIdentifier mIdentifierUpdate2;
 
-    public GroupMultiChannelGrant(BinaryMessage message, DataUnitID duid, AliasList aliasList)
+    public GroupMultiChannelGrant(BitBuffer message, DataUnitID duid, AliasList aliasList)
     {
         super(message, duid, aliasList);
     }
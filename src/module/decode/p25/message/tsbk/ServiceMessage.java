@@ -2,7 +2,7 @@ package module.decode.p25.message.tsbk;
 
 import module.decode.p25.reference.DataUnitID;
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 
 public abstract class ServiceMessage extends TSBKMessage
 {
@@ -12,7 +12,7 @@ public abstract class ServiceMessage extends TSBKMessage
     public static final int DUPLEX_MODE = 82;
     public static final int SESSION_MODE = 83;
     
-    public ServiceMessage( BinaryMessage message, 
+    public ServiceMessage( BitBuffer message, 
     					   DataUnitID duid,
     					   AliasList aliasList ) 
     {
@@ -7,7 +7,7 @@ import module.decode.p25.reference.DataUnitID;
 import module.decode.p25.reference.Opcode;
 import module.decode.p25.reference.Vendor;
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 import edac.CRC;
 
 public class TSBKMessage extends P25Message
@@ -32,7 +32,7 @@ public class TSBKMessage extends P25Message
 	public static final int[] BLOCK12 = { 152,153,154,155,156,157,158,159 };
 	public static final int CRC_START = 144;
 
-    public TSBKMessage( BinaryMessage message, DataUnitID duid, AliasList aliasList )
+    public TSBKMessage( BitBuffer message, DataUnitID duid, AliasList aliasList )
     {
 	    super( message, duid, aliasList );
 
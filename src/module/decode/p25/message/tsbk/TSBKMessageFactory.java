@@ -1,7 +1,7 @@
 package module.decode.p25.message.tsbk;
 
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 import module.decode.p25.message.tsbk.motorola.ControlChannelBaseStationIdentification;
 import module.decode.p25.message.tsbk.motorola.MotorolaOpcode;
 import module.decode.p25.message.tsbk.motorola.MotorolaTSBKMessage;
@@ -62,7 +62,7 @@ import module.decode.p25.reference.Vendor;
 
 public class TSBKMessageFactory
 {
-	public static TSBKMessage getMessage( BinaryMessage message, 
+	public static TSBKMessage getMessage( BitBuffer message, 
 	                                      DataUnitID duid,
 	                                      AliasList aliasList )
 	{
@@ -20,7 +20,7 @@ package module.decode.p25.message.tsbk;
 
 import alias.Alias;
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 import module.decode.p25.reference.DataUnitID;
 
 public abstract class UnitChannelGrant extends ChannelGrant
@@ -30,7 +30,7 @@ public abstract class UnitChannelGrant extends ChannelGrant
     public static final int[] SOURCE_ADDRESS = {120, 121, 122, 123, 124, 125, 126, 127, 128, 129, 130, 131, 132, 133,
         134, 135, 136, 137, 138, 139, 140, 141, 142, 143};
 
-    public UnitChannelGrant(BinaryMessage message, DataUnitID duid, AliasList aliasList)
+    public UnitChannelGrant(BitBuffer message, DataUnitID duid, AliasList aliasList)
     {
         super(message, duid, aliasList);
     }
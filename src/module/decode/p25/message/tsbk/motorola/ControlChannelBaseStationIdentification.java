@@ -19,7 +19,7 @@
 package module.decode.p25.message.tsbk.motorola;
 
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 import module.decode.p25.message.IBandIdentifier;
 import module.decode.p25.message.IdentifierReceiver;
 import module.decode.p25.reference.DataUnitID;
@@ -40,7 +40,7 @@ public class ControlChannelBaseStationIdentification extends MotorolaTSBKMessage
 
     private IBandIdentifier mIdentifierUpdate;
 
-    public ControlChannelBaseStationIdentification(BinaryMessage message, DataUnitID duid, AliasList aliasList)
+    public ControlChannelBaseStationIdentification(BitBuffer message, DataUnitID duid, AliasList aliasList)
     {
         super(message, duid, aliasList);
     }
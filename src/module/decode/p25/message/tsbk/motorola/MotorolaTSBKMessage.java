@@ -3,11 +3,11 @@ package module.decode.p25.message.tsbk.motorola;
 import module.decode.p25.message.tsbk.TSBKMessage;
 import module.decode.p25.reference.DataUnitID;
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 
 public class MotorolaTSBKMessage extends TSBKMessage
 {
-	public MotorolaTSBKMessage( BinaryMessage message, DataUnitID duid,
+	public MotorolaTSBKMessage( BitBuffer message, DataUnitID duid,
             AliasList aliasList )
     {
 	    super( message, duid, aliasList );
@@ -2,7 +2,7 @@ package module.decode.p25.message.tsbk.motorola;
 
 import module.decode.p25.reference.DataUnitID;
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -21,7 +21,7 @@ public abstract class PatchGroup extends MotorolaTSBKMessage
 
 	private List<String> mPatchedTalkgroups;
 
-	public PatchGroup( BinaryMessage message, DataUnitID duid,
+	public PatchGroup( BitBuffer message, DataUnitID duid,
             AliasList aliasList )
     {
 	    super( message, duid, aliasList );
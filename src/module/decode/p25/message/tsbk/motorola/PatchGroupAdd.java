@@ -2,11 +2,11 @@ package module.decode.p25.message.tsbk.motorola;
 
 import module.decode.p25.reference.DataUnitID;
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 
 public class PatchGroupAdd extends PatchGroup
 {
-	public PatchGroupAdd( BinaryMessage message, DataUnitID duid,
+	public PatchGroupAdd( BitBuffer message, DataUnitID duid,
             AliasList aliasList )
     {
 	    super( message, duid, aliasList );
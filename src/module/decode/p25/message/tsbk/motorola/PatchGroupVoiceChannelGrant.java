@@ -19,7 +19,7 @@
 package module.decode.p25.message.tsbk.motorola;
 
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 import module.decode.p25.message.IBandIdentifier;
 import module.decode.p25.message.IdentifierReceiver;
 import module.decode.p25.reference.DataUnitID;
@@ -42,7 +42,7 @@ public class PatchGroupVoiceChannelGrant extends MotorolaTSBKMessage implements
 
     private IBandIdentifier mIdentifierUpdate;
 
-    public PatchGroupVoiceChannelGrant(BinaryMessage message, DataUnitID duid, AliasList aliasList)
+    public PatchGroupVoiceChannelGrant(BitBuffer message, DataUnitID duid, AliasList aliasList)
     {
         super(message, duid, aliasList);
     }
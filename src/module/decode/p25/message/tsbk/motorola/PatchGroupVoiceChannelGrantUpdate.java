@@ -19,7 +19,7 @@
 package module.decode.p25.message.tsbk.motorola;
 
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 import module.decode.p25.message.IBandIdentifier;
 import module.decode.p25.message.IdentifierReceiver;
 import module.decode.p25.reference.DataUnitID;
@@ -36,7 +36,7 @@ public class PatchGroupVoiceChannelGrantUpdate extends MotorolaTSBKMessage imple
     private IBandIdentifier mIdentifierUpdate1;
     private IBandIdentifier mIdentifierUpdate2;
 
-    public PatchGroupVoiceChannelGrantUpdate(BinaryMessage message, DataUnitID duid, AliasList aliasList)
+    public PatchGroupVoiceChannelGrantUpdate(BitBuffer message, DataUnitID duid, AliasList aliasList)
     {
         super(message, duid, aliasList);
     }
@@ -2,11 +2,11 @@ package module.decode.p25.message.tsbk.motorola;
 
 import module.decode.p25.reference.DataUnitID;
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 
 public class SystemLoading extends MotorolaTSBKMessage
 {
-	public SystemLoading( BinaryMessage message, DataUnitID duid,
+	public SystemLoading( BitBuffer message, DataUnitID duid,
             AliasList aliasList )
     {
 	    super( message, duid, aliasList );
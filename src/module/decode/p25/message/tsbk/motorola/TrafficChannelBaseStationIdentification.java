@@ -2,7 +2,7 @@ package module.decode.p25.message.tsbk.motorola;
 
 import module.decode.p25.reference.DataUnitID;
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 
 public class TrafficChannelBaseStationIdentification extends MotorolaTSBKMessage 
 {
@@ -15,7 +15,7 @@ public class TrafficChannelBaseStationIdentification extends MotorolaTSBKMessage
     public static final int[] CHARACTER_7 = { 116,117,118,119,120,121 };
     public static final int[] CHARACTER_8 = { 122,123,124,125,126,127 };
     
-    public TrafficChannelBaseStationIdentification( BinaryMessage message, 
+    public TrafficChannelBaseStationIdentification( BitBuffer message, 
                                 DataUnitID duid,
                                 AliasList aliasList ) 
     {
@@ -4,7 +4,7 @@ import module.decode.p25.message.tsbk.TSBKMessage;
 import module.decode.p25.reference.DataUnitID;
 import module.decode.p25.reference.Opcode;
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 
 public class AcknowledgeResponse extends TSBKMessage
 {
@@ -20,7 +20,7 @@ public class AcknowledgeResponse extends TSBKMessage
     public static final int[] TARGET_ADDRESS = { 120,121,122,123,124,125,126,
         127,128,129,130,131,132,133,134,135,136,137,138,139,140,141,142,143 };
     
-    public AcknowledgeResponse( BinaryMessage message, 
+    public AcknowledgeResponse( BitBuffer message, 
                                 DataUnitID duid,
                                 AliasList aliasList ) 
     {
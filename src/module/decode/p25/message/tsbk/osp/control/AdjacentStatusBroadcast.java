@@ -19,7 +19,7 @@
 package module.decode.p25.message.tsbk.osp.control;
 
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 import module.decode.p25.message.IAdjacentSite;
 import module.decode.p25.message.IBandIdentifier;
 import module.decode.p25.message.IdentifierReceiver;
@@ -43,7 +43,7 @@ public class AdjacentStatusBroadcast extends TSBKMessage implements IdentifierRe
 
     private IBandIdentifier mIdentifierUpdate;
 
-    public AdjacentStatusBroadcast(BinaryMessage message, DataUnitID duid, AliasList aliasList)
+    public AdjacentStatusBroadcast(BitBuffer message, DataUnitID duid, AliasList aliasList)
     {
         super(message, duid, aliasList);
     }
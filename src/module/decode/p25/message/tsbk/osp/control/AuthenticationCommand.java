@@ -4,7 +4,7 @@ import module.decode.p25.message.tsbk.TSBKMessage;
 import module.decode.p25.reference.DataUnitID;
 import module.decode.p25.reference.Opcode;
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 
 public class AuthenticationCommand extends TSBKMessage
 {
@@ -15,7 +15,7 @@ public class AuthenticationCommand extends TSBKMessage
     public static final int[] TARGET_ID = { 120,121,122,123,124,125,126,
         127,128,129,130,131,132,133,134,135,136,137,138,139,140,141,142,143 };
     
-    public AuthenticationCommand( BinaryMessage message, 
+    public AuthenticationCommand( BitBuffer message, 
                                 DataUnitID duid,
                                 AliasList aliasList ) 
     {
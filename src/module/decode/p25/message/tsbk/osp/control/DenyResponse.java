@@ -5,7 +5,7 @@ import module.decode.p25.reference.DataUnitID;
 import module.decode.p25.reference.DenyReason;
 import module.decode.p25.reference.Opcode;
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 
 public class DenyResponse extends TSBKMessage
 {
@@ -21,7 +21,7 @@ public class DenyResponse extends TSBKMessage
     public static final int[] TARGET_ADDRESS = { 120,121,122,123,124,125,126,
         127,128,129,130,131,132,133,134,135,136,137,138,139,140,141,142,143 };
     
-    public DenyResponse( BinaryMessage message, 
+    public DenyResponse( BitBuffer message, 
                                 DataUnitID duid,
                                 AliasList aliasList ) 
     {
@@ -5,7 +5,7 @@ import module.decode.p25.reference.DataUnitID;
 import module.decode.p25.reference.ExtendedFunction;
 import module.decode.p25.reference.Opcode;
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 
 public class ExtendedFunctionCommand extends TSBKMessage
 {
@@ -16,7 +16,7 @@ public class ExtendedFunctionCommand extends TSBKMessage
     public static final int[] TARGET_ADDRESS = { 120,121,122,123,124,125,126,
         127,128,129,130,131,132,133,134,135,136,137,138,139,140,141,142,143 };
     
-    public ExtendedFunctionCommand( BinaryMessage message, 
+    public ExtendedFunctionCommand( BitBuffer message, 
                                 DataUnitID duid,
                                 AliasList aliasList ) 
     {
@@ -4,7 +4,7 @@ import module.decode.p25.message.tsbk.TSBKMessage;
 import module.decode.p25.reference.DataUnitID;
 import module.decode.p25.reference.Opcode;
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 
 public class GroupAffiliationQuery extends TSBKMessage
 {
@@ -13,7 +13,7 @@ public class GroupAffiliationQuery extends TSBKMessage
     public static final int[] SOURCE_ADDRESS = { 120,121,122,123,124,125,126,
         127,128,129,130,131,132,133,134,135,136,137,138,139,140,141,142,143 };
     
-    public GroupAffiliationQuery( BinaryMessage message, 
+    public GroupAffiliationQuery( BitBuffer message, 
                                 DataUnitID duid,
                                 AliasList aliasList ) 
     {
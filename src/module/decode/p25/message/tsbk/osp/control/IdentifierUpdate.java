@@ -22,7 +22,7 @@ import module.decode.p25.message.IBandIdentifier;
 import module.decode.p25.message.tsbk.TSBKMessage;
 import module.decode.p25.reference.DataUnitID;
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 
 public abstract class IdentifierUpdate extends TSBKMessage implements IBandIdentifier
 {
@@ -35,7 +35,7 @@ public abstract class IdentifierUpdate extends TSBKMessage implements IBandIdent
         119,120,121,122,123,124,125,126,127,128,129,130,131,132,133,134,135,136,
         137,138,139,140,141,142,143 };
     
-    public IdentifierUpdate( BinaryMessage message, 
+    public IdentifierUpdate( BitBuffer message, 
                              DataUnitID duid,
                              AliasList aliasList ) 
     {
@@ -3,7 +3,7 @@ package module.decode.p25.message.tsbk.osp.control;
 import module.decode.p25.reference.DataUnitID;
 import module.decode.p25.reference.Opcode;
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 
 public class IdentifierUpdateNonVUHF extends IdentifierUpdate
 {
@@ -13,7 +13,7 @@ public class IdentifierUpdateNonVUHF extends IdentifierUpdate
 
     public static final int[] TRANSMIT_OFFSET = { 94,95,96,97,98,99,100,101 };
     
-    public IdentifierUpdateNonVUHF( BinaryMessage message, 
+    public IdentifierUpdateNonVUHF( BitBuffer message, 
                              DataUnitID duid,
                              AliasList aliasList ) 
     {
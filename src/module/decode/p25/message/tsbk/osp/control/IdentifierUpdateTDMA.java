@@ -3,7 +3,7 @@ package module.decode.p25.message.tsbk.osp.control;
 import module.decode.p25.reference.DataUnitID;
 import module.decode.p25.reference.Opcode;
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 
 public class IdentifierUpdateTDMA extends IdentifierUpdate
 {
@@ -12,7 +12,7 @@ public class IdentifierUpdateTDMA extends IdentifierUpdate
     public static final int[] TRANSMIT_OFFSET = { 89,90,91,92,93,94,95,96,97,98,
     	99,100,101 };
     
-    public IdentifierUpdateTDMA( BinaryMessage message, 
+    public IdentifierUpdateTDMA( BitBuffer message, 
                              DataUnitID duid,
                              AliasList aliasList ) 
     {
@@ -5,7 +5,7 @@ import module.decode.p25.reference.DataUnitID;
 import module.decode.p25.reference.Opcode;
 import module.decode.p25.reference.Response;
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 
 public class LocationRegistrationResponse extends TSBKMessage
 {
@@ -17,7 +17,7 @@ public class LocationRegistrationResponse extends TSBKMessage
     public static final int[] TARGET_ADDRESS = { 120,121,122,123,124,125,126,
         127,128,129,130,131,132,133,134,135,136,137,138,139,140,141,142,143 };
     
-    public LocationRegistrationResponse( BinaryMessage message, 
+    public LocationRegistrationResponse( BitBuffer message, 
                                 DataUnitID duid,
                                 AliasList aliasList ) 
     {
@@ -19,7 +19,7 @@
 package module.decode.p25.message.tsbk.osp.control;
 
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 import module.decode.p25.message.IBandIdentifier;
 import module.decode.p25.message.IdentifierReceiver;
 import module.decode.p25.message.tsbk.TSBKMessage;
@@ -38,7 +38,7 @@ public class NetworkStatusBroadcast extends TSBKMessage implements IdentifierRec
 
     private IBandIdentifier mIdentifierUpdate;
 
-    public NetworkStatusBroadcast(BinaryMessage message, DataUnitID duid, AliasList aliasList)
+    public NetworkStatusBroadcast(BitBuffer message, DataUnitID duid, AliasList aliasList)
     {
         super(message, duid, aliasList);
     }
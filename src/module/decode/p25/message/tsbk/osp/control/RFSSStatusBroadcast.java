@@ -19,7 +19,7 @@
 package module.decode.p25.message.tsbk.osp.control;
 
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 import module.decode.p25.message.IBandIdentifier;
 import module.decode.p25.message.IdentifierReceiver;
 import module.decode.p25.message.tsbk.TSBKMessage;
@@ -39,7 +39,7 @@ public class RFSSStatusBroadcast extends TSBKMessage implements IdentifierReceiv
 
     private IBandIdentifier mIdentifierUpdate;
 
-    public RFSSStatusBroadcast(BinaryMessage message, DataUnitID duid, AliasList aliasList)
+    public RFSSStatusBroadcast(BitBuffer message, DataUnitID duid, AliasList aliasList)
     {
         super(message, duid, aliasList);
     }
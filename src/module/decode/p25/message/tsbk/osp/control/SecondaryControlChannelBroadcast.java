@@ -19,7 +19,7 @@
 package module.decode.p25.message.tsbk.osp.control;
 
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 import module.decode.p25.message.IBandIdentifier;
 import module.decode.p25.message.IdentifierReceiver;
 import module.decode.p25.message.tsbk.TSBKMessage;
@@ -40,7 +40,7 @@ public class SecondaryControlChannelBroadcast extends TSBKMessage implements Ide
     private IBandIdentifier mIdentifierUpdate1;
     private IBandIdentifier mIdentifierUpdate2;
 
-    public SecondaryControlChannelBroadcast(BinaryMessage message,
+    public SecondaryControlChannelBroadcast(BitBuffer message,
                                             DataUnitID duid,
                                             AliasList aliasList)
     {
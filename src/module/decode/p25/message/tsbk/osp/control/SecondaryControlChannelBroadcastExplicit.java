@@ -7,7 +7,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 
 public class SecondaryControlChannelBroadcastExplicit
 				extends SecondaryControlChannelBroadcast
@@ -15,7 +15,7 @@ public class SecondaryControlChannelBroadcastExplicit
 	private final static Logger mLog = LoggerFactory.getLogger( 
 			SecondaryControlChannelBroadcastExplicit.class );
 
-	public SecondaryControlChannelBroadcastExplicit( BinaryMessage message,
+	public SecondaryControlChannelBroadcastExplicit( BitBuffer message,
             DataUnitID duid, AliasList aliasList )
     {
 	    super( message, duid, aliasList );
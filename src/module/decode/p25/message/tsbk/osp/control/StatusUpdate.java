@@ -4,7 +4,7 @@ import module.decode.p25.message.tsbk.TSBKMessage;
 import module.decode.p25.reference.DataUnitID;
 import module.decode.p25.reference.Opcode;
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 
 public class StatusUpdate extends TSBKMessage
 {
@@ -15,7 +15,7 @@ public class StatusUpdate extends TSBKMessage
     public static final int[] SOURCE_ADDRESS = { 160,161,162,163,164,165,166,
     	167,168,169,170,171,184,185,186,187,188,189,190,190,192,193,194,195 };
     
-    public StatusUpdate( BinaryMessage message, 
+    public StatusUpdate( BitBuffer message, 
                                 DataUnitID duid,
                                 AliasList aliasList ) 
     {
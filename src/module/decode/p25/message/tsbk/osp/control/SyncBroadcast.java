@@ -11,7 +11,7 @@ import module.decode.p25.message.tsbk.TSBKMessage;
 import module.decode.p25.reference.DataUnitID;
 import module.decode.p25.reference.Opcode;
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 
 /**
  * Sync Broadcast - used to broadcast FDMA-TDMA timing synchronization 
@@ -43,7 +43,7 @@ public class SyncBroadcast extends TSBKMessage
 	private static final DateFormat TIME_FORMATTER = new SimpleDateFormat( "yyyy-MM-dd HH:mm:ss.SSS Z" );
 	private static final TimeZone NO_TIME_ZONE = new SimpleTimeZone( 0, "NONE" );
 	
-    public SyncBroadcast( BinaryMessage message, 
+    public SyncBroadcast( BitBuffer message, 
     					  DataUnitID duid,
     					  AliasList aliasList ) 
     {
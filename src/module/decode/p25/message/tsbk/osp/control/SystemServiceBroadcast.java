@@ -7,7 +7,7 @@ import module.decode.p25.reference.DataUnitID;
 import module.decode.p25.reference.Opcode;
 import module.decode.p25.reference.Service;
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 
 public class SystemServiceBroadcast extends TSBKMessage
 {
@@ -18,7 +18,7 @@ public class SystemServiceBroadcast extends TSBKMessage
 	public static final int[] REQUEST_PRIORITY_LEVEL = { 136,137,138,139,140,
 		141,142,143 };
     
-    public SystemServiceBroadcast( BinaryMessage message, 
+    public SystemServiceBroadcast( BitBuffer message, 
     							   DataUnitID duid,
     							   AliasList aliasList ) 
     {
@@ -10,7 +10,7 @@ import module.decode.p25.message.tsbk.TSBKMessage;
 import module.decode.p25.reference.DataUnitID;
 import module.decode.p25.reference.Opcode;
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 
 public class TimeAndDateAnnouncement extends TSBKMessage
 {
@@ -32,7 +32,7 @@ public class TimeAndDateAnnouncement extends TSBKMessage
     private SimpleDateFormat mTimeFormatter = 
     		new SimpleDateFormat( "EEE, d MMM yyyy HH:mm:ss Z" );
 
-	public TimeAndDateAnnouncement( BinaryMessage message, DataUnitID duid,
+	public TimeAndDateAnnouncement( BitBuffer message, DataUnitID duid,
 								AliasList aliasList )
     {
 	    super( message, duid, aliasList );
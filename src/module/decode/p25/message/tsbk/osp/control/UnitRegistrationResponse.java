@@ -5,7 +5,7 @@ import module.decode.p25.reference.DataUnitID;
 import module.decode.p25.reference.Opcode;
 import module.decode.p25.reference.Response;
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 
 public class UnitRegistrationResponse extends TSBKMessage
 {
@@ -16,7 +16,7 @@ public class UnitRegistrationResponse extends TSBKMessage
     public static final int[] SOURCE_ADDRESS = { 120,121,122,123,124,125,126,
         127,128,129,130,131,132,133,134,135,136,137,138,139,140,141,142,143 };
     
-    public UnitRegistrationResponse( BinaryMessage message, 
+    public UnitRegistrationResponse( BitBuffer message, 
                                 DataUnitID duid,
                                 AliasList aliasList ) 
     {
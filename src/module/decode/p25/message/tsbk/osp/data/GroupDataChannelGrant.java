@@ -19,7 +19,7 @@
 package module.decode.p25.message.tsbk.osp.data;
 
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 import module.decode.p25.message.tsbk.GroupChannelGrant;
 import module.decode.p25.reference.DataUnitID;
 import module.decode.p25.reference.Opcode;
@@ -27,7 +27,7 @@ import module.decode.p25.reference.Opcode;
 public class GroupDataChannelGrant extends GroupChannelGrant
 
 {
-    public GroupDataChannelGrant(BinaryMessage message, DataUnitID duid, AliasList aliasList)
+    public GroupDataChannelGrant(BitBuffer message, DataUnitID duid, AliasList aliasList)
     {
         super(message, duid, aliasList);
     }
@@ -3,7 +3,7 @@ package module.decode.p25.message.tsbk.osp.data;
 import module.decode.p25.message.tsbk.ServiceMessage;
 import module.decode.p25.reference.DataUnitID;
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 
 public abstract class SNDCPData extends ServiceMessage
 {
@@ -15,7 +15,7 @@ public abstract class SNDCPData extends ServiceMessage
     public static final int[] SOURCE_ADDRESS = { 120,121,122,123,124,125,126,
         127,128,129,130,131,132,133,134,135,136,137,138,139,140,141,142,143 };
     
-    public SNDCPData( BinaryMessage message, 
+    public SNDCPData( BitBuffer message, 
                                    DataUnitID duid,
                                    AliasList aliasList ) 
     {
@@ -19,7 +19,7 @@
 package module.decode.p25.message.tsbk.osp.data;
 
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 import module.decode.p25.message.IBandIdentifier;
 import module.decode.p25.message.IdentifierReceiver;
 import module.decode.p25.reference.DataUnitID;
@@ -37,7 +37,7 @@ public class SNDCPDataChannelAnnouncementExplicit extends SNDCPData implements I
     private IBandIdentifier mIdentifierUpdateTransmit;
     private IBandIdentifier mIdentifierUpdateReceive;
 
-    public SNDCPDataChannelAnnouncementExplicit(BinaryMessage message, DataUnitID duid, AliasList aliasList)
+    public SNDCPDataChannelAnnouncementExplicit(BitBuffer message, DataUnitID duid, AliasList aliasList)
     {
         super(message, duid, aliasList);
     }
@@ -19,7 +19,7 @@
 package module.decode.p25.message.tsbk.osp.data;
 
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 import module.decode.p25.message.IBandIdentifier;
 import module.decode.p25.message.IdentifierReceiver;
 import module.decode.p25.reference.DataUnitID;
@@ -36,7 +36,7 @@ public class SNDCPDataChannelGrant extends SNDCPData implements IdentifierReceiv
     private IBandIdentifier mIdentifierUpdateTransmit;
     private IBandIdentifier mIdentifierUpdateReceive;
 
-    public SNDCPDataChannelGrant(BinaryMessage message, DataUnitID duid, AliasList aliasList)
+    public SNDCPDataChannelGrant(BitBuffer message, DataUnitID duid, AliasList aliasList)
     {
         super(message, duid, aliasList);
     }
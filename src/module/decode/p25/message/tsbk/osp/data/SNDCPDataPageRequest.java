@@ -2,7 +2,7 @@ package module.decode.p25.message.tsbk.osp.data;
 
 import module.decode.p25.reference.DataUnitID;
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 
 public class SNDCPDataPageRequest extends SNDCPData
 {
@@ -12,7 +12,7 @@ public class SNDCPDataPageRequest extends SNDCPData
     public static final int[] TARGET_ADDRESS = { 120,121,122,123,124,125,126,
         127,128,129,130,131,132,133,134,135,136,137,138,139,140,141,142,143 };
     
-    public SNDCPDataPageRequest( BinaryMessage message, 
+    public SNDCPDataPageRequest( BitBuffer message, 
 								  DataUnitID duid,
 								  AliasList aliasList )
     {
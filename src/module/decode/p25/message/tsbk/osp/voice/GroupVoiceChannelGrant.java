@@ -4,11 +4,11 @@ import module.decode.p25.message.tsbk.GroupChannelGrant;
 import module.decode.p25.reference.DataUnitID;
 import module.decode.p25.reference.Opcode;
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 
 public class GroupVoiceChannelGrant extends GroupChannelGrant
 {
-    public GroupVoiceChannelGrant( BinaryMessage message, 
+    public GroupVoiceChannelGrant( BitBuffer message, 
                                    DataUnitID duid,
                                    AliasList aliasList ) 
     {
@@ -4,11 +4,11 @@ import module.decode.p25.message.tsbk.GroupMultiChannelGrant;
 import module.decode.p25.reference.DataUnitID;
 import module.decode.p25.reference.Opcode;
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 
 public class GroupVoiceChannelGrantUpdate extends GroupMultiChannelGrant
 {
-    public GroupVoiceChannelGrantUpdate( BinaryMessage message, 
+    public GroupVoiceChannelGrantUpdate( BitBuffer message, 
                                    DataUnitID duid,
                                    AliasList aliasList ) 
     {
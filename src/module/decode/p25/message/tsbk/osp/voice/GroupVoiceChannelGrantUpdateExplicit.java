@@ -4,11 +4,11 @@ import module.decode.p25.message.tsbk.GroupChannelGrantExplicit;
 import module.decode.p25.reference.DataUnitID;
 import module.decode.p25.reference.Opcode;
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 
 public class GroupVoiceChannelGrantUpdateExplicit extends GroupChannelGrantExplicit
 {
-    public GroupVoiceChannelGrantUpdateExplicit( BinaryMessage message, 
+    public GroupVoiceChannelGrantUpdateExplicit( BitBuffer message, 
                                    DataUnitID duid,
                                    AliasList aliasList ) 
     {
@@ -4,14 +4,14 @@ import module.decode.p25.message.tsbk.UnitChannelGrant;
 import module.decode.p25.reference.DataUnitID;
 import module.decode.p25.reference.Opcode;
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 
 public class TelephoneInterconnectVoiceChannelGrant extends UnitChannelGrant
 {
     public static final int[] CALL_TIMER = { 96,97,98,99,100,101,102,103,
         104,105,106,107,108,109,110,111 };
     
-    public TelephoneInterconnectVoiceChannelGrant( BinaryMessage message, 
+    public TelephoneInterconnectVoiceChannelGrant( BitBuffer message, 
                                    DataUnitID duid,
                                    AliasList aliasList ) 
     {
@@ -3,13 +3,13 @@ package module.decode.p25.message.tsbk.osp.voice;
 import module.decode.p25.reference.DataUnitID;
 import module.decode.p25.reference.Opcode;
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 
 public class TelephoneInterconnectVoiceChannelGrantUpdate
     extends TelephoneInterconnectVoiceChannelGrant
 {
 
-    public TelephoneInterconnectVoiceChannelGrantUpdate( BinaryMessage message,
+    public TelephoneInterconnectVoiceChannelGrantUpdate( BitBuffer message,
             DataUnitID duid, AliasList aliasList ) 
     {
         super( message, duid, aliasList );
@@ -4,11 +4,11 @@ import module.decode.p25.message.tsbk.UnitChannelGrant;
 import module.decode.p25.reference.DataUnitID;
 import module.decode.p25.reference.Opcode;
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 
 public class UnitToUnitVoiceChannelGrant extends UnitChannelGrant
 {
-    public UnitToUnitVoiceChannelGrant( BinaryMessage message, 
+    public UnitToUnitVoiceChannelGrant( BitBuffer message, 
                                    DataUnitID duid,
                                    AliasList aliasList ) 
     {
@@ -4,11 +4,11 @@ import module.decode.p25.message.tsbk.UnitChannelGrant;
 import module.decode.p25.reference.DataUnitID;
 import module.decode.p25.reference.Opcode;
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 
 public class UnitToUnitVoiceChannelGrantUpdate extends UnitChannelGrant
 {
-    public UnitToUnitVoiceChannelGrantUpdate( BinaryMessage message, 
+    public UnitToUnitVoiceChannelGrantUpdate( BitBuffer message, 
             DataUnitID duid, AliasList aliasList )
     {
         super( message, duid, aliasList );
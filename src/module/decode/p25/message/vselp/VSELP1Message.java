@@ -3,7 +3,7 @@ package module.decode.p25.message.vselp;
 import module.decode.p25.message.P25Message;
 import module.decode.p25.reference.DataUnitID;
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 
 public class VSELP1Message extends P25Message
 {
@@ -14,7 +14,7 @@ public class VSELP1Message extends P25Message
 	 * @param duid
 	 * @param aliasList
 	 */
-	public VSELP1Message( BinaryMessage message, DataUnitID duid, AliasList aliasList )
+	public VSELP1Message( BitBuffer message, DataUnitID duid, AliasList aliasList )
 	{
 		super( message, duid, aliasList );
 	}
@@ -1,7 +1,7 @@
 package module.decode.p25.message.vselp;
 
 import alias.AliasList;
-import bits.BinaryMessage;
+import bits.BitBuffer;
 import module.decode.p25.message.P25Message;
 import module.decode.p25.reference.DataUnitID;
 
@@ -14,7 +14,7 @@ public class VSELP2Message extends P25Message
 	 * @param duid
 	 * @param aliasList
 	 */
-	public VSELP2Message( BinaryMessage message, DataUnitID duid, AliasList aliasList )
+	public VSELP2Message( BitBuffer message, DataUnitID duid, AliasList aliasList )
 	{
 		super( message, duid, aliasList );
 	}
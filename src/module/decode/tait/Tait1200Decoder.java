@@ -30,11 +30,11 @@ import java.util.concurrent.ScheduledExecutorService;
 
 import module.decode.Decoder;
 import module.decode.DecoderType;
-import sample.Broadcaster;
 import sample.Listener;
 import sample.real.IFilteredRealBufferListener;
 import sample.real.RealBuffer;
 import alias.AliasList;
+import bits.BitStreamBroadcaster;
 import bits.MessageFramer;
 import bits.SyncPattern;
 import dsp.filter.Filters;
@@ -71,7 +71,7 @@ public class Tait1200Decoder extends Decoder implements IFilteredRealBufferListe
     private RealFIRFilter_RB_RB mBandPassFilter;
     private MessageFramer mMessageFramerGPS;
     private MessageFramer mMessageFramerANI;
-    private Broadcaster<Boolean> mFSKBroadcaster = new Broadcaster<Boolean>();
+    private BitStreamBroadcaster mFSKBroadcaster = new BitStreamBroadcaster();
     private Tait1200GPSMessageProcessor mMessageAProcessor;
     private Tait1200ANIMessageProcessor mMessageBProcessor;
     
@@ -89,7 +89,7 @@ public class Tait1200Decoder extends Decoder implements IFilteredRealBufferListe
         mBandPassFilter.setListener( mFSKDecoder );
 
 
-        mFSKDecoder.setListener( mFSKBroadcaster );
+        mFSKDecoder.setBitStreamListener( mFSKBroadcaster );
 
         mMessageFramerGPS = new MessageFramer( 
         		SyncPattern.TAIT_CCDI_GPS_MESSAGE.getPattern(), MESSAGE_LENGTH );
@@ -158,7 +158,7 @@ public class Tait1200Decoder extends Decoder implements IFilteredRealBufferListe
 				break;
 			case INSTRUMENT_FSK2_DECODER_TO_MESSAGE_FRAMER:
 				BinaryTap decoderTap = (BinaryTap)tap;
-				mFSKBroadcaster.addListener( decoderTap );
+				mFSKDecoder.setListener( decoderTap );
 		        break;
 		}
     }
@@ -174,7 +174,7 @@ public class Tait1200Decoder extends Decoder implements IFilteredRealBufferListe
 				mBandPassFilter.setListener( mFSKDecoder );
 				break;
 			case INSTRUMENT_FSK2_DECODER_TO_MESSAGE_FRAMER:
-				mFSKBroadcaster.removeListener( (BinaryTap)tap );
+				mFSKDecoder.removeListener( (BinaryTap)tap );
 		        break;
 		}
     }
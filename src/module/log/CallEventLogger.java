@@ -26,9 +26,10 @@ import sample.Listener;
 public class CallEventLogger extends EventLogger implements ICallEventListener,
 					Listener<CallEvent>
 {
-	public CallEventLogger( Path logDirectory, String fileNameSuffix )
+	public CallEventLogger( EventLogWriter eventLogWriter, Path logDirectory, 
+							String fileNameSuffix )
 	{
-		super( logDirectory, fileNameSuffix );
+		super( eventLogWriter, logDirectory, fileNameSuffix );
 	}
 	
 	@Override
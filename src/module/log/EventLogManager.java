@@ -34,6 +34,7 @@ public class EventLogManager
 	private final static Logger mLog = LoggerFactory.getLogger(EventLogManager.class);
 
 	private Path mDirectory;
+	private EventLogWriter mEventLogWriter = new EventLogWriter();
 	
 	public EventLogManager()
 	{
@@ -41,6 +42,24 @@ public class EventLogManager
 				.getApplicationFolder( "event_logs" );
 	}
 
+	/**
+	 * Shared asynchronous writer used by all event loggers created by this 
+	 * manager
+	 */
+	public EventLogWriter getEventLogWriter()
+	{
+		return mEventLogWriter;
+	}
+
+	/**
+	 * Writes all queued log entries, closes all open log files and stops the
+	 * log writer thread
+	 */
+	public void dispose()
+	{
+		mEventLogWriter.stop();
+	}
+
 	public List<Module> getLoggers( EventLogConfiguration config, String prefix )
 	{
 		List<Module> loggers = new ArrayList<Module>();
@@ -64,11 +83,11 @@ public class EventLogManager
 		switch( eventLogType )
 		{
 			case BINARY_MESSAGE:
-				return new MessageEventLogger( mDirectory, sb.toString(), Type.BINARY );
+				return new MessageEventLogger( mEventLogWriter, mDirectory, sb.toString(), Type.BINARY );
 			case DECODED_MESSAGE:
-				return new MessageEventLogger( mDirectory, sb.toString(), Type.DECODED );
+				return new MessageEventLogger( mEventLogWriter, mDirectory, sb.toString(), Type.DECODED );
 			case CALL_EVENT:
-				return new CallEventLogger( mDirectory, sb.toString() );
+				return new CallEventLogger( mEventLogWriter, mDirectory, sb.toString() );
 			default:
 				return null;
 		}
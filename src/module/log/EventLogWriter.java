@@ -0,0 +1,741 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package module.log;
+
+import controller.NamingThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import properties.SystemProperties;
+import util.TimeStamp;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shared asynchronous writer for event log files.
+ *
+ * Event loggers enqueue log entries on a bounded queue and return immediately.  A single writer thread drains the
+ * queue, encodes entries into a buffer per log file and writes the buffers to the file channels as a group commit
+ * once the configured number of entries has accumulated or the flush interval has elapsed, whichever comes first.
+ * When the queue is full, producers block until the writer catches up.
+ *
+ * Log files can be rotated by size and/or age.  A rotated log continues in a new file, named with the time of
+ * rotation, that starts with the log header.  The sync setting forces file content to the storage device on each
+ * group commit.  Queued entries are written when a log file is closed, when the writer is stopped and on JVM shutdown.
+ */
+public class EventLogWriter
+{
+    private final static Logger mLog = LoggerFactory.getLogger(EventLogWriter.class);
+
+    public static final String QUEUE_CAPACITY_PROPERTY = "event.log.queue.capacity";
+    public static final String FLUSH_ENTRIES_PROPERTY = "event.log.flush.entries";
+    public static final String FLUSH_INTERVAL_PROPERTY = "event.log.flush.interval.ms";
+    public static final String ROTATE_SIZE_PROPERTY = "event.log.rotate.size.mb";
+    public static final String ROTATE_HOURS_PROPERTY = "event.log.rotate.hours";
+    public static final String SYNC_PROPERTY = "event.log.sync";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int DRAIN_BATCH_SIZE = 1024;
+    private static final long SHUTDOWN_TIMEOUT_MS = 5000;
+    private static final long MEGABYTE = 1024 * 1024;
+    private static final long HOUR_MS = 60 * 60 * 1000;
+
+    private BlockingQueue<Request> mQueue;
+    private int mFlushEntries;
+    private long mFlushInterval;
+    private long mRotateSize;
+    private long mRotateAge;
+    private boolean mSync;
+
+    private Thread mWriterThread;
+    private Thread mShutdownHook;
+    private volatile boolean mRunning;
+    private AtomicLong mDiscardedEntries = new AtomicLong();
+
+    /* Writer thread state */
+    private Set<LogFile> mOpenFiles = new HashSet<>();
+    private Set<LogFile> mDirtyFiles = new HashSet<>();
+    private List<Request> mBatch = new ArrayList<>(DRAIN_BATCH_SIZE);
+    private int mEntriesSinceFlush;
+    private long mNextFlush;
+    private CharsetEncoder mEncoder = StandardCharsets.UTF_8.newEncoder();
+
+    /**
+     * Constructs a writer configured from the system properties
+     */
+    public EventLogWriter()
+    {
+        this(SystemProperties.getInstance().get(QUEUE_CAPACITY_PROPERTY, 65536),
+            SystemProperties.getInstance().get(FLUSH_ENTRIES_PROPERTY, 512),
+            SystemProperties.getInstance().get(FLUSH_INTERVAL_PROPERTY, 1000),
+            SystemProperties.getInstance().get(ROTATE_SIZE_PROPERTY, 0) * MEGABYTE,
+            SystemProperties.getInstance().get(ROTATE_HOURS_PROPERTY, 0) * HOUR_MS,
+            SystemProperties.getInstance().get(SYNC_PROPERTY, false));
+    }
+
+    /**
+     * Constructs a writer
+     *
+     * @param queueCapacity maximum number of queued entries before producers block
+     * @param flushEntries number of entries that triggers a group commit
+     * @param flushInterval maximum milliseconds that a queued entry waits for a group commit
+     * @param rotateSize log file size in bytes that triggers rotation, or 0 to disable
+     * @param rotateAge log file age in milliseconds that triggers rotation, or 0 to disable
+     * @param sync true to force file content to the storage device on each group commit
+     */
+    public EventLogWriter(int queueCapacity, int flushEntries, long flushInterval, long rotateSize, long rotateAge,
+                          boolean sync)
+    {
+        mQueue = new ArrayBlockingQueue<>(Math.max(queueCapacity, 1));
+        mFlushEntries = Math.max(flushEntries, 1);
+        mFlushInterval = Math.max(flushInterval, 1);
+        mRotateSize = rotateSize;
+        mRotateAge = rotateAge;
+        mSync = sync;
+    }
+
+    /**
+     * Opens a log file named with the current timestamp followed by the file name suffix in the directory.  The log
+     * file is created and the header written on the writer thread.
+     *
+     * @param directory for the log file
+     * @param fileNameSuffix appended to the timestamp to form the file name
+     * @param header written at the start of the log file and of each rotated log file, or null for no header
+     * @return log file handle for writing entries
+     */
+    public LogFile open(Path directory, String fileNameSuffix, String header)
+    {
+        return open(directory, fileNameSuffix, header, true);
+    }
+
+    /**
+     * Opens a log file in the directory.  The log file is created and the header written on the writer thread.
+     *
+     * @param directory for the log file
+     * @param fileName of the log file, or the file name suffix that is appended to the current timestamp
+     * @param header written at the start of the log file and of each rotated log file, or null for no header
+     * @param timestamp true to prefix the file name with the current timestamp, or false to create or overwrite the
+     * named file.  Rotated log files are always named with the time of rotation.
+     * @return log file handle for writing entries
+     */
+    public LogFile open(Path directory, String fileName, String header, boolean timestamp)
+    {
+        start();
+
+        LogFile logFile = new LogFile(directory, fileName, header, timestamp);
+
+        enqueue(new Request(logFile, null, RequestType.OPEN, null));
+
+        return logFile;
+    }
+
+    /**
+     * Writes all queued entries to their log files and waits for completion
+     */
+    public void flush()
+    {
+        if(mRunning)
+        {
+            CountDownLatch latch = new CountDownLatch(1);
+
+            enqueue(new Request(null, null, RequestType.FLUSH, latch));
+
+            await(latch);
+        }
+    }
+
+    /**
+     * Writes all queued entries, closes all open log files and stops the writer thread.  The writer restarts if a
+     * log file is subsequently opened.
+     */
+    public synchronized void stop()
+    {
+        if(mRunning)
+        {
+            CountDownLatch latch = new CountDownLatch(1);
+
+            enqueue(new Request(null, null, RequestType.STOP, latch));
+
+            await(latch);
+
+            try
+            {
+                mWriterThread.join(SHUTDOWN_TIMEOUT_MS);
+            }
+            catch(InterruptedException ie)
+            {
+                Thread.currentThread().interrupt();
+            }
+
+            try
+            {
+                Runtime.getRuntime().removeShutdownHook(mShutdownHook);
+            }
+            catch(IllegalStateException ise)
+            {
+                //Do nothing, we're already shutting down
+            }
+
+            mWriterThread = null;
+            mShutdownHook = null;
+        }
+    }
+
+    /**
+     * Number of entries waiting to be written
+     */
+    public int getQueuedEntryCount()
+    {
+        return mQueue.size();
+    }
+
+    /**
+     * Number of entries that were written to a log file after the writer was stopped and were discarded
+     */
+    public long getDiscardedEntryCount()
+    {
+        return mDiscardedEntries.get();
+    }
+
+    private synchronized void start()
+    {
+        if(!mRunning)
+        {
+            mRunning = true;
+            mNextFlush = System.currentTimeMillis() + mFlushInterval;
+
+            mWriterThread = new NamingThreadFactory("sdrtrunk event log writer").newThread(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    process();
+                }
+            });
+            mWriterThread.setDaemon(true);
+            mWriterThread.start();
+
+            mShutdownHook = new Thread(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    stop();
+                }
+            }, "sdrtrunk event log writer shutdown");
+
+            Runtime.getRuntime().addShutdownHook(mShutdownHook);
+        }
+    }
+
+    private void enqueue(Request request)
+    {
+        try
+        {
+            mQueue.put(request);
+        }
+        catch(InterruptedException ie)
+        {
+            Thread.currentThread().interrupt();
+            mLog.error("Interrupted while queueing event log entry - entry discarded");
+        }
+    }
+
+    private void await(CountDownLatch latch)
+    {
+        try
+        {
+            if(!latch.await(SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS))
+            {
+                mLog.warn("Timeout waiting for event log writer - [" + mQueue.size() + "] entries still queued");
+            }
+        }
+        catch(InterruptedException ie)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Writer thread loop
+     */
+    private void process()
+    {
+        while(true)
+        {
+            try
+            {
+                long wait = Math.max(mNextFlush - System.currentTimeMillis(), 0);
+
+                Request request = mQueue.poll(wait, TimeUnit.MILLISECONDS);
+
+                if(request != null)
+                {
+                    mBatch.add(request);
+                    mQueue.drainTo(mBatch, DRAIN_BATCH_SIZE - 1);
+
+                    try
+                    {
+                        for(int x = 0; x < mBatch.size(); x++)
+                        {
+                            if(!handle(mBatch.get(x)))
+                            {
+                                List<Request> discarded = new ArrayList<>(mBatch.subList(x + 1, mBatch.size()));
+                                mQueue.drainTo(discarded);
+                                discard(discarded);
+                                return;
+                            }
+                        }
+                    }
+                    finally
+                    {
+                        //Clear the batch even when a request fails so that the requests are not handled again
+                        mBatch.clear();
+                    }
+                }
+
+                if(mEntriesSinceFlush >= mFlushEntries || System.currentTimeMillis() >= mNextFlush)
+                {
+                    commit();
+                }
+            }
+            catch(InterruptedException ie)
+            {
+                //Ignore - the writer only stops on a stop request
+            }
+            catch(Throwable t)
+            {
+                mLog.error("Error in event log writer", t);
+            }
+        }
+    }
+
+    /**
+     * Discards the requests that were queued behind a stop request and releases any threads waiting on a flush or
+     * stop request
+     */
+    private void discard(List<Request> requests)
+    {
+        int entries = 0;
+
+        for(Request request : requests)
+        {
+            if(request.getType() == RequestType.WRITE)
+            {
+                entries++;
+            }
+
+            if(request.getLatch() != null)
+            {
+                request.getLatch().countDown();
+            }
+        }
+
+        if(entries > 0)
+        {
+            mLog.warn("Event log writer stopped - discarded [" + entries + "] queued entries");
+        }
+    }
+
+    /**
+     * Handles a queued request on the writer thread.  Errors are logged so that a failed request does not prevent
+     * the remaining requests in the batch from being handled.
+     *
+     * @return false if the writer should stop
+     */
+    private boolean handle(Request request)
+    {
+        try
+        {
+            return handleRequest(request);
+        }
+        catch(Throwable t)
+        {
+            mLog.error("Error handling event log " + request.getType() + " request for [" + request.getLogFile() +
+                "]", t);
+
+            if(request.getType() == RequestType.STOP)
+            {
+                mRunning = false;
+            }
+
+            if(request.getLatch() != null)
+            {
+                request.getLatch().countDown();
+            }
+
+            return request.getType() != RequestType.STOP;
+        }
+    }
+
+    private boolean handleRequest(Request request)
+    {
+        switch(request.getType())
+        {
+            case OPEN:
+                request.getLogFile().create();
+                break;
+            case WRITE:
+                request.getLogFile().append(request.getEntry());
+                mEntriesSinceFlush++;
+                break;
+            case CLOSE:
+                request.getLogFile().closeChannel();
+                break;
+            case FLUSH:
+                commit();
+                request.getLatch().countDown();
+                break;
+            case STOP:
+                commit();
+
+                for(LogFile logFile : new ArrayList<>(mOpenFiles))
+                {
+                    logFile.closeChannel();
+                }
+
+                mRunning = false;
+                request.getLatch().countDown();
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Group commit: writes the buffered entries of each dirty log file to its channel
+     */
+    private void commit()
+    {
+        for(LogFile logFile : mDirtyFiles)
+        {
+            logFile.commit();
+        }
+
+        mDirtyFiles.clear();
+        mEntriesSinceFlush = 0;
+        mNextFlush = System.currentTimeMillis() + mFlushInterval;
+    }
+
+    private enum RequestType
+    {
+        OPEN, WRITE, CLOSE, FLUSH, STOP
+    }
+
+    private static class Request
+    {
+        private LogFile mLogFile;
+        private String mEntry;
+        private RequestType mType;
+        private CountDownLatch mLatch;
+
+        public Request(LogFile logFile, String entry, RequestType type, CountDownLatch latch)
+        {
+            mLogFile = logFile;
+            mEntry = entry;
+            mType = type;
+            mLatch = latch;
+        }
+
+        public LogFile getLogFile()
+        {
+            return mLogFile;
+        }
+
+        public String getEntry()
+        {
+            return mEntry;
+        }
+
+        public RequestType getType()
+        {
+            return mType;
+        }
+
+        public CountDownLatch getLatch()
+        {
+            return mLatch;
+        }
+    }
+
+    /**
+     * Handle for a single log file.  Entries are written from any thread via write() and are processed on the
+     * writer thread.
+     */
+    public class LogFile
+    {
+        private Path mDirectory;
+        private String mFileNameSuffix;
+        private String mHeader;
+        private boolean mTimestamp;
+        private volatile Path mPath;
+
+        /* Writer thread state */
+        private FileChannel mChannel;
+        private ByteBuffer mBuffer;
+        private long mBytesWritten;
+        private long mOpened;
+
+        private LogFile(Path directory, String fileNameSuffix, String header, boolean timestamp)
+        {
+            mDirectory = directory;
+            mFileNameSuffix = fileNameSuffix;
+            mHeader = header;
+            mTimestamp = timestamp;
+        }
+
+        /**
+         * Queues the entry, followed by a line separator, for writing to the log file.  Entries are discarded once
+         * the writer is stopped, since the log file is closed and nothing drains the queue.
+         */
+        public void write(String entry)
+        {
+            if(mRunning)
+            {
+                enqueue(new Request(this, entry, RequestType.WRITE, null));
+            }
+            else
+            {
+                mDiscardedEntries.incrementAndGet();
+            }
+        }
+
+        /**
+         * Queues a request to write any queued entries and close the log file.  Has no effect once the writer is
+         * stopped, since stopping the writer closes all log files.
+         */
+        public void close()
+        {
+            if(mRunning)
+            {
+                enqueue(new Request(this, null, RequestType.CLOSE, null));
+            }
+        }
+
+        /**
+         * Path of the current log file, or null if it has not been created
+         */
+        public Path getPath()
+        {
+            return mPath;
+        }
+
+        /**
+         * Creates the log file and writes the header
+         */
+        private void create()
+        {
+            long now = System.currentTimeMillis();
+
+            Path path;
+
+            if(!mTimestamp && mPath == null)
+            {
+                path = mDirectory.resolve(mFileNameSuffix);
+            }
+            else
+            {
+                path = mDirectory.resolve(TimeStamp.getTimeStamp(now, "_") + "_" + mFileNameSuffix);
+
+                //A size based rotation can occur within the same second as the previous file
+                for(int x = 1; Files.exists(path); x++)
+                {
+                    path = mDirectory.resolve(TimeStamp.getTimeStamp(now, "_") + "_" + x + "_" + mFileNameSuffix);
+                }
+            }
+
+            try
+            {
+                mChannel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+                mPath = path;
+                mOpened = now;
+                mOpenFiles.add(this);
+                mBytesWritten = 0;
+
+                if(mBuffer == null)
+                {
+                    mBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+                }
+
+                if(mHeader != null)
+                {
+                    encode(mHeader);
+                    mDirtyFiles.add(this);
+                }
+            }
+            catch(IOException ioe)
+            {
+                mLog.error("Couldn't create log file in directory:" + mDirectory, ioe);
+                mChannel = null;
+            }
+        }
+
+        /**
+         * Encodes the entry into the buffer, rotating the log file first if it is due
+         */
+        private void append(String entry)
+        {
+            if(mChannel == null)
+            {
+                return;
+            }
+
+            if(isRotationDue(entry.length()))
+            {
+                closeChannel();
+                create();
+
+                if(mChannel == null)
+                {
+                    return;
+                }
+            }
+
+            encode(entry);
+            mDirtyFiles.add(this);
+        }
+
+        private boolean isRotationDue(int entryLength)
+        {
+            long size = mBytesWritten + mBuffer.position();
+
+            if(mRotateSize > 0 && size > 0 && size + entryLength + 1 > mRotateSize)
+            {
+                return true;
+            }
+
+            return mRotateAge > 0 && System.currentTimeMillis() - mOpened >= mRotateAge;
+        }
+
+        private void encode(String entry)
+        {
+            CharBuffer chars = CharBuffer.wrap(entry + "\n");
+
+            mEncoder.reset();
+
+            while(true)
+            {
+                CoderResult result = mEncoder.encode(chars, mBuffer, true);
+
+                if(result.isOverflow())
+                {
+                    drain();
+                }
+                else
+                {
+                    break;
+                }
+            }
+
+            while(mEncoder.flush(mBuffer).isOverflow())
+            {
+                drain();
+            }
+        }
+
+        /**
+         * Writes the buffer contents to the channel
+         */
+        private void drain()
+        {
+            mBuffer.flip();
+
+            try
+            {
+                while(mBuffer.hasRemaining())
+                {
+                    mBytesWritten += mChannel.write(mBuffer);
+                }
+            }
+            catch(IOException ioe)
+            {
+                mLog.error("Error writing entries to event log file [" + mPath + "]", ioe);
+            }
+
+            mBuffer.clear();
+        }
+
+        private void commit()
+        {
+            if(mChannel != null)
+            {
+                drain();
+
+                if(mSync)
+                {
+                    try
+                    {
+                        mChannel.force(false);
+                    }
+                    catch(IOException ioe)
+                    {
+                        mLog.error("Error syncing event log file [" + mPath + "]", ioe);
+                    }
+                }
+            }
+        }
+
+        private void closeChannel()
+        {
+            if(mChannel != null)
+            {
+                commit();
+
+                try
+                {
+                    mChannel.close();
+                }
+                catch(IOException ioe)
+                {
+                    mLog.error("Couldn't close log file:" + mPath);
+                }
+
+                mChannel = null;
+                mOpenFiles.remove(this);
+                mDirtyFiles.remove(this);
+            }
+        }
+
+        @Override
+        public String toString()
+        {
+            Path path = mPath;
+
+            return path != null ? path.toString() : mFileNameSuffix;
+        }
+    }
+}
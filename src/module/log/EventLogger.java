@@ -21,17 +21,14 @@ package module.log;
 import module.Module;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import util.TimeStamp;
 
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.io.Writer;
 import java.nio.file.Path;
 import java.util.concurrent.ScheduledExecutorService;
 
+/**
+ * Base event logger.  Log entries are handed to the shared EventLogWriter, which writes them to the log file on its
+ * own thread, so that the decoder thread producing the event does not wait on file I/O.
+ */
 public abstract class EventLogger extends Module
 {
     private final static Logger mLog = LoggerFactory.getLogger(EventLogger.class);
@@ -39,22 +36,23 @@ public abstract class EventLogger extends Module
     private static final String[] ILLEGAL_FILENAME_CHARACTERS = {"#", "%", "&", "{", "}", "\\", "<", ">",
         "*", "?", "/", " ", "$", "!", "'", "\"", ":", "@", "+", "`", "|", "="};
 
+    private EventLogWriter mEventLogWriter;
     private Path mLogDirectory;
     private String mFileNameSuffix;
-    private String mLogFileName;
-    protected Writer mLogFile;
+    protected EventLogWriter.LogFile mLogFile;
 
-    public EventLogger(Path logDirectory, String fileNameSuffix)
+    public EventLogger(EventLogWriter eventLogWriter, Path logDirectory, String fileNameSuffix)
     {
+        mEventLogWriter = eventLogWriter;
         mLogDirectory = logDirectory;
         mFileNameSuffix = fileNameSuffix;
     }
 
     public String toString()
     {
-        if(mLogFileName != null)
+        if(mLogFile != null && mLogFile.getPath() != null)
         {
-            return mLogFileName;
+            return mLogFile.getPath().toString();
         }
         else
         {
@@ -69,25 +67,7 @@ public abstract class EventLogger extends Module
     {
         if(mLogFile == null)
         {
-            try
-            {
-                StringBuilder sb = new StringBuilder();
-                sb.append(mLogDirectory);
-                sb.append(File.separator);
-                sb.append(TimeStamp.getTimeStamp("_"));
-                sb.append("_");
-                sb.append(replaceIllegalCharacters(mFileNameSuffix));
-
-                mLogFileName = sb.toString();
-
-                mLogFile = new OutputStreamWriter(new FileOutputStream(mLogFileName));
-
-                write(getHeader());
-            }
-            catch(FileNotFoundException e)
-            {
-                mLog.error("Couldn't create log file in directory:" + mLogDirectory);
-            }
+            mLogFile = mEventLogWriter.open(mLogDirectory, replaceIllegalCharacters(mFileNameSuffix), getHeader());
         }
     }
 
@@ -108,32 +88,18 @@ public abstract class EventLogger extends Module
     {
         if(mLogFile != null)
         {
-            try
-            {
-                mLogFile.flush();
-                mLogFile.close();
-                mLogFile = null;
-            }
-            catch(Exception e)
-            {
-                mLog.error("Couldn't close log file:" + mFileNameSuffix);
-            }
+            mLogFile.close();
+            mLogFile = null;
         }
     }
 
     protected void write(String eventLogEntry)
     {
-        if(mLogFile != null)
+        EventLogWriter.LogFile logFile = mLogFile;
+
+        if(logFile != null)
         {
-            try
-            {
-                mLogFile.write(eventLogEntry + "\n");
-                mLogFile.flush();
-            }
-            catch(IOException e)
-            {
-                mLog.error("Error writing entry to event log file", e);
-            }
+            logFile.write(eventLogEntry);
         }
     }
 }
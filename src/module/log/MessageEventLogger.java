@@ -34,11 +34,12 @@ public class MessageEventLogger extends EventLogger implements
 
 	private Type mType;
 
-	public MessageEventLogger( Path logDirectory, 
+	public MessageEventLogger( EventLogWriter eventLogWriter,
+							   Path logDirectory, 
 							   String fileNameSuffix,
 							   Type type )
 	{
-		super( logDirectory, fileNameSuffix );
+		super( eventLogWriter, logDirectory, fileNameSuffix );
 
 		mType = type;
 	}
@@ -13,30 +13,79 @@ import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.net.URI;
-import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.imageio.ImageIO;
 
 /**
- * An implementation only class for now. For internal use only.
+ * Two tier in-memory tile cache with an optional persistent disk tier.
+ *
+ * Decoded images and the compressed image bytes are held in separate least
+ * recently used tiers, each bounded by a byte budget.  Both tiers are access
+ * ordered LinkedHashMaps so that lookup, promotion and eviction are constant
+ * time.  Compressed bytes are decoded outside of the tier locks.  When a
+ * TileDiskCache is attached, put() also stores the compressed bytes on disk
+ * and get() falls back to the disk tier before reporting a miss, so tiles
+ * survive restarts and remain available offline.
+ *
  * @author joshua.marinacci@sun.com
  */
 public class TileCache
 {
-	private Map<URI, BufferedImage> imgmap = new HashMap<URI, BufferedImage>();
-	private LinkedList<URI> imgmapAccessQueue = new LinkedList<URI>();
-	private int imagesize = 0;
-	private Map<URI, byte[]> bytemap = new HashMap<URI, byte[]>();
-	private LinkedList<URI> bytemapAccessQueue = new LinkedList<URI>();
-	private int bytesize = 0;
+	public static final long DEFAULT_IMAGE_BUDGET = 1000 * 1000 * 50;
+	public static final long DEFAULT_COMPRESSED_BUDGET = 1000 * 1000 * 50;
+
+	private final Map<URI, BufferedImage> imgmap = new LinkedHashMap<URI, BufferedImage>(256, 0.75f, true);
+	private long imagesize = 0;
+	private long imageBudget;
+
+	private final Map<URI, byte[]> bytemap = new LinkedHashMap<URI, byte[]>(256, 0.75f, true);
+	private long bytesize = 0;
+	private long compressedBudget;
+
+	private TileDiskCache diskCache;
+
+	private final AtomicLong imageHits = new AtomicLong();
+	private final AtomicLong compressedHits = new AtomicLong();
+	private final AtomicLong diskHits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
 
 	/**
-	 * Default constructor - Empty
+	 * Constructs a memory only cache with the default 50 MB image and compressed budgets
 	 */
 	public TileCache()
 	{
+		this(DEFAULT_IMAGE_BUDGET, DEFAULT_COMPRESSED_BUDGET);
+	}
+
+	/**
+	 * Constructs a memory only cache
+	 * @param imageBudget maximum bytes of decoded (4 bytes per pixel) images to retain
+	 * @param compressedBudget maximum bytes of compressed images to retain
+	 */
+	public TileCache(long imageBudget, long compressedBudget)
+	{
+		this.imageBudget = imageBudget;
+		this.compressedBudget = compressedBudget;
+	}
+
+	/**
+	 * Attaches a persistent disk tier, or detaches the disk tier when the argument is null
+	 */
+	public void setDiskCache(TileDiskCache diskCache)
+	{
+		this.diskCache = diskCache;
+	}
+
+	/**
+	 * @return the attached disk tier or null
+	 */
+	public TileDiskCache getDiskCache()
+	{
+		return diskCache;
 	}
 
 	/**
@@ -48,55 +97,92 @@ public class TileCache
 	 */
 	public void put(URI uri, byte[] bimg, BufferedImage img)
 	{
-		synchronized (bytemap)
-		{
-			while (bytesize > 1000 * 1000 * 50)
-			{
-				URI olduri = bytemapAccessQueue.removeFirst();
-				byte[] oldbimg = bytemap.remove(olduri);
-				bytesize -= oldbimg.length;
-				log("removed 1 img from byte cache");
-			}
+		addToByteCache(uri, bimg);
+		addToImageCache(uri, img);
 
-			bytemap.put(uri, bimg);
-			bytesize += bimg.length;
-			bytemapAccessQueue.addLast(uri);
+		TileDiskCache disk = diskCache;
+
+		if (disk != null)
+		{
+			disk.put(uri, bimg);
 		}
-		addToImageCache(uri, img);
 	}
 
 	/**
 	 * Returns a buffered image for the requested URI from the cache. This method must return null if the image is not
-	 * in the cache. If the image is unavailable but it's compressed version *is* available, then the compressed version
-	 * will be expanded and returned.
+	 * in the cache. If the image is unavailable but it's compressed version *is* available in memory or on disk, then
+	 * the compressed version will be expanded and returned.
 	 * @param uri URI of the image previously put in the cache
 	 * @return the image matching the requested URI, or null if not available
-	 * @throws IOException if retrieval fails 
+	 * @throws IOException if retrieval fails
 	 */
 	public BufferedImage get(URI uri) throws IOException
 	{
+		BufferedImage img;
+
 		synchronized (imgmap)
 		{
-			if (imgmap.containsKey(uri))
-			{
-				imgmapAccessQueue.remove(uri);
-				imgmapAccessQueue.addLast(uri);
-				return imgmap.get(uri);
-			}
+			img = imgmap.get(uri);
+		}
+
+		if (img != null)
+		{
+			imageHits.incrementAndGet();
+			return img;
 		}
+
+		byte[] bimg;
+
 		synchronized (bytemap)
 		{
-			if (bytemap.containsKey(uri))
+			bimg = bytemap.get(uri);
+		}
+
+		if (bimg != null)
+		{
+			compressedHits.incrementAndGet();
+		}
+		else
+		{
+			TileDiskCache disk = diskCache;
+
+			if (disk != null)
+			{
+				bimg = disk.get(uri);
+			}
+
+			if (bimg == null)
 			{
-				log("retrieving from bytes");
-				bytemapAccessQueue.remove(uri);
-				bytemapAccessQueue.addLast(uri);
-				BufferedImage img = ImageIO.read(new ByteArrayInputStream(bytemap.get(uri)));
-				addToImageCache(uri, img);
-				return img;
+				misses.incrementAndGet();
+				return null;
 			}
+
+			diskHits.incrementAndGet();
+			addToByteCache(uri, bimg);
+		}
+
+		log("retrieving from bytes");
+		img = ImageIO.read(new ByteArrayInputStream(bimg));
+
+		if (img != null)
+		{
+			addToImageCache(uri, img);
+		}
+
+		return img;
+	}
+
+	/**
+	 * Closes the attached disk tier.  The memory tiers are retained.
+	 */
+	public void dispose()
+	{
+		TileDiskCache disk = diskCache;
+
+		if (disk != null)
+		{
+			disk.close();
 		}
-		return null;
 	}
 
 	/**
@@ -106,33 +192,198 @@ public class TileCache
 	 */
 	public void needMoreMemory()
 	{
-		imgmap.clear();
+		synchronized (imgmap)
+		{
+			imgmap.clear();
+			imagesize = 0;
+		}
 		log("HACK! need more memory: freeing up memory");
 	}
 
+	/**
+	 * Sets the decoded image budget in bytes, evicting least recently used images as needed
+	 */
+	public void setImageBudget(long budget)
+	{
+		synchronized (imgmap)
+		{
+			imageBudget = budget;
+			imagesize -= evict(imgmap, imagesize - imageBudget, true);
+		}
+	}
+
+	/**
+	 * Sets the compressed image budget in bytes, evicting least recently used images as needed
+	 */
+	public void setCompressedBudget(long budget)
+	{
+		synchronized (bytemap)
+		{
+			compressedBudget = budget;
+			bytesize -= evict(bytemap, bytesize - compressedBudget, false);
+		}
+	}
+
+	public long getImageBudget()
+	{
+		return imageBudget;
+	}
+
+	public long getCompressedBudget()
+	{
+		return compressedBudget;
+	}
+
+	/**
+	 * @return bytes of decoded images currently held in memory
+	 */
+	public long getImageSize()
+	{
+		synchronized (imgmap)
+		{
+			return imagesize;
+		}
+	}
+
+	/**
+	 * @return bytes of compressed images currently held in memory
+	 */
+	public long getCompressedSize()
+	{
+		synchronized (bytemap)
+		{
+			return bytesize;
+		}
+	}
+
+	public long getImageHits()
+	{
+		return imageHits.get();
+	}
+
+	public long getCompressedHits()
+	{
+		return compressedHits.get();
+	}
+
+	public long getDiskHits()
+	{
+		return diskHits.get();
+	}
+
+	public long getMisses()
+	{
+		return misses.get();
+	}
+
+	/**
+	 * @return fraction of get() requests satisfied by any tier, or 0 when no requests have been made
+	 */
+	public double getHitRate()
+	{
+		long hits = imageHits.get() + compressedHits.get() + diskHits.get();
+		long total = hits + misses.get();
+
+		return total == 0 ? 0.0 : (double) hits / (double) total;
+	}
+
+	/**
+	 * Resets the hit and miss counters
+	 */
+	public void resetStatistics()
+	{
+		imageHits.set(0);
+		compressedHits.set(0);
+		diskHits.set(0);
+		misses.set(0);
+	}
+
+	/**
+	 * @return summary of tier sizes and hit counts
+	 */
+	public String getStatistics()
+	{
+		StringBuilder sb = new StringBuilder();
+		sb.append("Tile Cache - hit rate: ").append(String.format("%.1f%%", getHitRate() * 100.0));
+		sb.append(" image hits: ").append(getImageHits());
+		sb.append(" compressed hits: ").append(getCompressedHits());
+		sb.append(" disk hits: ").append(getDiskHits());
+		sb.append(" misses: ").append(getMisses());
+		sb.append(" image: ").append(getImageSize() / 1000).append("/").append(imageBudget / 1000).append("k");
+		sb.append(" compressed: ").append(getCompressedSize() / 1000).append("/").append(compressedBudget / 1000)
+				.append("k");
+
+		TileDiskCache disk = diskCache;
+
+		if (disk != null)
+		{
+			sb.append(" disk: ").append(disk.getSize() / 1000).append("/").append(disk.getBudget() / 1000)
+					.append("k in ").append(disk.getTileCount()).append(" tiles");
+		}
+
+		return sb.toString();
+	}
+
+	private void addToByteCache(URI uri, byte[] bimg)
+	{
+		synchronized (bytemap)
+		{
+			byte[] previous = bytemap.put(uri, bimg);
+
+			if (previous != null)
+			{
+				bytesize -= previous.length;
+			}
+
+			bytesize += bimg.length;
+			bytesize -= evict(bytemap, bytesize - compressedBudget, false);
+		}
+	}
+
 	private void addToImageCache(final URI uri, final BufferedImage img)
 	{
 		synchronized (imgmap)
 		{
-			try {
-                            while (imagesize > 1000 * 1000 * 50)
-                            {
-                                    URI olduri = imgmapAccessQueue.removeFirst();
-                                    BufferedImage oldimg = imgmap.remove(olduri);
-                                    imagesize -= oldimg.getWidth() * oldimg.getHeight() * 4;
-                                    log("removed 1 img from image cache");
-                            }
-                            imgmap.put(uri, img);
-                            imagesize += img.getWidth() * img.getHeight() * 4;
-                            imgmapAccessQueue.addLast(uri);
-                        } catch (Exception ex) {
-                            log("Failed to load tile at URL. Tile is null");
-                        }
+			BufferedImage previous = imgmap.put(uri, img);
+
+			if (previous != null)
+			{
+				imagesize -= sizeOf(previous);
+			}
+
+			imagesize += sizeOf(img);
+			imagesize -= evict(imgmap, imagesize - imageBudget, true);
 		}
 //		log("added to cache: " + " uncompressed = " + imgmap.keySet().size() + " / " + imagesize / 1000 + "k"
 //				+ " compressed = " + bytemap.keySet().size() + " / " + bytesize / 1000 + "k");
 	}
 
+	/**
+	 * Removes least recently used entries until at least the excess number of bytes have been removed, always
+	 * retaining the most recently used entry.  Caller must hold the map lock.
+	 * @return number of bytes removed
+	 */
+	private static long evict(Map<URI, ?> map, long excess, boolean images)
+	{
+		long removed = 0;
+
+		Iterator<?> it = map.values().iterator();
+
+		while (removed < excess && map.size() > 1 && it.hasNext())
+		{
+			Object value = it.next();
+			removed += images ? sizeOf((BufferedImage) value) : ((byte[]) value).length;
+			it.remove();
+		}
+
+		return removed;
+	}
+
+	private static long sizeOf(BufferedImage img)
+	{
+		return (long) img.getWidth() * img.getHeight() * 4;
+	}
+
 	private void log(String string)
 	{
 //		Log.debug( string );
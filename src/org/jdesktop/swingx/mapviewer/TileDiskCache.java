@@ -0,0 +1,534 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package org.jdesktop.swingx.mapviewer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Persistent least recently used store for compressed map tile images.
+ *
+ * Each tile is stored in its own file, named from the SHA-1 digest of the tile URI.  The index is an append-only
+ * journal of put, access and remove records that is replayed at startup to rebuild the access ordered index and is
+ * compacted once it grows to several times the number of live entries.  Tile files are written to a temporary file
+ * and moved into place before the journal records them, so an interrupted write never leaves a partial tile indexed.
+ * Total tile bytes are bounded by a budget with least recently used eviction.
+ *
+ * File reads and writes happen outside of the index lock so that concurrent tile loader threads only serialize on
+ * index updates.
+ */
+public class TileDiskCache
+{
+    private final static Logger mLog = LoggerFactory.getLogger(TileDiskCache.class);
+
+    public static final String INDEX_FILE_NAME = "tile_index.journal";
+    private static final String TILE_EXTENSION = ".tile";
+    private static final String TEMPORARY_EXTENSION = ".tmp";
+    private static final String PUT = "P";
+    private static final String ACCESS = "A";
+    private static final String REMOVE = "R";
+    private static final String SEPARATOR = " ";
+    private static final int MINIMUM_COMPACTION_RECORDS = 1000;
+
+    private Path mDirectory;
+    private Path mIndexPath;
+    private long mBudget;
+    private long mSize;
+    private int mJournalRecords;
+    private BufferedWriter mJournal;
+    private Map<String,Entry> mIndex = new LinkedHashMap<>(1024, 0.75f, true);
+
+    /**
+     * Opens or creates the disk cache in the directory and rebuilds the index from the journal
+     *
+     * @param directory to hold the tile files and index journal
+     * @param budget maximum total bytes of tile files to retain
+     * @throws IOException if the directory or index journal cannot be created
+     */
+    public TileDiskCache(Path directory, long budget) throws IOException
+    {
+        mDirectory = directory;
+        mIndexPath = directory.resolve(INDEX_FILE_NAME);
+        mBudget = budget;
+
+        Files.createDirectories(directory);
+
+        load();
+        compact();
+        evict();
+    }
+
+    /**
+     * Returns the compressed tile bytes for the uri or null if the tile is not stored
+     */
+    public byte[] get(URI uri)
+    {
+        String name = getFileName(uri);
+
+        synchronized(this)
+        {
+            if(mIndex.get(name) == null)
+            {
+                return null;
+            }
+
+            journal(ACCESS, name, null);
+        }
+
+        try
+        {
+            return Files.readAllBytes(mDirectory.resolve(name));
+        }
+        catch(NoSuchFileException nsfe)
+        {
+            //Evicted by another thread or removed externally
+            remove(name);
+        }
+        catch(IOException ioe)
+        {
+            mLog.error("Error reading cached map tile [" + uri + "]", ioe);
+            remove(name);
+        }
+
+        return null;
+    }
+
+    /**
+     * Stores the compressed tile bytes for the uri, replacing any previously stored tile
+     */
+    public void put(URI uri, byte[] bytes)
+    {
+        if(bytes == null || bytes.length == 0 || bytes.length > mBudget)
+        {
+            return;
+        }
+
+        String name = getFileName(uri);
+        Path temporary = null;
+
+        try
+        {
+            temporary = Files.createTempFile(mDirectory, name, TEMPORARY_EXTENSION);
+            Files.write(temporary, bytes);
+
+            synchronized(this)
+            {
+                Files.move(temporary, mDirectory.resolve(name), StandardCopyOption.REPLACE_EXISTING);
+
+                Entry previous = mIndex.put(name, new Entry(bytes.length, uri.toString()));
+
+                if(previous != null)
+                {
+                    mSize -= previous.getLength();
+                }
+
+                mSize += bytes.length;
+
+                journal(PUT, name, bytes.length + SEPARATOR + uri);
+
+                evict();
+                compactIfNeeded();
+            }
+        }
+        catch(IOException ioe)
+        {
+            mLog.error("Error storing map tile [" + uri + "] in disk cache", ioe);
+
+            if(temporary != null)
+            {
+                try
+                {
+                    Files.deleteIfExists(temporary);
+                }
+                catch(IOException ioe2)
+                {
+                    //Do nothing, the temporary file is deleted the next time the cache is opened
+                }
+            }
+        }
+    }
+
+    /**
+     * Indicates if a tile is stored for the uri
+     */
+    public synchronized boolean contains(URI uri)
+    {
+        return mIndex.containsKey(getFileName(uri));
+    }
+
+    /**
+     * Total bytes of stored tile files
+     */
+    public synchronized long getSize()
+    {
+        return mSize;
+    }
+
+    /**
+     * Maximum total bytes of stored tile files
+     */
+    public synchronized long getBudget()
+    {
+        return mBudget;
+    }
+
+    /**
+     * Sets the maximum total bytes of stored tile files, evicting least recently used tiles as needed
+     */
+    public synchronized void setBudget(long budget)
+    {
+        mBudget = budget;
+        evict();
+    }
+
+    /**
+     * Number of stored tiles
+     */
+    public synchronized int getTileCount()
+    {
+        return mIndex.size();
+    }
+
+    /**
+     * Removes all stored tiles and resets the index journal
+     */
+    public synchronized void clear()
+    {
+        for(String name : new ArrayList<>(mIndex.keySet()))
+        {
+            deleteFile(name);
+        }
+
+        mIndex.clear();
+        mSize = 0;
+        compact();
+    }
+
+    /**
+     * Compacts the index journal and closes it.  The cache reopens the journal if it is used after closing.
+     */
+    public synchronized void close()
+    {
+        compact();
+        closeJournal();
+    }
+
+    private synchronized void remove(String name)
+    {
+        Entry entry = mIndex.remove(name);
+
+        if(entry != null)
+        {
+            mSize -= entry.getLength();
+            journal(REMOVE, name, null);
+            deleteFile(name);
+        }
+    }
+
+    /**
+     * Removes least recently used tiles until the stored size is within budget.  Caller must hold the lock.
+     */
+    private void evict()
+    {
+        Iterator<Map.Entry<String,Entry>> it = mIndex.entrySet().iterator();
+
+        while(mSize > mBudget && it.hasNext())
+        {
+            Map.Entry<String,Entry> eldest = it.next();
+            it.remove();
+
+            mSize -= eldest.getValue().getLength();
+            journal(REMOVE, eldest.getKey(), null);
+            deleteFile(eldest.getKey());
+        }
+    }
+
+    /**
+     * Replays the index journal.  Entries whose tile file no longer exists are dropped.
+     */
+    private void load()
+    {
+        deleteTemporaryFiles();
+
+        if(!Files.exists(mIndexPath))
+        {
+            return;
+        }
+
+        List<String> records;
+
+        try
+        {
+            records = Files.readAllLines(mIndexPath, StandardCharsets.UTF_8);
+        }
+        catch(IOException ioe)
+        {
+            mLog.error("Error reading map tile cache index - starting with an empty index", ioe);
+            return;
+        }
+
+        for(String record : records)
+        {
+            String[] fields = record.split(SEPARATOR, 4);
+
+            if(fields.length == 4 && fields[0].equals(PUT))
+            {
+                try
+                {
+                    Entry previous = mIndex.put(fields[1], new Entry(Integer.parseInt(fields[2]), fields[3]));
+
+                    if(previous != null)
+                    {
+                        mSize -= previous.getLength();
+                    }
+
+                    mSize += Integer.parseInt(fields[2]);
+                }
+                catch(NumberFormatException nfe)
+                {
+                    //Ignore a corrupt record
+                }
+            }
+            else if(fields.length == 2 && fields[0].equals(ACCESS))
+            {
+                mIndex.get(fields[1]);
+            }
+            else if(fields.length == 2 && fields[0].equals(REMOVE))
+            {
+                Entry entry = mIndex.remove(fields[1]);
+
+                if(entry != null)
+                {
+                    mSize -= entry.getLength();
+                }
+            }
+        }
+
+        Iterator<Map.Entry<String,Entry>> it = mIndex.entrySet().iterator();
+
+        while(it.hasNext())
+        {
+            Map.Entry<String,Entry> entry = it.next();
+
+            if(!Files.exists(mDirectory.resolve(entry.getKey())))
+            {
+                mSize -= entry.getValue().getLength();
+                it.remove();
+            }
+        }
+
+        mLog.info("Map tile disk cache loaded - tiles: " + mIndex.size() + " size: " + (mSize / 1000) + "k");
+    }
+
+    /**
+     * Deletes temporary tile and index files left behind when the application exits before moving them into place
+     */
+    private void deleteTemporaryFiles()
+    {
+        try(DirectoryStream<Path> stream = Files.newDirectoryStream(mDirectory, "*" + TEMPORARY_EXTENSION))
+        {
+            for(Path temporary : stream)
+            {
+                try
+                {
+                    Files.deleteIfExists(temporary);
+                }
+                catch(IOException ioe)
+                {
+                    mLog.error("Error deleting temporary map tile cache file [" + temporary + "]", ioe);
+                }
+            }
+        }
+        catch(IOException ioe)
+        {
+            mLog.error("Error listing temporary map tile cache files", ioe);
+        }
+    }
+
+    private void compactIfNeeded()
+    {
+        if(mJournalRecords > Math.max(MINIMUM_COMPACTION_RECORDS, mIndex.size() * 4))
+        {
+            compact();
+        }
+    }
+
+    /**
+     * Rewrites the index journal as one put record per live entry in least to most recently used order.  Caller must
+     * hold the lock.
+     */
+    private void compact()
+    {
+        closeJournal();
+
+        Path temporary = mDirectory.resolve(INDEX_FILE_NAME + TEMPORARY_EXTENSION);
+
+        try(BufferedWriter writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8))
+        {
+            for(Map.Entry<String,Entry> entry : mIndex.entrySet())
+            {
+                writer.write(PUT + SEPARATOR + entry.getKey() + SEPARATOR + entry.getValue().getLength() +
+                    SEPARATOR + entry.getValue().getURI());
+                writer.newLine();
+            }
+        }
+        catch(IOException ioe)
+        {
+            mLog.error("Error compacting map tile cache index", ioe);
+            return;
+        }
+
+        try
+        {
+            Files.move(temporary, mIndexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch(IOException ioe)
+        {
+            mLog.error("Error replacing map tile cache index", ioe);
+        }
+
+        mJournalRecords = mIndex.size();
+    }
+
+    /**
+     * Appends a record to the index journal.  Caller must hold the lock.
+     */
+    private void journal(String type, String name, String value)
+    {
+        try
+        {
+            if(mJournal == null)
+            {
+                mJournal = Files.newBufferedWriter(mIndexPath, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND);
+            }
+
+            mJournal.write(type + SEPARATOR + name + (value != null ? SEPARATOR + value : ""));
+            mJournal.newLine();
+            mJournal.flush();
+            mJournalRecords++;
+        }
+        catch(IOException ioe)
+        {
+            mLog.error("Error writing map tile cache index", ioe);
+            closeJournal();
+        }
+    }
+
+    private void closeJournal()
+    {
+        if(mJournal != null)
+        {
+            try
+            {
+                mJournal.close();
+            }
+            catch(IOException ioe)
+            {
+                //Do nothing, we're closing the journal
+            }
+
+            mJournal = null;
+        }
+    }
+
+    private void deleteFile(String name)
+    {
+        try
+        {
+            Files.deleteIfExists(mDirectory.resolve(name));
+        }
+        catch(IOException ioe)
+        {
+            mLog.error("Error deleting cached map tile [" + name + "]", ioe);
+        }
+    }
+
+    /**
+     * Tile file name derived from the SHA-1 digest of the tile URI
+     */
+    private static String getFileName(URI uri)
+    {
+        try
+        {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            byte[] hash = digest.digest(uri.toString().getBytes(StandardCharsets.UTF_8));
+
+            StringBuilder sb = new StringBuilder();
+
+            for(byte value : hash)
+            {
+                sb.append(Character.forDigit((value >> 4) & 0xF, 16));
+                sb.append(Character.forDigit(value & 0xF, 16));
+            }
+
+            sb.append(TILE_EXTENSION);
+
+            return sb.toString();
+        }
+        catch(NoSuchAlgorithmException nsae)
+        {
+            //SHA-1 is required on all java platforms
+            throw new IllegalStateException("SHA-1 message digest is not available", nsae);
+        }
+    }
+
+    /**
+     * Index entry for a stored tile
+     */
+    private static class Entry
+    {
+        private int mLength;
+        private String mURI;
+
+        public Entry(int length, String uri)
+        {
+            mLength = length;
+            mURI = uri;
+        }
+
+        public int getLength()
+        {
+            return mLength;
+        }
+
+        public String getURI()
+        {
+            return mURI;
+        }
+    }
+}
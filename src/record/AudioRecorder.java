@@ -45,7 +45,7 @@ public abstract class AudioRecorder extends Module implements Listener<AudioPack
     private LinkedBlockingQueue<AudioPacket> mAudioPacketQueue = new LinkedBlockingQueue<>(500);
     private List<AudioPacket> mPacketsToProcess = new ArrayList<>();
 
-    private FileOutputStream mFileOutputStream;
+    private OutputStream mOutputStream;
     private AtomicBoolean mRunning = new AtomicBoolean();
 
     protected Path mPath;
@@ -68,6 +68,19 @@ public abstract class AudioRecorder extends Module implements Listener<AudioPack
         mPath = path;
     }
 
+    /**
+     * Abstract audio recorder that writes the recording to the output stream instead of to a file.  The output stream
+     * is closed when the recording is closed.
+     *
+     * @param path identifying the recording
+     * @param outputStream for the recording
+     */
+    public AudioRecorder(Path path, OutputStream outputStream)
+    {
+        mPath = path;
+        mOutputStream = outputStream;
+    }
+
     /**
      * Path for the audio recording file
      */
@@ -145,11 +158,11 @@ public abstract class AudioRecorder extends Module implements Listener<AudioPack
     }
 
     /**
-     * File output stream for the current recording.  Intended to allow sub-classes to write binary data to the file.
+     * Output stream for the current recording.  Intended to allow sub-classes to write binary data to the recording.
      */
     protected OutputStream getOutputStream()
     {
-        return mFileOutputStream;
+        return mOutputStream;
     }
 
     /**
@@ -209,7 +222,10 @@ public abstract class AudioRecorder extends Module implements Listener<AudioPack
 
             try
             {
-                mFileOutputStream = new FileOutputStream(mPath.toFile());
+                if(mOutputStream == null)
+                {
+                    mOutputStream = new FileOutputStream(mPath.toFile());
+                }
 
 				/* Schedule the handler to run every half second */
                 mProcessorHandle = executor.scheduleAtFixedRate(mBufferProcessor, 0, 500, TimeUnit.MILLISECONDS);
@@ -299,12 +315,12 @@ public abstract class AudioRecorder extends Module implements Listener<AudioPack
                     //Allow sub-classes to flush remaining audio frame data to disk.
                     flush();
 
-                    if(mFileOutputStream != null)
+                    if(mOutputStream != null)
                     {
                         try
                         {
-                            mFileOutputStream.flush();
-                            mFileOutputStream.close();
+                            mOutputStream.flush();
+                            mOutputStream.close();
                         }
                         catch(IOException e)
                         {
@@ -19,6 +19,10 @@ package record;
 
 import audio.AudioPacket;
 import channel.metadata.Metadata;
+import metrics.Counter;
+import metrics.MetricGroup;
+import metrics.MetricRegistry;
+import metrics.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import properties.SystemProperties;
@@ -51,6 +55,11 @@ public class RecorderManager implements Listener<AudioPacket>
 
     private boolean mCanStartNewRecorders = true;
 
+    private MetricGroup mMetricGroup = new MetricGroup(MetricGroup.TYPE_RECORDING, "Audio Recording");
+    private Counter mSamplesIn = mMetricGroup.counter("samples in");
+    private Counter mSamplesOut = mMetricGroup.counter("samples recorded");
+    private Timer mProcessingTime = mMetricGroup.timer("packet processing time");
+
     /**
      * Audio recording manager.  Monitors stream of audio packets produced by decoding channels and automatically starts
      * audio recorders when the channel's metadata designates a call as recordable.  Routes call audio to each recorder
@@ -76,6 +85,10 @@ public class RecorderManager implements Listener<AudioPacket>
             }
         });
 
+        mMetricGroup.queue("audio packet queue", mAudioPacketQueue);
+        mMetricGroup.gauge("active recorders", mRecorders::size);
+        MetricRegistry.getInstance().register(mMetricGroup);
+
         mBufferProcessorFuture = ThreadPool.SCHEDULED.scheduleAtFixedRate(new BufferProcessor(), 0,
             1, TimeUnit.SECONDS);
     }
@@ -85,6 +98,8 @@ public class RecorderManager implements Listener<AudioPacket>
      */
     public void dispose()
     {
+        MetricRegistry.getInstance().unregister(mMetricGroup);
+
         if(mBufferProcessorFuture != null)
         {
             mBufferProcessorFuture.cancel(true);
@@ -100,6 +115,11 @@ public class RecorderManager implements Listener<AudioPacket>
     {
         if(audioPacket.hasMetadata() && audioPacket.getMetadata().isRecordable())
         {
+            if(audioPacket.hasAudioBuffer())
+            {
+                mSamplesIn.add(audioPacket.getAudioBuffer().getSamples().length);
+            }
+
             mAudioPacketQueue.offer(audioPacket);
         }
     }
@@ -126,6 +146,7 @@ public class RecorderManager implements Listener<AudioPacket>
                     if(audioPacket.getType() == AudioPacket.Type.AUDIO)
                     {
                         recorder.receive(audioPacket.getAudioBuffer());
+                        mSamplesOut.add(audioPacket.getAudioBuffer().getSamples().length);
                     }
                     else if(audioPacket.getType() == AudioPacket.Type.END)
                     {
@@ -148,6 +169,7 @@ public class RecorderManager implements Listener<AudioPacket>
                             recorder.start(ThreadPool.SCHEDULED);
 
                             recorder.receive(audioPacket.getAudioBuffer());
+                            mSamplesOut.add(audioPacket.getAudioBuffer().getSamples().length);
                             mRecorders.put(identifier, recorder);
                         }
                         catch(Exception ioe)
@@ -242,8 +264,12 @@ public class RecorderManager implements Listener<AudioPacket>
         @Override
         public void run()
         {
+            long start = System.nanoTime();
+
             processBuffers();
             removeIdleRecorders();
+
+            mProcessingTime.add(System.nanoTime() - start);
         }
     }
 }
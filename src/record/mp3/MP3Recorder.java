@@ -54,6 +54,20 @@ public class MP3Recorder extends AudioRecorder
         mMP3Converter = new MP3AudioConverter(MP3_BIT_RATE, CONSTANT_BIT_RATE);
     }
 
+    /**
+     * MP3 audio recorder module for converting audio packets to 16 kHz constant bit rate MP3 format and
+     * recording to the output stream.
+     *
+     * @param path identifying the recording
+     * @param outputStream to receive the MP3 audio
+     */
+    public MP3Recorder(Path path, OutputStream outputStream)
+    {
+        super(path, outputStream);
+
+        mMP3Converter = new MP3AudioConverter(MP3_BIT_RATE, CONSTANT_BIT_RATE);
+    }
+
     @Override
     protected void record(List<AudioPacket> audioPackets) throws IOException
     {
@@ -1,24 +1,121 @@
 package sample;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 public class Buffer
 {
 	protected float[] mSamples;
+	private AtomicInteger mUserCount = new AtomicInteger();
+	private IBufferRecycler mRecycler;
+	private long mTimestamp;
 
 	public Buffer( float[] samples )
 	{
 		mSamples = samples;
 	}
 
+	/**
+	 * Constructs a reusable buffer that is returned to the recycler once the
+	 * user count is decremented to zero.
+	 *
+	 * @param samples to wrap
+	 * @param recycler to receive this buffer once all users have released it
+	 */
+	public Buffer( float[] samples, IBufferRecycler recycler )
+	{
+		this( samples );
+		mRecycler = recycler;
+	}
+
 	public float[] getSamples()
 	{
 		return mSamples;
 	}
 
+	/**
+	 * System nano time when the tuner produced the oldest sample in this
+	 * buffer, or 0 when unknown.  Used to measure end-to-end buffer latency.
+	 */
+	public long getTimestamp()
+	{
+		return mTimestamp;
+	}
+
+	/**
+	 * Sets the system nano time when the tuner produced the oldest sample in
+	 * this buffer.  Reusable buffers are stamped each time they are filled.
+	 */
+	public void setTimestamp( long timestamp )
+	{
+		mTimestamp = timestamp;
+	}
+
+	/**
+	 * Indicates if this buffer is owned by a buffer pool and will be reused
+	 * once all users have released it.
+	 */
+	public boolean isReusable()
+	{
+		return mRecycler != null;
+	}
+
+	/**
+	 * Current number of users (consumers) that hold a reference to this buffer
+	 */
+	public int getUserCount()
+	{
+		return mUserCount.get();
+	}
+
+	/**
+	 * Registers a new user of this buffer.  Each user must invoke
+	 * decrementUserCount() once it has finished with the buffer.
+	 */
+	public void incrementUserCount()
+	{
+		mUserCount.incrementAndGet();
+	}
+
+	/**
+	 * Registers the specified number of new users of this buffer.
+	 */
+	public void incrementUserCount( int count )
+	{
+		mUserCount.addAndGet( count );
+	}
+
+	/**
+	 * Releases a user's hold on this buffer.  When the final user releases the
+	 * buffer, it is returned to the owning buffer pool for reuse.  Users must
+	 * not access the sample array after releasing the buffer.
+	 *
+	 * Consumers that never release a buffer simply prevent it from being
+	 * recycled and the buffer will be garbage collected instead.
+	 */
+	public void decrementUserCount()
+	{
+		int count = mUserCount.decrementAndGet();
+
+		if( count == 0 )
+		{
+			if( mRecycler != null )
+			{
+				mRecycler.recycle( this );
+			}
+		}
+		else if( count < 0 )
+		{
+			/* Buffer wasn't produced by a reference counting producer */
+			mUserCount.set( 0 );
+		}
+	}
+
 	/**
 	 * Cleanup method to nullify all data and references
 	 */
 	public void dispose()
 	{
 		mSamples = null;
+		mRecycler = null;
 	}
-}
\ No newline at end of file
+}
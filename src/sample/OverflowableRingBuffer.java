@@ -0,0 +1,233 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package sample;
+
+import metrics.IMonitoredQueue;
+import sample.real.IOverflowListener;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class OverflowableRingBuffer<E> implements IMonitoredQueue
+{
+    private IOverflowListener mOverflowListener;
+
+    private final Object[] mElements;
+    private final int mMask;
+    private final int mMaximumSize;
+    private final int mResetThreshold;
+
+    //Producer writes the tail index and the consumer writes the head index.  Lazy (ordered) writes publish the
+    //element slot changes to the opposite thread without a full memory fence.
+    private final AtomicLong mHead = new AtomicLong();
+    private final AtomicLong mTail = new AtomicLong();
+    private final AtomicBoolean mOverflow = new AtomicBoolean();
+
+    //Metrics - each is written by a single thread
+    private volatile int mHighWatermark;
+    private volatile long mDropCount;
+
+    /**
+     * Bounded single-producer, single-consumer ring buffer with the same overflow semantics as the
+     * OverflowableTransferQueue.  When the queue size exceeds maximum size (overflow), all inbound elements are
+     * ignored until the queue size is reduced to or below the reset threshold.
+     *
+     * Element storage is preallocated so that offering an element does not allocate.  Only one thread may offer
+     * elements at any one time.  Consumer operations (drain and clear) are serialized against each other so that a
+     * shutdown thread can clear the queue while the consumer thread is still active, however the producer side is
+     * lock-free.
+     *
+     * @param maximumSize of the queue.  Overflow state will occur once queue size exceeds this value.
+     * @param resetThreshold for resetting overflow state to normal, once queue size is at or below this value.
+     */
+    public OverflowableRingBuffer(int maximumSize, int resetThreshold)
+    {
+        if(maximumSize < 1 || resetThreshold < 0 || resetThreshold > maximumSize)
+        {
+            throw new IllegalArgumentException("Maximum size must be positive and reset threshold must be between " +
+                "0 and maximum size");
+        }
+
+        mMaximumSize = maximumSize;
+        mResetThreshold = resetThreshold;
+
+        //Storage for maximum size plus the one element that triggers the overflow state
+        int capacity = Integer.highestOneBit(maximumSize) << 1;
+        mElements = new Object[capacity];
+        mMask = capacity - 1;
+    }
+
+    /**
+     * Adds the element to the queue if able to do so without exceeding maximum queue size.  Otherwise, ignores
+     * the element.  Producer thread only.
+     *
+     * @return true if the element was added to the queue or false if the element was ignored due to overflow
+     */
+    public boolean offer(E e)
+    {
+        if(mOverflow.get())
+        {
+            mDropCount++;
+            return false;
+        }
+
+        long tail = mTail.get();
+        int size = (int)(tail - mHead.get()) + 1;
+
+        if(size > mElements.length)
+        {
+            mDropCount++;
+            setOverflow(true);
+            return false;
+        }
+
+        mElements[(int)tail & mMask] = e;
+        mTail.lazySet(tail + 1);
+
+        if(size > mHighWatermark)
+        {
+            mHighWatermark = size;
+        }
+
+        if(size > mMaximumSize)
+        {
+            setOverflow(true);
+        }
+
+        return true;
+    }
+
+    /**
+     * Retrieves elements from the queue into the collection up to the maximum number of elements specified
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized int drainTo(Collection<? super E> collection, int maxElements)
+    {
+        long head = mHead.get();
+        int count = (int)Math.min(mTail.get() - head, maxElements);
+
+        for(int x = 0; x < count; x++)
+        {
+            int index = (int)(head + x) & mMask;
+            collection.add((E)mElements[index]);
+            mElements[index] = null;
+        }
+
+        mHead.lazySet(head + count);
+
+        if(mOverflow.get() && size() <= mResetThreshold)
+        {
+            setOverflow(false);
+        }
+
+        return count;
+    }
+
+    /**
+     * Current number of elements in the queue
+     */
+    @Override
+    public int size()
+    {
+        return (int)Math.max(mTail.get() - mHead.get(), 0);
+    }
+
+    /**
+     * Number of elements that the queue can hold before the overflow state is entered
+     */
+    @Override
+    public int getMaximumSize()
+    {
+        return mMaximumSize;
+    }
+
+    /**
+     * Largest queue size observed since construction or the last metrics reset
+     */
+    @Override
+    public int getHighWatermark()
+    {
+        return mHighWatermark;
+    }
+
+    /**
+     * Number of elements ignored due to overflow since construction or the last metrics reset
+     */
+    @Override
+    public long getDropCount()
+    {
+        return mDropCount;
+    }
+
+    /**
+     * Resets the high watermark and drop count metrics.  Producer thread only, or while the producer is stopped.
+     */
+    public void resetMetrics()
+    {
+        mHighWatermark = 0;
+        mDropCount = 0;
+    }
+
+    /**
+     * Sets a listener to receive overflow state change events
+     */
+    public void setOverflowListener(IOverflowListener listener)
+    {
+        mOverflowListener = listener;
+    }
+
+    /**
+     * Toggles the overflow state and broadcast state change to listener
+     */
+    private void setOverflow(boolean overflow)
+    {
+        if(mOverflow.compareAndSet(!overflow, overflow))
+        {
+            if(mOverflowListener != null)
+            {
+                mOverflowListener.sourceOverflow(overflow);
+            }
+        }
+    }
+
+    /**
+     * Clears all elements from the queue and resets the overflow state
+     */
+    public synchronized void clear()
+    {
+        long head = mHead.get();
+        long tail = mTail.get();
+
+        for(long x = head; x < tail; x++)
+        {
+            mElements[(int)x & mMask] = null;
+        }
+
+        mHead.lazySet(tail);
+        mOverflow.set(false);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "Ring buffer size:" + size() + "/" + mMaximumSize + " high watermark:" + mHighWatermark +
+            " dropped:" + mDropCount;
+    }
+}
@@ -18,6 +18,7 @@
  ******************************************************************************/
 package sample;
 
+import metrics.IMonitoredQueue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import sample.real.IOverflowListener;
@@ -27,8 +28,9 @@ import java.util.Collection;
 import java.util.concurrent.LinkedTransferQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
-public class OverflowableTransferQueue<E>
+public class OverflowableTransferQueue<E> implements IMonitoredQueue
 {
     private final static Logger mLog = LoggerFactory.getLogger(OverflowableTransferQueue.class);
 
@@ -38,6 +40,8 @@ public class OverflowableTransferQueue<E>
     private LinkedTransferQueue<E> mQueue = new LinkedTransferQueue<E>();
     private AtomicInteger mCounter = new AtomicInteger();
     private AtomicBoolean mOverflow = new AtomicBoolean();
+    private AtomicInteger mHighWatermark = new AtomicInteger();
+    private AtomicLong mDropCount = new AtomicLong();
     private int mMaximumSize;
     private int mResetThreshold;
 
@@ -46,6 +50,8 @@ public class OverflowableTransferQueue<E>
      * monitoring queue size.  When the queue size exceeds maximum size (overflow), all inbound elements are ignored
      * until the queue size is reduced to or below the reset threshold.
      *
+     * Supports multiple producer threads.  Use the OverflowableRingBuffer when there is a single producer thread.
+     *
      * @param maximumSize of the queue.  Overflow state will occur once queue size exceeds this value.
      * @param resetThreshold for resetting overflow state to normal, once queue size is at or below this value.
      */
@@ -58,8 +64,10 @@ public class OverflowableTransferQueue<E>
     /**
      * Adds the element to the queue if able to do so without exceeding maximum queue size.  Otherwise, ignores
      * the element.
+     *
+     * @return true if the element was added to the queue or false if the element was ignored due to overflow
      */
-    public void offer(E e)
+    public boolean offer(E e)
     {
         if(!mOverflow.get())
         {
@@ -67,11 +75,22 @@ public class OverflowableTransferQueue<E>
 
             int size = mCounter.incrementAndGet();
 
+            if(size > mHighWatermark.get())
+            {
+                mHighWatermark.accumulateAndGet(size, Math::max);
+            }
+
             if(size > mMaximumSize)
             {
                 setOverflow(true);
             }
+
+            return true;
         }
+
+        mDropCount.incrementAndGet();
+
+        return false;
     }
 
     /**
@@ -91,6 +110,51 @@ public class OverflowableTransferQueue<E>
         return drainCount;
     }
 
+    /**
+     * Current number of elements in the queue
+     */
+    @Override
+    public int size()
+    {
+        return mCounter.get();
+    }
+
+    /**
+     * Number of elements that the queue can hold before the overflow state is entered
+     */
+    @Override
+    public int getMaximumSize()
+    {
+        return mMaximumSize;
+    }
+
+    /**
+     * Largest queue size observed since construction or the last metrics reset
+     */
+    @Override
+    public int getHighWatermark()
+    {
+        return mHighWatermark.get();
+    }
+
+    /**
+     * Number of elements ignored due to overflow since construction or the last metrics reset
+     */
+    @Override
+    public long getDropCount()
+    {
+        return mDropCount.get();
+    }
+
+    /**
+     * Resets the high watermark and drop count metrics
+     */
+    public void resetMetrics()
+    {
+        mHighWatermark.set(0);
+        mDropCount.set(0);
+    }
+
     /**
      * Sets a listener to receive overflow state change events
      */
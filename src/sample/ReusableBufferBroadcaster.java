@@ -0,0 +1,37 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package sample;
+
+/**
+ * Broadcasts reference-counted buffers to multiple listeners.  The buffer user count is incremented for each
+ * listener prior to delivery and each listener is responsible for decrementing the user count once it has finished
+ * with the buffer.  The caller retains its own hold on the buffer and must release it after broadcasting.
+ */
+public class ReusableBufferBroadcaster<T extends Buffer> extends Broadcaster<T>
+{
+    @Override
+    public void broadcast(T buffer)
+    {
+        for(Listener<T> listener : getListeners())
+        {
+            buffer.incrementUserCount();
+            listener.receive(buffer);
+        }
+    }
+}
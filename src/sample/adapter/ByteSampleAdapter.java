@@ -17,6 +17,8 @@
  ******************************************************************************/
 package sample.adapter;
 
+import java.nio.ByteBuffer;
+
 public class ByteSampleAdapter implements ISampleAdapter
 {
 	private final static float[] LOOKUP_VALUES;
@@ -38,7 +40,16 @@ public class ByteSampleAdapter implements ISampleAdapter
 	@Override
     public float[] convert( byte[] samples )
     {
-		float[] convertedSamples = new float[ samples.length ];
+		float[] convertedSamples = new float[ getConvertedLength( samples.length ) ];
+
+		convert( samples, convertedSamples );
+
+	    return convertedSamples;
+    }
+
+	@Override
+	public void convert( byte[] samples, float[] convertedSamples )
+	{
 		int pointer = 0;
 		
 		for( byte sample: samples )
@@ -46,7 +57,36 @@ public class ByteSampleAdapter implements ISampleAdapter
 			/* Convert byte value into float from the lookup table */
 			convertedSamples[ pointer++ ] = LOOKUP_VALUES[ ( sample & 0xFF ) ];
 		}
-		
-	    return convertedSamples;
-    }
+	}
+
+	@Override
+	public int getConvertedLength( int byteCount )
+	{
+		return byteCount;
+	}
+
+	@Override
+	public void convert( ByteBuffer samples, float[] convertedSamples )
+	{
+		int offset = samples.position();
+		int length = samples.remaining();
+		int unrolledLength = length - ( length % 4 );
+		int x = 0;
+
+		/* Two IQ pairs per iteration using absolute gets against the buffer */
+		for( ; x < unrolledLength; x += 4 )
+		{
+			convertedSamples[ x ] = LOOKUP_VALUES[ samples.get( offset + x ) & 0xFF ];
+			convertedSamples[ x + 1 ] = LOOKUP_VALUES[ samples.get( offset + x + 1 ) & 0xFF ];
+			convertedSamples[ x + 2 ] = LOOKUP_VALUES[ samples.get( offset + x + 2 ) & 0xFF ];
+			convertedSamples[ x + 3 ] = LOOKUP_VALUES[ samples.get( offset + x + 3 ) & 0xFF ];
+		}
+
+		for( ; x < length; x++ )
+		{
+			convertedSamples[ x ] = LOOKUP_VALUES[ samples.get( offset + x ) & 0xFF ];
+		}
+
+		samples.position( samples.limit() );
+	}
 }
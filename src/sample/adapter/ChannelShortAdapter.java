@@ -29,7 +29,10 @@ import source.mixer.MixerChannel;
 public class ChannelShortAdapter implements ISampleAdapter
 {
 	private ShortToFloatMap mMap = new ShortToFloatMap();
+	private static final float SCALE = 1.0f / 32768.0f;
+
 	private ByteOrder mByteOrder = ByteOrder.LITTLE_ENDIAN;
+	private short[] mShorts = new short[ 0 ];
 	private MixerChannel mMixerChannel;
 	
 	public ChannelShortAdapter( MixerChannel channel )
@@ -43,8 +46,16 @@ public class ChannelShortAdapter implements ISampleAdapter
 	@Override
     public float[] convert( byte[] samples )
     {
-		float[] processed = new float[ samples.length / 4 ];
+		float[] processed = new float[ getConvertedLength( samples.length ) ];
+
+		convert( samples, processed );
 
+		return processed;
+    }
+
+	@Override
+	public void convert( byte[] samples, float[] processed )
+	{
 		int pointer = 0;
 
 		/* Wrap byte array in a byte buffer so we can process them as shorts */
@@ -72,10 +83,37 @@ public class ChannelShortAdapter implements ISampleAdapter
         	
         	pointer++;
         }
-        
-        return processed;
     }
 
+	@Override
+	public int getConvertedLength( int byteCount )
+	{
+		return byteCount / 4;
+	}
+
+	@Override
+	public void convert( ByteBuffer samples, float[] processed )
+	{
+		int count = getConvertedLength( samples.remaining() );
+
+		if( mShorts.length < count * 2 )
+		{
+			mShorts = new short[ count * 2 ];
+		}
+
+		/* Bulk transfer of the interleaved left/right shorts */
+		samples.order( mByteOrder ).asShortBuffer().get( mShorts, 0, count * 2 );
+
+		int offset = ( mMixerChannel == MixerChannel.LEFT ) ? 0 : 1;
+
+		for( int x = 0; x < count; x++ )
+		{
+			processed[ x ] = (float)mShorts[ 2 * x + offset ] * SCALE;
+		}
+
+		samples.position( samples.limit() );
+	}
+
 	/**
 	 * Set byte interpretation to little or big endian.  Defaults to LITTLE
 	 * endian
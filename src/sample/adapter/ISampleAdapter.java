@@ -17,6 +17,8 @@
  ******************************************************************************/
 package sample.adapter;
 
+import java.nio.ByteBuffer;
+
 /*
  * Adapter to convert byte data received from a data stream into float[] 
  * samples
@@ -24,4 +26,31 @@ package sample.adapter;
 public interface ISampleAdapter
 {
 	public abstract float[] convert( byte[] samples );
+
+	/**
+	 * Converts the byte samples into the supplied (reusable) float array.
+	 * 
+	 * @param samples to convert
+	 * @param convertedSamples array to receive the converted samples.  Must
+	 * be sized to getConvertedLength( samples.length )
+	 */
+	public abstract void convert( byte[] samples, float[] convertedSamples );
+
+	/**
+	 * Number of float samples produced from converting the byte count
+	 */
+	public abstract int getConvertedLength( int byteCount );
+
+	/**
+	 * Converts the bytes between the buffer's position and limit directly into
+	 * the supplied (reusable) float array, without an intermediate heap copy.
+	 * Intended for direct (native) USB transfer buffers, so that the transfer
+	 * can be resubmitted as soon as this method returns.  The buffer position
+	 * is advanced to the limit.
+	 * 
+	 * @param samples buffer containing the bytes to convert
+	 * @param convertedSamples array to receive the converted samples.  Must
+	 * be sized to getConvertedLength( samples.remaining() )
+	 */
+	public abstract void convert( ByteBuffer samples, float[] convertedSamples );
 }
@@ -26,13 +26,24 @@ import java.nio.ByteOrder;
 public class ShortAdapter implements ISampleAdapter
 {
 	private ShortToFloatMap mMap = new ShortToFloatMap();
+	private static final float SCALE = 1.0f / 32768.0f;
+
 	private ByteOrder mByteOrder = ByteOrder.LITTLE_ENDIAN;
+	private short[] mShorts = new short[ 0 ];
 	
 	@Override
     public float[] convert( byte[] samples )
     {
-		float[] processed = new float[ samples.length / 2 ];
+		float[] processed = new float[ getConvertedLength( samples.length ) ];
+
+		convert( samples, processed );
 
+		return processed;
+    }
+
+	@Override
+	public void convert( byte[] samples, float[] processed )
+	{
 		int pointer = 0;
 
 		/* Wrap byte array in a byte buffer so we can process them as shorts */
@@ -47,10 +58,35 @@ public class ShortAdapter implements ISampleAdapter
 
         	pointer++;
         }
-        
-        return processed;
     }
 
+	@Override
+	public int getConvertedLength( int byteCount )
+	{
+		return byteCount / 2;
+	}
+
+	@Override
+	public void convert( ByteBuffer samples, float[] processed )
+	{
+		int count = getConvertedLength( samples.remaining() );
+
+		if( mShorts.length < count )
+		{
+			mShorts = new short[ count ];
+		}
+
+		/* Bulk transfer of the shorts out of the (native) buffer */
+		samples.order( mByteOrder ).asShortBuffer().get( mShorts, 0, count );
+
+		for( int x = 0; x < count; x++ )
+		{
+			processed[ x ] = (float)mShorts[ x ] * SCALE;
+		}
+
+		samples.position( samples.limit() );
+	}
+
 	/**
 	 * Set byte interpretation to little or big endian.  Defaults to LITTLE
 	 * endian
@@ -3,6 +3,7 @@ package sample.complex;
 import java.util.Arrays;
 
 import sample.Buffer;
+import sample.IBufferRecycler;
 
 public class ComplexBuffer extends Buffer
 {
@@ -14,6 +15,15 @@ public class ComplexBuffer extends Buffer
 		super( samples );
 	}
 
+	/**
+	 * Reusable wrapper around float array containing interleaved I/Q samples
+	 * that is returned to the recycler once all users release the buffer.
+	 */
+	public ComplexBuffer( float[] samples, IBufferRecycler recycler )
+	{
+		super( samples, recycler );
+	}
+
 	/**
 	 * Creates a deep copy of the buffer 
 	 */
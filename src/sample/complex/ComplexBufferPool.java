@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package sample.complex;
+
+import sample.Buffer;
+import sample.IBufferRecycler;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool of reusable, reference-counted complex buffers.
+ *
+ * Buffers obtained from the pool have a user count of one, owned by the caller.  Each additional consumer of the
+ * buffer increments the user count and every user decrements the user count once finished with the buffer.  When
+ * the user count reaches zero, the buffer returns to this pool.  The pool never blocks: when no recycled buffer is
+ * available, a new buffer is allocated (pool miss).  Buffers that are not released are simply garbage collected.
+ */
+public class ComplexBufferPool implements IBufferRecycler
+{
+    private ArrayBlockingQueue<ComplexBuffer> mRecycledBuffers;
+    private AtomicLong mHitCount = new AtomicLong();
+    private AtomicLong mMissCount = new AtomicLong();
+
+    /**
+     * Constructs a buffer pool.
+     *
+     * @param capacity maximum number of recycled buffers retained by this pool
+     */
+    public ComplexBufferPool(int capacity)
+    {
+        mRecycledBuffers = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * Obtains a buffer containing a sample array of the requested length.  The returned buffer has a user count of
+     * one and the caller must invoke decrementUserCount() once it has finished with the buffer.  Sample array
+     * contents are not cleared.
+     *
+     * @param length of the sample array
+     * @return buffer from the pool, or a newly allocated buffer
+     */
+    public ComplexBuffer getBuffer(int length)
+    {
+        ComplexBuffer buffer = mRecycledBuffers.poll();
+
+        if(buffer != null && buffer.getSamples().length == length)
+        {
+            mHitCount.incrementAndGet();
+        }
+        else
+        {
+            //Discard any buffer of the wrong size -- sample rate or transfer size changed
+            mMissCount.incrementAndGet();
+            buffer = new ComplexBuffer(new float[length], this);
+        }
+
+        buffer.incrementUserCount();
+
+        return buffer;
+    }
+
+    @Override
+    public void recycle(Buffer buffer)
+    {
+        if(buffer instanceof ComplexBuffer && buffer.getSamples() != null)
+        {
+            mRecycledBuffers.offer((ComplexBuffer)buffer);
+        }
+    }
+
+    /**
+     * Number of buffer requests satisfied with a recycled buffer
+     */
+    public long getHitCount()
+    {
+        return mHitCount.get();
+    }
+
+    /**
+     * Number of buffer requests that required a new buffer allocation
+     */
+    public long getMissCount()
+    {
+        return mMissCount.get();
+    }
+
+    /**
+     * Number of recycled buffers currently available for reuse
+     */
+    public int getAvailableCount()
+    {
+        return mRecycledBuffers.size();
+    }
+
+    /**
+     * Removes all recycled buffers from this pool and resets the hit and miss counters
+     */
+    public void clear()
+    {
+        mRecycledBuffers.clear();
+        mHitCount.set(0);
+        mMissCount.set(0);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "Buffer Pool - hits:" + getHitCount() + " misses:" + getMissCount() +
+            " available:" + getAvailableCount();
+    }
+}
@@ -23,6 +23,7 @@ import source.config.SourceConfigTuner;
 import source.config.SourceConfiguration;
 import source.mixer.MixerManager;
 import source.recording.RecordingSourceManager;
+import source.tuner.TunerChannelSource;
 import source.tuner.TunerManager;
 import source.tuner.TunerModel;
 
@@ -81,4 +82,20 @@ public class SourceManager
 
         return retVal;
     }
+
+    /**
+     * Returns a stopped source so that it can be reused for a later channel.  Tuner channel sources are retained by
+     * the tuner model for retuning and all other sources are disposed.
+     */
+    public void recycle(Source source)
+    {
+        if(source instanceof TunerChannelSource)
+        {
+            mTunerModel.recycle((TunerChannelSource) source);
+        }
+        else if(source != null)
+        {
+            source.dispose();
+        }
+    }
 }
@@ -157,6 +157,29 @@ public abstract class Tuner implements ITunerChannelProvider
 	 */
 	public abstract void releaseChannel( TunerChannelSource source );
 	
+	/**
+	 * Retunes a stopped tuner channel source that was previously obtained from
+	 * this tuner to a new channel, reusing the source's filters and buffers.
+	 * 
+	 * @param source - previously obtained and stopped tuner channel source
+	 * @param channel - new tuner channel
+	 * 
+	 * @return true if the source was retuned, or false if this tuner can't 
+	 * source the channel
+	 */
+	public boolean retuneChannel( TunerChannelSource source, TunerChannel channel )
+	{
+		if( source != null && source.getTuner() == this && 
+			getTunerController().retuneChannel( source, channel ) )
+		{
+			broadcast( new TunerEvent( this, TunerEvent.Event.CHANNEL_COUNT ) );
+			
+			return true;
+		}
+		
+		return false;
+	}
+	
 	/**
 	 * Registers the listener to receive complex float sample arrays
 	 */
@@ -174,12 +197,15 @@ public abstract class Tuner implements ITunerChannelProvider
     }
 
     /**
-     * Broadcasts the samples to all registered listeners
+     * Broadcasts the samples to all registered listeners.  The buffer user
+     * count is incremented for each listener and each listener is responsible
+     * for decrementing the user count once it is finished with the buffer.
      */
     public void broadcast( ComplexBuffer sampleBuffer )
     {
     	for( Listener<ComplexBuffer> listener: mSampleListeners )
     	{
+    		sampleBuffer.incrementUserCount();
     		listener.receive( sampleBuffer );
     	}
     }
@@ -22,14 +22,18 @@ import channel.heartbeat.Heartbeat;
 import channel.heartbeat.IHeartbeatProvider;
 import dsp.filter.FilterFactory;
 import dsp.filter.Window.WindowType;
+import dsp.filter.channelizer.ComplexPolyphaseChannelizer;
 import dsp.filter.cic.ComplexPrimeCICDecimate;
-import dsp.mixer.Oscillator;
+import dsp.mixer.BlockOscillator;
+import metrics.Counter;
+import metrics.Metric;
+import metrics.MetricGroup;
+import metrics.MetricRegistry;
+import metrics.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import sample.Buffer;
 import sample.Listener;
-import sample.OverflowableTransferQueue;
-import sample.complex.Complex;
+import sample.OverflowableRingBuffer;
 import sample.complex.ComplexBuffer;
 import sample.real.IOverflowListener;
 import source.ComplexSource;
@@ -39,12 +43,13 @@ import source.tuner.frequency.FrequencyChangeEvent.Event;
 import source.tuner.frequency.IFrequencyChangeListener;
 import source.tuner.frequency.IFrequencyChangeProcessor;
 import source.tuner.frequency.IFrequencyChangeProvider;
+import util.ProcessingTask;
+import util.ThreadPool;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -54,6 +59,7 @@ public class TunerChannelSource extends ComplexSource implements IFrequencyChang
 
     //Maximum number of filled buffers for the blocking queue
     private static final int BUFFER_MAX_CAPACITY = 300;
+    private static final long HEARTBEAT_INTERVAL_MS = 10;
 
     //Threshold for resetting buffer overflow condition
     private static final int BUFFER_OVERFLOW_RESET_THRESHOLD = 100;
@@ -62,23 +68,33 @@ public class TunerChannelSource extends ComplexSource implements IFrequencyChang
     private static int CHANNEL_PASS_FREQUENCY = 12000;
     private static final Heartbeat HEARTBEAT = new Heartbeat();
 
-    private OverflowableTransferQueue<ComplexBuffer> mBuffer;
+    private OverflowableRingBuffer<ComplexBuffer> mBuffer;
 
     private Tuner mTuner;
     private TunerChannel mTunerChannel;
-    private Oscillator mMixer;
+    private BlockOscillator mMixer;
     private ComplexPrimeCICDecimate mDecimationFilter;
+    private ComplexPolyphaseChannelizer mChannelizer;
+    private int mChannelizerIndex = -1;
     private Listener<ComplexBuffer> mListener;
     private Listener<Heartbeat> mHeartbeatListener;
     private IFrequencyChangeProcessor mFrequencyChangeProcessor;
     private DownstreamProcessor mDownstreamFrequencyEventProcessor = new DownstreamProcessor();
-    private ScheduledFuture<?> mTaskHandle;
+    private volatile ProcessingTask mTaskHandle;
 
     private long mTunerFrequency = 0;
     private int mTunerSampleRate;
+    private int mInputSampleRate;
     private int mChannelFrequencyCorrection = 0;
 
     private DecimationProcessor mDecimationProcessor = new DecimationProcessor();
+    private OutputMeter mOutputMeter = new OutputMeter();
+
+    private MetricGroup mMetricGroup;
+    private Counter mSamplesIn;
+    private Counter mSamplesOut;
+    private Timer mBufferLatency;
+    private List<Metric> mTaskMetrics = new ArrayList<>();
 
     private AtomicBoolean mRunning = new AtomicBoolean();
     private boolean mExpended = false;
@@ -87,12 +103,18 @@ public class TunerChannelSource extends ComplexSource implements IFrequencyChang
      * Provides a Digital Drop Channel (DDC) to decimate the IQ output from a
      * tuner down to a 48 kHz IQ channel rate.
      *
-     * Note: this class can only be used once (started and stopped) and a new
-     * tuner channel source must be requested from the tuner once this object
-     * has been stopped.  This is because channels are managed dynamically and
-     * center tuned frequency may have changed since this source was obtained
-     * and thus the tuner might no longer be able to source this channel once it
-     * has been stopped.
+     * When the tuner controller has channelizer mode enabled, this source
+     * receives samples from a single bin of the tuner's shared polyphase
+     * channelizer and only performs residual mixing and final decimation at
+     * the bin sample rate.  Otherwise, this source mixes and decimates the
+     * full wideband sample stream from the tuner.
+     *
+     * Note: stopping this source releases the tuner channel back to the tuner.
+     * A stopped source can't be restarted until the tuner has retuned it to a
+     * new channel via Tuner.retuneChannel(), since center tuned frequency may
+     * have changed since this source was stopped and the tuner might no longer
+     * be able to source the original channel.  Retuning reuses the decimation
+     * filter, mixer and buffers of this source.
      *
      * @param tuner to obtain wideband IQ samples from
      * @param tunerChannel specifying the center frequency for the DDC
@@ -104,21 +126,72 @@ public class TunerChannelSource extends ComplexSource implements IFrequencyChang
     {
         mTuner = tuner;
         mTunerChannel = tunerChannel;
+
         mTuner.getTunerController().addListener((IFrequencyChangeProcessor) this);
         mTunerFrequency = mTuner.getTunerController().getFrequency();
 
-        mBuffer = new OverflowableTransferQueue<>(BUFFER_MAX_CAPACITY, BUFFER_OVERFLOW_RESET_THRESHOLD);
+        mBuffer = new OverflowableRingBuffer<>(BUFFER_MAX_CAPACITY, BUFFER_OVERFLOW_RESET_THRESHOLD);
+
+        createMetricGroup();
 
 	    /* Setup the frequency translator to the current source frequency */
         long frequencyOffset = mTunerFrequency - mTunerChannel.getFrequency();
 
-        mMixer = new Oscillator(frequencyOffset, mTuner.getTunerController().getSampleRate());
+        mMixer = new BlockOscillator(frequencyOffset, mTuner.getTunerController().getSampleRate());
 
 		/* Fire a sample rate change event to setup the decimation chain */
         frequencyChanged(new FrequencyChangeEvent(Event.NOTIFICATION_SAMPLE_RATE_CHANGE,
             mTuner.getTunerController().getSampleRate()));
     }
 
+    /**
+     * Creates the metric group for the current tuner channel frequency
+     */
+    private void createMetricGroup()
+    {
+        mMetricGroup = new MetricGroup(MetricGroup.TYPE_CHANNEL_SOURCE, mTuner.getName() + " " +
+            mTunerChannel.getFrequency());
+        mSamplesIn = mMetricGroup.counter("samples in");
+        mSamplesOut = mMetricGroup.counter("samples out");
+        mBufferLatency = mMetricGroup.timer("end-to-end buffer latency");
+        mMetricGroup.queue("sample buffer queue", mBuffer);
+    }
+
+    /**
+     * Retunes this stopped source to the tuner channel, reusing the decimation filter, mixer and sample buffers.
+     * Frequency correction is reset and the sample source (channelizer bin or wideband tuner samples) is updated to
+     * the tuner's current configuration.
+     *
+     * Note: this method is invoked by the tuner controller once the tuner channel has been accepted for tuning.  Use
+     * Tuner.retuneChannel() to retune a source.
+     *
+     * @param tunerChannel to source
+     * @throws IllegalStateException if this source is currently running
+     */
+    void retune(TunerChannel tunerChannel)
+    {
+        if(mRunning.get())
+        {
+            throw new IllegalStateException("Can't retune a running tuner channel source - invoke stop() first");
+        }
+
+        mTunerChannel = tunerChannel;
+        mTunerFrequency = mTuner.getTunerController().getFrequency();
+        mChannelFrequencyCorrection = 0;
+
+        //The previous decimation processor was shutdown on stop() and may still be referenced by its cancelled task
+        mDecimationProcessor = new DecimationProcessor();
+
+        clearBuffers();
+        createMetricGroup();
+
+        //The channelizer is disposed whenever the tuner has no tuned channels, so update the sample source
+        mTunerSampleRate = mTuner.getTunerController().getSampleRate();
+        updateSampleSource();
+
+        mExpended = false;
+    }
+
     /**
      * Overrides the default source overflow listener management to delegate responsibility to the overflow buffer
      */
@@ -133,7 +206,7 @@ public class TunerChannelSource extends ComplexSource implements IFrequencyChang
         if(mExpended)
         {
             throw new IllegalStateException("Attempt to re-start an expended tuner channel source.  TunerChannelSource" +
-                " objects can only be used once. ");
+                " objects must be retuned via the tuner before they can be restarted.");
         }
 
         if(mRunning.compareAndSet(false, true))
@@ -142,12 +215,17 @@ public class TunerChannelSource extends ComplexSource implements IFrequencyChang
             mDownstreamFrequencyEventProcessor.broadcastCurrentFrequency();
             mDownstreamFrequencyEventProcessor.broadcastCurrentSampleRate();
 
-            //Schedule the decimation task to run every 9 ms (111 iterations/second), an odd periodicity relative
-            //to the inbound periodicity of 20 ms, to attempt to avoid thread queue contention
-            mTaskHandle = executor.scheduleAtFixedRate(mDecimationProcessor, 0, 9, TimeUnit.MILLISECONDS);
+            //The decimation task runs on a channel processing thread each time a buffer arrives, instead of on the
+            //supplied scheduled executor.  The idle interval keeps the heartbeat going when no samples arrive.
+            mTaskHandle = ThreadPool.getChannelExecutor().createTask("Channel " + mTunerChannel.getFrequency(),
+                mDecimationProcessor, HEARTBEAT_INTERVAL_MS, TimeUnit.MILLISECONDS);
 
-		    /* Finally, register to receive samples from the tuner */
-            mTuner.addListener((Listener<ComplexBuffer>) this);
+            mTaskMetrics.add(mMetricGroup.timer("decimation run time", mTaskHandle.getRunTimeHistogram()));
+            mTaskMetrics.add(mMetricGroup.timer("decimation lateness", mTaskHandle.getLatenessHistogram()));
+            MetricRegistry.getInstance().register(mMetricGroup);
+
+		    /* Finally, register to receive samples from the tuner or channelizer */
+            attach();
         }
         else
         {
@@ -165,16 +243,32 @@ public class TunerChannelSource extends ComplexSource implements IFrequencyChang
     {
         if(mRunning.compareAndSet(true, false))
         {
+            detach();
             mTuner.releaseChannel(this);
             mDecimationProcessor.shutdown();
 
+            MetricRegistry.getInstance().unregister(mMetricGroup);
+
+            for(Metric metric : mTaskMetrics)
+            {
+                mMetricGroup.remove(metric);
+            }
+
+            mTaskMetrics.clear();
+
             if(mTaskHandle != null)
             {
-                mTaskHandle.cancel(true);
+                mTaskHandle.cancel();
+                mLog.debug("Channel " + mTunerChannel.getFrequency() + " stopped - " + mTaskHandle.toString());
                 mTaskHandle = null;
             }
 
-            mBuffer.clear();
+            clearBuffers();
+
+            if(mBuffer.getDropCount() > 0)
+            {
+                mLog.debug("Channel " + mTunerChannel.getFrequency() + " stopped - " + mBuffer.toString());
+            }
 
             mExpended = true;
         }
@@ -219,15 +313,134 @@ public class TunerChannelSource extends ComplexSource implements IFrequencyChang
         return mTunerChannel;
     }
 
+    /**
+     * Queues the buffer for processing.  The buffer is released (user count decremented) once it is processed, or
+     * immediately if this source is stopped or the queue is in overflow state.
+     */
     @Override
     public void receive(ComplexBuffer buffer)
     {
-        if(mRunning.get())
+        if(!mRunning.get() || !mBuffer.offer(buffer))
         {
-            mBuffer.offer(buffer);
+            buffer.decrementUserCount();
+        }
+        else
+        {
+            mSamplesIn.add(buffer.getSamples().length / 2);
+
+            ProcessingTask task = mTaskHandle;
+
+            if(task != null)
+            {
+                task.signal();
+            }
+        }
+    }
+
+    /**
+     * Registers this source to receive samples from the channelizer bin, when a channelizer is in use, or from the
+     * tuner otherwise.
+     */
+    private void attach()
+    {
+        if(mChannelizer != null)
+        {
+            mChannelizer.addListener(mChannelizerIndex, this);
+        }
+        else
+        {
+            mTuner.addListener((Listener<ComplexBuffer>) this);
         }
     }
 
+    /**
+     * Unregisters this source from receiving samples from the channelizer bin or the tuner.
+     */
+    private void detach()
+    {
+        if(mChannelizer != null)
+        {
+            mChannelizer.removeListener(mChannelizerIndex, this);
+        }
+        else
+        {
+            mTuner.removeListener((Listener<ComplexBuffer>) this);
+        }
+    }
+
+    /**
+     * Changes the source of samples for this channel to the channelizer bin or, when the channelizer is null, to
+     * the tuner wideband sample stream.  Re-registers this source when it is running.
+     */
+    private void setSampleSource(ComplexPolyphaseChannelizer channelizer, int index)
+    {
+        if(channelizer != mChannelizer || index != mChannelizerIndex)
+        {
+            boolean running = mRunning.get();
+
+            if(running)
+            {
+                detach();
+            }
+
+            mChannelizer = channelizer;
+            mChannelizerIndex = index;
+
+            if(running)
+            {
+                attach();
+            }
+        }
+    }
+
+    /**
+     * Channelizer bin that contains this channel's center frequency, or -1 when the channelizer is null
+     */
+    private int getChannelizerIndex(ComplexPolyphaseChannelizer channelizer)
+    {
+        if(channelizer != null)
+        {
+            return channelizer.getChannelIndex(mTunerChannel.getFrequency() - mTunerFrequency);
+        }
+
+        return -1;
+    }
+
+    /**
+     * Inbound sample buffer queue.  High watermark and drop count indicate how well the decimation processor is
+     * keeping up with the tuner.
+     */
+    public OverflowableRingBuffer<ComplexBuffer> getSampleBufferQueue()
+    {
+        return mBuffer;
+    }
+
+    /**
+     * Metrics for this source: samples in and out, sample buffer queue depth and drops, end-to-end buffer latency
+     * and decimation task timing while running
+     */
+    public MetricGroup getMetricGroup()
+    {
+        return mMetricGroup;
+    }
+
+    /**
+     * Removes and releases any queued buffers
+     */
+    private void clearBuffers()
+    {
+        List<ComplexBuffer> buffers = new ArrayList<>();
+
+        mBuffer.drainTo(buffers, Integer.MAX_VALUE);
+
+        for(ComplexBuffer buffer : buffers)
+        {
+            buffer.decrementUserCount();
+        }
+
+        mBuffer.clear();
+    }
+
     public void setFrequencyChangeListener(IFrequencyChangeProcessor processor)
     {
         mFrequencyChangeProcessor = processor;
@@ -240,12 +453,14 @@ public class TunerChannelSource extends ComplexSource implements IFrequencyChang
 		 * decimation filter, we can re-add the listener */
         mListener = listener;
 
-        mDecimationFilter.setListener(listener);
+        mDecimationFilter.setListener(mOutputMeter);
     }
 
     @Override
     public void removeListener(Listener<ComplexBuffer> listener)
     {
+        mListener = null;
+
         mDecimationFilter.removeListener();
     }
 
@@ -266,10 +481,15 @@ public class TunerChannelSource extends ComplexSource implements IFrequencyChang
         {
             case NOTIFICATION_FREQUENCY_CHANGE:
                 mTunerFrequency = event.getValue().longValue();
-                updateMixerFrequencyOffset();
 
-                //Reset frequency correction so that downstream components can recalculate the value
-                setFrequencyCorrection(0);
+                //Stopped sources update the mixer when they are retuned
+                if(!mExpended)
+                {
+                    updateMixerFrequencyOffset();
+
+                    //Reset frequency correction so that downstream components can recalculate the value
+                    setFrequencyCorrection(0);
+                }
                 break;
             case NOTIFICATION_SAMPLE_RATE_CHANGE:
                 int sampleRate = event.getValue().intValue();
@@ -288,28 +508,69 @@ public class TunerChannelSource extends ComplexSource implements IFrequencyChang
     {
         if(mTunerSampleRate != sampleRate)
         {
-            mMixer.setSampleRate(sampleRate);
+            mTunerSampleRate = sampleRate;
+
+            //Stopped sources update the sample source when they are retuned, so that they don't hold the tuner's
+            //channelizer open while idle
+            if(!mExpended)
+            {
+                updateSampleSource();
+            }
+
+            mDownstreamFrequencyEventProcessor.broadcastCurrentSampleRate();
+        }
+    }
+
+    /**
+     * Selects the channelizer bin or the wideband tuner samples as the sample source for the current tuner sample
+     * rate.  A new decimation filter is only designed when the input sample rate changes.
+     */
+    private void updateSampleSource()
+    {
+        ComplexPolyphaseChannelizer channelizer = mTuner.getTunerController().getChannelizer(mTuner);
+
+        int inputSampleRate = channelizer != null ? channelizer.getChannelSampleRate() : mTunerSampleRate;
+
+        mMixer.setSampleRate(inputSampleRate);
+
+        if(mDecimationFilter == null || mInputSampleRate != inputSampleRate)
+        {
+            mInputSampleRate = inputSampleRate;
 
             /* Get new decimation filter */
-            mDecimationFilter = FilterFactory.getDecimationFilter(sampleRate, CHANNEL_RATE, 1,
+            mDecimationFilter = FilterFactory.getDecimationFilter(inputSampleRate, CHANNEL_RATE, 1,
                 CHANNEL_PASS_FREQUENCY, 60, WindowType.HAMMING);
 
             /* re-add the original output listener */
-            mDecimationFilter.setListener(mListener);
+            mDecimationFilter.setListener(mListener != null ? mOutputMeter : null);
+        }
 
-            mTunerSampleRate = sampleRate;
+        setSampleSource(channelizer, getChannelizerIndex(channelizer));
 
-            mDownstreamFrequencyEventProcessor.broadcastCurrentSampleRate();
-        }
+        updateMixerFrequencyOffset();
     }
 
     /**
      * Calculates the local mixer frequency offset from the tuned frequency,
      * channel's requested frequency, and channel frequency correction.
+     *
+     * When using the channelizer, the channel is first moved to the bin that
+     * contains the channel and the mixer only translates the residual offset
+     * between the bin center frequency and the channel frequency.
      */
     private void updateMixerFrequencyOffset()
     {
         long offset = mTunerFrequency - mTunerChannel.getFrequency() - mChannelFrequencyCorrection;
+
+        if(mChannelizer != null)
+        {
+            int index = getChannelizerIndex(mChannelizer);
+
+            setSampleSource(mChannelizer, index);
+
+            offset += mChannelizer.getChannelFrequency(index);
+        }
+
         mMixer.setFrequency(offset);
     }
 
@@ -484,6 +745,7 @@ public class TunerChannelSource extends ComplexSource implements IFrequencyChang
     {
         private boolean mProcessing = true;
         private List<ComplexBuffer> mSampleBuffers = new ArrayList<ComplexBuffer>();
+        private ComplexBuffer mTranslatedBuffer = new ComplexBuffer(new float[0]);
 
         public void shutdown()
         {
@@ -509,44 +771,57 @@ public class TunerChannelSource extends ComplexSource implements IFrequencyChang
 
                     mBuffer.drainTo(mSampleBuffers, 20);
 
-                    for(Buffer buffer : mSampleBuffers)
+                    //Process everything that is queued, since this task only runs again when signalled
+                    while(!mSampleBuffers.isEmpty())
                     {
-							/* Check to see if we've been shutdown */
-                        if(!mProcessing)
+                        for(ComplexBuffer buffer : mSampleBuffers)
                         {
-                            mBuffer.clear();
-                            return;
-                        }
-                        else
-                        {
-                            float[] samples = buffer.getSamples();
-
-								/* We make a copy of the buffer so that we don't affect
-								 * anyone else that is using the same buffer, like other
-								 * channels or the spectral display */
-                            float[] translated = new float[samples.length];
-
-								/* Perform frequency translation */
-                            for(int x = 0; x < samples.length; x += 2)
+                            /* Check to see if we've been shutdown */
+                            if(!mProcessing)
                             {
-                                mMixer.rotate();
-
-                                translated[x] = Complex.multiplyInphase(
-                                    samples[x], samples[x + 1], mMixer.inphase(), mMixer.quadrature());
-
-                                translated[x + 1] = Complex.multiplyQuadrature(
-                                    samples[x], samples[x + 1], mMixer.inphase(), mMixer.quadrature());
+                                releaseSampleBuffers();
+                                clearBuffers();
+                                return;
                             }
-
-                            if(mProcessing)
+                            else
                             {
-                                final ComplexPrimeCICDecimate filter = mDecimationFilter;
-                                filter.receive(new ComplexBuffer(translated));
+                                float[] samples = buffer.getSamples();
+
+                                /* We translate into a reusable buffer so that we don't
+                                 * affect anyone else that is using the same buffer, like
+                                 * other channels or the spectral display */
+                                if(mTranslatedBuffer.getSamples().length != samples.length)
+                                {
+                                    mTranslatedBuffer = new ComplexBuffer(new float[samples.length]);
+                                }
+
+                                float[] translated = mTranslatedBuffer.getSamples();
+
+                                /* Perform frequency translation */
+                                mMixer.mixComplex(samples, translated);
+
+                                if(mProcessing)
+                                {
+                                    final ComplexPrimeCICDecimate filter = mDecimationFilter;
+                                    filter.receive(mTranslatedBuffer);
+
+                                    //Downstream processing is synchronous, so the buffer has now been fully
+                                    //processed by the channel's processing chain
+                                    if(buffer.getTimestamp() != 0)
+                                    {
+                                        mBufferLatency.add(System.nanoTime() - buffer.getTimestamp());
+                                    }
+                                }
                             }
                         }
-                    }
 
-                    mSampleBuffers.clear();
+                        releaseSampleBuffers();
+
+                        if(mProcessing)
+                        {
+                            mBuffer.drainTo(mSampleBuffers, 20);
+                        }
+                    }
                 }
             }
             catch(Exception e)
@@ -556,6 +831,8 @@ public class TunerChannelSource extends ComplexSource implements IFrequencyChang
                 {
                     mLog.error("Error encountered during decimation process", e);
                 }
+
+                releaseSampleBuffers();
             }
             catch(Throwable throwable)
             {
@@ -565,8 +842,39 @@ public class TunerChannelSource extends ComplexSource implements IFrequencyChang
 			/* Check to see if we've been shutdown */
             if(!mProcessing)
             {
-                mBuffer.clear();
-                mSampleBuffers.clear();
+                clearBuffers();
+                releaseSampleBuffers();
+            }
+        }
+
+        /**
+         * Releases (decrements the user count) and clears the drained sample buffers
+         */
+        private void releaseSampleBuffers()
+        {
+            for(ComplexBuffer buffer : mSampleBuffers)
+            {
+                buffer.decrementUserCount();
+            }
+
+            mSampleBuffers.clear();
+        }
+    }
+
+    /**
+     * Counts the decimated samples delivered to the registered listener
+     */
+    public class OutputMeter implements Listener<ComplexBuffer>
+    {
+        @Override
+        public void receive(ComplexBuffer buffer)
+        {
+            Listener<ComplexBuffer> listener = mListener;
+
+            if(listener != null)
+            {
+                mSamplesOut.add(buffer.getSamples().length / 2);
+                listener.receive(buffer);
             }
         }
     }
@@ -17,8 +17,10 @@
  ******************************************************************************/
 package source.tuner;
 
+import dsp.filter.channelizer.ComplexPolyphaseChannelizer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import properties.SystemProperties;
 import source.SourceException;
 import source.tuner.configuration.TunerConfiguration;
 import source.tuner.frequency.FrequencyChangeEvent;
@@ -27,6 +29,8 @@ import source.tuner.frequency.FrequencyController;
 import source.tuner.frequency.FrequencyController.Tunable;
 import source.tuner.frequency.IFrequencyChangeProcessor;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.SortedSet;
 import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.RejectedExecutionException;
@@ -35,12 +39,19 @@ public abstract class TunerController implements Tunable, IFrequencyChangeProces
 {
     private final static Logger mLog = LoggerFactory.getLogger(TunerController.class);
 
+    public static final String CHANNELIZER_ENABLED_PROPERTY = "tuner.channelizer.enabled";
+
     /* List of currently tuned channels being served to demod channels */
     private SortedSet<TunerChannel> mTunedChannels = new ConcurrentSkipListSet<>();
     protected FrequencyController mFrequencyController;
     private int mMiddleUnusable;
     private double mUsableBandwidthPercentage;
 
+    //Shared polyphase channelizer used by all tuner channel sources when channelizer mode is enabled
+    private boolean mChannelizerEnabled;
+    private ComplexPolyphaseChannelizer mChannelizer;
+    private Tuner mChannelizerTuner;
+
     /**
      * Abstract tuner controller class.  The tuner controller manages frequency bandwidth and currently tuned channels
      * that are being fed samples from the tuner.
@@ -57,6 +68,7 @@ public abstract class TunerController implements Tunable, IFrequencyChangeProces
         mFrequencyController = new FrequencyController(this, minimumFrequency, maximumFrequency, 0.0d);
         mMiddleUnusable = middleUnusable;
         mUsableBandwidthPercentage = usableBandwidth;
+        mChannelizerEnabled = SystemProperties.getInstance().get(CHANNELIZER_ENABLED_PROPERTY, false);
     }
 
     /**
@@ -222,11 +234,62 @@ public abstract class TunerController implements Tunable, IFrequencyChangeProces
         return source;
     }
 
+    /**
+     * Retunes a previously stopped tuner channel source to the channel, reusing the source's decimation filter and
+     * buffers instead of constructing a new digital drop channel.  The same tuning constraints apply as for
+     * getChannel().
+     *
+     * @param source that was stopped and released from this controller
+     * @param channel with defined center frequency and bandwidth
+     * @return true if the source was retuned to the channel
+     */
+    public boolean retuneChannel(TunerChannelSource source, TunerChannel channel)
+    {
+        if(canTune(channel))
+        {
+            try
+            {
+                mTunedChannels.add(channel);
+
+                if(requiresLOUpdate(channel))
+                {
+                    updateLOFrequency();
+                }
+
+                source.retune(channel);
+
+                return true;
+            }
+            catch(SourceException se)
+            {
+                mTunedChannels.remove(channel);
+            }
+        }
+
+        return false;
+    }
+
     public int getChannelCount()
     {
         return mTunedChannels.size();
     }
 
+    /**
+     * Copy of the currently tuned channels, ordered by frequency
+     */
+    public List<TunerChannel> getTunedChannels()
+    {
+        return new ArrayList<>(mTunedChannels);
+    }
+
+    /**
+     * Center DC spike +/- region that channels must avoid, in hertz
+     */
+    public int getMiddleUnusable()
+    {
+        return mMiddleUnusable;
+    }
+
     /**
      * Indicates if the tuner's LO frequency must be updated in order to accommodate the tuner channel
      */
@@ -249,6 +312,74 @@ public abstract class TunerController implements Tunable, IFrequencyChangeProces
         {
             mTunedChannels.remove(tunerChannelSource.getTunerChannel());
         }
+
+        if(mTunedChannels.isEmpty())
+        {
+            disposeChannelizer();
+        }
+    }
+
+    /**
+     * Indicates if tuner channel sources are fed from a shared polyphase channelizer instead of each source
+     * independently mixing and decimating the full wideband sample stream.
+     */
+    public boolean isChannelizerEnabled()
+    {
+        return mChannelizerEnabled;
+    }
+
+    /**
+     * Enables or disables channelizer mode.  The change is applied to tuner channel sources that are created
+     * afterwards and to existing sources upon the next sample rate change.
+     */
+    public void setChannelizerEnabled(boolean enabled)
+    {
+        mChannelizerEnabled = enabled;
+        SystemProperties.getInstance().set(CHANNELIZER_ENABLED_PROPERTY, enabled);
+    }
+
+    /**
+     * Provides the shared polyphase channelizer for the tuner's current sample rate, creating the channelizer and
+     * registering it to receive samples from the tuner as needed.
+     *
+     * @param tuner providing wideband samples
+     * @return channelizer or null if channelizer mode is disabled or the current sample rate is not supported by
+     * the channelizer, in which case the tuner channel source should process the wideband sample stream directly.
+     */
+    public synchronized ComplexPolyphaseChannelizer getChannelizer(Tuner tuner)
+    {
+        int sampleRate = getSampleRate();
+
+        if(!mChannelizerEnabled || !ComplexPolyphaseChannelizer.isSupported(sampleRate))
+        {
+            disposeChannelizer();
+            return null;
+        }
+
+        if(mChannelizer == null || mChannelizer.getSampleRate() != sampleRate)
+        {
+            disposeChannelizer();
+
+            mChannelizer = new ComplexPolyphaseChannelizer(sampleRate);
+            mChannelizerTuner = tuner;
+            mChannelizerTuner.addListener(mChannelizer);
+        }
+
+        return mChannelizer;
+    }
+
+    /**
+     * Unregisters the channelizer from the tuner and releases its resources
+     */
+    private synchronized void disposeChannelizer()
+    {
+        if(mChannelizer != null)
+        {
+            mChannelizerTuner.removeListener(mChannelizer);
+            mChannelizer.dispose();
+            mChannelizer = null;
+            mChannelizerTuner = null;
+        }
     }
 
     /**
@@ -345,7 +476,7 @@ public abstract class TunerController implements Tunable, IFrequencyChangeProces
     /**
      * Usable bandwidth - total bandwidth minus the unusable space at either end of the spectrum.
      */
-    private int getUsableBandwidth()
+    public int getUsableBandwidth()
     {
         return (int)(getBandwidth() * mUsableBandwidthPercentage);
     }
@@ -1,5 +1,7 @@
 package source.tuner;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.Iterator;
@@ -11,6 +13,7 @@ import javax.swing.table.AbstractTableModel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import properties.SystemProperties;
 import sample.Listener;
 import source.Source;
 import source.SourceException;
@@ -18,6 +21,11 @@ import source.config.SourceConfigTuner;
 import source.tuner.TunerEvent.Event;
 import source.tuner.configuration.TunerConfiguration;
 import source.tuner.configuration.TunerConfigurationModel;
+import source.tuner.planner.ChannelGrantRecorder;
+import source.tuner.planner.FrequencyPlanner;
+import source.tuner.planner.PlannedTuner;
+import source.tuner.planner.TunerAssignment;
+import util.TimeStamp;
 
 public class TunerModel extends AbstractTableModel implements Listener<TunerEvent>
 {
@@ -33,6 +41,11 @@ public class TunerModel extends AbstractTableModel implements Listener<TunerEven
 	public static final int SPECTRAL_DISPLAY_MAIN = 5;
 	public static final int SPECTRAL_DISPLAY_NEW = 6;
 	
+	public static final String PLANNER_ENABLED_PROPERTY = "tuner.planner.enabled";
+	public static final String PLANNER_PREPOSITION_PROPERTY = "tuner.planner.preposition";
+	public static final String PLANNER_RECORD_GRANTS_PROPERTY = "tuner.planner.record.grants";
+	public static final String IDLE_SOURCE_POOL_SIZE_PROPERTY = "tuner.idle.source.pool.size";
+
 	private static final String MHZ = " MHz";
 	private static final String[] COLUMNS = 
 		{ "Tuner", "ID", "Sample Rate", "Frequency", "Channels", "Spectral", "Display" };
@@ -44,9 +57,46 @@ public class TunerModel extends AbstractTableModel implements Listener<TunerEven
 	
 	private TunerConfigurationModel mTunerConfigurationModel;
 
+	private FrequencyPlanner mFrequencyPlanner = new FrequencyPlanner();
+	private ChannelGrantRecorder mChannelGrantRecorder;
+	private boolean mPlannerEnabled;
+	private boolean mPrepositionEnabled;
+
+	private List<TunerChannelSource> mIdleSources = new ArrayList<>();
+	private int mIdleSourcePoolSize;
+
 	public TunerModel( TunerConfigurationModel tunerConfigurationModel )
 	{
 		mTunerConfigurationModel = tunerConfigurationModel;
+
+		SystemProperties properties = SystemProperties.getInstance();
+
+		mPlannerEnabled = properties.get( PLANNER_ENABLED_PROPERTY, true );
+		mPrepositionEnabled = properties.get( PLANNER_PREPOSITION_PROPERTY, true );
+		mIdleSourcePoolSize = properties.get( IDLE_SOURCE_POOL_SIZE_PROPERTY, 4 );
+
+		if( properties.get( PLANNER_RECORD_GRANTS_PROPERTY, false ) )
+		{
+			try
+			{
+				Path path = properties.getApplicationFolder( "planner" ).resolve( 
+					"channel_grants_" + TimeStamp.getTimeStamp( "_" ) + ".csv" );
+
+				mChannelGrantRecorder = new ChannelGrantRecorder( path );
+			}
+			catch( IOException ioe )
+			{
+				mLog.error( "Couldn't create channel grant recording", ioe );
+			}
+		}
+	}
+
+	/**
+	 * Frequency planner used to assign channels to tuners
+	 */
+	public FrequencyPlanner getFrequencyPlanner()
+	{
+		return mFrequencyPlanner;
 	}
 	
 	public TunerConfigurationModel getTunerConfigurationModel()
@@ -128,6 +178,8 @@ public class TunerModel extends AbstractTableModel implements Listener<TunerEven
 			mTuners.remove( tuner );
 			
 			fireTableRowsDeleted( index, index );
+			
+			disposeIdleSources( tuner );
 		}
 	}
 	
@@ -176,6 +228,7 @@ public class TunerModel extends AbstractTableModel implements Listener<TunerEven
 				{
 					case CHANNEL_COUNT:
 						fireTableCellUpdated( index, CHANNEL_COUNT );
+						channelCountChanged( event.getTuner() );
 						break;
 					case FREQUENCY:
 						fireTableCellUpdated( index, FREQUENCY );
@@ -256,19 +309,153 @@ public class TunerModel extends AbstractTableModel implements Listener<TunerEven
 	}
 	
     /**
-     * Iterates current tuners to get a tuner channel source for the frequency
-     * specified in the channel config's source config object.
+     * Gets a tuner channel source for the frequency specified in the channel 
+     * config's source config object.  When the frequency planner is enabled,
+     * the planner selects the tuner and center frequency across all tuners,
+     * otherwise the first tuner that can source the channel is used.
      * 
      * Returns null if no tuner can source the channel
      */
     public Source getSource( SourceConfigTuner config, int bandwidth )
     {
     	TunerChannelSource retVal = null;
-    	
+
 		TunerChannel tunerChannel = config.getTunerChannel();
-		
+
 		tunerChannel.setBandwidth( bandwidth );
-		
+
+		if( mPlannerEnabled )
+		{
+			retVal = getPlannedSource( tunerChannel );
+		}
+
+		if( retVal == null )
+		{
+			retVal = getFirstAvailableSource( tunerChannel );
+		}
+
+		if( mChannelGrantRecorder != null )
+		{
+			mChannelGrantRecorder.start( tunerChannel, 
+				retVal != null ? retVal.getTuner() : null );
+		}
+
+    	return retVal;
+    }
+
+    /**
+     * Uses the frequency planner to select the tuner and center frequency for
+     * the channel.  Returns null if the planner can't find an assignment or
+     * if the assigned tuner can't source the channel.
+     */
+    private synchronized TunerChannelSource getPlannedSource( TunerChannel tunerChannel )
+    {
+		long timestamp = System.currentTimeMillis();
+
+		mFrequencyPlanner.record( tunerChannel, timestamp );
+
+		TunerAssignment assignment = mFrequencyPlanner
+			.getAssignment( getPlannedTuners(), tunerChannel, timestamp );
+
+		if( assignment != null )
+		{
+			Tuner tuner = assignment.getTuner().getTuner();
+
+			try
+			{
+				if( assignment.isRetune() )
+				{
+					tuner.getTunerController().setFrequency( 
+						assignment.getCenterFrequency() );
+				}
+
+				return getChannel( tuner, tunerChannel );
+			}
+			catch ( RejectedExecutionException | SourceException e )
+			{
+				mLog.error( "error obtaining planned channel from tuner [" + 
+					tuner.getName() + "]", e );
+			}
+		}
+
+		return null;
+    }
+
+    /**
+     * Planning snapshot of the current state of each tuner
+     */
+    private List<PlannedTuner> getPlannedTuners()
+    {
+		List<PlannedTuner> plannedTuners = new ArrayList<>();
+
+		for( Tuner tuner: mTuners )
+		{
+			plannedTuners.add( PlannedTuner.from( tuner ) );
+		}
+
+		return plannedTuners;
+    }
+
+    /**
+     * Records channel releases and pre-positions the tuner over historically
+     * busy frequencies once it becomes idle
+     */
+    private void channelCountChanged( Tuner tuner )
+    {
+		List<TunerChannel> tunedChannels = tuner.getTunerController().getTunedChannels();
+
+		if( mChannelGrantRecorder != null )
+		{
+			mChannelGrantRecorder.update( tuner, tunedChannels );
+		}
+
+		if( mPlannerEnabled && mPrepositionEnabled && tunedChannels.isEmpty() )
+		{
+			preposition( tuner );
+		}
+    }
+
+    /**
+     * Retunes the idle tuner to cover historically busy frequencies that are
+     * not covered by the other tuners
+     */
+    private synchronized void preposition( Tuner tuner )
+    {
+		List<PlannedTuner> plannedTuners = getPlannedTuners();
+
+		for( PlannedTuner plannedTuner: plannedTuners )
+		{
+			if( plannedTuner.getTuner() == tuner && plannedTuner.isIdle() )
+			{
+				Long frequency = mFrequencyPlanner.getPrepositionFrequency( 
+					plannedTuners, plannedTuner, System.currentTimeMillis() );
+
+				if( frequency != null && frequency != plannedTuner.getCenterFrequency() )
+				{
+					try
+					{
+						tuner.getTunerController().setFrequency( frequency );
+					}
+					catch( SourceException se )
+					{
+						mLog.error( "couldn't pre-position tuner [" + 
+							tuner.getName() + "]", se );
+					}
+				}
+			}
+		}
+    }
+
+    /**
+     * Iterates current tuners to get a tuner channel source for the tuner
+     * channel from the first tuner that can source the channel.
+     * 
+     * Returns null if no tuner can source the channel
+     */
+    private TunerChannelSource getFirstAvailableSource( TunerChannel tunerChannel )
+    {
+    	TunerChannelSource retVal = null;
+
 		Iterator<Tuner> it = mTuners.iterator();
 		
 		Tuner tuner;
@@ -279,7 +466,7 @@ public class TunerModel extends AbstractTableModel implements Listener<TunerEven
 			
 			try
             {
-                retVal = tuner.getChannel( tunerChannel );
+                retVal = getChannel( tuner, tunerChannel );
             }
 			catch ( RejectedExecutionException ree )
 			{
@@ -291,8 +478,114 @@ public class TunerModel extends AbstractTableModel implements Listener<TunerEven
             			tuner.getName() + "]", e );
             }
 		}
-    	
+
     	return retVal;
     }
-	
+
+    /**
+     * Gets a tuner channel source from the tuner, retuning an idle source 
+     * from the same tuner when one is available so that its decimation filter
+     * and buffers are reused.
+     */
+    private TunerChannelSource getChannel( Tuner tuner, TunerChannel tunerChannel ) 
+    		throws RejectedExecutionException, SourceException
+    {
+		TunerChannelSource idleSource = getIdleSource( tuner );
+		
+		if( idleSource != null )
+		{
+			if( tuner.retuneChannel( idleSource, tunerChannel ) )
+			{
+				return idleSource;
+			}
+			
+			recycle( idleSource );
+		}
+		
+		return tuner.getChannel( tunerChannel );
+    }
+
+    /**
+     * Returns a stopped tuner channel source to this model so that it can be
+     * retuned to source a later channel from the same tuner.  The source is
+     * disposed if the idle source pool for the tuner is full or the tuner is
+     * no longer in this model.
+     */
+    public void recycle( TunerChannelSource source )
+    {
+		boolean retained = false;
+		
+		synchronized( mIdleSources )
+		{
+			if( mTuners.contains( source.getTuner() ) && 
+				getIdleSourceCount( source.getTuner() ) < mIdleSourcePoolSize )
+			{
+				mIdleSources.add( source );
+				retained = true;
+			}
+		}
+		
+		if( !retained )
+		{
+			source.dispose();
+		}
+    }
+
+    /**
+     * Removes and returns an idle source for the tuner, or null
+     */
+    private TunerChannelSource getIdleSource( Tuner tuner )
+    {
+		synchronized( mIdleSources )
+		{
+			Iterator<TunerChannelSource> it = mIdleSources.iterator();
+			
+			while( it.hasNext() )
+			{
+				TunerChannelSource source = it.next();
+				
+				if( source.getTuner() == tuner )
+				{
+					it.remove();
+					
+					return source;
+				}
+			}
+		}
+		
+		return null;
+    }
+
+    /**
+     * Number of idle sources for the tuner
+     */
+    private int getIdleSourceCount( Tuner tuner )
+    {
+		int count = 0;
+		
+		for( TunerChannelSource source: mIdleSources )
+		{
+			if( source.getTuner() == tuner )
+			{
+				count++;
+			}
+		}
+		
+		return count;
+    }
+
+    /**
+     * Disposes all idle sources for the tuner
+     */
+    private void disposeIdleSources( Tuner tuner )
+    {
+		TunerChannelSource source = getIdleSource( tuner );
+		
+		while( source != null )
+		{
+			source.dispose();
+			
+			source = getIdleSource( tuner );
+		}
+    }
 }
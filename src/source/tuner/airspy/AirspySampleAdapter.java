@@ -18,22 +18,37 @@
  ******************************************************************************/
 package source.tuner.airspy;
 
-import dsp.filter.dc.DCRemovalFilter_RB;
-import dsp.filter.hilbert.HilbertTransform;
+import dsp.filter.halfband.complex.ComplexHalfBandDecimator;
+import dsp.filter.hilbert.PolyphaseHilbertTransform;
 import sample.adapter.ISampleAdapter;
+import source.tuner.airspy.AirspyTunerController.Decimation;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 public class AirspySampleAdapter implements ISampleAdapter
 {
     private static final float SCALE_SIGNED_12_BIT_TO_FLOAT = 1.0f / 2048.0f;
 
-    private DCRemovalFilter_RB mDCFilter = new DCRemovalFilter_RB(0.01f);
-    private HilbertTransform mHilbertTransform = new HilbertTransform();
+    private PolyphaseHilbertTransform mHilbertTransform = new PolyphaseHilbertTransform();
+    private ComplexHalfBandDecimator[] mDecimators = new ComplexHalfBandDecimator[0];
+    private Decimation mDecimation = Decimation.NONE;
+    private volatile Decimation mRequestedDecimation = Decimation.NONE;
+    private float[] mRealSamples = new float[0];
     private boolean mSamplePacking = false;
+    private byte[] mReorderBuffer;
+    private byte[] mPackedBytes;
+    private short[] mUnpackedShorts = new short[0];
 
 
     /**
      * Adapter to translate byte buffers received from the airspy tuner into
      * float buffers for processing.
+     *
+     * Real samples are converted to complex samples using an FS/4 translation
+     * and polyphase half-band filter (with DC removal) and are optionally
+     * decimated further by 2, 4 or 8 using a cascade of complex half-band
+     * decimators.
      */
     public AirspySampleAdapter()
     {
@@ -50,23 +65,176 @@ public class AirspySampleAdapter implements ISampleAdapter
         mSamplePacking = enabled;
     }
 
+    /**
+     * Sets the additional decimation applied to the complex samples.  The
+     * change takes effect on the next call to getConvertedLength() so that
+     * converted buffers are always sized for the decimation that is applied.
+     */
+    public void setDecimation(Decimation decimation)
+    {
+        mRequestedDecimation = decimation;
+    }
+
+    /**
+     * Current decimation setting
+     */
+    public Decimation getDecimation()
+    {
+        return mRequestedDecimation;
+    }
+
     @Override
     public float[] convert(byte[] samples)
     {
-        float[] realSamples;
+        float[] convertedSamples = new float[getConvertedLength(samples.length)];
+
+        convert(samples, convertedSamples);
+
+        return convertedSamples;
+    }
+
+    @Override
+    public void convert(byte[] samples, float[] convertedSamples)
+    {
+        float[] realSamples = getRealSamples(convertedSamples);
 
         if(mSamplePacking)
         {
-            realSamples = convertPacked(samples);
+            convertPacked(samples, realSamples);
         }
         else
         {
-            realSamples = convertUnpacked(samples);
+            convertUnpacked(samples, realSamples);
+        }
+
+        filter(realSamples, convertedSamples);
+    }
+
+    @Override
+    public void convert(ByteBuffer samples, float[] convertedSamples)
+    {
+        float[] realSamples = getRealSamples(convertedSamples);
+
+        if(mSamplePacking)
+        {
+            int length = samples.remaining();
+
+            if(mPackedBytes == null || mPackedBytes.length != length)
+            {
+                mPackedBytes = new byte[length];
+            }
+
+            samples.get(mPackedBytes);
+
+            convertPacked(mPackedBytes, realSamples);
+        }
+        else
+        {
+            int count = realSamples.length;
+
+            if(mUnpackedShorts.length < count)
+            {
+                mUnpackedShorts = new short[count];
+            }
+
+            //Bulk transfer of the little-endian 16-bit words out of the native buffer
+            samples.order(ByteOrder.LITTLE_ENDIAN).asShortBuffer().get(mUnpackedShorts, 0, count);
+
+            for(int x = 0; x < count; x++)
+            {
+                realSamples[x] = scale(mUnpackedShorts[x]);
+            }
+
+            samples.position(samples.limit());
+        }
+
+        filter(realSamples, convertedSamples);
+    }
+
+    @Override
+    public int getConvertedLength(int byteCount)
+    {
+        if(mRequestedDecimation != mDecimation)
+        {
+            updateDecimation();
+        }
+
+        return getRealSampleCount(byteCount) / mDecimation.getValue();
+    }
+
+    /**
+     * Number of real samples converted from the byte count.  With decimation, the
+     * count is truncated to a multiple of twice the decimation rate so that each
+     * half-band decimator stage receives an even number of complex samples.
+     */
+    private int getRealSampleCount(int byteCount)
+    {
+        int count = mSamplePacking ? (int) ((float) byteCount / 1.5f) : byteCount / 2;
+
+        /* Ensure we have an even number of samples per decimation stage */
+        return count - (count % (2 * mDecimation.getValue()));
+    }
+
+    /**
+     * Applies the requested decimation and resets the decimation filter stages
+     */
+    private void updateDecimation()
+    {
+        mDecimation = mRequestedDecimation;
+
+        mDecimators = new ComplexHalfBandDecimator[mDecimation.getStages()];
+
+        for(int x = 0; x < mDecimators.length; x++)
+        {
+            mDecimators[x] = new ComplexHalfBandDecimator();
+        }
+    }
+
+    /**
+     * Array to receive the real samples.  Without decimation, the converted
+     * samples array is used so that the complex conversion is performed in place.
+     */
+    private float[] getRealSamples(float[] convertedSamples)
+    {
+        if(mDecimators.length == 0)
+        {
+            return convertedSamples;
         }
 
-        mDCFilter.filter(realSamples);
+        int count = convertedSamples.length * mDecimation.getValue();
+
+        if(mRealSamples.length != count)
+        {
+            mRealSamples = new float[count];
+        }
 
-        return mHilbertTransform.filter(realSamples);
+        return mRealSamples;
+    }
+
+    /**
+     * Converts the real samples to complex samples and applies any decimation,
+     * with the final stage writing to the converted samples array.
+     */
+    private void filter(float[] realSamples, float[] convertedSamples)
+    {
+        int length = realSamples.length;
+
+        if(mDecimators.length == 0)
+        {
+            mHilbertTransform.filter(realSamples, length, convertedSamples);
+            return;
+        }
+
+        mHilbertTransform.filter(realSamples, length, realSamples);
+
+        for(int x = 0; x < mDecimators.length; x++)
+        {
+            float[] output = (x == mDecimators.length - 1) ? convertedSamples : realSamples;
+
+            mDecimators[x].decimate(realSamples, length, output);
+
+            length /= 2;
+        }
     }
 
     /**
@@ -74,21 +242,18 @@ public class AirspySampleAdapter implements ISampleAdapter
      * signed float values in the range -1 to 1;
      *
      * @param data - byte array of unsigned 16-bit values
-     * @return converted float values
+     * @param samples - array to receive the converted float values
      */
-    private float[] convertUnpacked(byte[] data)
+    private void convertUnpacked(byte[] data, float[] samples)
     {
-        float[] samples = new float[data.length / 2];
-
         int pointer = 0;
+        int bytes = samples.length * 2;
 
-        for(int x = 0; x < data.length; x += 2)
+        for(int x = 0; x < bytes; x += 2)
         {
             samples[pointer++] = scale((data[x] & 0xFF) |
                 (data[x + 1] << 8));
         }
-
-        return samples;
     }
 
     /**
@@ -96,11 +261,16 @@ public class AirspySampleAdapter implements ISampleAdapter
      * a pair of float values in the range -1 to 1;
      *
      * @param data1 - byte array of unsigned 12-bit values
-     * @return converted float values
+     * @param samples - array to receive the converted float values
      */
-    private float[] convertPacked(byte[] data1)
+    private void convertPacked(byte[] data1, float[] samples)
     {
-        byte[] data = new byte[data1.length];
+        if(mReorderBuffer == null || mReorderBuffer.length != data1.length)
+        {
+            mReorderBuffer = new byte[data1.length];
+        }
+
+        byte[] data = mReorderBuffer;
 
         //Convert big-endian to little-endian
         for(int x = 0; x < data1.length; x += 4)
@@ -111,18 +281,10 @@ public class AirspySampleAdapter implements ISampleAdapter
             data[x + 3] = data1[x];
         }
 
-        int count = (int) ((float) data.length / 1.5f);
-
-		/* Ensure we have an even number of samples */
-        if(count % 2 == 1)
-        {
-            count--;
-        }
+        int count = samples.length;
 
         int bytes = (int) ((float) count * 1.5f);
 
-        float[] samples = new float[count];
-
         int pointer = 0;
 
         int first;
@@ -140,8 +302,6 @@ public class AirspySampleAdapter implements ISampleAdapter
 
             samples[pointer++] = scale(second);
         }
-
-        return samples;
     }
 
     /**
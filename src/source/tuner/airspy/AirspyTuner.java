@@ -111,6 +111,8 @@ public class AirspyTuner extends Tuner
 		if( source != null )
 		{
 			getController().releaseChannel( source );
+
+			broadcast( new TunerEvent( this, TunerEvent.Event.CHANNEL_COUNT ) );
 		}
     }
 
@@ -20,12 +20,14 @@ package source.tuner.airspy;
 import javax.xml.bind.annotation.XmlAttribute;
 
 import source.tuner.TunerType;
+import source.tuner.airspy.AirspyTunerController.Decimation;
 import source.tuner.airspy.AirspyTunerController.Gain;
 import source.tuner.configuration.TunerConfiguration;
 
 public class AirspyTunerConfiguration extends TunerConfiguration
 {
 	private int mSampleRate = AirspyTunerController.DEFAULT_SAMPLE_RATE.getRate();
+	private Decimation mDecimation = Decimation.NONE;
 	private Gain mGain = AirspyTunerController.LINEARITY_GAIN_DEFAULT;
 	private int mIFGain = AirspyTunerController.IF_GAIN_DEFAULT;
 	private int mMixerGain = AirspyTunerController.MIXER_GAIN_DEFAULT;
@@ -64,6 +66,17 @@ public class AirspyTunerConfiguration extends TunerConfiguration
 		mSampleRate = sampleRate;
 	}
 	
+	@XmlAttribute( name = "decimation" )
+	public Decimation getDecimation()
+	{
+		return mDecimation;
+	}
+	
+	public void setDecimation( Decimation decimation )
+	{
+		mDecimation = decimation;
+	}
+	
 	@XmlAttribute( name = "gain" )
 	public Gain getGain()
 	{
@@ -292,6 +292,7 @@ public class AirspyTunerController extends TunerController
 
             try
             {
+                setDecimation(airspy.getDecimation());
                 setSampleRate(rate);
             }
             catch(UsbException e)
@@ -380,7 +381,35 @@ public class AirspyTunerController extends TunerController
     @Override
     public int getCurrentSampleRate() throws SourceException
     {
-        return mSampleRate;
+        return mSampleRate / mSampleAdapter.getDecimation().getValue();
+    }
+
+    /**
+     * Sets the additional decimation applied to the complex sample stream and
+     * updates the sample rate that is reported to consumers.
+     *
+     * @param decimation to apply
+     * @throws SourceException if the new sample rate can't be applied
+     */
+    public void setDecimation(Decimation decimation) throws SourceException
+    {
+        if(decimation != mSampleAdapter.getDecimation())
+        {
+            mSampleAdapter.setDecimation(decimation);
+
+            if(mSampleRate > 0)
+            {
+                mFrequencyController.setSampleRate(getCurrentSampleRate());
+            }
+        }
+    }
+
+    /**
+     * Current decimation setting
+     */
+    public Decimation getDecimation()
+    {
+        return mSampleAdapter.getDecimation();
     }
 
     /**
@@ -408,7 +437,7 @@ public class AirspyTunerController extends TunerController
             else
             {
                 mSampleRate = rate.getRate();
-                mFrequencyController.setSampleRate(mSampleRate);
+                mFrequencyController.setSampleRate(getCurrentSampleRate());
             }
         }
     }
@@ -856,6 +885,51 @@ public class AirspyTunerController extends TunerController
         }
     }
 
+    /**
+     * Additional decimation of the complex sample stream, applied in the sample
+     * adapter using a cascade of decimate by 2 half-band filters.
+     */
+    public enum Decimation
+    {
+        NONE(1, 0, "None"),
+        DECIMATE_2(2, 1, "2"),
+        DECIMATE_4(4, 2, "4"),
+        DECIMATE_8(8, 3, "8");
+
+        private int mValue;
+        private int mStages;
+        private String mLabel;
+
+        Decimation(int value, int stages, String label)
+        {
+            mValue = value;
+            mStages = stages;
+            mLabel = label;
+        }
+
+        /**
+         * Decimation rate
+         */
+        public int getValue()
+        {
+            return mValue;
+        }
+
+        /**
+         * Number of decimate by 2 half-band stages
+         */
+        public int getStages()
+        {
+            return mStages;
+        }
+
+        @Override
+        public String toString()
+        {
+            return mLabel;
+        }
+    }
+
     public enum GainMode
     {
         LINEARITY,
@@ -48,6 +48,7 @@ import org.slf4j.LoggerFactory;
 import org.usb4java.LibUsbException;
 
 import source.SourceException;
+import source.tuner.airspy.AirspyTunerController.Decimation;
 import source.tuner.airspy.AirspyTunerController.Gain;
 import source.tuner.airspy.AirspyTunerController.GainMode;
 import source.tuner.configuration.TunerConfiguration;
@@ -67,6 +68,7 @@ public class AirspyTunerEditor extends TunerConfigurationEditor
     private JButton mTunerInfo;
 
     private JComboBox<AirspySampleRate> mSampleRateCombo;
+    private JComboBox<Decimation> mDecimationCombo;
     private JSpinner mFrequencyCorrection;
 
     private JComboBox<GainMode> mGainModeCombo;
@@ -179,6 +181,39 @@ public class AirspyTunerEditor extends TunerConfigurationEditor
 		
 		add( mSampleRateCombo );
 
+		/**
+		 * Decimation
+		 */
+		add( new JLabel( "Decimation:" ) );
+
+		mDecimationCombo = new JComboBox<Decimation>( Decimation.values() );
+		mDecimationCombo.setToolTipText( "Reduces the sample rate by the selected "
+				+ "factor, for reduced bandwidth and processing load" );
+		mDecimationCombo.setEnabled( false );
+		mDecimationCombo.addActionListener( new ActionListener()
+		{
+			@Override
+			public void actionPerformed( ActionEvent e )
+			{
+				Decimation decimation = (Decimation)mDecimationCombo.getSelectedItem();
+
+				try
+				{
+					mController.setDecimation( decimation );
+					save();
+				} 
+				catch ( SourceException e1 )
+				{
+					JOptionPane.showMessageDialog( AirspyTunerEditor.this, 
+						"Couldn't set decimation to " + decimation );
+					
+					mLog.error( "Error setting airspy decimation", e1 );
+				} 
+			}
+		} );
+		
+		add( mDecimationCombo );
+
         /**
          * Frequency Correction
          */
@@ -220,7 +255,7 @@ public class AirspyTunerEditor extends TunerConfigurationEditor
         } );
         
         add( new JLabel( "PPM:" ) );
-        add( mFrequencyCorrection );
+        add( mFrequencyCorrection, "wrap" );
 		
 		add( new JSeparator(), "span,growx,push" );
 
@@ -563,6 +598,7 @@ public class AirspyTunerEditor extends TunerConfigurationEditor
     		AirspyTunerConfiguration config = getConfiguration();
     		config.setName( mConfigurationName.getText() );
     		config.setSampleRate( ((AirspySampleRate)mSampleRateCombo.getSelectedItem()).getRate() );
+    		config.setDecimation( (Decimation)mDecimationCombo.getSelectedItem() );
 
     		double value = ((SpinnerNumberModel)mFrequencyCorrection.getModel()).getNumber().doubleValue();
 			config.setFrequencyCorrection( value );
@@ -620,6 +656,11 @@ public class AirspyTunerEditor extends TunerConfigurationEditor
 			mSampleRateCombo.setEnabled( enabled );
 		}
 		
+		if( mDecimationCombo.isEnabled() != enabled )
+		{
+			mDecimationCombo.setEnabled( enabled );
+		}
+		
 		if( mFrequencyCorrection.isEnabled() != enabled )
 		{
 			mFrequencyCorrection.setEnabled( enabled );
@@ -686,6 +727,8 @@ public class AirspyTunerEditor extends TunerConfigurationEditor
 			{
 				mSampleRateCombo.setSelectedItem( rate );
 			}
+
+			mDecimationCombo.setSelectedItem( airspy.getDecimation() );
 			
 			mFrequencyCorrection.setValue( airspy.getFrequencyCorrection() );
 
@@ -107,6 +107,8 @@ public class FCDTuner extends MixerTuner
 			/* Tell the controller to release the channel and cleanup */
 			/* This will release the channel as a frequency change listener */
 			getController().releaseChannel( source );
+
+			broadcast( new TunerEvent( this, TunerEvent.Event.CHANNEL_COUNT ) );
 		}
     }
 }
@@ -94,6 +94,8 @@ public class HackRFTuner extends Tuner
 		if( source != null )
 		{
 			getController().releaseChannel( source );
+
+			broadcast( new TunerEvent( this, TunerEvent.Event.CHANNEL_COUNT ) );
 		}
     }
 
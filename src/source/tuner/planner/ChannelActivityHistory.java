@@ -0,0 +1,155 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package source.tuner.planner;
+
+import source.tuner.TunerChannel;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Exponentially decaying record of channel grant activity per frequency, used to identify historically busy
+ * frequencies for pre-positioning idle tuners.
+ */
+public class ChannelActivityHistory
+{
+    private static final double MINIMUM_WEIGHT = 0.001;
+
+    private Map<Long,Activity> mActivity = new TreeMap<>();
+    private long mHalfLife;
+
+    /**
+     * Constructs an activity history
+     *
+     * @param halfLife in milliseconds for the weight of a recorded grant to decay by half
+     */
+    public ChannelActivityHistory(long halfLife)
+    {
+        mHalfLife = halfLife;
+    }
+
+    /**
+     * Records a grant for the channel at the specified time
+     */
+    public synchronized void record(TunerChannel channel, long timestamp)
+    {
+        Activity activity = mActivity.get(channel.getFrequency());
+
+        if(activity == null)
+        {
+            activity = new Activity(channel.getFrequency(), channel.getBandwidth());
+            mActivity.put(channel.getFrequency(), activity);
+        }
+
+        activity.add(timestamp);
+    }
+
+    /**
+     * Snapshot of the frequencies with their decayed weights at the specified time, ordered by frequency.  Entries
+     * that have decayed to an insignificant weight are removed from the history.
+     */
+    public synchronized List<Activity> getActivity(long timestamp)
+    {
+        List<Activity> activities = new ArrayList<>();
+
+        Iterator<Activity> it = mActivity.values().iterator();
+
+        while(it.hasNext())
+        {
+            Activity activity = it.next();
+
+            if(activity.getWeight(timestamp) < MINIMUM_WEIGHT)
+            {
+                it.remove();
+                continue;
+            }
+
+            Activity copy = new Activity(activity.getFrequency(), activity.getBandwidth());
+            copy.mWeight = activity.getWeight(timestamp);
+            copy.mTimestamp = timestamp;
+            activities.add(copy);
+        }
+
+        return activities;
+    }
+
+    public synchronized void clear()
+    {
+        mActivity.clear();
+    }
+
+    /**
+     * Grant activity for a single frequency
+     */
+    public class Activity
+    {
+        private long mFrequency;
+        private int mBandwidth;
+        private double mWeight;
+        private long mTimestamp;
+
+        private Activity(long frequency, int bandwidth)
+        {
+            mFrequency = frequency;
+            mBandwidth = bandwidth;
+        }
+
+        private void add(long timestamp)
+        {
+            mWeight = getWeight(timestamp) + 1.0;
+            mTimestamp = timestamp;
+        }
+
+        public long getFrequency()
+        {
+            return mFrequency;
+        }
+
+        public int getBandwidth()
+        {
+            return mBandwidth;
+        }
+
+        public long getMinFrequency()
+        {
+            return mFrequency - (mBandwidth / 2);
+        }
+
+        public long getMaxFrequency()
+        {
+            return mFrequency + (mBandwidth / 2);
+        }
+
+        /**
+         * Decayed weight at the specified time
+         */
+        public double getWeight(long timestamp)
+        {
+            if(timestamp <= mTimestamp || mHalfLife <= 0)
+            {
+                return mWeight;
+            }
+
+            return mWeight * Math.pow(0.5, (double)(timestamp - mTimestamp) / mHalfLife);
+        }
+    }
+}
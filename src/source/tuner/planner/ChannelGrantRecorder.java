@@ -0,0 +1,164 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package source.tuner.planner;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import source.tuner.Tuner;
+import source.tuner.TunerChannel;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Records channel grant (START) and release (STOP) events to a comma separated values file for offline replay by the
+ * FrequencyPlanSimulator.  Each line contains:
+ *
+ * timestamp milliseconds, START|STOP, frequency, bandwidth, tuner name (or NONE when the grant failed)
+ */
+public class ChannelGrantRecorder
+{
+    private final static Logger mLog = LoggerFactory.getLogger(ChannelGrantRecorder.class);
+
+    public static final String START = "START";
+    public static final String STOP = "STOP";
+    public static final String NO_TUNER = "NONE";
+
+    private BufferedWriter mWriter;
+    private List<Grant> mActiveGrants = new ArrayList<>();
+
+    /**
+     * Constructs a recorder writing to the specified file
+     *
+     * @throws IOException if the file can't be created
+     */
+    public ChannelGrantRecorder(Path path) throws IOException
+    {
+        mWriter = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+        mLog.info("Recording channel grants to " + path.toString());
+    }
+
+    /**
+     * Records a channel grant request
+     *
+     * @param channel requested
+     * @param tuner sourcing the channel, or null if the channel could not be sourced
+     */
+    public synchronized void start(TunerChannel channel, Tuner tuner)
+    {
+        write(START, channel, tuner);
+
+        if(tuner != null)
+        {
+            mActiveGrants.add(new Grant(channel, tuner));
+        }
+    }
+
+    /**
+     * Records a release for each granted channel that is no longer sourced by the tuner
+     *
+     * @param tuner with a changed channel count
+     * @param tunedChannels currently sourced by the tuner
+     */
+    public synchronized void update(Tuner tuner, List<TunerChannel> tunedChannels)
+    {
+        Iterator<Grant> it = mActiveGrants.iterator();
+
+        while(it.hasNext())
+        {
+            Grant grant = it.next();
+
+            if(grant.mTuner == tuner && !containsInstance(tunedChannels, grant.mChannel))
+            {
+                write(STOP, grant.mChannel, tuner);
+                it.remove();
+            }
+        }
+    }
+
+    private static boolean containsInstance(List<TunerChannel> channels, TunerChannel channel)
+    {
+        for(TunerChannel tunedChannel : channels)
+        {
+            if(tunedChannel == channel)
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void write(String event, TunerChannel channel, Tuner tuner)
+    {
+        if(mWriter != null)
+        {
+            try
+            {
+                mWriter.write(System.currentTimeMillis() + "," + event + "," + channel.getFrequency() + "," +
+                    channel.getBandwidth() + "," + (tuner != null ? tuner.getName().replace(',', ' ') : NO_TUNER));
+                mWriter.newLine();
+                mWriter.flush();
+            }
+            catch(IOException ioe)
+            {
+                mLog.error("Error writing channel grant record - recording stopped", ioe);
+                close();
+            }
+        }
+    }
+
+    /**
+     * Closes the recording file
+     */
+    public synchronized void close()
+    {
+        if(mWriter != null)
+        {
+            try
+            {
+                mWriter.close();
+            }
+            catch(IOException ioe)
+            {
+                mLog.error("Error closing channel grant recording", ioe);
+            }
+
+            mWriter = null;
+        }
+    }
+
+    private class Grant
+    {
+        private TunerChannel mChannel;
+        private Tuner mTuner;
+
+        private Grant(TunerChannel channel, Tuner tuner)
+        {
+            mChannel = channel;
+            mTuner = tuner;
+        }
+    }
+}
@@ -0,0 +1,521 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package source.tuner.planner;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import source.tuner.TunerChannel;
+import source.tuner.TunerChannel.Type;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Offline simulation of channel to tuner allocation.  Replays a channel grant sequence, recorded by the
+ * ChannelGrantRecorder or synthetically generated, against a set of simulated tuners and reports the allocation
+ * success rate and retune counts for the frequency planner and for the first-fit allocation used by the TunerModel
+ * when the planner is disabled.
+ *
+ * Usage: FrequencyPlanSimulator (grants.csv | synthetic) [tuner count] [sample rate] [usable bandwidth percent]
+ * [DC spike avoid buffer]
+ */
+public class FrequencyPlanSimulator
+{
+    private final static Logger mLog = LoggerFactory.getLogger(FrequencyPlanSimulator.class);
+
+    private static final int DEFAULT_TUNER_COUNT = 4;
+    private static final int DEFAULT_SAMPLE_RATE = 2400000;
+    private static final double DEFAULT_USABLE_BANDWIDTH = 1.0;
+    private static final int DEFAULT_DC_SPIKE_AVOID_BUFFER = 5000;
+    private static final long MINIMUM_FREQUENCY = 24000000;
+    private static final long MAXIMUM_FREQUENCY = 1766000000;
+
+    /* Synthetic trunked system: control channel plus traffic channels with skewed popularity */
+    private static final long SYNTHETIC_BASE_FREQUENCY = 851000000;
+    private static final int SYNTHETIC_SPAN = 9000000;
+    private static final int SYNTHETIC_TRAFFIC_CHANNELS = 28;
+    private static final int SYNTHETIC_BANDWIDTH = 12500;
+    private static final double SYNTHETIC_GRANTS_PER_SECOND = 1.2;
+    private static final double SYNTHETIC_MEAN_CALL_SECONDS = 7.0;
+    private static final long SYNTHETIC_DURATION = 2 * 60 * 60 * 1000;
+
+    public enum Strategy
+    {
+        PLANNER,
+        FIRST_FIT;
+    }
+
+    public static void main(String[] args) throws IOException
+    {
+        if(args.length < 1)
+        {
+            mLog.info("Usage: FrequencyPlanSimulator (grants.csv | synthetic) [tuner count] [sample rate] " +
+                "[usable bandwidth percent] [DC spike avoid buffer]");
+            return;
+        }
+
+        List<Grant> grants = args[0].equalsIgnoreCase("synthetic") ? generate(new Random(1)) : read(args[0]);
+
+        int tunerCount = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_TUNER_COUNT;
+        int sampleRate = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_SAMPLE_RATE;
+        double usable = args.length > 3 ? Double.parseDouble(args[3]) : DEFAULT_USABLE_BANDWIDTH;
+        int dcSpike = args.length > 4 ? Integer.parseInt(args[4]) : DEFAULT_DC_SPIKE_AVOID_BUFFER;
+
+        mLog.info("Replaying " + grants.size() + " grant events against " + tunerCount + " tuners at " +
+            sampleRate + " Hz, usable:" + usable + " DC spike:" + dcSpike);
+
+        for(Strategy strategy : Strategy.values())
+        {
+            List<PlannedTuner> tuners = new ArrayList<>();
+
+            for(int x = 0; x < tunerCount; x++)
+            {
+                tuners.add(new PlannedTuner("Tuner " + x, MINIMUM_FREQUENCY, MAXIMUM_FREQUENCY, sampleRate,
+                    (int)(sampleRate * usable), dcSpike, MINIMUM_FREQUENCY + sampleRate, new ArrayList<>()));
+            }
+
+            mLog.info(strategy + ": " + simulate(strategy, grants, tuners, new FrequencyPlanner()));
+        }
+    }
+
+    /**
+     * Replays the grant sequence against the tuners using the allocation strategy
+     *
+     * @param strategy for allocating channels to tuners
+     * @param grants to replay
+     * @param tuners to allocate channels to.  Tuner state is updated during the simulation
+     * @param planner for the PLANNER strategy
+     */
+    public static Result simulate(Strategy strategy, List<Grant> grants, List<PlannedTuner> tuners,
+                                  FrequencyPlanner planner)
+    {
+        Result result = new Result();
+
+        for(Grant grant : grants)
+        {
+            if(grant.isStart())
+            {
+                TunerChannel channel = new TunerChannel(Type.TRAFFIC, grant.getFrequency(), grant.getBandwidth());
+
+                result.mRequests++;
+
+                PlannedTuner assigned = null;
+
+                if(strategy == Strategy.PLANNER)
+                {
+                    planner.record(channel, grant.getTimestamp());
+
+                    TunerAssignment assignment = planner.getAssignment(tuners, channel, grant.getTimestamp());
+
+                    if(assignment != null)
+                    {
+                        assigned = assignment.getTuner();
+                        result.count(assigned, assignment.isRetune());
+                        assigned.setCenterFrequency(assignment.getCenterFrequency());
+                        assigned.getChannels().add(channel);
+                    }
+                }
+                else
+                {
+                    for(PlannedTuner tuner : tuners)
+                    {
+                        boolean idle = tuner.isIdle();
+                        long center = tuner.getCenterFrequency();
+
+                        if(firstFit(tuner, channel))
+                        {
+                            assigned = tuner;
+                            result.count(tuner, idle, center != tuner.getCenterFrequency());
+                            break;
+                        }
+                    }
+                }
+
+                if(assigned != null)
+                {
+                    result.mGranted++;
+                }
+            }
+            else
+            {
+                for(PlannedTuner tuner : tuners)
+                {
+                    if(release(tuner, grant.getFrequency()))
+                    {
+                        if(strategy == Strategy.PLANNER && tuner.isIdle())
+                        {
+                            Long center = planner.getPrepositionFrequency(tuners, tuner, grant.getTimestamp());
+
+                            if(center != null)
+                            {
+                                tuner.setCenterFrequency(center);
+                            }
+                        }
+
+                        break;
+                    }
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Removes one channel with the frequency from the tuner
+     *
+     * @return true if a channel was removed
+     */
+    private static boolean release(PlannedTuner tuner, long frequency)
+    {
+        Iterator<TunerChannel> it = tuner.getChannels().iterator();
+
+        while(it.hasNext())
+        {
+            if(it.next().getFrequency() == frequency)
+            {
+                it.remove();
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Emulates the TunerController channel allocation (canTune, requiresLOUpdate and updateLOFrequency) that is used
+     * when the first tuner able to source the channel is selected.
+     *
+     * @return true if the channel was added to the tuner
+     */
+    private static boolean firstFit(PlannedTuner tuner, TunerChannel channel)
+    {
+        List<TunerChannel> channels = tuner.getChannels();
+        int usable = tuner.getUsableBandwidth();
+        int middleUnusable = tuner.getMiddleUnusable();
+
+        if(tuner.getMinimumFrequency() >= channel.getMinFrequency() ||
+            tuner.getMaximumFrequency() <= channel.getMaxFrequency())
+        {
+            return false;
+        }
+
+        List<TunerChannel> sorted = new ArrayList<>(channels);
+        sorted.add(channel);
+        Collections.sort(sorted, new Comparator<TunerChannel>()
+        {
+            @Override
+            public int compare(TunerChannel a, TunerChannel b)
+            {
+                return Long.compare(a.getFrequency(), b.getFrequency());
+            }
+        });
+
+        if(!channels.isEmpty())
+        {
+            long minLocked = Long.MAX_VALUE;
+            long maxLocked = Long.MIN_VALUE;
+
+            for(TunerChannel tunedChannel : channels)
+            {
+                minLocked = Math.min(minLocked, tunedChannel.getMinFrequency());
+                maxLocked = Math.max(maxLocked, tunedChannel.getMaxFrequency());
+            }
+
+            boolean canTune = (minLocked <= channel.getMinFrequency() && channel.getMaxFrequency() <= maxLocked) ||
+                (channel.getMaxFrequency() > minLocked && channel.getMaxFrequency() - minLocked <= usable) ||
+                (channel.getMinFrequency() <= maxLocked && maxLocked - channel.getMinFrequency() <= usable);
+
+            if(!canTune)
+            {
+                return false;
+            }
+        }
+
+        long center = tuner.getCenterFrequency();
+
+        boolean requiresUpdate = channel.getMinFrequency() < center - (usable / 2) ||
+            channel.getMaxFrequency() > center + (usable / 2) ||
+            (middleUnusable > 0 && channel.overlaps(center - middleUnusable, center + middleUnusable));
+
+        if(requiresUpdate)
+        {
+            long candidate;
+
+            if(sorted.size() == 1)
+            {
+                candidate = channel.getMinFrequency() - middleUnusable + 1;
+            }
+            else
+            {
+                long minLocked = sorted.get(0).getMinFrequency();
+                candidate = sorted.get(sorted.size() - 1).getMaxFrequency() - (usable / 2);
+
+                boolean processing = middleUnusable > 0;
+
+                while(processing)
+                {
+                    processing = false;
+
+                    long minAvoid = candidate - middleUnusable;
+                    long maxAvoid = candidate + middleUnusable;
+
+                    for(TunerChannel tunedChannel : sorted)
+                    {
+                        if(tunedChannel.overlaps(minAvoid, maxAvoid))
+                        {
+                            long adjustment = tunedChannel.getMaxFrequency() - minAvoid + 1;
+
+                            if(candidate + adjustment - (usable / 2) <= minLocked)
+                            {
+                                candidate += adjustment;
+                                processing = true;
+                            }
+                            else
+                            {
+                                return false;
+                            }
+
+                            break;
+                        }
+                    }
+                }
+            }
+
+            tuner.setCenterFrequency(candidate);
+        }
+
+        channels.add(channel);
+
+        return true;
+    }
+
+    /**
+     * Reads a grant sequence recorded by the ChannelGrantRecorder
+     */
+    public static List<Grant> read(String file) throws IOException
+    {
+        List<Grant> grants = new ArrayList<>();
+
+        for(String line : Files.readAllLines(Paths.get(file), StandardCharsets.UTF_8))
+        {
+            String[] fields = line.split(",");
+
+            if(fields.length >= 4)
+            {
+                try
+                {
+                    grants.add(new Grant(Long.parseLong(fields[0].trim()),
+                        ChannelGrantRecorder.START.equals(fields[1].trim()), Long.parseLong(fields[2].trim()),
+                        Integer.parseInt(fields[3].trim())));
+                }
+                catch(NumberFormatException nfe)
+                {
+                    mLog.warn("Ignoring unparsable grant record: " + line);
+                }
+            }
+        }
+
+        return grants;
+    }
+
+    /**
+     * Generates a synthetic trunked system grant sequence: a control channel that is held for the duration and traffic
+     * channel grants with Poisson arrivals, exponential call durations and a skewed (1/rank) frequency popularity.
+     */
+    public static List<Grant> generate(Random random)
+    {
+        List<Long> frequencies = new ArrayList<>();
+
+        for(int x = 0; x < SYNTHETIC_TRAFFIC_CHANNELS; x++)
+        {
+            long offset = (long)(random.nextDouble() * SYNTHETIC_SPAN / SYNTHETIC_BANDWIDTH) * SYNTHETIC_BANDWIDTH;
+            frequencies.add(SYNTHETIC_BASE_FREQUENCY + offset);
+        }
+
+        double[] popularity = new double[frequencies.size()];
+        double total = 0.0;
+
+        for(int x = 0; x < popularity.length; x++)
+        {
+            total += 1.0 / (x + 1);
+            popularity[x] = total;
+        }
+
+        List<Grant> grants = new ArrayList<>();
+
+        //Control channel
+        long control = SYNTHETIC_BASE_FREQUENCY + SYNTHETIC_SPAN / 2;
+        grants.add(new Grant(0, true, control, SYNTHETIC_BANDWIDTH));
+
+        List<Grant> stops = new ArrayList<>();
+        List<Long> active = new ArrayList<>();
+        long timestamp = 0;
+
+        while(timestamp < SYNTHETIC_DURATION)
+        {
+            timestamp += (long)(-Math.log(1.0 - random.nextDouble()) / SYNTHETIC_GRANTS_PER_SECOND * 1000.0);
+
+            //Release completed calls
+            Collections.sort(stops, Grant.TIMESTAMP_ORDER);
+
+            Iterator<Grant> it = stops.iterator();
+
+            while(it.hasNext())
+            {
+                Grant stop = it.next();
+
+                if(stop.getTimestamp() <= timestamp)
+                {
+                    grants.add(stop);
+                    active.remove(stop.getFrequency());
+                    it.remove();
+                }
+            }
+
+            double pick = random.nextDouble() * total;
+            int index = 0;
+
+            while(popularity[index] < pick)
+            {
+                index++;
+            }
+
+            long frequency = frequencies.get(index);
+
+            //A traffic channel is only granted once at a time
+            if(!active.contains(frequency))
+            {
+                long duration = (long)(-Math.log(1.0 - random.nextDouble()) * SYNTHETIC_MEAN_CALL_SECONDS * 1000.0);
+
+                grants.add(new Grant(timestamp, true, frequency, SYNTHETIC_BANDWIDTH));
+                stops.add(new Grant(timestamp + duration, false, frequency, SYNTHETIC_BANDWIDTH));
+                active.add(frequency);
+            }
+        }
+
+        Collections.sort(stops, Grant.TIMESTAMP_ORDER);
+        grants.addAll(stops);
+
+        return grants;
+    }
+
+    /**
+     * Channel grant (start) or release (stop) event
+     */
+    public static class Grant
+    {
+        public static final Comparator<Grant> TIMESTAMP_ORDER = new Comparator<Grant>()
+        {
+            @Override
+            public int compare(Grant a, Grant b)
+            {
+                return Long.compare(a.mTimestamp, b.mTimestamp);
+            }
+        };
+
+        private long mTimestamp;
+        private boolean mStart;
+        private long mFrequency;
+        private int mBandwidth;
+
+        public Grant(long timestamp, boolean start, long frequency, int bandwidth)
+        {
+            mTimestamp = timestamp;
+            mStart = start;
+            mFrequency = frequency;
+            mBandwidth = bandwidth;
+        }
+
+        public long getTimestamp()
+        {
+            return mTimestamp;
+        }
+
+        public boolean isStart()
+        {
+            return mStart;
+        }
+
+        public long getFrequency()
+        {
+            return mFrequency;
+        }
+
+        public int getBandwidth()
+        {
+            return mBandwidth;
+        }
+    }
+
+    /**
+     * Simulation results
+     */
+    public static class Result
+    {
+        private int mRequests;
+        private int mGranted;
+        private int mRetunes;
+        private int mIdleRetunes;
+        private int mIdleGrants;
+
+        private void count(PlannedTuner tuner, boolean retune)
+        {
+            count(tuner, tuner.isIdle(), retune);
+        }
+
+        private void count(PlannedTuner tuner, boolean idle, boolean retune)
+        {
+            if(idle)
+            {
+                mIdleGrants++;
+
+                if(retune)
+                {
+                    mIdleRetunes++;
+                }
+            }
+            else if(retune)
+            {
+                mRetunes++;
+            }
+        }
+
+        public double getSuccessRate()
+        {
+            return mRequests > 0 ? (double)mGranted / (double)mRequests : 0.0;
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("requests:%d granted:%d success:%.2f%% active tuner retunes:%d " +
+                    "idle tuner grants:%d (retuned:%d)", mRequests, mGranted, getSuccessRate() * 100.0, mRetunes,
+                mIdleGrants, mIdleRetunes);
+        }
+    }
+}
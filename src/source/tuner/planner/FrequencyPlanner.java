@@ -0,0 +1,447 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package source.tuner.planner;
+
+import source.tuner.TunerChannel;
+import source.tuner.planner.ChannelActivityHistory.Activity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plans channel to tuner assignments across all available tuners.
+ *
+ * For each tuner, the planner calculates the range of center frequencies that keeps the requested channel and all of
+ * the tuner's current channels within the usable bandwidth, removes the center frequencies that would place any
+ * channel over the central DC spike, and selects the current center frequency when it remains valid (no retune) or
+ * otherwise the valid center frequency that covers the most recent grant activity not covered by other tuners, with
+ * ties resolved in favor of the most headroom on either side.  Each candidate assignment is scored and the lowest
+ * cost assignment is selected:
+ *
+ * - retuning a tuner that is already sourcing channels
+ * - committing an idle tuner (keeps idle tuners available for channels that no active tuner can reach)
+ * - growth of the channel span on the tuner, relative to the usable bandwidth (headroom)
+ * - processing load, estimated as the number of channels times the tuner sample rate, relative to the most heavily
+ *   loaded tuner
+ *
+ * The planner also tracks channel grant activity and suggests center frequencies for idle tuners that cover the
+ * historically busiest frequencies not already covered by other tuners, so that future grants can be sourced without
+ * a retune.
+ *
+ * Planner methods operate on PlannedTuner snapshots and don't change any tuner state, so the same planner is used for
+ * live channel assignment and for offline simulation.
+ */
+public class FrequencyPlanner
+{
+    public static final double DEFAULT_RETUNE_COST = 0.5;
+    public static final double DEFAULT_IDLE_TUNER_COST = 1.0;
+    public static final double DEFAULT_IDLE_RETUNE_COST = 0.1;
+    public static final double DEFAULT_SPAN_COST = 0.5;
+    public static final double DEFAULT_LOAD_COST = 0.25;
+    public static final long DEFAULT_HISTORY_HALF_LIFE = 30 * 60 * 1000;
+
+    private ChannelActivityHistory mHistory;
+    private double mRetuneCost = DEFAULT_RETUNE_COST;
+    private double mIdleTunerCost = DEFAULT_IDLE_TUNER_COST;
+    private double mIdleRetuneCost = DEFAULT_IDLE_RETUNE_COST;
+    private double mSpanCost = DEFAULT_SPAN_COST;
+    private double mLoadCost = DEFAULT_LOAD_COST;
+
+    /**
+     * Constructs a planner with the default cost weights and activity history half-life
+     */
+    public FrequencyPlanner()
+    {
+        this(DEFAULT_HISTORY_HALF_LIFE);
+    }
+
+    /**
+     * Constructs a planner with the default cost weights
+     *
+     * @param historyHalfLife in milliseconds for decaying channel grant activity
+     */
+    public FrequencyPlanner(long historyHalfLife)
+    {
+        mHistory = new ChannelActivityHistory(historyHalfLife);
+    }
+
+    /**
+     * Channel grant activity history
+     */
+    public ChannelActivityHistory getHistory()
+    {
+        return mHistory;
+    }
+
+    /**
+     * Sets the relative cost weights used to score candidate assignments
+     *
+     * @param retune cost of retuning a tuner that is sourcing channels
+     * @param idleTuner cost of committing an idle tuner
+     * @param idleRetune cost of retuning an idle tuner
+     * @param span cost of channel span growth, relative to the usable bandwidth
+     * @param load cost of processing load, relative to the most heavily loaded tuner
+     */
+    public void setCosts(double retune, double idleTuner, double idleRetune, double span, double load)
+    {
+        mRetuneCost = retune;
+        mIdleTunerCost = idleTuner;
+        mIdleRetuneCost = idleRetune;
+        mSpanCost = span;
+        mLoadCost = load;
+    }
+
+    /**
+     * Records a channel grant in the activity history
+     */
+    public void record(TunerChannel channel, long timestamp)
+    {
+        mHistory.record(channel, timestamp);
+    }
+
+    /**
+     * Determines the lowest cost assignment for the channel across the tuners.
+     *
+     * @param tuners available for sourcing the channel
+     * @param channel to assign
+     * @param timestamp current time in milliseconds, for decaying grant activity
+     * @return assignment or null if none of the tuners can source the channel
+     */
+    public TunerAssignment getAssignment(List<PlannedTuner> tuners, TunerChannel channel, long timestamp)
+    {
+        List<Activity> activity = mHistory.getActivity(timestamp);
+
+        double maxLoad = 0.0;
+
+        for(PlannedTuner tuner : tuners)
+        {
+            maxLoad = Math.max(maxLoad, getLoad(tuner, 1));
+        }
+
+        TunerAssignment best = null;
+
+        for(PlannedTuner tuner : tuners)
+        {
+            Long center = null;
+
+            if(isTunable(tuner, channel))
+            {
+                List<TunerChannel> channels = new ArrayList<>(tuner.getChannels());
+                channels.add(channel);
+
+                center = getCenterFrequency(tuner, channels, getUncovered(activity, tuners, tuner), timestamp);
+            }
+
+            if(center != null)
+            {
+                double cost = getCost(tuner, channel, center, maxLoad);
+
+                if(best == null || cost < best.getCost())
+                {
+                    best = new TunerAssignment(tuner, channel, center, cost);
+                }
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * Scores the assignment of the channel to the tuner at the center frequency
+     */
+    private double getCost(PlannedTuner tuner, TunerChannel channel, long center, double maxLoad)
+    {
+        double cost = 0.0;
+
+        boolean retune = center != tuner.getCenterFrequency();
+
+        if(tuner.isIdle())
+        {
+            cost += mIdleTunerCost;
+
+            if(retune)
+            {
+                cost += mIdleRetuneCost;
+            }
+        }
+        else if(retune)
+        {
+            cost += mRetuneCost;
+        }
+
+        long span = tuner.getChannelSpan();
+        long minimum = channel.getMinFrequency();
+        long maximum = channel.getMaxFrequency();
+
+        for(TunerChannel tunedChannel : tuner.getChannels())
+        {
+            minimum = Math.min(minimum, tunedChannel.getMinFrequency());
+            maximum = Math.max(maximum, tunedChannel.getMaxFrequency());
+        }
+
+        cost += mSpanCost * (double)((maximum - minimum) - span) / (double)tuner.getUsableBandwidth();
+
+        if(maxLoad > 0.0)
+        {
+            cost += mLoadCost * getLoad(tuner, 1) / maxLoad;
+        }
+
+        return cost;
+    }
+
+    /**
+     * Estimated processing load for the tuner with the additional number of channels.  Each channel source processes
+     * the full tuner sample stream, so load scales with channel count and sample rate.
+     */
+    private static double getLoad(PlannedTuner tuner, int additionalChannels)
+    {
+        return (double)(tuner.getChannels().size() + additionalChannels) * tuner.getSampleRate();
+    }
+
+    /**
+     * Indicates if the channel is within the tunable frequency range of the tuner
+     */
+    private static boolean isTunable(PlannedTuner tuner, TunerChannel channel)
+    {
+        return tuner.getMinimumFrequency() < channel.getMinFrequency() &&
+            channel.getMaxFrequency() < tuner.getMaximumFrequency();
+    }
+
+    /**
+     * Calculates the center frequency for the tuner to source the channel along with all of the tuner's current
+     * channels, without considering channel grant activity.
+     *
+     * @return current center frequency if it remains valid, otherwise the valid center frequency with the most
+     * headroom, or null if the channels can't be sourced by the tuner at any center frequency
+     */
+    public static Long getCenterFrequency(PlannedTuner tuner, TunerChannel channel)
+    {
+        if(!isTunable(tuner, channel))
+        {
+            return null;
+        }
+
+        List<TunerChannel> channels = new ArrayList<>(tuner.getChannels());
+        channels.add(channel);
+
+        return getCenterFrequency(tuner, channels, null, 0);
+    }
+
+    /**
+     * Calculates the center frequency for the tuner to source all of the channels.  When the current center frequency
+     * isn't valid, candidate center frequencies are the middle and the ends of the valid range, either side of each
+     * channel's DC spike exclusion zone, and the frequencies that align the usable bandwidth edges with each active
+     * frequency.  The candidate that covers the most uncovered grant activity is selected, with ties resolved in
+     * favor of the most headroom.
+     *
+     * @param tuner to tune
+     * @param channels to source from the tuner
+     * @param activity grant activity that is not covered by other tuners, or null
+     * @param timestamp for decaying grant activity
+     * @return current center frequency if valid, otherwise the selected center frequency, or null if the channels
+     * can't be sourced by the tuner at any center frequency
+     */
+    private static Long getCenterFrequency(PlannedTuner tuner, List<TunerChannel> channels, List<Activity> activity,
+                                           long timestamp)
+    {
+        long halfBandwidth = tuner.getUsableBandwidth() / 2;
+        long middleUnusable = tuner.getMiddleUnusable();
+        long minimum = Long.MAX_VALUE;
+        long maximum = Long.MIN_VALUE;
+
+        for(TunerChannel channel : channels)
+        {
+            minimum = Math.min(minimum, channel.getMinFrequency());
+            maximum = Math.max(maximum, channel.getMaxFrequency());
+        }
+
+        //Range of center frequencies that keep all channels within the usable bandwidth
+        long low = Math.max(maximum - halfBandwidth, tuner.getMinimumFrequency());
+        long high = Math.min(minimum + halfBandwidth, tuner.getMaximumFrequency());
+
+        if(low > high)
+        {
+            return null;
+        }
+
+        long current = tuner.getCenterFrequency();
+
+        if(low <= current && current <= high && !overlapsSpike(current, middleUnusable, channels))
+        {
+            return current;
+        }
+
+        List<Long> candidates = new ArrayList<>();
+        long target = low + ((high - low) / 2);
+        candidates.add(target);
+        candidates.add(low);
+        candidates.add(high);
+
+        for(TunerChannel channel : channels)
+        {
+            candidates.add(channel.getMinFrequency() - middleUnusable - 1);
+            candidates.add(channel.getMaxFrequency() + middleUnusable + 1);
+        }
+
+        if(activity != null)
+        {
+            for(Activity active : activity)
+            {
+                candidates.add(active.getMinFrequency() + halfBandwidth);
+                candidates.add(active.getMaxFrequency() - halfBandwidth);
+            }
+        }
+
+        Long best = null;
+        double bestWeight = 0.0;
+
+        for(long candidate : candidates)
+        {
+            if(low <= candidate && candidate <= high && !overlapsSpike(candidate, middleUnusable, channels))
+            {
+                double weight = activity != null ?
+                    getCoveredWeight(candidate, halfBandwidth, middleUnusable, activity, timestamp) : 0.0;
+
+                if(best == null || weight > bestWeight ||
+                    (weight == bestWeight && Math.abs(candidate - target) < Math.abs(best - target)))
+                {
+                    best = candidate;
+                    bestWeight = weight;
+                }
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * Grant activity that is not covered by any of the tuners other than the specified tuner
+     */
+    private static List<Activity> getUncovered(List<Activity> activity, List<PlannedTuner> tuners,
+                                               PlannedTuner tuner)
+    {
+        List<Activity> uncovered = new ArrayList<>();
+
+        for(Activity active : activity)
+        {
+            boolean covered = false;
+
+            for(PlannedTuner other : tuners)
+            {
+                if(other != tuner && other.covers(active.getMinFrequency(), active.getMaxFrequency()))
+                {
+                    covered = true;
+                    break;
+                }
+            }
+
+            if(!covered)
+            {
+                uncovered.add(active);
+            }
+        }
+
+        return uncovered;
+    }
+
+    /**
+     * Indicates if any of the channels overlap the central DC spike region for the center frequency
+     */
+    private static boolean overlapsSpike(long center, long middleUnusable, List<TunerChannel> channels)
+    {
+        if(middleUnusable <= 0)
+        {
+            return false;
+        }
+
+        for(TunerChannel channel : channels)
+        {
+            if(channel.overlaps(center - middleUnusable, center + middleUnusable))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Suggests a center frequency for an idle tuner that covers the historically busiest frequencies that are not
+     * already covered by the other tuners.
+     *
+     * @param tuners all tuners, including the idle tuner
+     * @param idleTuner to position
+     * @param timestamp current time in milliseconds, for decaying grant activity
+     * @return suggested center frequency or null if there is no uncovered activity within reach of the tuner
+     */
+    public Long getPrepositionFrequency(List<PlannedTuner> tuners, PlannedTuner idleTuner, long timestamp)
+    {
+        List<Activity> uncovered = getUncovered(mHistory.getActivity(timestamp), tuners, idleTuner);
+
+        long halfBandwidth = idleTuner.getUsableBandwidth() / 2;
+        Long best = null;
+        double bestWeight = 0.0;
+
+        //Candidate windows start or end at the edge of each uncovered frequency
+        for(Activity activity : uncovered)
+        {
+            long[] candidates = {activity.getMinFrequency() + halfBandwidth,
+                activity.getMaxFrequency() - halfBandwidth};
+
+            for(long candidate : candidates)
+            {
+                if(idleTuner.getMinimumFrequency() <= candidate && candidate <= idleTuner.getMaximumFrequency())
+                {
+                    double weight = getCoveredWeight(candidate, halfBandwidth, idleTuner.getMiddleUnusable(),
+                        uncovered, timestamp);
+
+                    if(weight > bestWeight)
+                    {
+                        bestWeight = weight;
+                        best = candidate;
+                    }
+                }
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * Total activity weight for frequencies that are usable when tuned to the center frequency
+     */
+    private static double getCoveredWeight(long center, long halfBandwidth, long middleUnusable,
+                                           List<Activity> activities, long timestamp)
+    {
+        double weight = 0.0;
+
+        for(Activity activity : activities)
+        {
+            if(center - halfBandwidth <= activity.getMinFrequency() &&
+                activity.getMaxFrequency() <= center + halfBandwidth &&
+                (middleUnusable <= 0 || activity.getMaxFrequency() < center - middleUnusable ||
+                    activity.getMinFrequency() > center + middleUnusable))
+            {
+                weight += activity.getWeight(timestamp);
+            }
+        }
+
+        return weight;
+    }
+}
@@ -0,0 +1,197 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package source.tuner.planner;
+
+import source.tuner.Tuner;
+import source.tuner.TunerChannel;
+import source.tuner.TunerController;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Planning view of a tuner: tunable range, usable bandwidth, central DC spike region, current center frequency and
+ * the set of channels currently sourced from the tuner.  Created from a live tuner for channel assignment, or
+ * constructed directly by the simulator.
+ */
+public class PlannedTuner
+{
+    private Tuner mTuner;
+    private String mName;
+    private long mMinimumFrequency;
+    private long mMaximumFrequency;
+    private int mSampleRate;
+    private int mUsableBandwidth;
+    private int mMiddleUnusable;
+    private long mCenterFrequency;
+    private List<TunerChannel> mChannels;
+
+    /**
+     * Constructs a planned tuner
+     *
+     * @param name of the tuner
+     * @param minimumFrequency minimum tunable frequency
+     * @param maximumFrequency maximum tunable frequency
+     * @param sampleRate of the tuner
+     * @param usableBandwidth of the tuner
+     * @param middleUnusable +/- region around the center frequency that channels must avoid
+     * @param centerFrequency currently tuned center frequency
+     * @param channels currently sourced from the tuner
+     */
+    public PlannedTuner(String name, long minimumFrequency, long maximumFrequency, int sampleRate,
+                        int usableBandwidth, int middleUnusable, long centerFrequency, List<TunerChannel> channels)
+    {
+        mName = name;
+        mMinimumFrequency = minimumFrequency;
+        mMaximumFrequency = maximumFrequency;
+        mSampleRate = sampleRate;
+        mUsableBandwidth = usableBandwidth;
+        mMiddleUnusable = middleUnusable;
+        mCenterFrequency = centerFrequency;
+        mChannels = channels;
+    }
+
+    /**
+     * Creates a planned tuner from the current state of the tuner
+     */
+    public static PlannedTuner from(Tuner tuner)
+    {
+        TunerController controller = tuner.getTunerController();
+
+        PlannedTuner plannedTuner = new PlannedTuner(tuner.getName(), controller.getMinFrequency(),
+            controller.getMaxFrequency(), controller.getSampleRate(), controller.getUsableBandwidth(),
+            controller.getMiddleUnusable(), controller.getFrequency(), controller.getTunedChannels());
+
+        plannedTuner.mTuner = tuner;
+
+        return plannedTuner;
+    }
+
+    /**
+     * Live tuner represented by this planned tuner, or null for simulated tuners
+     */
+    public Tuner getTuner()
+    {
+        return mTuner;
+    }
+
+    public String getName()
+    {
+        return mName;
+    }
+
+    public long getMinimumFrequency()
+    {
+        return mMinimumFrequency;
+    }
+
+    public long getMaximumFrequency()
+    {
+        return mMaximumFrequency;
+    }
+
+    public int getSampleRate()
+    {
+        return mSampleRate;
+    }
+
+    public int getUsableBandwidth()
+    {
+        return mUsableBandwidth;
+    }
+
+    public int getMiddleUnusable()
+    {
+        return mMiddleUnusable;
+    }
+
+    public long getCenterFrequency()
+    {
+        return mCenterFrequency;
+    }
+
+    public void setCenterFrequency(long frequency)
+    {
+        mCenterFrequency = frequency;
+    }
+
+    /**
+     * Channels currently sourced from this tuner
+     */
+    public List<TunerChannel> getChannels()
+    {
+        return mChannels;
+    }
+
+    public boolean isIdle()
+    {
+        return mChannels.isEmpty();
+    }
+
+    /**
+     * Frequency span from the lowest channel edge to the highest channel edge, or 0 when idle
+     */
+    public long getChannelSpan()
+    {
+        if(mChannels.isEmpty())
+        {
+            return 0;
+        }
+
+        long minimum = Long.MAX_VALUE;
+        long maximum = Long.MIN_VALUE;
+
+        for(TunerChannel channel : mChannels)
+        {
+            minimum = Math.min(minimum, channel.getMinFrequency());
+            maximum = Math.max(maximum, channel.getMaxFrequency());
+        }
+
+        return maximum - minimum;
+    }
+
+    /**
+     * Indicates if the frequency range lies within the usable bandwidth at the current center frequency
+     */
+    public boolean covers(long minimum, long maximum)
+    {
+        long halfBandwidth = mUsableBandwidth / 2;
+
+        return mCenterFrequency - halfBandwidth <= minimum && maximum <= mCenterFrequency + halfBandwidth;
+    }
+
+    /**
+     * Copy of this planned tuner with an independent channel list
+     */
+    public PlannedTuner copy()
+    {
+        PlannedTuner copy = new PlannedTuner(mName, mMinimumFrequency, mMaximumFrequency, mSampleRate,
+            mUsableBandwidth, mMiddleUnusable, mCenterFrequency, new ArrayList<>(mChannels));
+
+        copy.mTuner = mTuner;
+
+        return copy;
+    }
+
+    @Override
+    public String toString()
+    {
+        return mName + " center:" + mCenterFrequency + " channels:" + mChannels.size();
+    }
+}
@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package source.tuner.planner;
+
+import source.tuner.TunerChannel;
+
+/**
+ * Planned assignment of a channel to a tuner, including the tuner center frequency required to source the channel
+ * along with all of the tuner's current channels.
+ */
+public class TunerAssignment
+{
+    private PlannedTuner mTuner;
+    private TunerChannel mChannel;
+    private long mCenterFrequency;
+    private double mCost;
+
+    public TunerAssignment(PlannedTuner tuner, TunerChannel channel, long centerFrequency, double cost)
+    {
+        mTuner = tuner;
+        mChannel = channel;
+        mCenterFrequency = centerFrequency;
+        mCost = cost;
+    }
+
+    public PlannedTuner getTuner()
+    {
+        return mTuner;
+    }
+
+    public TunerChannel getChannel()
+    {
+        return mChannel;
+    }
+
+    /**
+     * Center frequency the tuner must use to source the channel
+     */
+    public long getCenterFrequency()
+    {
+        return mCenterFrequency;
+    }
+
+    /**
+     * Indicates if the tuner must be retuned to source the channel
+     */
+    public boolean isRetune()
+    {
+        return mCenterFrequency != mTuner.getCenterFrequency();
+    }
+
+    /**
+     * Planner cost of this assignment, lower is better
+     */
+    public double getCost()
+    {
+        return mCost;
+    }
+
+    @Override
+    public String toString()
+    {
+        return mChannel + " -> " + mTuner.getName() + " center:" + mCenterFrequency +
+            (isRetune() ? " (retune)" : "") + " cost:" + mCost;
+    }
+}
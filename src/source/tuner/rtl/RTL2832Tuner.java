@@ -144,6 +144,8 @@ public class RTL2832Tuner extends Tuner
 		if( source != null )
 		{
 			getController().releaseChannel( source );
+
+			broadcast( new TunerEvent( this, TunerEvent.Event.CHANNEL_COUNT ) );
 		}
     }
 
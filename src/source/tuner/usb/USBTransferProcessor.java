@@ -18,6 +18,10 @@
  ******************************************************************************/
 package source.tuner.usb;
 
+import metrics.Counter;
+import metrics.Metric;
+import metrics.MetricGroup;
+import metrics.MetricRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.usb4java.DeviceHandle;
@@ -25,21 +29,22 @@ import org.usb4java.LibUsb;
 import org.usb4java.LibUsbException;
 import org.usb4java.Transfer;
 import org.usb4java.TransferCallback;
-import sample.Broadcaster;
 import sample.Listener;
-import sample.OverflowableTransferQueue;
+import sample.OverflowableRingBuffer;
+import sample.ReusableBufferBroadcaster;
 import sample.adapter.ISampleAdapter;
 import sample.complex.ComplexBuffer;
+import sample.complex.ComplexBufferPool;
 import sample.real.IOverflowListener;
 import source.tuner.TunerManager;
-import util.ThreadPool;
+import util.ProcessingTask;
+import util.ProcessingWorker;
 
 import javax.usb.UsbException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.LinkedTransferQueue;
-import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -59,6 +64,9 @@ public class USBTransferProcessor implements TransferCallback
     //Threshold for resetting buffer overflow condition
     private static final int FILLED_BUFFER_OVERFLOW_RESET_THRESHOLD = 100;
 
+    //Maximum number of recycled complex buffers retained for reuse
+    private static final int RECYCLED_BUFFER_POOL_SIZE = 64;
+
     private String mDeviceName;
 
     //Handle to the USB bulk transfer device
@@ -70,8 +78,9 @@ public class USBTransferProcessor implements TransferCallback
     //Byte array transfer buffers size in bytes
     private int mBufferSize;
 
-    private Broadcaster<ComplexBuffer> mComplexBufferBroadcaster = new Broadcaster<>();
-    private OverflowableTransferQueue<byte[]> mFilledBuffers;
+    private ReusableBufferBroadcaster<ComplexBuffer> mComplexBufferBroadcaster = new ReusableBufferBroadcaster<>();
+    private ComplexBufferPool mComplexBufferPool = new ComplexBufferPool(RECYCLED_BUFFER_POOL_SIZE);
+    private OverflowableRingBuffer<ComplexBuffer> mFilledBuffers;
     private LinkedTransferQueue<Transfer> mAvailableTransfers = new LinkedTransferQueue<>();
     private LinkedTransferQueue<Transfer> mTransfersInProgress = new LinkedTransferQueue<>();
 
@@ -80,7 +89,13 @@ public class USBTransferProcessor implements TransferCallback
     private ByteBuffer mLibUsbHandlerStatus = ByteBuffer.allocateDirect(4);
 
     private BufferDispatcher mBufferDispatcher = new BufferDispatcher();
-    private ScheduledFuture mBufferDispatcherFuture;
+    private ProcessingWorker mDispatchWorker;
+    private volatile ProcessingTask mDispatchTask;
+
+    private MetricGroup mMetricGroup;
+    private Counter mSamplesIn;
+    private Counter mSamplesOut;
+    private List<Metric> mDispatchMetrics = new ArrayList<>();
 
     /**
      * Manages stream of USB transfer buffers and converts buffers to complex buffer samples for distribution to
@@ -101,7 +116,7 @@ public class USBTransferProcessor implements TransferCallback
         mSampleAdapter = sampleAdapter;
         mBufferSize = bufferSize;
 
-        mFilledBuffers = new OverflowableTransferQueue<>(FILLED_BUFFER_MAX_CAPACITY, FILLED_BUFFER_OVERFLOW_RESET_THRESHOLD);
+        mFilledBuffers = new OverflowableRingBuffer<>(FILLED_BUFFER_MAX_CAPACITY, FILLED_BUFFER_OVERFLOW_RESET_THRESHOLD);
         mFilledBuffers.setOverflowListener(new IOverflowListener()
         {
             @Override
@@ -117,6 +132,12 @@ public class USBTransferProcessor implements TransferCallback
                 }
             }
         });
+
+        mMetricGroup = new MetricGroup(MetricGroup.TYPE_TUNER, deviceName);
+        mSamplesIn = mMetricGroup.counter("samples in");
+        mSamplesOut = mMetricGroup.counter("samples dispatched");
+        mMetricGroup.queue("converted buffer queue", mFilledBuffers);
+        mMetricGroup.counter("buffer pool misses", mComplexBufferPool::getMissCount);
     }
 
     /**
@@ -130,6 +151,16 @@ public class USBTransferProcessor implements TransferCallback
 
             prepareTransfers();
 
+            //Start the dedicated buffer dispatcher thread for this tuner before submitting transfers - it runs each
+            //time a transfer is converted
+            mDispatchWorker = new ProcessingWorker(mDeviceName + " dispatcher", Thread.NORM_PRIORITY + 1);
+            mDispatchTask = mDispatchWorker.createTask("Buffer dispatch", mBufferDispatcher, 0, TimeUnit.MILLISECONDS);
+            mDispatchWorker.start();
+
+            mDispatchMetrics.add(mMetricGroup.timer("dispatch run time", mDispatchTask.getRunTimeHistogram()));
+            mDispatchMetrics.add(mMetricGroup.timer("dispatch lateness", mDispatchTask.getLatenessHistogram()));
+            MetricRegistry.getInstance().register(mMetricGroup);
+
             while(!mAvailableTransfers.isEmpty())
             {
                 Transfer transfer = mAvailableTransfers.poll();
@@ -172,10 +203,6 @@ public class USBTransferProcessor implements TransferCallback
                 }
             }
 
-            //Start transferred buffer dispatcher
-            mBufferDispatcherFuture = ThreadPool.SCHEDULED.scheduleAtFixedRate(mBufferDispatcher,
-                0, 11, TimeUnit.MILLISECONDS);
-
             //Register with LibUSB processor so that it auto-starts LibUSB processing
             TunerManager.LIBUSB_TRANSFER_PROCESSOR.registerTransferProcessor(this);
         }
@@ -188,9 +215,22 @@ public class USBTransferProcessor implements TransferCallback
     {
         if(mRunning.compareAndSet(true, false))
         {
-            mBufferDispatcherFuture.cancel(true);
+            mDispatchTask.cancel();
+            mDispatchWorker.stop();
+
+            MetricRegistry.getInstance().unregister(mMetricGroup);
+
+            for(Metric metric : mDispatchMetrics)
+            {
+                mMetricGroup.remove(metric);
+            }
+
+            mDispatchMetrics.clear();
+
+            clearFilledBuffers();
 
-            mFilledBuffers.clear();
+            mLog.debug(mDeviceName + " - stopped - " + mComplexBufferPool.toString() + " - " +
+                mFilledBuffers.toString() + " - " + mDispatchTask.toString());
 
             //Cancel the lib usb process timer
             for(Transfer transfer : mTransfersInProgress)
@@ -304,15 +344,39 @@ public class USBTransferProcessor implements TransferCallback
             case LibUsb.TRANSFER_TIMED_OUT:
                 if(transfer.actualLength() > 0)
                 {
-                    ByteBuffer buffer = transfer.buffer();
-
-                    byte[] data = new byte[transfer.actualLength()];
-                    buffer.get(data);
-                    buffer.rewind();
-
                     if(mRunning.get())
                     {
-                        mFilledBuffers.offer(data);
+                        ByteBuffer buffer = transfer.buffer();
+                        buffer.position(0);
+                        buffer.limit(transfer.actualLength());
+
+                        //Convert directly from the native transfer buffer so the transfer can be resubmitted
+                        //immediately without an intermediate heap copy
+                        ComplexBuffer complexBuffer =
+                            mComplexBufferPool.getBuffer(mSampleAdapter.getConvertedLength(transfer.actualLength()));
+                        complexBuffer.setTimestamp(System.nanoTime());
+
+                        try
+                        {
+                            mSampleAdapter.convert(buffer, complexBuffer.getSamples());
+                            mSamplesIn.add(complexBuffer.getSamples().length / 2);
+
+                            if(mFilledBuffers.offer(complexBuffer))
+                            {
+                                mDispatchTask.signal();
+                            }
+                            else
+                            {
+                                complexBuffer.decrementUserCount();
+                            }
+                        }
+                        catch(Exception e)
+                        {
+                            complexBuffer.decrementUserCount();
+                            mLog.error(mDeviceName + " - error while converting transfer buffer samples", e);
+                        }
+
+                        buffer.clear();
                     }
                 }
                 break;
@@ -378,6 +442,58 @@ public class USBTransferProcessor implements TransferCallback
         }
     }
 
+    /**
+     * Removes and releases any converted buffers that have not yet been dispatched
+     */
+    private void clearFilledBuffers()
+    {
+        List<ComplexBuffer> buffers = new ArrayList<>();
+
+        mFilledBuffers.drainTo(buffers, Integer.MAX_VALUE);
+
+        for(ComplexBuffer buffer : buffers)
+        {
+            buffer.decrementUserCount();
+        }
+
+        mFilledBuffers.clear();
+    }
+
+    /**
+     * Complex buffer pool used by this processor.  Pool hit and miss counts indicate how effectively listeners
+     * are returning buffers for reuse.
+     */
+    public ComplexBufferPool getBufferPool()
+    {
+        return mComplexBufferPool;
+    }
+
+    /**
+     * Queue of converted buffers awaiting dispatch.  High watermark and drop count indicate how well the
+     * dispatcher is keeping up with the USB transfers.
+     */
+    public OverflowableRingBuffer<ComplexBuffer> getFilledBuffers()
+    {
+        return mFilledBuffers;
+    }
+
+    /**
+     * Buffer dispatch task run time and lateness statistics, or null if this processor has not been started
+     */
+    public ProcessingTask getDispatchTask()
+    {
+        return mDispatchTask;
+    }
+
+    /**
+     * Metrics for this processor: samples converted and dispatched, converted buffer queue depth and drops, and
+     * buffer dispatch task timing while started
+     */
+    public MetricGroup getMetricGroup()
+    {
+        return mMetricGroup;
+    }
+
     /**
      * Converts the USB transfer status number into a descriptive label
      */
@@ -405,12 +521,13 @@ public class USBTransferProcessor implements TransferCallback
     }
 
     /**
-     * Fetches byte[] chunks from the raw sample buffer.  Converts each byte
-     * array and broadcasts the array to all registered listeners
+     * Fetches converted complex buffers from the filled buffer queue and
+     * broadcasts each buffer to all registered listeners.  The complex buffers
+     * return to the pool once all listeners release them.
      */
     public class BufferDispatcher implements Runnable
     {
-        private List<byte[]> mBuffersToDispatch = new ArrayList<>();
+        private List<ComplexBuffer> mBuffersToDispatch = new ArrayList<>();
 
         @Override
         public void run()
@@ -419,18 +536,22 @@ public class USBTransferProcessor implements TransferCallback
 
             while(!mBuffersToDispatch.isEmpty())
             {
-                try
+                for(ComplexBuffer complexBuffer : mBuffersToDispatch)
                 {
-                    for(byte[] buffer : mBuffersToDispatch)
+                    try
                     {
-                        float[] complexSamples = mSampleAdapter.convert(buffer);
-
-                        mComplexBufferBroadcaster.broadcast(new ComplexBuffer(complexSamples));
+                        mComplexBufferBroadcaster.broadcast(complexBuffer);
+                        mSamplesOut.add(complexBuffer.getSamples().length / 2);
+                    }
+                    catch(Exception e)
+                    {
+                        mLog.error(mDeviceName + " - error while dispatching complex IQ buffer samples", e);
+                    }
+                    finally
+                    {
+                        //Release this dispatcher's hold on the buffer, even when a listener fails
+                        complexBuffer.decrementUserCount();
                     }
-                }
-                catch(Exception e)
-                {
-                    mLog.error(mDeviceName + " - error while dispatching complex IQ buffer samples", e);
                 }
 
                 mBuffersToDispatch.clear();
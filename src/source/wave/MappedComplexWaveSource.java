@@ -0,0 +1,776 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package source.wave;
+
+import channel.heartbeat.Heartbeat;
+import controller.NamingThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import record.wave.WaveUtils;
+import sample.Buffer;
+import sample.IBufferRecycler;
+import sample.Listener;
+import sample.complex.ComplexBuffer;
+import source.ComplexSource;
+import source.IControllableFileSource;
+import source.IFrameLocationListener;
+import source.tuner.frequency.FrequencyChangeEvent;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Complex (I/Q) wave file source that reads 2-channel 16-bit little-endian PCM recordings through memory mapped
+ * file segments.
+ *
+ * The sample data is mapped in fixed size segments so that recordings of any length can be read and any frame can be
+ * located with a constant time calculation, which makes seeking by frame or time offset a constant time operation.
+ * Samples are converted to floats directly from a little-endian view of the mapped segment without an intermediate
+ * byte array.  Recordings whose data chunk size was never finalized or overflowed the 32-bit wave size field are
+ * read to the end of the file.
+ *
+ * Starting the source starts a playback thread that delivers sample buffers to the registered listener either in
+ * real time or at maximum speed.  Maximum speed playback is paced by the consumers instead of the wall clock: each
+ * buffer occupies one of a fixed number of in-flight slots until every user of the buffer has released it (user count
+ * decremented to zero), so the playback thread runs as fast as the slowest consumer and never floods a queued
+ * consumer.  Consumers that process buffers synchronously in receive() release the slot when receive() returns.
+ *
+ * The source can also be stepped manually via the IControllableFileSource interface.
+ */
+public class MappedComplexWaveSource extends ComplexSource implements IControllableFileSource, AutoCloseable
+{
+    private final static Logger mLog = LoggerFactory.getLogger(MappedComplexWaveSource.class);
+
+    public static final int DEFAULT_BUFFER_FRAMES = 8192;
+    public static final int MAXIMUM_BUFFERS_IN_FLIGHT = 8;
+    private static final long SEGMENT_SIZE = 1l << 26; //64 MiB
+    private static final int BYTES_PER_FRAME = 4;
+    private static final int WAVE_FORMAT_EXTENSIBLE = 0xFFFE;
+    private static final long BACKPRESSURE_TIMEOUT_MS = 2000;
+
+    private File mFile;
+    private boolean mRealTime;
+    private int mBufferFrames = DEFAULT_BUFFER_FRAMES;
+    private long mFrequency = 0;
+
+    private FileChannel mChannel;
+    private long mDataOffset;
+    private long mFrameCount;
+    private int mSampleRate;
+    private long mFramePosition;
+    private long mSegmentIndex = -1;
+    private ShortBuffer mSegment;
+
+    private Listener<ComplexBuffer> mListener;
+    private IFrameLocationListener mFrameLocationListener;
+
+    private Thread mPlaybackThread;
+    private AtomicBoolean mPlaying = new AtomicBoolean();
+    private volatile boolean mPacingReset;
+    private CountDownLatch mPlaybackComplete = new CountDownLatch(0);
+    private volatile Semaphore mInFlightSlots = new Semaphore(MAXIMUM_BUFFERS_IN_FLIGHT);
+    private Set<Buffer> mInFlightBuffers = ConcurrentHashMap.newKeySet();
+    private boolean mBackpressureEnabled = true;
+    private IBufferRecycler mInFlightReleaser = new IBufferRecycler()
+    {
+        @Override
+        public void recycle(Buffer buffer)
+        {
+            if(mInFlightBuffers.remove(buffer))
+            {
+                mInFlightSlots.release();
+            }
+        }
+    };
+
+    /**
+     * Constructs an instance
+     *
+     * @param file containing 2-channel 16-bit little-endian PCM samples
+     * @param realTime true to pace playback to the recording sample rate or false to play back as fast as the
+     * consumers can process the samples
+     */
+    public MappedComplexWaveSource(File file, boolean realTime)
+    {
+        mFile = file;
+        mRealTime = realTime;
+    }
+
+    /**
+     * Constructs a real time instance
+     */
+    public MappedComplexWaveSource(File file)
+    {
+        this(file, true);
+    }
+
+    @Override
+    public void setFrequencyChangeListener(Listener<FrequencyChangeEvent> listener)
+    {
+        //Not implemented
+    }
+
+    @Override
+    public void removeFrequencyChangeListener()
+    {
+        //Not implemented
+    }
+
+    @Override
+    public Listener<FrequencyChangeEvent> getFrequencyChangeListener()
+    {
+        //Not implemented
+        return null;
+    }
+
+    /**
+     * Not implemented
+     */
+    @Override
+    public void setHeartbeatListener(Listener<Heartbeat> listener)
+    {
+    }
+
+    /**
+     * Not implemented
+     */
+    @Override
+    public void removeHeartbeatListener()
+    {
+    }
+
+    /**
+     * Rewinds the frame position to the start of the recording.  Playback is only started from start(), so that the
+     * processing chain can register its listener after resetting the modules and before any buffers are delivered.
+     */
+    @Override
+    public void reset()
+    {
+        seek(0);
+    }
+
+    /**
+     * Opens the file if necessary and starts the playback thread from the current frame position
+     */
+    @Override
+    public void start(ScheduledExecutorService executor)
+    {
+        try
+        {
+            if(mChannel == null)
+            {
+                open();
+            }
+        }
+        catch(IOException ioe)
+        {
+            mLog.error("Error opening complex wave source [" + mFile + "]", ioe);
+            return;
+        }
+
+        if(mPlaying.compareAndSet(false, true))
+        {
+            mPlaybackComplete = new CountDownLatch(1);
+            mInFlightBuffers.clear();
+            mInFlightSlots = new Semaphore(MAXIMUM_BUFFERS_IN_FLIGHT);
+            mBackpressureEnabled = true;
+            mPlaybackThread = new NamingThreadFactory("sdrtrunk wave playback").newThread(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    play();
+                }
+            });
+            mPlaybackThread.start();
+        }
+    }
+
+    /**
+     * Stops the playback thread and closes the file
+     */
+    @Override
+    public void stop()
+    {
+        stopPlayback();
+
+        try
+        {
+            close();
+        }
+        catch(IOException ioe)
+        {
+            mLog.error("Error closing complex wave source [" + mFile + "]", ioe);
+        }
+    }
+
+    /**
+     * Stops the playback thread without closing the file, leaving the frame position where playback stopped.  The
+     * playback thread is not interrupted so that consumers invoked from the playback thread are not disturbed, and
+     * this method waits for the buffer being delivered to finish.
+     */
+    public void stopPlayback()
+    {
+        if(mPlaying.compareAndSet(true, false))
+        {
+            Thread thread = mPlaybackThread;
+
+            if(thread != null && thread != Thread.currentThread())
+            {
+                //Wake the playback thread if it is waiting for an in-flight slot
+                mInFlightSlots.release();
+
+                try
+                {
+                    thread.join();
+                }
+                catch(InterruptedException ie)
+                {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            mPlaybackThread = null;
+        }
+    }
+
+    /**
+     * Indicates if the playback thread is running
+     */
+    public boolean isPlaying()
+    {
+        return mPlaying.get();
+    }
+
+    /**
+     * Blocks until the playback thread reaches the end of the file or is stopped.  Returns immediately if playback
+     * is not started.
+     */
+    public void awaitCompletion() throws InterruptedException
+    {
+        mPlaybackComplete.await();
+    }
+
+    /**
+     * Opens the file and parses the wave header
+     */
+    @Override
+    public synchronized void open() throws IOException
+    {
+        if(mChannel != null)
+        {
+            throw new IOException("Can't open wave source - is already opened");
+        }
+
+        mChannel = FileChannel.open(mFile.toPath(), StandardOpenOption.READ);
+
+        try
+        {
+            parseHeader();
+        }
+        catch(IOException ioe)
+        {
+            mChannel.close();
+            mChannel = null;
+            throw ioe;
+        }
+
+        mFramePosition = 0;
+        mSegmentIndex = -1;
+        mSegment = null;
+
+        broadcastFrameLocation();
+    }
+
+    /**
+     * Closes the file
+     */
+    @Override
+    public synchronized void close() throws IOException
+    {
+        if(mChannel != null)
+        {
+            mChannel.close();
+            mChannel = null;
+            mSegment = null;
+            mSegmentIndex = -1;
+        }
+    }
+
+    /**
+     * Locates the format and data chunks, skipping any other chunks in the file
+     */
+    private void parseHeader() throws IOException
+    {
+        long fileSize = mChannel.size();
+
+        ByteBuffer header = read(0, 12);
+
+        byte[] id = new byte[4];
+        header.get(id);
+
+        if(!Arrays.equals(id, WaveUtils.RIFF_CHUNK))
+        {
+            throw new IOException("File is not .wav format - missing RIFF chunk");
+        }
+
+        header.getInt();
+        header.get(id);
+
+        if(!Arrays.equals(id, WaveUtils.WAV_FORMAT))
+        {
+            throw new IOException("File is not .wav format - missing WAVE format");
+        }
+
+        long position = 12;
+        boolean formatFound = false;
+
+        while(position + 8 <= fileSize)
+        {
+            ByteBuffer chunk = read(position, 8);
+            chunk.get(id);
+            long chunkSize = chunk.getInt() & 0xFFFFFFFFl;
+            position += 8;
+
+            if(Arrays.equals(id, WaveUtils.CHUNK_FORMAT))
+            {
+                ByteBuffer format = read(position, 16);
+
+                int formatTag = format.getShort() & 0xFFFF;
+                int channels = format.getShort();
+                mSampleRate = format.getInt();
+                format.getInt();
+                format.getShort();
+                int bitsPerSample = format.getShort();
+
+                if((formatTag != WaveUtils.PCM_FORMAT && formatTag != WAVE_FORMAT_EXTENSIBLE) ||
+                    channels != 2 || bitsPerSample != 16)
+                {
+                    throw new IOException("Unsupported Wave Format - EXPECTED: 2 channels 16-bit PCM samples " +
+                        "FOUND: " + channels + " channels " + bitsPerSample + "-bit samples format " + formatTag);
+                }
+
+                formatFound = true;
+            }
+            else if(Arrays.equals(id, WaveUtils.CHUNK_DATA))
+            {
+                if(!formatFound)
+                {
+                    throw new IOException("Unexpected chunk - expecting format chunk before data chunk");
+                }
+
+                mDataOffset = position;
+
+                long available = fileSize - position;
+
+                //An unfinalized or overflowed data chunk size is read to the end of the file
+                long dataSize = (chunkSize == 0 || chunkSize > available) ? available : chunkSize;
+
+                mFrameCount = dataSize / BYTES_PER_FRAME;
+                return;
+            }
+
+            //Chunks are padded to an even number of bytes
+            position += chunkSize + (chunkSize & 1);
+        }
+
+        throw new IOException("File is not .wav format - missing data chunk");
+    }
+
+    private ByteBuffer read(long position, int length) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+
+        while(buffer.hasRemaining())
+        {
+            if(mChannel.read(buffer, position + buffer.position()) < 0)
+            {
+                throw new IOException("Unexpected end of file while reading wave header");
+            }
+        }
+
+        buffer.flip();
+
+        return buffer;
+    }
+
+    /**
+     * Converts up to the requested number of frames starting at the current frame position into the samples array
+     * as interleaved I/Q floats and advances the frame position.
+     *
+     * @param samples array with a length of at least two floats per frame
+     * @param frames to read
+     * @return number of frames read, or zero at the end of the file
+     */
+    public synchronized int read(float[] samples, int frames) throws IOException
+    {
+        if(mChannel == null)
+        {
+            throw new IOException("Can't read wave source - was not opened");
+        }
+
+        int framesToRead = (int)Math.min(frames, mFrameCount - mFramePosition);
+        int offset = 0;
+        int remaining = framesToRead;
+
+        while(remaining > 0)
+        {
+            long dataPosition = mFramePosition * BYTES_PER_FRAME;
+            long segmentIndex = dataPosition / SEGMENT_SIZE;
+
+            if(segmentIndex != mSegmentIndex)
+            {
+                map(segmentIndex);
+            }
+
+            //Short index of the frame within the segment and the number of frames available in this segment
+            int index = (int)((dataPosition - (segmentIndex * SEGMENT_SIZE)) / 2);
+            int count = Math.min(remaining, (mSegment.limit() - index) / 2);
+
+            ShortBuffer segment = mSegment;
+
+            for(int x = 0; x < count * 2; x++)
+            {
+                samples[offset + x] = (float)segment.get(index + x) / 32767.0f;
+            }
+
+            offset += count * 2;
+            remaining -= count;
+            mFramePosition += count;
+        }
+
+        return framesToRead;
+    }
+
+    private void map(long segmentIndex) throws IOException
+    {
+        long start = segmentIndex * SEGMENT_SIZE;
+        long length = Math.min(SEGMENT_SIZE, (mFrameCount * BYTES_PER_FRAME) - start);
+
+        mSegment = mChannel.map(FileChannel.MapMode.READ_ONLY, mDataOffset + start, length)
+            .order(ByteOrder.LITTLE_ENDIAN).asShortBuffer();
+        mSegmentIndex = segmentIndex;
+    }
+
+    /**
+     * Moves the frame position to the frame, constrained to the bounds of the recording.  May be invoked during
+     * playback.
+     */
+    public synchronized void seek(long frame)
+    {
+        mFramePosition = Math.max(0, Math.min(frame, mFrameCount));
+        mPacingReset = true;
+
+        broadcastFrameLocation();
+    }
+
+    /**
+     * Moves the frame position to the time offset from the start of the recording
+     *
+     * @param milliseconds from the start of the recording
+     */
+    public void seekTime(long milliseconds)
+    {
+        seek((long)((double)milliseconds * mSampleRate / 1000.0));
+    }
+
+    /**
+     * Current frame position
+     */
+    public synchronized long getFramePosition()
+    {
+        return mFramePosition;
+    }
+
+    /**
+     * Current time offset from the start of the recording in milliseconds
+     */
+    public long getTimePosition()
+    {
+        return mSampleRate > 0 ? (long)((double)getFramePosition() * 1000.0 / mSampleRate) : 0;
+    }
+
+    /**
+     * Recording duration in milliseconds
+     */
+    public long getDuration()
+    {
+        return mSampleRate > 0 ? (long)((double)mFrameCount * 1000.0 / mSampleRate) : 0;
+    }
+
+    @Override
+    public long getFrameCount() throws IOException
+    {
+        return mFrameCount;
+    }
+
+    @Override
+    public int getSampleRate()
+    {
+        return mSampleRate;
+    }
+
+    /**
+     * Returns the frequency set for this file.  Normally returns zero, but the value can be set with setFrequency()
+     * method.
+     */
+    @Override
+    public long getFrequency()
+    {
+        return mFrequency;
+    }
+
+    /**
+     * Changes the value returned from getFrequency() for this source.
+     */
+    public void setFrequency(long frequency)
+    {
+        mFrequency = frequency;
+    }
+
+    /**
+     * Number of frames delivered in each buffer during playback
+     */
+    public void setBufferFrames(int frames)
+    {
+        if(frames < 1)
+        {
+            throw new IllegalArgumentException("Buffer frame count must be positive");
+        }
+
+        mBufferFrames = frames;
+    }
+
+    /**
+     * Reads the number of frames and sends a buffer to the listener
+     */
+    @Override
+    public void next(int frames) throws IOException
+    {
+        next(frames, true);
+    }
+
+    /**
+     * Reads the number of frames and optionally sends the buffer to the listener
+     */
+    @Override
+    public void next(int frames, boolean broadcast) throws IOException
+    {
+        float[] samples = new float[frames * 2];
+
+        int framesRead = read(samples, frames);
+
+        broadcastFrameLocation();
+
+        if(broadcast && framesRead > 0 && mListener != null)
+        {
+            if(framesRead < frames)
+            {
+                samples = Arrays.copyOf(samples, framesRead * 2);
+            }
+
+            mListener.receive(new ComplexBuffer(samples));
+        }
+    }
+
+    /**
+     * Playback thread loop.  Each buffer holds an in-flight slot from before it is filled until all users release it.
+     */
+    private void play()
+    {
+        long pacingStart = System.nanoTime();
+        long pacingFrames = 0;
+
+        try
+        {
+            while(mPlaying.get())
+            {
+                if(!acquireInFlightSlot())
+                {
+                    break;
+                }
+
+                float[] samples = new float[mBufferFrames * 2];
+                int framesRead;
+
+                try
+                {
+                    framesRead = read(samples, mBufferFrames);
+                }
+                catch(IOException ioe)
+                {
+                    mInFlightSlots.release();
+                    mLog.error("Error reading complex wave source [" + mFile + "]", ioe);
+                    break;
+                }
+
+                if(framesRead == 0)
+                {
+                    mInFlightSlots.release();
+                    break;
+                }
+
+                if(framesRead < mBufferFrames)
+                {
+                    samples = Arrays.copyOf(samples, framesRead * 2);
+                }
+
+                ComplexBuffer buffer = new ComplexBuffer(samples, mInFlightReleaser);
+                mInFlightBuffers.add(buffer);
+                buffer.incrementUserCount();
+
+                Listener<ComplexBuffer> listener = mListener;
+
+                if(listener != null)
+                {
+                    listener.receive(buffer);
+                }
+
+                buffer.decrementUserCount();
+
+                broadcastFrameLocation();
+
+                if(mRealTime)
+                {
+                    if(mPacingReset)
+                    {
+                        mPacingReset = false;
+                        pacingStart = System.nanoTime();
+                        pacingFrames = 0;
+                    }
+
+                    pacingFrames += framesRead;
+
+                    long sleepNanos = (long)((double)pacingFrames * 1E9 / mSampleRate) -
+                        (System.nanoTime() - pacingStart);
+
+                    if(sleepNanos > 0)
+                    {
+                        TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                    }
+                }
+            }
+        }
+        catch(InterruptedException ie)
+        {
+            //Playback stopped
+        }
+        finally
+        {
+            mPlaying.set(false);
+            mPlaybackComplete.countDown();
+        }
+    }
+
+    /**
+     * Waits for an in-flight slot when pacing by consumer backpressure.  If no slot is released within the timeout,
+     * a consumer is holding buffers without releasing them and backpressure is disabled for this source so that
+     * playback continues, paced only by the synchronous consumers.
+     *
+     * @return false if playback was stopped while waiting
+     */
+    private boolean acquireInFlightSlot() throws InterruptedException
+    {
+        if(!mBackpressureEnabled)
+        {
+            return mPlaying.get();
+        }
+
+        if(mInFlightSlots.tryAcquire(BACKPRESSURE_TIMEOUT_MS, TimeUnit.MILLISECONDS))
+        {
+            return mPlaying.get();
+        }
+
+        if(!mPlaying.get())
+        {
+            return false;
+        }
+
+        mLog.warn("Sample buffers for [" + mFile + "] were not released within " + BACKPRESSURE_TIMEOUT_MS +
+            "ms - disabling consumer backpressure");
+        mBackpressureEnabled = false;
+
+        return true;
+    }
+
+    /**
+     * Registers the listener to receive sample buffers as they are read from the wave file
+     */
+    @Override
+    public void setListener(Listener<ComplexBuffer> listener)
+    {
+        mListener = listener;
+    }
+
+    /**
+     * Unregisters the listener from receiving sample buffers
+     */
+    public void removeListener(Listener<ComplexBuffer> listener)
+    {
+        mListener = null;
+    }
+
+    @Override
+    public void dispose()
+    {
+        stopPlayback();
+        mListener = null;
+    }
+
+    @Override
+    public File getFile()
+    {
+        return mFile;
+    }
+
+    private void broadcastFrameLocation()
+    {
+        IFrameLocationListener listener = mFrameLocationListener;
+
+        if(listener != null)
+        {
+            listener.frameLocationUpdated((int)Math.min(getFramePosition(), Integer.MAX_VALUE));
+        }
+    }
+
+    @Override
+    public void setListener(IFrameLocationListener listener)
+    {
+        mFrameLocationListener = listener;
+    }
+
+    @Override
+    public void removeListener(IFrameLocationListener listener)
+    {
+        mFrameLocationListener = null;
+    }
+}
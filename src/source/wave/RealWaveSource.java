@@ -32,6 +32,7 @@ import javax.sound.sampled.AudioFormat;
 import javax.sound.sampled.AudioInputStream;
 import javax.sound.sampled.AudioSystem;
 import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.EOFException;
 import java.io.File;
 import java.io.IOException;
 import java.util.Arrays;
@@ -43,7 +44,7 @@ public class RealWaveSource extends RealSource implements IControllableFileSourc
 
     private IFrameLocationListener mFrameLocationListener;
     private int mBytesPerFrame;
-    private int mFrameCounter = 0;
+    private long mByteCounter = 0;
     private long mFrequency = 0;
     private Listener<RealBuffer> mListener;
     private AudioInputStream mInputStream;
@@ -90,42 +91,80 @@ public class RealWaveSource extends RealSource implements IControllableFileSourc
     }
 
 
+    /**
+     * Rewinds an open source to the start of the recording.  A source that is not open is opened by start().
+     */
     @Override
     public void reset()
     {
-        stop();
-        start(null);
+        if(mInputStream != null && mByteCounter > 0)
+        {
+            try
+            {
+                rewind();
+            }
+            catch(IOException | UnsupportedAudioFileException e)
+            {
+                mLog.error("Error rewinding real wave source", e);
+            }
+        }
     }
 
 
+    /**
+     * Opens the source if it is not already open
+     */
     @Override
     public void start(ScheduledExecutorService executor)
     {
-        try
-        {
-            open();
-        }
-        catch(IOException | UnsupportedAudioFileException e)
+        if(mInputStream == null)
         {
-            mLog.error("Error starting real wave source", e);
+            try
+            {
+                open();
+            }
+            catch(IOException | UnsupportedAudioFileException e)
+            {
+                mLog.error("Error starting real wave source", e);
+            }
         }
     }
 
 
+    /**
+     * Closes the source if it is open
+     */
     @Override
     public void stop()
     {
-        try
-        {
-            close();
-        }
-        catch(IOException e)
+        if(mInputStream != null)
         {
-            mLog.error("Error stopping real wave source", e);
+            try
+            {
+                close();
+            }
+            catch(IOException e)
+            {
+                mLog.error("Error stopping real wave source", e);
+            }
         }
     }
 
 
+    /**
+     * Moves the read position back to the start of the recording by replacing the audio stream with a new stream
+     * for the file.  Wave file audio streams don't support mark/reset without buffering the recording.
+     */
+    private void rewind() throws IOException, UnsupportedAudioFileException
+    {
+        AudioInputStream previous = mInputStream;
+        mInputStream = AudioSystem.getAudioInputStream(mFile);
+        previous.close();
+
+        mByteCounter = 0;
+        broadcast(0);
+    }
+
     @Override
     public long getFrameCount() throws IOException
     {
@@ -133,6 +172,14 @@ public class RealWaveSource extends RealSource implements IControllableFileSourc
         return 0;
     }
 
+    /**
+     * Number of frames read from the recording since the source was opened
+     */
+    public long getFramePosition()
+    {
+        return mBytesPerFrame > 0 ? mByteCounter / mBytesPerFrame : 0;
+    }
+
     @Override
     public int getSampleRate()
     {
@@ -196,6 +243,7 @@ public class RealWaveSource extends RealSource implements IControllableFileSourc
         AudioFormat format = mInputStream.getFormat();
 
         mBytesPerFrame = format.getFrameSize();
+        mByteCounter = 0;
 
         if(format.getChannels() != 1 || format.getSampleSizeInBits() != 16)
         {
@@ -220,6 +268,8 @@ public class RealWaveSource extends RealSource implements IControllableFileSourc
 
     /**
      * Reads the number of frames and optionally sends the buffer to the listener
+     *
+     * @throws EOFException when the end of the recording is reached
      */
     public void next(int frames, boolean broadcast) throws IOException
     {
@@ -230,19 +280,19 @@ public class RealWaveSource extends RealSource implements IControllableFileSourc
         	/* Fill the buffer with samples from the file */
             int samplesRead = mInputStream.read(buffer);
 
-            mFrameCounter += samplesRead;
+            if(samplesRead == -1)
+            {
+                throw new EOFException("End of recording");
+            }
 
-            broadcast(mFrameCounter);
+            mByteCounter += samplesRead;
+
+            broadcast(mByteCounter);
 
             if(broadcast && mListener != null)
             {
                 if(samplesRead < buffer.length)
                 {
-                    if(samplesRead == -1)
-                    {
-                        throw new IOException("End of recording");
-                    }
-
                     buffer = Arrays.copyOf(buffer, samplesRead);
                 }
 
@@ -284,7 +334,7 @@ public class RealWaveSource extends RealSource implements IControllableFileSourc
         return mFile;
     }
 
-    private void broadcast(int byteLocation)
+    private void broadcast(long byteLocation)
     {
         int frameLocation = (int)(byteLocation / mBytesPerFrame);
 
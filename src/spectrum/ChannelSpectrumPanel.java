@@ -1,6 +1,8 @@
 package spectrum;
 
 import java.awt.Component;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
 import java.awt.event.ComponentEvent;
 import java.awt.event.ComponentListener;
 import java.awt.event.MouseEvent;
@@ -17,6 +19,7 @@ import javax.swing.SwingUtilities;
 
 import module.ProcessingChain;
 import net.miginfocom.swing.MigLayout;
+import properties.SystemProperties;
 import sample.Listener;
 import sample.SampleType;
 import sample.complex.ComplexBuffer;
@@ -34,6 +37,7 @@ import spectrum.menu.AveragingItem;
 import spectrum.menu.DFTSizeItem;
 import spectrum.menu.FFTWindowTypeItem;
 import spectrum.menu.FrameRateItem;
+import spectrum.menu.PeakHoldItem;
 import spectrum.menu.SmoothingItem;
 import spectrum.menu.SmoothingTypeItem;
 import controller.channel.Channel;
@@ -67,6 +71,7 @@ public class ChannelSpectrumPanel extends JPanel
 		Filters.FIR_HALF_BAND_31T_ONE_EIGHTH_FCO.getCoefficients(), 1.0f, true );
     
     private AtomicBoolean mEnabled = new AtomicBoolean();
+    private javax.swing.Timer mRefreshTimer;
     
     private SettingsManager mSettingsManager;
     private ChannelProcessingManager mChannelProcessingManager;
@@ -93,6 +98,20 @@ public class ChannelSpectrumPanel extends JPanel
     	mDFTProcessor.frequencyChanged( 
     			new FrequencyChangeEvent( Event.NOTIFICATION_SAMPLE_RATE_CHANGE, 24000 ) );
     	
+    	/* Repaint the spectrum at the display refresh rate */
+    	int refreshRate = SystemProperties.getInstance().get( 
+    			SpectralDisplayPanel.REFRESH_RATE_PROPERTY, 25 );
+
+    	mRefreshTimer = new javax.swing.Timer( 1000 / Math.max( refreshRate, 1 ), 
+    			new ActionListener()
+		{
+			@Override
+			public void actionPerformed( ActionEvent e )
+			{
+				mSpectrumPanel.refresh();
+			}
+		} );
+    	
     	initGui();
     }
     
@@ -209,6 +228,7 @@ public class ChannelSpectrumPanel extends JPanel
 				processingChain.addRealBufferListener( this );
 				
 				mDFTProcessor.start();
+				mRefreshTimer.start();
 			}
 		}
 	}
@@ -227,6 +247,7 @@ public class ChannelSpectrumPanel extends JPanel
 		}
 
 		mDFTProcessor.stop();
+		mRefreshTimer.stop();
 		
 		mSpectrumPanel.clearSpectrum();
 	}
@@ -376,6 +397,8 @@ public class ChannelSpectrumPanel extends JPanel
 						new AveragingItem( ChannelSpectrumPanel.this, 2 ) );
 				displayMenu.add( averagingMenu );
 				
+				displayMenu.add( new PeakHoldItem( ChannelSpectrumPanel.this ) );
+				
 				/**
 				 * FFT width
 				 */
@@ -459,6 +482,18 @@ public class ChannelSpectrumPanel extends JPanel
 		mSpectrumPanel.setAveraging( averaging );
     }
 
+	@Override
+	public boolean isPeakHold()
+	{
+		return mSpectrumPanel.isPeakHold();
+	}
+
+	@Override
+	public void setPeakHold( boolean peakHold )
+	{
+		mSpectrumPanel.setPeakHold( peakHold );
+	}
+
 	public void setSampleSize( double sampleSize )
 	{
 		mSpectrumPanel.setSampleSize( sampleSize );
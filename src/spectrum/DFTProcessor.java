@@ -24,7 +24,6 @@ import org.jtransforms.fft.FloatFFT_1D;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import properties.SystemProperties;
-import sample.Buffer;
 import sample.Listener;
 import sample.SampleType;
 import sample.complex.ComplexBuffer;
@@ -33,7 +32,6 @@ import source.tuner.frequency.IFrequencyChangeProcessor;
 import spectrum.converter.DFTResultsConverter;
 import util.ThreadPool;
 
-import java.util.Arrays;
 import java.util.Iterator;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
@@ -45,6 +43,14 @@ import java.util.concurrent.atomic.AtomicBoolean;
 /**
  * Processes both complex samples or float samples and dispatches a float array
  * of DFT results, using configurable fft size and output dispatch timelines.
+ *
+ * The sample frame, window and DFT results arrays are allocated once per DFT size and reused for each calculation.
+ * The calculation task never waits for samples: it consumes the samples that are queued when it runs and only
+ * calculates and dispatches a DFT once the frame is filled with the samples required for the frame rate.  The DFT
+ * results array is reused for the next calculation, so listeners must copy any results that they retain.
+ *
+ * The processor can be disabled while the display is not showing, in which case received sample buffers are
+ * released immediately and no DFTs are calculated.
  */
 public class DFTProcessor implements Listener<ComplexBuffer>, IFrequencyChangeProcessor, IDFTWidthChangeProcessor
 {
@@ -66,7 +72,7 @@ public class DFTProcessor implements Listener<ComplexBuffer>, IFrequencyChangePr
     private DFTSize mDFTSize = DFTSize.FFT04096;
     private DFTSize mNewDFTSize = DFTSize.FFT04096;
 
-    private double[] mWindow;
+    private float[] mWindow;
 
     /* The Cosine and Hanning windows seem to offer the best spectral display
      * with minimal bin leakage/smearing */
@@ -76,17 +82,27 @@ public class DFTProcessor implements Listener<ComplexBuffer>, IFrequencyChangePr
 
     private int mFrameRate;
     private int mSampleRate;
-    private int mFFTFloatsPerFrame;
     private float mNewFloatsPerFrame;
     private float mNewFloatResidual;
-    private float[] mPreviousFrame = new float[8192];
 
+    //Most recent samples, including the samples that overlap the previous frame
+    private float[] mSampleFrame;
+
+    //Windowed copy of the sample frame that is transformed in place into the DFT results
+    private float[] mDFTFrame;
+
+    //Samples to discard and new samples to copy into the sample frame before the next calculation
+    private int mSamplesToPurge;
+    private int mSamplesToFill;
+
+    private ComplexBuffer mCurrentComplexBuffer;
     private float[] mCurrentBuffer;
     private int mCurrentBufferPointer = 0;
 
     private SampleType mSampleType;
 
     private AtomicBoolean mRunning = new AtomicBoolean();
+    private volatile boolean mEnabled = true;
 
     public DFTProcessor(SampleType sampleType)
     {
@@ -100,10 +116,22 @@ public class DFTProcessor implements Listener<ComplexBuffer>, IFrequencyChangePr
     {
         stop();
 
-        mListeners.clear();
-        mQueue.clear();
-        mWindow = null;
-        mCurrentBuffer = null;
+        //Wait for a calculation that is already running to finish with the current buffer before releasing it
+        while(!mRunning.compareAndSet(false, true))
+        {
+            Thread.yield();
+        }
+
+        try
+        {
+            mListeners.clear();
+            releaseCurrentBuffer();
+            clearBuffer();
+        }
+        finally
+        {
+            mRunning.set(false);
+        }
     }
 
     public WindowType getWindowType()
@@ -115,14 +143,16 @@ public class DFTProcessor implements Listener<ComplexBuffer>, IFrequencyChangePr
     {
         mWindowType = windowType;
 
-        if(mSampleType == SampleType.COMPLEX)
-        {
-            mWindow = Window.getWindow(mWindowType, mDFTSize.getSize() * 2);
-        }
-        else
+        double[] window = Window.getWindow(mWindowType, getFrameLength());
+
+        float[] coefficients = new float[window.length];
+
+        for(int x = 0; x < window.length; x++)
         {
-            mWindow = Window.getWindow(mWindowType, mDFTSize.getSize());
+            coefficients[x] = (float)window[x];
         }
+
+        mWindow = coefficients;
     }
 
     /**
@@ -161,9 +191,6 @@ public class DFTProcessor implements Listener<ComplexBuffer>, IFrequencyChangePr
 
     public void setFrameRate(int framesPerSecond)
     {
-        //TODO: make sure frame rate & sample rate sample requirement doesn't
-        //expect overlap greater than the previous frame length
-
         if(framesPerSecond < 1 || framesPerSecond > 1000)
         {
             throw new IllegalArgumentException("DFTProcessor cannot run "
@@ -180,22 +207,40 @@ public class DFTProcessor implements Listener<ComplexBuffer>, IFrequencyChangePr
         restart();
     }
 
-    public void start()
+    /**
+     * Enables or disables DFT processing.  While disabled, received sample buffers are released immediately and the
+     * calculation task does nothing.  Use this to stop processing while the display is hidden.
+     */
+    public void setEnabled(boolean enabled)
+    {
+        mEnabled = enabled;
+    }
+
+    public boolean isEnabled()
+    {
+        return mEnabled;
+    }
+
+    public synchronized void start()
     {
-        //Schedule the DFT to run calculations at a fixed rate
-        int initialDelay = 0;
-        int period = (int) (1000 / mFrameRate);
+        if(mProcessorTaskHandle == null)
+        {
+            //Schedule the DFT to run calculations at a fixed rate
+            int initialDelay = 0;
+            int period = (int) (1000 / mFrameRate);
 
-        mProcessorTaskHandle = ThreadPool.SCHEDULED.scheduleAtFixedRate(new DFTCalculationTask(), initialDelay, period,
-            TimeUnit.MILLISECONDS);
+            mProcessorTaskHandle = ThreadPool.SCHEDULED.scheduleAtFixedRate(new DFTCalculationTask(), initialDelay,
+                period, TimeUnit.MILLISECONDS);
+        }
     }
 
-    public void stop()
+    public synchronized void stop()
     {
         //Cancel running DFT calculation task
         if(mProcessorTaskHandle != null)
         {
-            mProcessorTaskHandle.cancel(true);
+            mProcessorTaskHandle.cancel(false);
+            mProcessorTaskHandle = null;
         }
     }
 
@@ -211,162 +256,192 @@ public class DFTProcessor implements Listener<ComplexBuffer>, IFrequencyChangePr
     }
 
     /**
-     * Places the sample into a transfer queue for future processing.
+     * Places the sample into a transfer queue for future processing.  The buffer is released once it has been
+     * consumed, or immediately if the processor is disabled or the queue is full.
      */
     @Override
     public void receive(ComplexBuffer sampleBuffer)
     {
-        mQueue.offer(sampleBuffer);
+        if(!mEnabled || !mQueue.offer(sampleBuffer))
+        {
+            sampleBuffer.decrementUserCount();
+        }
     }
 
-    private void getNextBuffer()
+    /**
+     * Releases the buffer currently being consumed
+     */
+    private void releaseCurrentBuffer()
     {
         mCurrentBuffer = null;
 
-        try
+        if(mCurrentComplexBuffer != null)
         {
-            Buffer buffer = mQueue.take();
-            mCurrentBuffer = buffer.getSamples();
+            mCurrentComplexBuffer.decrementUserCount();
+            mCurrentComplexBuffer = null;
         }
-        catch(InterruptedException e)
+    }
+
+    /**
+     * Releases the current buffer and loads the next queued buffer, without waiting.
+     *
+     * @return true if a buffer was loaded, or false if the queue is empty
+     */
+    private boolean getNextBuffer()
+    {
+        releaseCurrentBuffer();
+
+        mCurrentComplexBuffer = mQueue.poll();
+
+        if(mCurrentComplexBuffer != null)
         {
-            mCurrentBuffer = null;
+            mCurrentBuffer = mCurrentComplexBuffer.getSamples();
         }
 
         mCurrentBufferPointer = 0;
+
+        return mCurrentBuffer != null;
     }
 
-    private float[] getSamples()
+    /**
+     * Number of floats in a DFT frame for the current DFT size and sample type
+     */
+    private int getFrameLength()
     {
-        int remaining = (int) mFFTFloatsPerFrame;
+        return mSampleType == SampleType.COMPLEX ? mDFTSize.getSize() * 2 : mDFTSize.getSize();
+    }
 
-        float[] currentFrame = new float[remaining];
+    /**
+     * Reallocates the sample and DFT frames for the current DFT size and schedules a complete frame of new samples
+     */
+    private void resetFrame()
+    {
+        int length = getFrameLength();
 
-        int currentFramePointer = 0;
+        if(mSampleFrame == null || mSampleFrame.length != length)
+        {
+            mSampleFrame = new float[length];
+            mDFTFrame = new float[length];
+        }
+
+        mSamplesToPurge = 0;
+        mSamplesToFill = length;
+    }
 
+    /**
+     * Schedules the new samples required for the next frame.  When the frame rate requires fewer new samples than
+     * the frame length, the most recent samples are shifted to the start of the frame to overlap the next frame.
+     * When the frame rate requires more new samples than the frame length, the surplus samples are purged.
+     */
+    private void nextFrame()
+    {
         float integralFloatsToConsume = mNewFloatsPerFrame + mNewFloatResidual;
 
-        int newFloatsToConsumeThisFrame = (int) integralFloatsToConsume;
+        int newFloats = (int) integralFloatsToConsume;
 
-        mNewFloatResidual = integralFloatsToConsume - newFloatsToConsumeThisFrame;
-		
-		/* If the number of required floats for the fft is greater than the
-		 * consumption rate per frame, we have to reach into the previous
-		 * frame to makeup the difference. */
-        if(newFloatsToConsumeThisFrame < remaining)
+        //Keep complex frames aligned to the inphase sample
+        if(mSampleType == SampleType.COMPLEX)
         {
-            int previousFloatsRequired = remaining - newFloatsToConsumeThisFrame;
+            newFloats &= ~1;
+        }
+
+        mNewFloatResidual = integralFloatsToConsume - newFloats;
 
-            System.arraycopy(mPreviousFrame,
-                mPreviousFrame.length - previousFloatsRequired,
-                currentFrame,
-                currentFramePointer,
-                previousFloatsRequired);
+        int length = mSampleFrame.length;
+
+        if(newFloats >= length)
+        {
+            mSamplesToPurge = newFloats - length;
+            mSamplesToFill = length;
+        }
+        else
+        {
+            System.arraycopy(mSampleFrame, newFloats, mSampleFrame, 0, length - newFloats);
 
-            remaining -= previousFloatsRequired;
-            currentFramePointer += previousFloatsRequired;
+            mSamplesToPurge = 0;
+            mSamplesToFill = newFloats;
         }
+    }
 
-		/* Fill the rest of the buffer with new samples */
-        while(mRunning.get() && remaining > 0)
+    /**
+     * Purges and copies queued samples into the sample frame until the frame is complete or the queue is empty
+     *
+     * @return true if the frame is complete
+     */
+    private boolean fillFrame()
+    {
+        while(mSamplesToPurge > 0 || mSamplesToFill > 0)
         {
-            if(mCurrentBuffer == null ||
-                mCurrentBufferPointer >= mCurrentBuffer.length)
+            if(mCurrentBuffer == null || mCurrentBufferPointer >= mCurrentBuffer.length)
             {
-                getNextBuffer();
+                if(!getNextBuffer())
+                {
+                    return false;
+                }
             }
 
-			/* If we don't have new samples to use, send the current frame with
-			 * the remaining values as zero */
-            if(mCurrentBuffer == null)
+            int samplesAvailable = mCurrentBuffer.length - mCurrentBufferPointer;
+
+            if(mSamplesToPurge > 0)
             {
-                remaining = 0;
+                int purge = Math.min(samplesAvailable, mSamplesToPurge);
+
+                mCurrentBufferPointer += purge;
+                mSamplesToPurge -= purge;
             }
             else
             {
-                int samplesAvailable = mCurrentBuffer.length - mCurrentBufferPointer;
+                int fill = Math.min(samplesAvailable, mSamplesToFill);
 
-                while(remaining > 0 && samplesAvailable > 0)
-                {
-                    currentFrame[currentFramePointer++] =
-                        (float) mCurrentBuffer[mCurrentBufferPointer++];
+                System.arraycopy(mCurrentBuffer, mCurrentBufferPointer, mSampleFrame,
+                    mSampleFrame.length - mSamplesToFill, fill);
 
-                    samplesAvailable--;
-                    remaining--;
-                    newFloatsToConsumeThisFrame--;
-                }
+                mCurrentBufferPointer += fill;
+                mSamplesToFill -= fill;
             }
         }
-		
-		/* If the incoming float rate is greater than the fft consumption rate,
-		 * then we have to purge some floats, otherwise, store the previous
-		 * frame, because we have overlapping frames */
-        if(newFloatsToConsumeThisFrame > 0)
-        {
-            purge(newFloatsToConsumeThisFrame);
-        }
-        else
-        {
-            mPreviousFrame = Arrays.copyOf(currentFrame, currentFrame.length);
-        }
 
-        return currentFrame;
+        return true;
     }
 
     private void calculate()
     {
-        float[] samples = getSamples();
-
-        Window.apply(mWindow, samples);
-
-        if(mSampleType == SampleType.REAL)
+        //No samples are consumed until the sample rate is known
+        if(mNewFloatsPerFrame <= 0.0f)
         {
-            mFFT.realForward(samples);
+            releaseCurrentBuffer();
+            clearBuffer();
+            return;
         }
-        else
-        {
-            mFFT.complexForward(samples);
-        }
-
-        dispatch(samples);
-    }
 
-
-    private void purge(int samplesToPurge)
-    {
-        if(samplesToPurge <= 0)
+        if(fillFrame())
         {
-            throw new IllegalArgumentException("DFTProcessor - cannot purge "
-                + "negative sample amount");
-        }
+            float[] window = mWindow;
 
-        while(mRunning.get() && samplesToPurge > 0)
-        {
-            if(mCurrentBuffer == null ||
-                mCurrentBufferPointer >= mCurrentBuffer.length)
+            //The window type can change while a DFT size change is pending
+            if(window.length != mDFTFrame.length)
             {
-                getNextBuffer();
+                setWindowType(mWindowType);
+                window = mWindow;
             }
 
-            if(mCurrentBuffer != null)
+            for(int x = 0; x < mDFTFrame.length; x++)
             {
-                int samplesAvailable = mCurrentBuffer.length - mCurrentBufferPointer;
+                mDFTFrame[x] = mSampleFrame[x] * window[x];
+            }
 
-                if(samplesAvailable >= samplesToPurge)
-                {
-                    mCurrentBufferPointer += samplesToPurge;
-                    samplesToPurge = 0;
-                }
-                else
-                {
-                    samplesToPurge -= samplesAvailable;
-                    mCurrentBufferPointer = mCurrentBuffer.length;
-                }
+            if(mSampleType == SampleType.REAL)
+            {
+                mFFT.realForward(mDFTFrame);
             }
             else
             {
-                samplesToPurge = 0;
+                mFFT.complexForward(mDFTFrame);
             }
+
+            dispatch(mDFTFrame);
+
+            nextFrame();
         }
     }
 
@@ -399,22 +474,34 @@ public class DFTProcessor implements Listener<ComplexBuffer>, IFrequencyChangePr
         @Override
         public void run()
         {
-            try
+            /* Only run if we're not currently running */
+            if(mRunning.compareAndSet(false, true))
             {
-				/* Only run if we're not currently running */
-                if(mRunning.compareAndSet(false, true))
+                try
                 {
                     checkFFTSize();
 
-                    calculate();
-
+                    if(mEnabled)
+                    {
+                        calculate();
+                    }
+                    else if(mCurrentBuffer != null || !mQueue.isEmpty())
+                    {
+                        //Release held samples and start with a new frame when re-enabled
+                        releaseCurrentBuffer();
+                        clearBuffer();
+                        resetFrame();
+                    }
+                }
+                catch(Exception e)
+                {
+                    mLog.error("error during dft processor calculation task", e);
+                }
+                finally
+                {
                     mRunning.set(false);
                 }
             }
-            catch(Exception e)
-            {
-                mLog.error("error during dft processor calculation task", e);
-            }
         }
     }
 
@@ -425,7 +512,7 @@ public class DFTProcessor implements Listener<ComplexBuffer>, IFrequencyChangePr
      */
     private void checkFFTSize()
     {
-        if(mNewDFTSize.getSize() != mDFTSize.getSize())
+        if(mNewDFTSize.getSize() != mDFTSize.getSize() || mSampleFrame == null)
         {
             mDFTSize = mNewDFTSize;
 
@@ -433,14 +520,7 @@ public class DFTProcessor implements Listener<ComplexBuffer>, IFrequencyChangePr
 
             setWindowType(mWindowType);
 
-            if(mSampleType == SampleType.COMPLEX)
-            {
-                mPreviousFrame = new float[mDFTSize.getSize() * 2];
-            }
-            else
-            {
-                mPreviousFrame = new float[mDFTSize.getSize()];
-            }
+            resetFrame();
 
             mFFT = new FloatFFT_1D(mDFTSize.getSize());
         }
@@ -448,7 +528,13 @@ public class DFTProcessor implements Listener<ComplexBuffer>, IFrequencyChangePr
 
     public void clearBuffer()
     {
-        mQueue.clear();
+        ComplexBuffer buffer = mQueue.poll();
+
+        while(buffer != null)
+        {
+            buffer.decrementUserCount();
+            buffer = mQueue.poll();
+        }
     }
 
     @Override
@@ -466,7 +552,7 @@ public class DFTProcessor implements Listener<ComplexBuffer>, IFrequencyChangePr
     }
 
     /**
-     *
+     * Calculates the number of new sample floats to consume for each frame from the sample rate and frame rate
      */
     private void calculateConsumptionRate()
     {
@@ -474,9 +560,5 @@ public class DFTProcessor implements Listener<ComplexBuffer>, IFrequencyChangePr
 
         mNewFloatsPerFrame = ((float) mSampleRate / (float) mFrameRate) *
             (mSampleType == SampleType.COMPLEX ? 2.0f : 1.0f);
-
-        mFFTFloatsPerFrame = (mSampleType == SampleType.COMPLEX ?
-            mDFTSize.getSize() * 2 :
-            mDFTSize.getSize());
     }
 }
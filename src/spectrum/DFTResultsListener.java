@@ -18,7 +18,9 @@
 package spectrum;
 
 /**
- * Interface for passing the output of DFT processing
+ * Interface for passing the output of DFT processing.  Results arrays are
+ * reused by the provider for each DFT results set, so listeners must copy any
+ * results that they retain after the receive method returns.
  */
 public interface DFTResultsListener
 {
@@ -13,6 +13,13 @@ public interface SpectralDisplayAdjuster
 	public int getAveraging();
 	public void setAveraging( int averaging );
 
+	/**
+	 * Peak hold displays the maximum value of each FFT bin since peak hold
+	 * was turned on.
+	 */
+	public boolean isPeakHold();
+	public void setPeakHold( boolean peakHold );
+
 	/**
 	 * Sets the smoothing filter averaging window width.  
 	 * 
@@ -47,6 +47,7 @@ import spectrum.menu.AveragingItem;
 import spectrum.menu.DFTSizeItem;
 import spectrum.menu.FFTWindowTypeItem;
 import spectrum.menu.FrameRateItem;
+import spectrum.menu.PeakHoldItem;
 import spectrum.menu.SmoothingItem;
 import spectrum.menu.SmoothingTypeItem;
 
@@ -59,8 +60,12 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.ComponentEvent;
 import java.awt.event.ComponentListener;
+import java.awt.event.HierarchyEvent;
+import java.awt.event.HierarchyListener;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseWheelEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.Hashtable;
@@ -74,6 +79,7 @@ public class SpectralDisplayPanel extends JPanel implements Listener<ComplexBuff
     private static DecimalFormat sCURSOR_FORMAT = new DecimalFormat("000.00000");
 
     public static final String FFT_SIZE_PROPERTY = "spectral.display.dft.size";
+    public static final String REFRESH_RATE_PROPERTY = "spectral.display.refresh.rate";
     public static final int NO_ZOOM = 0;
     public static final int MAX_ZOOM = 6;
 
@@ -92,6 +98,22 @@ public class SpectralDisplayPanel extends JPanel implements Listener<ComplexBuff
     private ChannelProcessingManager mChannelProcessingManager;
     private SettingsManager mSettingsManager;
     private Tuner mTuner;
+    private javax.swing.Timer mRefreshTimer;
+    private Window mWindow;
+    private WindowAdapter mWindowStateListener = new WindowAdapter()
+    {
+        @Override
+        public void windowIconified(WindowEvent e)
+        {
+            updateProcessing();
+        }
+
+        @Override
+        public void windowDeiconified(WindowEvent e)
+        {
+            updateProcessing();
+        }
+    };
 
     /**
      * Spectral Display Panel provides a frequency component display with a
@@ -103,7 +125,9 @@ public class SpectralDisplayPanel extends JPanel implements Listener<ComplexBuff
      *
      * Complex sample buffers are processed by a DFTProcessor and the output of
      * the DFT is translated to decibels for display in the spectrum and
-     * waterfall components.
+     * waterfall components.  The spectrum and waterfall are refreshed at the
+     * display refresh rate, independent of the DFT frame rate.  DFT processing
+     * is disabled while the panel is not showing or its window is minimized.
      */
     public SpectralDisplayPanel(ChannelModel channelModel,
                                 ChannelProcessingManager channelProcessingManager,
@@ -152,6 +176,8 @@ public class SpectralDisplayPanel extends JPanel implements Listener<ComplexBuff
 
     public void dispose()
     {
+        mRefreshTimer.stop();
+
         /* De-register from receiving samples when the window closes */
         clearTuner();
 
@@ -176,6 +202,59 @@ public class SpectralDisplayPanel extends JPanel implements Listener<ComplexBuff
         mTuner = null;
     }
 
+    @Override
+    public void addNotify()
+    {
+        super.addNotify();
+
+        mWindow = SwingUtilities.getWindowAncestor(this);
+
+        if(mWindow != null)
+        {
+            mWindow.addWindowListener(mWindowStateListener);
+        }
+
+        updateProcessing();
+    }
+
+    @Override
+    public void removeNotify()
+    {
+        if(mWindow != null)
+        {
+            mWindow.removeWindowListener(mWindowStateListener);
+            mWindow = null;
+        }
+
+        super.removeNotify();
+
+        updateProcessing();
+    }
+
+    /**
+     * Enables DFT processing and the display refresh timer while the panel is showing and its window isn't
+     * minimized, and disables them otherwise.
+     */
+    private void updateProcessing()
+    {
+        boolean active = isShowing() &&
+            !(mWindow instanceof Frame && (((Frame)mWindow).getExtendedState() & Frame.ICONIFIED) != 0);
+
+        if(mDFTProcessor != null)
+        {
+            mDFTProcessor.setEnabled(active);
+        }
+
+        if(active)
+        {
+            mRefreshTimer.start();
+        }
+        else
+        {
+            mRefreshTimer.stop();
+        }
+    }
+
     /**
      * Queues an FFT size change request.  The scheduled executor will apply
      * the change when it runs.
@@ -387,6 +466,33 @@ public class SpectralDisplayPanel extends JPanel implements Listener<ComplexBuff
 
         mDFTConverter.addListener((DFTResultsListener) mSpectrumPanel);
         mDFTConverter.addListener((DFTResultsListener) mWaterfallPanel);
+
+        //Processing starts when the panel is showing
+        mDFTProcessor.setEnabled(false);
+
+        int refreshRate = SystemProperties.getInstance().get(REFRESH_RATE_PROPERTY, 25);
+
+        mRefreshTimer = new javax.swing.Timer(1000 / Math.max(refreshRate, 1), new ActionListener()
+        {
+            @Override
+            public void actionPerformed(ActionEvent e)
+            {
+                mSpectrumPanel.refresh();
+                mWaterfallPanel.refresh();
+            }
+        });
+
+        addHierarchyListener(new HierarchyListener()
+        {
+            @Override
+            public void hierarchyChanged(HierarchyEvent e)
+            {
+                if((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0)
+                {
+                    updateProcessing();
+                }
+            }
+        });
     }
 
     /**
@@ -699,6 +805,8 @@ public class SpectralDisplayPanel extends JPanel implements Listener<ComplexBuff
                         new AveragingItem(mSpectrumPanel, 4));
                     displayMenu.add(averagingMenu);
 
+                    displayMenu.add(new PeakHoldItem(mSpectrumPanel));
+
                     /**
                      * Channel Display setting menu
                      */
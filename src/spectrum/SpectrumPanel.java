@@ -38,6 +38,7 @@ import java.awt.*;
 import java.awt.geom.GeneralPath;
 import java.awt.geom.Line2D;
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class SpectrumPanel extends JPanel implements DFTResultsListener, SettingChangeListener, SpectralDisplayAdjuster
 {
@@ -64,9 +65,21 @@ public class SpectrumPanel extends JPanel implements DFTResultsListener, Setting
     //Current DFT output bins in dB
     private float[] mDisplayFFTBins = new float[1];
 
+    //Smoothed copy of the most recent DFT result set
+    private float[] mSmoothedFFTBins = new float[1];
+
+    //Maximum value of each bin while peak hold is on
+    private float[] mPeakFFTBins = new float[1];
+
     //Averaging across multiple DFT result sets
     private int mAveraging = 4;
 
+    private boolean mPeakHold = false;
+    private boolean mPeakHoldReset = true;
+
+    //Set when new DFT results arrive and cleared when the display is refreshed
+    private AtomicBoolean mUpdated = new AtomicBoolean();
+
     //Smoothing across bins in the same DFT result set
     private SmoothingFilter mSmoothingFilter = new GaussianSmoothingFilter();
 
@@ -109,44 +122,89 @@ public class SpectrumPanel extends JPanel implements DFTResultsListener, Setting
 
     /**
      * DFTResultsListener interface for receiving the processed data
-     * to display
+     * to display.  Smoothing, averaging and peak hold are applied in place to
+     * arrays that are only reallocated when the DFT size changes.  The display
+     * is repainted by the refresh method, independent of the DFT results rate.
      */
     public void receive(float[] currentFFTBins)
     {
+        int length = currentFFTBins.length;
+
+        //Construct and/or resize our DFT results variables
+        boolean resized = mDisplayFFTBins == null || mDisplayFFTBins.length != length;
+
+        if(resized)
+        {
+            mSmoothedFFTBins = new float[length];
+            mPeakFFTBins = new float[length];
+        }
+
+        float[] smoothedBins = mSmoothedFFTBins;
+
         //Prevent arrays of NaN values from being rendered.  The first few
         //DFT result sets on startup will contain NaN values
         if(Float.isInfinite(currentFFTBins[0]) || Float.isNaN(currentFFTBins[0]))
         {
-            currentFFTBins = new float[currentFFTBins.length];
+            Arrays.fill(smoothedBins, 0.0f);
         }
-
-        //Construct and/or resize our DFT results variables
-        if(mDisplayFFTBins == null ||
-            mDisplayFFTBins.length != currentFFTBins.length)
+        else
         {
-            mDisplayFFTBins = currentFFTBins;
+            //Apply smoothing across the bins of the DFT results
+            mSmoothingFilter.filter(currentFFTBins, smoothedBins);
         }
 
-        //Apply smoothing across the bins of the DFT results
-        float[] smoothedBins = mSmoothingFilter.filter(currentFFTBins);
+        float[] displayBins = resized ? new float[length] : mDisplayFFTBins;
 
         //Apply averaging over multiple DFT output frames
-        if(mAveraging > 1)
+        if(mAveraging > 1 && !resized)
         {
             float gain = 1.0f / (float)mAveraging;
 
-            for(int x = 0; x < mDisplayFFTBins.length; x++)
+            for(int x = 0; x < length; x++)
             {
-                mDisplayFFTBins[x] +=
-                    (smoothedBins[x] - mDisplayFFTBins[x]) * gain;
+                displayBins[x] += (smoothedBins[x] - displayBins[x]) * gain;
             }
         }
         else
         {
-            mDisplayFFTBins = smoothedBins;
+            System.arraycopy(smoothedBins, 0, displayBins, 0, length);
         }
 
-        repaint();
+        if(mPeakHold)
+        {
+            float[] peakBins = mPeakFFTBins;
+
+            if(mPeakHoldReset || resized)
+            {
+                System.arraycopy(displayBins, 0, peakBins, 0, length);
+                mPeakHoldReset = false;
+            }
+            else
+            {
+                for(int x = 0; x < length; x++)
+                {
+                    if(displayBins[x] > peakBins[x])
+                    {
+                        peakBins[x] = displayBins[x];
+                    }
+                }
+            }
+        }
+
+        mDisplayFFTBins = displayBins;
+
+        mUpdated.set(true);
+    }
+
+    /**
+     * Repaints the display if new DFT results have arrived since the previous refresh.  Swing event thread only.
+     */
+    public void refresh()
+    {
+        if(mUpdated.getAndSet(false))
+        {
+            repaint();
+        }
     }
 
     @Override
@@ -195,39 +253,15 @@ public class SpectrumPanel extends JPanel implements DFTResultsListener, Setting
         //Draw to the lower left
         spectrumShape.lineTo(0, size.getHeight() - mSpectrumInset);
 
-        float[] bins = getBins();
+        float[] bins = mDisplayFFTBins;
 
         //If we have FFT data to display ...
         if(bins != null)
         {
-            float insideHeight = size.height - mSpectrumInset;
-
-            float scalor = insideHeight / -mDBScale;
-
-    		/* Calculate based on bin size - 1, since bin 0 is rendered at zero
-             * and the last bin is rendered at the width */
-            float binSize = (float)size.width / ((float)(bins.length));
-
-            for(int x = 0; x < bins.length; x++)
-            {
-                float height;
-
-                height = bins[x] * scalor;
+            int length = bins.length / getZoomMultiplier();
+            int offset = getZoomOffset(bins.length, length);
 
-                if(height > insideHeight)
-                {
-                    height = insideHeight;
-                }
-
-                if(height < 0)
-                {
-                    height = 0;
-                }
-
-                float xAxis = (float)x * binSize;
-
-                spectrumShape.lineTo(xAxis, height);
-            }
+            lineTo(spectrumShape, bins, offset, length, size);
         }
         //Otherwise show an empty spectrum
         else
@@ -255,6 +289,66 @@ public class SpectrumPanel extends JPanel implements DFTResultsListener, Setting
             size.height - mSpectrumInset,
             size.width,
             size.height - mSpectrumInset));
+
+        float[] peakBins = mPeakFFTBins;
+
+        //Draw the peak hold line over the spectrum
+        if(mPeakHold && !mPeakHoldReset && bins != null && peakBins.length == bins.length)
+        {
+            int length = peakBins.length / getZoomMultiplier();
+            int offset = getZoomOffset(peakBins.length, length);
+
+            GeneralPath peakLine = new GeneralPath();
+            peakLine.moveTo(0, getHeight(peakBins[offset], size));
+            lineTo(peakLine, peakBins, offset, length, size);
+
+            graphics.draw(peakLine);
+        }
+    }
+
+    /**
+     * Adds a line segment to the path for each of the bins in the zoom window
+     *
+     * @param path to extend
+     * @param bins in dB
+     * @param offset of the first bin to draw
+     * @param length number of bins to draw
+     * @param size of the panel
+     */
+    private void lineTo(GeneralPath path, float[] bins, int offset, int length, Dimension size)
+    {
+        /* Calculate based on bin size - 1, since bin 0 is rendered at zero
+         * and the last bin is rendered at the width */
+        float binSize = (float)size.width / ((float)(length));
+
+        for(int x = 0; x < length; x++)
+        {
+            float xAxis = (float)x * binSize;
+
+            path.lineTo(xAxis, getHeight(bins[offset + x], size));
+        }
+    }
+
+    /**
+     * Y-axis pixel location for a bin value, limited to the inside of the panel
+     */
+    private float getHeight(float bin, Dimension size)
+    {
+        float insideHeight = size.height - mSpectrumInset;
+
+        float height = bin * (insideHeight / -mDBScale);
+
+        if(height > insideHeight)
+        {
+            height = insideHeight;
+        }
+
+        if(height < 0)
+        {
+            height = 0;
+        }
+
+        return height;
     }
 
     /**
@@ -316,6 +410,24 @@ public class SpectrumPanel extends JPanel implements DFTResultsListener, Setting
         return mAveraging;
     }
 
+    @Override
+    public boolean isPeakHold()
+    {
+        return mPeakHold;
+    }
+
+    /**
+     * Turns peak hold on or off.  Turning peak hold on starts with the current bin values.
+     */
+    @Override
+    public void setPeakHold(boolean peakHold)
+    {
+        mPeakHoldReset = true;
+        mPeakHold = peakHold;
+
+        repaint();
+    }
+
     /**
      * Clears the spectral display
      */
@@ -386,33 +498,26 @@ public class SpectrumPanel extends JPanel implements DFTResultsListener, Setting
     }
 
     /**
-     * Returns the DFT result bins, or a zoomed and offset version of the bins
-     * when the display is zoomed.
+     * Returns the index of the first bin to display when the display is zoomed
+     *
+     * @param binCount of the DFT result bins
+     * @param length of the zoom window in bins
      */
-    private float[] getBins()
+    private int getZoomOffset(int binCount, int length)
     {
-        if(mZoom == 0)
+        int offset = mZoomWindowOffset;
+
+        if((offset + length) >= binCount)
         {
-            return mDisplayFFTBins;
+            offset = binCount - length;
         }
-        else
-        {
-            int length = mDisplayFFTBins.length / getZoomMultiplier();
-
-            int offset = mZoomWindowOffset;
-
-            if((offset + length) >= mDisplayFFTBins.length)
-            {
-                offset = mDisplayFFTBins.length - length;
-            }
-
-            if(offset < 0)
-            {
-                offset = 0;
-            }
 
-            return Arrays.copyOfRange(mDisplayFFTBins, offset, offset + length);
+        if(offset < 0)
+        {
+            offset = 0;
         }
+
+        return offset;
     }
 
     @Override
@@ -18,7 +18,6 @@
 package spectrum;
 
 import java.awt.Color;
-import java.awt.EventQueue;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.Image;
@@ -27,6 +26,7 @@ import java.awt.geom.Line2D;
 import java.awt.image.ColorModel;
 import java.awt.image.MemoryImageSource;
 import java.text.DecimalFormat;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.swing.JPanel;
 
@@ -52,7 +52,6 @@ public class WaterfallPanel extends JPanel implements DFTResultsListener,
 	private static final String PAUSED = "PAUSED";
 
 	private byte[] mPixels;
-	private byte[] mPausedPixels;
     private int mDFTSize = 4096;
     private int mImageHeight = 700;
     private MemoryImageSource mMemoryImageSource;
@@ -60,6 +59,16 @@ public class WaterfallPanel extends JPanel implements DFTResultsListener,
 	private Color mColorSpectrumCursor;
     private Image mWaterfallImage;
 
+    //The pixel rows are a circular buffer.  The newest row is displayed at the
+    //top of the panel, followed by the older rows in wrapping row order.
+    private volatile int mNewestRow = 0;
+
+    //Newest row that has been sent to the image and is displayed
+    private int mDisplayedRow = 0;
+
+    //Rows written since the image was last updated
+    private AtomicInteger mPendingRows = new AtomicInteger();
+
 	private Point mCursorLocation = new Point( 0, 0 );
 	private boolean mCursorVisible = false;
 	private long mCursorFrequency = 0;
@@ -74,6 +83,10 @@ public class WaterfallPanel extends JPanel implements DFTResultsListener,
 	 * time.  Maps DFT frequency bin decibel values into a 256 bucket color map 
 	 * for display.
 	 * 
+	 * Each DFT result set overwrites the oldest row of the pixel buffer, so 
+	 * the existing rows are never moved.  The image is updated with the new
+	 * rows by the refresh method, independent of the DFT results rate.
+	 * 
 	 * @param settingsManager
 	 */
 	public WaterfallPanel( SettingsManager settingsManager )
@@ -110,6 +123,9 @@ public class WaterfallPanel extends JPanel implements DFTResultsListener,
 	private void reset()
 	{
 		mPixels = new byte[ mDFTSize * mImageHeight ];
+		mNewestRow = 0;
+		mDisplayedRow = 0;
+		mPendingRows.set( mImageHeight );
 
 		mMemoryImageSource = new MemoryImageSource( mDFTSize, 
 				mImageHeight,
@@ -126,16 +142,20 @@ public class WaterfallPanel extends JPanel implements DFTResultsListener,
 	}
 	
 	/**
-	 * Pausable interface - pauses updates to the waterfall
+	 * Pausable interface - pauses updates to the waterfall.  The image is not
+	 * updated while paused, so it continues to show the rows at the time of
+	 * the pause.
 	 */
 	public void setPaused( boolean paused )
 	{
-		if( paused )
+		mPaused = paused;
+
+		if( !paused )
 		{
-			mPausedPixels = mPixels.clone();
+			mPendingRows.set( mImageHeight );
+			
+			refresh();
 		}
-
-		mPaused = paused;
 		
 		repaint();
 	}
@@ -292,13 +312,25 @@ public class WaterfallPanel extends JPanel implements DFTResultsListener,
 
 		int offset = (int)( getPixelOffset( multiplier ) - binPixelWidth );
 
+		int width = ( getWidth() * multiplier ) + (int)binPixelWidth;
+
+		int newestRows = mImageHeight - mDisplayedRow;
+
+		//Draw the newest row through the last buffer row at the top, followed
+		//by the first buffer row through the oldest row
 		g.drawImage( mWaterfallImage, 
-					 offset, 
-					 0, 
-					 ( getWidth() * multiplier ) + (int)binPixelWidth, 
-					 mImageHeight,
+					 offset, 0, offset + width, newestRows,
+					 0, mDisplayedRow, mDFTSize, mImageHeight,
 					 this );
 
+		if( mDisplayedRow > 0 )
+		{
+			g.drawImage( mWaterfallImage, 
+						 offset, newestRows, offset + width, mImageHeight,
+						 0, 0, mDFTSize, mDisplayedRow,
+						 this );
+		}
+
     	Graphics2D graphics = (Graphics2D) g;
 
     	graphics.setColor( mColorSpectrumCursor );
@@ -379,9 +411,15 @@ public class WaterfallPanel extends JPanel implements DFTResultsListener,
 			reset();
 		}
 
-		//Move the pixels down a row to make room for the new results
-		System.arraycopy( mPixels, 0, 
-				mPixels, mDFTSize, mPixels.length - mDFTSize );
+		//Overwrite the oldest row with the new results
+		int row = mNewestRow - 1;
+
+		if( row < 0 )
+		{
+			row = mImageHeight - 1;
+		}
+
+		int rowOffset = row * mDFTSize;
 		
 		/**
 		 * Find the average value and scale the display to it
@@ -403,36 +441,60 @@ public class WaterfallPanel extends JPanel implements DFTResultsListener,
 
 			if( value < 0 )
 			{
-				mPixels[ x ] = 0;
+				mPixels[ rowOffset + x ] = 0;
 			}
 			else if( value > 255 )
 			{
-				mPixels[ x ] = (byte)255;
+				mPixels[ rowOffset + x ] = (byte)255;
 			}
 			else
 			{
-				mPixels[ x ] = (byte)value;
+				mPixels[ rowOffset + x ] = (byte)value;
 			}
 		}
 
-		//Task the swing event thread to update the display
-		EventQueue.invokeLater( new Runnable() 
-		{
-			@Override
-            public void run()
-            {
-				if( mMemoryImageSource != null )
-				{
-					if( mPaused )
-					{
-						mMemoryImageSource.newPixels( mPausedPixels, mColorModel, 0, mDFTSize );
-					}
-					else
-					{
-						mMemoryImageSource.newPixels( mPixels, mColorModel, 0, mDFTSize );
-					}
-				}
-            }
-		} );
+		mNewestRow = row;
+		mPendingRows.incrementAndGet();
     }
+
+	/**
+	 * Updates the image with the rows received since the previous refresh and
+	 * repaints the panel.  Does nothing while paused or when no new rows have
+	 * been received.  Swing event thread only.
+	 */
+	public void refresh()
+	{
+		if( mPaused || mMemoryImageSource == null )
+		{
+			return;
+		}
+
+		int rows = mPendingRows.getAndSet( 0 );
+
+		if( rows > 0 )
+		{
+			int newestRow = mNewestRow;
+
+			if( rows >= mImageHeight )
+			{
+				mMemoryImageSource.newPixels();
+			}
+			else if( newestRow + rows <= mImageHeight )
+			{
+				mMemoryImageSource.newPixels( 0, newestRow, mDFTSize, rows );
+			}
+			else
+			{
+				//The new rows wrap around the end of the pixel buffer
+				int firstRows = mImageHeight - newestRow;
+
+				mMemoryImageSource.newPixels( 0, newestRow, mDFTSize, firstRows );
+				mMemoryImageSource.newPixels( 0, 0, mDFTSize, rows - firstRows );
+			}
+
+			mDisplayedRow = newestRow;
+
+			repaint();
+		}
+	}
 }
@@ -59,10 +59,13 @@ package spectrum.converter;
  */
 public class ComplexDecibelConverter extends DFTResultsConverter
 {
+	private float[] mProcessed = new float[ 0 ];
+
 	/**
 	 * Converts the output of the JTransforms FloatFFT_1D.complexForward()
 	 * calculation into the power spectrum in decibels, normalized to the 
-	 * sample bit depth.
+	 * sample bit depth.  The converted results array is reused for each
+	 * DFT results set, so listeners must copy any results that they retain.
 	 */
 	public ComplexDecibelConverter()
 	{
@@ -73,37 +76,49 @@ public class ComplexDecibelConverter extends DFTResultsConverter
     {
 		int halfResults = results.length / 2;
 		
-//		float dftBinSizeScalor = 1.0f / (float)Math.pow( halfResults, 2.0 );
-		float dftBinSizeScalor = 1.0f / (float)halfResults;
-		
-		float[] processed = new float[ halfResults ];
+		if( mProcessed.length != halfResults )
+		{
+			mProcessed = new float[ halfResults ];
+		}
+
+		float[] processed = mProcessed;
+
+		//Scaling the power by the DFT bin size is the same as adding the 
+		//scalor in decibels to the unscaled power in decibels
+		float dftBinSizeScalor = 10.0f * (float)Math.log10( 1.0 / (double)halfResults );
 
 		int middle = processed.length / 2;
 		
-		for( int x = 0; x < results.length; x += 2 )
-		{
-			//Calculate the magnitude squared (power) value from each bin's real 
-			//and imaginary value and scale it to the DFT bin size squared.
-			//Convert the scaled value to decibels.
-			float decibels = 10.0f * (float)Math.log10( 
-				( ( results[ x ] * results[ x ] ) + 
-				  ( results[ x + 1 ] * results[ x + 1 ] ) ) * dftBinSizeScalor ); 
+		//We have to swap the upper and lower halves of the JTransforms
+		//DFT results for correct display
+		convert( results, 0, middle, processed, middle, dftBinSizeScalor );
+		convert( results, middle, halfResults, processed, -middle, dftBinSizeScalor );
 
-			// We have to swap the upper and lower halves of the JTransforms
-			// DFT results for correct display
-			
-			int index = x / 2;
-			
-			if( index >= middle )
-			{
-				processed[ index - middle ] = decibels;
-			}
-			else
-			{
-				processed[ index + middle ] = decibels;
-			}
-		}
-		
 		dispatch( processed );
     }
+
+	/**
+	 * Calculates the magnitude squared (power) value from each bin's real 
+	 * and imaginary value, converts it to decibels and scales it to the DFT 
+	 * bin size.
+	 * 
+	 * @param results - complex DFT results
+	 * @param start bin index
+	 * @param end bin index, exclusive
+	 * @param processed - converted bins
+	 * @param offset from the bin index to the converted bin index
+	 * @param scalor in decibels
+	 */
+	private static void convert( float[] results, int start, int end, 
+			float[] processed, int offset, float scalor )
+	{
+		for( int index = start; index < end; index++ )
+		{
+			int x = index * 2;
+
+			processed[ index + offset ] = 10.0f * (float)Math.log10( 
+				( results[ x ] * results[ x ] ) + 
+				( results[ x + 1 ] * results[ x + 1 ] ) ) + scalor; 
+		}
+	}
 }
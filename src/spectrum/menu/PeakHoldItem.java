@@ -0,0 +1,33 @@
+package spectrum.menu;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+
+import javax.swing.JCheckBoxMenuItem;
+
+import spectrum.SpectralDisplayAdjuster;
+
+public class PeakHoldItem extends JCheckBoxMenuItem
+{
+	private static final long serialVersionUID = 1L;
+	
+	private SpectralDisplayAdjuster mAdjuster;
+	
+	public PeakHoldItem( SpectralDisplayAdjuster adjuster )
+	{
+		super( "Peak Hold" );
+		
+		mAdjuster = adjuster;
+	
+		setSelected( mAdjuster.isPeakHold() );
+
+		addActionListener( new ActionListener()
+		{
+			@Override
+			public void actionPerformed( ActionEvent e )
+			{
+				mAdjuster.setPeakHold( isSelected() );
+			}
+		} );
+	}
+}
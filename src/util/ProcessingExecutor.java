@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class ProcessingExecutor
+{
+    private final static Logger mLog = LoggerFactory.getLogger(ProcessingExecutor.class);
+
+    private final List<ProcessingWorker> mWorkers = new ArrayList<>();
+
+    /**
+     * Fixed set of processing worker threads that share event-driven tasks.  Each task is assigned to the worker
+     * with the fewest tasks when it is created and always runs on that worker, so that a task's state stays with
+     * one thread and a single-consumer queue feeding the task has exactly one consumer thread.
+     *
+     * @param name prefix for the worker threads
+     * @param threadCount number of worker threads
+     * @param priority of the worker threads
+     */
+    public ProcessingExecutor(String name, int threadCount, int priority)
+    {
+        for(int x = 0; x < threadCount; x++)
+        {
+            ProcessingWorker worker = new ProcessingWorker(name + "-" + (x + 1), priority);
+            worker.start();
+            mWorkers.add(worker);
+        }
+    }
+
+    /**
+     * Creates a task and assigns it to the least loaded worker
+     *
+     * @param name of the task
+     * @param runnable to run each time the task is signalled
+     * @param idleInterval maximum time between runs when the task is not signalled, or 0 to only run when signalled
+     * @param timeUnit for the idle interval
+     */
+    public synchronized ProcessingTask createTask(String name, Runnable runnable, long idleInterval, TimeUnit timeUnit)
+    {
+        ProcessingWorker selected = mWorkers.get(0);
+
+        for(ProcessingWorker worker : mWorkers)
+        {
+            if(worker.getTaskCount() < selected.getTaskCount())
+            {
+                selected = worker;
+            }
+        }
+
+        return selected.createTask(name, runnable, idleInterval, timeUnit);
+    }
+
+    /**
+     * Worker threads for this executor
+     */
+    public List<ProcessingWorker> getWorkers()
+    {
+        return Collections.unmodifiableList(mWorkers);
+    }
+
+    /**
+     * Logs the run time and lateness statistics for each task
+     */
+    public void logStatistics()
+    {
+        for(ProcessingWorker worker : mWorkers)
+        {
+            for(ProcessingTask task : worker.getTasks())
+            {
+                mLog.info(worker.getName() + " - " + task.toString());
+            }
+        }
+    }
+
+    /**
+     * Stops all worker threads
+     */
+    public void shutdown()
+    {
+        for(ProcessingWorker worker : mWorkers)
+        {
+            worker.stop();
+        }
+    }
+}
@@ -0,0 +1,167 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class ProcessingTask
+{
+    private final ProcessingWorker mWorker;
+    private final Runnable mRunnable;
+    private final String mName;
+    private final long mIdleIntervalNanos;
+
+    private final AtomicBoolean mSignalled = new AtomicBoolean();
+    private volatile boolean mCancelled;
+    private volatile long mSignalTime;
+    private long mLastRunTime = System.nanoTime();
+
+    private final TimingHistogram mRunTimeHistogram = new TimingHistogram();
+    private final TimingHistogram mLatenessHistogram = new TimingHistogram();
+
+    /**
+     * Event-driven task that runs on a processing worker thread each time it is signalled.  Multiple signals that
+     * arrive before the task runs are combined into a single run.  A signal that arrives while the task is running
+     * causes the task to run again, so the runnable should process all available work each time it runs.
+     *
+     * Use ProcessingWorker.createTask() to create tasks.
+     *
+     * @param worker that runs this task
+     * @param runnable to run
+     * @param name of the task for logging
+     * @param idleInterval maximum time between runs when the task is not signalled, or 0 to only run when signalled
+     * @param timeUnit for the idle interval
+     */
+    ProcessingTask(ProcessingWorker worker, Runnable runnable, String name, long idleInterval, TimeUnit timeUnit)
+    {
+        mWorker = worker;
+        mRunnable = runnable;
+        mName = name;
+        mIdleIntervalNanos = timeUnit.toNanos(idleInterval);
+    }
+
+    /**
+     * Signals that work is available for this task.  Safe to invoke from any thread.
+     */
+    public void signal()
+    {
+        if(!mCancelled && mSignalled.compareAndSet(false, true))
+        {
+            mSignalTime = System.nanoTime();
+            mWorker.schedule(this);
+        }
+    }
+
+    /**
+     * Cancels this task.  A run that is already in progress is allowed to complete.
+     */
+    public void cancel()
+    {
+        mCancelled = true;
+        mWorker.remove(this);
+    }
+
+    public boolean isCancelled()
+    {
+        return mCancelled;
+    }
+
+    public String getName()
+    {
+        return mName;
+    }
+
+    /**
+     * Time spent running the task for each run
+     */
+    public TimingHistogram getRunTimeHistogram()
+    {
+        return mRunTimeHistogram;
+    }
+
+    /**
+     * Time from signal (or idle interval expiration) until the task started running
+     */
+    public TimingHistogram getLatenessHistogram()
+    {
+        return mLatenessHistogram;
+    }
+
+    /**
+     * Runs the task in response to a signal.  Worker thread only.
+     */
+    void runSignalled()
+    {
+        //Clear the signal before running so that any signal received while running schedules another run
+        mSignalled.set(false);
+
+        run(mSignalTime);
+    }
+
+    /**
+     * Runs the task if the idle interval has expired.  Worker thread only.
+     *
+     * @return nanoseconds until this task should next be checked for idle expiration
+     */
+    long runIfIdle(long now)
+    {
+        if(mIdleIntervalNanos <= 0)
+        {
+            return Long.MAX_VALUE;
+        }
+
+        long due = mLastRunTime + mIdleIntervalNanos;
+
+        if(due - now <= 0)
+        {
+            run(due);
+            return mIdleIntervalNanos;
+        }
+
+        return due - now;
+    }
+
+    /**
+     * Runs the task and records the lateness and run time measurements
+     *
+     * @param scheduledTime that the task should have started
+     */
+    private void run(long scheduledTime)
+    {
+        if(mCancelled)
+        {
+            return;
+        }
+
+        long start = System.nanoTime();
+        mLatenessHistogram.add(start - scheduledTime);
+
+        mRunnable.run();
+
+        mLastRunTime = System.nanoTime();
+        mRunTimeHistogram.add(mLastRunTime - start);
+    }
+
+    @Override
+    public String toString()
+    {
+        return mName + " run time [" + mRunTimeHistogram + "] lateness [" + mLatenessHistogram + "]";
+    }
+}
@@ -0,0 +1,211 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+public class ProcessingWorker implements Runnable
+{
+    private final static Logger mLog = LoggerFactory.getLogger(ProcessingWorker.class);
+
+    //Maximum park duration, so that idle interval checks occur for tasks added while parked
+    private static final long MAXIMUM_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final String mName;
+    private final int mPriority;
+    private final ConcurrentLinkedQueue<ProcessingTask> mReadyTasks = new ConcurrentLinkedQueue<>();
+    private final List<ProcessingTask> mTasks = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean mRunning = new AtomicBoolean();
+    private volatile Thread mThread;
+    private volatile boolean mParked;
+
+    /**
+     * Dedicated processing thread that runs tasks when they are signalled that work is available, instead of
+     * polling the task on a fixed schedule.  Signalled tasks run in the order that they were signalled.  Tasks with
+     * an idle interval are also run when they have not run within that interval, so that periodic (heartbeat)
+     * processing continues when no work arrives.
+     *
+     * @param name of the worker thread
+     * @param priority of the worker thread
+     */
+    public ProcessingWorker(String name, int priority)
+    {
+        mName = name;
+        mPriority = priority;
+    }
+
+    /**
+     * Creates a task that runs on this worker
+     *
+     * @param name of the task
+     * @param runnable to run each time the task is signalled
+     * @param idleInterval maximum time between runs when the task is not signalled, or 0 to only run when signalled
+     * @param timeUnit for the idle interval
+     */
+    public ProcessingTask createTask(String name, Runnable runnable, long idleInterval, TimeUnit timeUnit)
+    {
+        ProcessingTask task = new ProcessingTask(this, runnable, name, idleInterval, timeUnit);
+        mTasks.add(task);
+        return task;
+    }
+
+    /**
+     * Number of tasks assigned to this worker
+     */
+    public int getTaskCount()
+    {
+        return mTasks.size();
+    }
+
+    /**
+     * Tasks assigned to this worker
+     */
+    public List<ProcessingTask> getTasks()
+    {
+        return mTasks;
+    }
+
+    public String getName()
+    {
+        return mName;
+    }
+
+    /**
+     * Starts the worker thread.  Subsequent calls while running are ignored.
+     */
+    public void start()
+    {
+        if(mRunning.compareAndSet(false, true))
+        {
+            Thread thread = new Thread(this, mName);
+            thread.setDaemon(true);
+            thread.setPriority(mPriority);
+            mThread = thread;
+            thread.start();
+        }
+    }
+
+    /**
+     * Stops the worker thread.  A task run that is in progress is allowed to complete.
+     */
+    public void stop()
+    {
+        if(mRunning.compareAndSet(true, false))
+        {
+            Thread thread = mThread;
+
+            if(thread != null)
+            {
+                LockSupport.unpark(thread);
+            }
+
+            mThread = null;
+        }
+    }
+
+    public boolean isRunning()
+    {
+        return mRunning.get();
+    }
+
+    /**
+     * Queues the signalled task to run and wakes the worker thread if it is parked
+     */
+    void schedule(ProcessingTask task)
+    {
+        mReadyTasks.offer(task);
+
+        if(mParked)
+        {
+            Thread thread = mThread;
+
+            if(thread != null)
+            {
+                LockSupport.unpark(thread);
+            }
+        }
+    }
+
+    /**
+     * Removes the task from this worker
+     */
+    void remove(ProcessingTask task)
+    {
+        mTasks.remove(task);
+        mReadyTasks.remove(task);
+    }
+
+    @Override
+    public void run()
+    {
+        while(mRunning.get())
+        {
+            try
+            {
+                ProcessingTask task = mReadyTasks.poll();
+
+                if(task != null)
+                {
+                    task.runSignalled();
+                }
+                else
+                {
+                    long parkNanos = MAXIMUM_PARK_NANOS;
+                    long now = System.nanoTime();
+
+                    for(ProcessingTask idleTask : mTasks)
+                    {
+                        parkNanos = Math.min(parkNanos, idleTask.runIfIdle(now));
+                    }
+
+                    if(parkNanos > 0)
+                    {
+                        mParked = true;
+
+                        //Recheck after announcing the park so that a task signalled in between is not missed
+                        if(mReadyTasks.isEmpty() && mRunning.get())
+                        {
+                            LockSupport.parkNanos(this, parkNanos);
+                        }
+
+                        mParked = false;
+                    }
+                }
+            }
+            catch(Throwable throwable)
+            {
+                mLog.error("Error while running task on processing thread [" + mName + "]", throwable);
+            }
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return "Processing worker [" + mName + "] tasks:" + mTasks.size();
+    }
+}
@@ -21,6 +21,7 @@ package util;
 import controller.NamingThreadFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import properties.SystemProperties;
 
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -29,8 +30,11 @@ public class ThreadPool
 {
     private final static Logger mLog = LoggerFactory.getLogger(ThreadPool.class);
 
+    public static final String CHANNEL_THREAD_COUNT_PROPERTY = "processing.channel.threads";
+
     private static int CORES = Runtime.getRuntime().availableProcessors();
     public static ScheduledExecutorService SCHEDULED;
+    private static ProcessingExecutor CHANNEL_PROCESSING;
 
     static
     {
@@ -47,6 +51,29 @@ public class ThreadPool
     {
     }
 
+    /**
+     * Event-driven executor for channel sample processing tasks.  Created on first use with the number of threads
+     * specified by the channel thread count system property, defaulting to the number of available cores.
+     */
+    public static synchronized ProcessingExecutor getChannelExecutor()
+    {
+        if(CHANNEL_PROCESSING == null)
+        {
+            int threads = SystemProperties.getInstance().get(CHANNEL_THREAD_COUNT_PROPERTY, CORES);
+
+            if(threads < 1)
+            {
+                threads = CORES;
+            }
+
+            CHANNEL_PROCESSING = new ProcessingExecutor("sdrtrunk channel", threads, Thread.NORM_PRIORITY);
+
+            mLog.info("Channel processing executor created with [" + threads + "] threads");
+        }
+
+        return CHANNEL_PROCESSING;
+    }
+
     public static void logSettings()
     {
         mLog.info("Application thread pool created with [" + CORES + "] threads");
@@ -0,0 +1,156 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package util;
+
+import java.util.concurrent.TimeUnit;
+
+public class TimingHistogram
+{
+    //Bucket upper bounds are powers of two microseconds: <1, <2, <4 ... <2^(BUCKETS-2) us and overflow
+    private static final int BUCKETS = 26;
+
+    private long[] mBuckets = new long[BUCKETS];
+    private volatile long mCount;
+    private volatile long mTotalNanos;
+    private volatile long mMaxNanos;
+
+    /**
+     * Histogram of timing measurements (run times or scheduling latency) using logarithmic (power of two)
+     * microsecond buckets.  Measurements are added by a single thread, while the statistics can be read from any
+     * thread.  Reads are not synchronized with updates and may be off by the most recent measurement.
+     */
+    public TimingHistogram()
+    {
+    }
+
+    /**
+     * Adds a measurement to the histogram
+     *
+     * @param nanoseconds elapsed
+     */
+    public void add(long nanoseconds)
+    {
+        if(nanoseconds < 0)
+        {
+            nanoseconds = 0;
+        }
+
+        long micros = nanoseconds / 1000;
+
+        int bucket = (micros == 0) ? 0 : 64 - Long.numberOfLeadingZeros(micros);
+
+        if(bucket >= BUCKETS)
+        {
+            bucket = BUCKETS - 1;
+        }
+
+        mBuckets[bucket]++;
+        mCount++;
+        mTotalNanos += nanoseconds;
+
+        if(nanoseconds > mMaxNanos)
+        {
+            mMaxNanos = nanoseconds;
+        }
+    }
+
+    /**
+     * Number of measurements
+     */
+    public long getCount()
+    {
+        return mCount;
+    }
+
+    /**
+     * Average measurement in microseconds
+     */
+    public double getMeanMicroseconds()
+    {
+        long count = mCount;
+
+        return count > 0 ? (double)mTotalNanos / count / 1000.0 : 0.0;
+    }
+
+    /**
+     * Largest measurement in microseconds
+     */
+    public long getMaxMicroseconds()
+    {
+        return TimeUnit.NANOSECONDS.toMicros(mMaxNanos);
+    }
+
+    /**
+     * Approximate percentile value in microseconds.  Returns the upper bound of the bucket that contains the
+     * percentile, or the maximum measurement when the percentile falls in the overflow bucket.
+     *
+     * @param percentile in range 0.0 to 1.0
+     */
+    public long getPercentileMicroseconds(double percentile)
+    {
+        long count = mCount;
+
+        if(count == 0)
+        {
+            return 0;
+        }
+
+        long threshold = (long)Math.ceil(count * percentile);
+        long cumulative = 0;
+
+        for(int x = 0; x < BUCKETS - 1; x++)
+        {
+            cumulative += mBuckets[x];
+
+            if(cumulative >= threshold)
+            {
+                return 1L << x;
+            }
+        }
+
+        return getMaxMicroseconds();
+    }
+
+    /**
+     * Bucket counts.  Bucket 0 counts measurements under 1 microsecond and bucket n counts measurements from
+     * 2^(n-1) up to 2^n microseconds, with the final bucket counting all larger measurements.
+     */
+    public long[] getBuckets()
+    {
+        return mBuckets.clone();
+    }
+
+    /**
+     * Resets all measurements
+     */
+    public void reset()
+    {
+        mBuckets = new long[BUCKETS];
+        mCount = 0;
+        mTotalNanos = 0;
+        mMaxNanos = 0;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("count:%d mean:%.1fus p50:%dus p99:%dus max:%dus", getCount(), getMeanMicroseconds(),
+            getPercentileMicroseconds(0.5), getPercentileMicroseconds(0.99), getMaxMicroseconds());
+    }
+}